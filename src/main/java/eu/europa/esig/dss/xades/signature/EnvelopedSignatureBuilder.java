@@ -22,6 +22,7 @@
  */
 package eu.europa.esig.dss.xades.signature;
 
+import eu.europa.esig.dss.xml.utils.DOMDocument;
 import eu.europa.esig.dss.xml.utils.DomUtils;
 import eu.europa.esig.dss.model.DSSDocument;
 import eu.europa.esig.dss.spi.validation.CertificateVerifier;
@@ -56,6 +57,15 @@ class EnvelopedSignatureBuilder extends XPathPlacementSignatureBuilder {
      */
     @Override
     protected Document buildRootDocumentDom() {
+        // ########################OVERRIDE_DSS#########################
+        // ##### Belge zaten parse edilmiş bir DOM olarak verildiyse  #
+        // ##### (DOMDocument) aynı DOM kullanılır; serialize edip    #
+        // ##### yeniden parse etme maliyeti ortadan kalkar.          #
+        // #############################################################
+        if (document instanceof DOMDocument && ((DOMDocument) document).getNode() instanceof Document) {
+            return (Document) ((DOMDocument) document).getNode();
+        }
+        // ################ BLOK BİTTİ (TEK DOM) ################
         return DomUtils.buildDOM(document);
     }
 
@@ -65,7 +65,8 @@ public class XAdESLevelC extends XAdESLevelBaselineT {
 
     // ################ BLOK BAŞLANGICI (XADES-C,XL GELİŞMELERİ) ################
     // DSS-XAdES-C seviye geliştirmeleri için dokümantasyon:
-    // - OCSP ve CRL doğrulama nesneleri thread-safe olarak ve imza başına özgü olarak cache'lenir.
+    // - OCSP yanıtları doğrulayıcıdaki paylaşılan OCSP cache'inden gelir; bu genişletmede
+    //   kullanılan token'lar ayrıca örnek (instance) bazında saklanır.
     // - C seviyesi (referans oluşturma) ve XL seviyesi (bileşen gömme) için aynı doğrulama verisi yeniden kullanılır.
     // - Tüm detaylar ve örnek iş akışları teknik dokümantasyonda açıklanmıştır.
     
@@ -80,7 +81,8 @@ public class XAdESLevelC extends XAdESLevelBaselineT {
     // doğru ve tutarlı şekilde kullanılması hedeflenmiştir.
     //
     // Bu kapsamda;
-    // - OCSP ve CRL token'ları thread-safe ve imzaya özel olarak cache'lenmektedir.
+    // - OCSP token'ları süreç genelindeki paylaşılan cache'ten (CachingOCSPSource) alınır ve
+    //   bu genişletmede kullanılanlar örnek bazında ayrıca saklanır.
     // - Aynı veriler, hem referans oluştururken (C seviyesi) hem de gömülü veri eklerken 
     //   (XL seviyesi) tekrar kullanılmaktadır.
     // - Bu sayede OCSP/CRL digest eşleşmezliği ve tutarsızlıklar engellenir.
@@ -102,19 +104,19 @@ public class XAdESLevelC extends XAdESLevelBaselineT {
     protected ValidationDataContainer cachedValidationDataContainer;
 
     /**
-     * Thread-safe, signature-specific cache for OCSP tokens.
-     * Outer Map: Signature ID -> Inner cache
-     * Inner Map: Certificate (base64) -> OCSPToken
-     * 
-     * This ensures:
-     * 1. Thread-safety for concurrent signature operations
-     * 2. Cache isolation between different signatures
-     * 3. No cache pollution between requests
+     * OCSP tokens referenced at C-level by this extension.
+     * Key: Certificate (base64) -> OCSPToken
+     *
+     * Process-wide reuse of OCSP responses is handled by the OCSP source of the
+     * certificate verifier (shared, nextUpdate-aware cache). This map only pins the
+     * tokens whose digests were written into OCSPRefs, so that XL-level embeds exactly
+     * the same responses even if the shared cache entry expires in between. Each
+     * extension uses its own XAdESLevelC instance, so no cleanup is needed.
      */
-    protected static final java.util.concurrent.ConcurrentHashMap<String, java.util.concurrent.ConcurrentHashMap<String, OCSPToken>> ocspCacheBySignature = new java.util.concurrent.ConcurrentHashMap<>();
+    protected final java.util.concurrent.ConcurrentHashMap<String, OCSPToken> referencedOcspTokens = new java.util.concurrent.ConcurrentHashMap<>();
 
     /**
-     * Current signature ID being processed (for cache lookup)
+     * Current signature ID being processed (for logging)
      */
     protected String currentSignatureId;
     // ################ BLOK BİTTİ (XADES-C,XL GELİŞMELERİ) ################
@@ -165,31 +167,24 @@ public class XAdESLevelC extends XAdESLevelBaselineT {
         // 1. CompleteCertificateRefs ve CompleteRevocationRefs
         //    öğeleri UnsignedSignatureProperties içine eklenir.
         //
-        // 2. OCSP/CRL yanıtları bu aşamada elde edilir ve
-        //    imza-özel (signature-specific) cache'te saklanır.
+        // 2. OCSP yanıtları doğrulayıcının paylaşılan OCSP cache'i
+        //    üzerinden elde edilir; referansı yazılan token'lar bu
+        //    genişletme örneğinde saklanır.
         //
-        // 3. Cache kullanımı sayesinde, aynı revocation verileri
-        //    hem C seviyesinde (referans) hem de XL seviyesinde
-        //    (gömülü değer) tutarlı şekilde kullanılır.
+        // 3. Böylece aynı revocation verileri hem C seviyesinde
+        //    (referans) hem de XL seviyesinde (gömülü değer)
+        //    tutarlı şekilde kullanılır.
         //
-        // 4. Thread-safe ConcurrentHashMap ile eş zamanlı işlemler
-        //    izole edilir ve cache kirliliği engellenir.
+        // 4. Genişletme başına yeni örnek oluşturulduğundan eş
+        //    zamanlı imzalar birbirini etkilemez.
         //
         // Bu sayede OCSP/CRL digest eşleşmezliği önlenir ve
         // imza arşiv seviyelerine (XL, A) sorunsuz geçiş sağlanır.
         // #############################################################
 
-        // Initialize signature-specific cache context
+        // Initialize signature context (for logging)
         if (!signaturesToExtend.isEmpty()) {
-            AdvancedSignature firstSignature = signaturesToExtend.get(0);
-            currentSignatureId = firstSignature.getId();
-            if (currentSignatureId == null || currentSignatureId.isEmpty()) {
-                currentSignatureId = "sig_" + System.currentTimeMillis() + "_"
-                        + System.identityHashCode(firstSignature);
-            }
-
-            // Initialize cache for this signature if not exists
-            ocspCacheBySignature.putIfAbsent(currentSignatureId, new java.util.concurrent.ConcurrentHashMap<>());
+            currentSignatureId = signaturesToExtend.get(0).getId();
         }
         // ################ BLOK BİTTİ (XADES-C,XL GELİŞMELERİ) ################        
 
@@ -523,42 +518,33 @@ public class XAdESLevelC extends XAdESLevelBaselineT {
                 // yol açmaktadır.
                 //
                 // Çözüm olarak:
-                // 1. Her OCSP token, ilgili sertifikanın Base64 anahtarı
-                //    ile imza-özel (signature-specific) cache'te saklanır.
-                //
-                // 2. XL-seviyesinde aynı sertifika için OCSP gerektiğinde,
-                //    cache'ten alınarak tutarlılık garanti edilir.
+                // 1. OCSP token'ları doğrulayıcının paylaşılan cache'inden
+                //    (CachingOCSPSource) gelir; C ve XL seviyeleri çoğunlukla
+                //    zaten aynı token'ı alır.
                 //
-                // 3. Thread-safe ConcurrentHashMap kullanımı ile eş zamanlı
-                //    işlemler güvenli şekilde izole edilir.
+                // 2. Referansı yazılan her token, ilgili sertifikanın Base64
+                //    anahtarı ile bu genişletme örneğinde saklanır.
                 //
-                // 4. Cache, imza işlemi tamamlandıktan sonra temizlenir.
+                // 3. XL-seviyesinde aynı sertifika için OCSP gerektiğinde
+                //    saklanan token kullanılır; paylaşılan cache girdisinin
+                //    arada süresi dolsa bile tutarlılık garanti edilir.
                 //
                 // Bu sayede OCSPRef digest'i ile EncapsulatedOCSPValue
                 // digest'i her zaman eşleşir ve XAdES-A doğrulaması başarılı olur.
                 // #############################################################
                 
                 try {
-                    if (currentSignatureId != null) {
-                        CertificateToken relatedCert = ocspToken.getRelatedCertificate();
-                        if (relatedCert != null) {
-                            String certKey = Utils.toBase64(relatedCert.getEncoded());
-
-                            // Get signature-specific cache
-                            java.util.concurrent.ConcurrentHashMap<String, OCSPToken> signatureCache = ocspCacheBySignature
-                                    .get(currentSignatureId);
-
-                            if (signatureCache != null) {
-                                signatureCache.put(certKey, ocspToken);
-
-                                // Also store digest for debugging
-                                byte[] ocspDigest = ocspToken.getDigest(digestAlgorithm);
-                                LOGGER.info("C-LEVEL [{}]: Cached OCSP for cert {} with digest {}", 
-                                        currentSignatureId, 
-                                        certKey.substring(0, Math.min(20, certKey.length())),
-                                        Utils.toBase64(ocspDigest).substring(0, 20));
-                            }
-                        }
+                    CertificateToken relatedCert = ocspToken.getRelatedCertificate();
+                    if (relatedCert != null) {
+                        String certKey = Utils.toBase64(relatedCert.getEncoded());
+                        referencedOcspTokens.put(certKey, ocspToken);
+
+                        // Also store digest for debugging
+                        byte[] ocspDigest = ocspToken.getDigest(digestAlgorithm);
+                        LOGGER.info("C-LEVEL [{}]: Pinned OCSP for cert {} with digest {}", 
+                                currentSignatureId, 
+                                certKey.substring(0, Math.min(20, certKey.length())),
+                                Utils.toBase64(ocspDigest).substring(0, 20));
                     }
                 } catch (Exception e) {
                     LOGGER.error("C-LEVEL: Failed to cache OCSP token: {}", e.getMessage());
@@ -569,89 +555,4 @@ public class XAdESLevelC extends XAdESLevelBaselineT {
             }
         }
     }
-
-    // ################ BLOK BAŞLANGICI (CACHE CLEANUP) ################
-    // ########################OVERRIDE_DSS#########################
-    // ##### Bu alan, OCSP cache temizliği için eklenen           #
-    // ##### yardımcı metodları içerir. Memory leak önlenir.      #
-    // ##### DSS orijinalinde bulunmayan ek fonksiyonlardır.      #
-    // #############################################################
-    //
-    // DSS kütüphanesinde OCSP cache mekanizması olmadığı için
-    // cache temizliği de yoktur. Bizim eklediğimiz cache
-    // yapısının memory leak'e yol açmaması için bu metodlar
-    // geliştirilmiştir.
-    //
-    // İki tür temizleme sağlanır:
-    //
-    // 1. cleanupOcspCache(signatureId):
-    //    Belirli bir imza işlemi tamamlandığında, o imzaya
-    //    özel cache'in hemen silinmesini sağlar. SignService'de
-    //    her imza işlemi sonrası finally bloğunda çağrılır.
-    //
-    // 2. cleanupOldCaches(maxAgeMillis):
-    //    Eğer bir nedenle (exception, crash vb.) cleanup
-    //    çağrılmamışsa, eski cache'leri periyodik olarak
-    //    temizler. Güvenlik ağı (fallback) görevi görür.
-    //
-    // Thread-safe: ConcurrentHashMap kullanımı sayesinde
-    // eş zamanlı temizleme işlemleri güvenlidir.
-    //
-    // Kullanım:
-    // - Her imza sonrası: cleanupOcspCache(signatureId)
-    // - Periyodik: cleanupOldCaches(5 * 60 * 1000L) // 5 dakika
-    // #############################################################
-
-    /**
-     * Cleans up the OCSP cache for a specific signature.
-     * Should be called after signature extension is complete.
-     * Thread-safe operation.
-     * 
-     * @param signatureId The signature ID to clean up
-     */
-    public static void cleanupOcspCache(String signatureId) {
-        if (signatureId != null) {
-            java.util.concurrent.ConcurrentHashMap<String, OCSPToken> removed = ocspCacheBySignature
-                    .remove(signatureId);
-            if (removed != null) {
-                LOGGER.info("🧹 Cleaned up OCSP cache for signature: {} (removed {} entries)", 
-                        signatureId, removed.size());
-            }
-        }
-    }
-
-    /**
-     * Cleans up all OCSP caches older than the specified age.
-     * Useful for preventing memory leaks if cleanup wasn't called explicitly.
-     * Thread-safe operation.
-     * 
-     * @param maxAgeMillis Maximum age in milliseconds
-     */
-    public static void cleanupOldCaches(long maxAgeMillis) {
-        long cutoffTime = System.currentTimeMillis() - maxAgeMillis;
-        int removedCount = 0;
-
-        for (String signatureId : ocspCacheBySignature.keySet()) {
-            // Extract timestamp from signature ID if it follows our format
-            if (signatureId.startsWith("sig_")) {
-                try {
-                    String[] parts = signatureId.split("_");
-                    if (parts.length >= 2) {
-                        long timestamp = Long.parseLong(parts[1]);
-                        if (timestamp < cutoffTime) {
-                            ocspCacheBySignature.remove(signatureId);
-                            removedCount++;
-                        }
-                    }
-                } catch (NumberFormatException ignored) {
-                    // Skip if timestamp can't be parsed
-                }
-            }
-        }
-
-        if (removedCount > 0) {
-            LOGGER.info("🧹 Cleaned up {} old OCSP cache(s)", removedCount);
-        }
-    }
-    // ################ BLOK BİTTİ (CACHE CLEANUP) ################
 }
\ No newline at end of file
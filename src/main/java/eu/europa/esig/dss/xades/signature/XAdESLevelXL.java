@@ -511,13 +511,10 @@ public class XAdESLevelXL extends XAdESLevelX {
             return newOcspTokens;
         }
 
-        // Get signature-specific cache
-        java.util.concurrent.ConcurrentHashMap<String, OCSPToken> signatureCache = null;
-        if (currentSignatureId != null) {
-            signatureCache = ocspCacheBySignature.get(currentSignatureId);
-        }
+        // Tokens pinned at C-level by this extension
+        java.util.Map<String, OCSPToken> signatureCache = referencedOcspTokens;
 
-        if (signatureCache == null || signatureCache.isEmpty()) {
+        if (signatureCache.isEmpty()) {
             LOGGER.error("XL-LEVEL: ERROR - No cached OCSP tokens available for signature: {}", currentSignatureId);
             LOGGER.error("XL-LEVEL: This will cause 'OCSP not found in references' error!");
             return newOcspTokens;
@@ -552,8 +549,7 @@ public class XAdESLevelXL extends XAdESLevelX {
                 LOGGER.info("XL-LEVEL: New OCSP digest: {}", 
                         Utils.toBase64(newOcspDigest).substring(0, 20));
 
-                // Check if we have a cached token for this certificate in signature-specific
-                // cache
+                // Check if we have a token pinned at C-level for this certificate
                 OCSPToken cachedToken = signatureCache.get(certKey);
 
                 if (cachedToken != null) {
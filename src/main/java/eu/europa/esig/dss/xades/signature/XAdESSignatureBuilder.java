@@ -45,6 +45,7 @@ import eu.europa.esig.dss.xml.common.definition.DSSElement;
 import eu.europa.esig.dss.xml.common.definition.xmldsig.XMLDSigAttribute;
 import eu.europa.esig.dss.xml.common.definition.xmldsig.XMLDSigElement;
 import eu.europa.esig.dss.xml.common.definition.xmldsig.XMLDSigPath;
+import eu.europa.esig.dss.xml.utils.DOMDocument;
 import eu.europa.esig.dss.xml.utils.DomUtils;
 import eu.europa.esig.dss.xml.utils.XMLCanonicalizer;
 import org.apache.xml.security.transforms.Transforms;
@@ -260,9 +261,14 @@ public abstract class XAdESSignatureBuilder extends XAdESBuilder implements Sign
     }
 
     private void assertSignaturePossible() {
-        if (!DomUtils.isDOM(document)) {
+        // ########################OVERRIDE_DSS#########################
+        // ##### DOMDocument zaten DOM'dur; DomUtils.isDOM belgeyi    #
+        // ##### serialize edip tamamen parse ettiği için atlanır.    #
+        // #############################################################
+        if (!(document instanceof DOMDocument) && !DomUtils.isDOM(document)) {
             return;
         }
+        // ################ BLOK BİTTİ (TEK DOM) ################
 
         initRootDocumentDom();
 
@@ -1752,9 +1758,46 @@ public abstract class XAdESSignatureBuilder extends XAdESBuilder implements Sign
         final String signatureValueBase64Encoded = Utils.toBase64(signatureValueBytes);
         final Text signatureValueNode = documentDom.createTextNode(signatureValueBase64Encoded);
         signatureValueDom.appendChild(signatureValueNode);
+        // ########################OVERRIDE_DSS#########################
+        // ##### Girdi DOMDocument ise imzalı DOM serialize edilmeden #
+        // ##### döndürülür. Çağıran taraf imza elemanını             #
+        // ##### getSignatureElement() ile doğrudan alır; belge ancak #
+        // ##### stream açıldığında (ör. XAdES-A yükseltmesi) bir kez #
+        // ##### serialize edilir.                                    #
+        // #############################################################
+        if (document instanceof DOMDocument) {
+            return new DOMDocument(documentDom, document.getName());
+        }
+        // ################ BLOK BİTTİ (TEK DOM) ################
         return createXmlDocument();
     }
 
+    // ########################OVERRIDE_DSS#########################
+    // ##### İmzalı belgeyi yeniden parse edip ds:Signature       #
+    // ##### aramak yerine builder'ın oluşturduğu eleman ve ID     #
+    // ##### doğrudan dışarı açılır.                              #
+    // #############################################################
+
+    /**
+     * Returns the ds:Signature element created by this builder. The element belongs
+     * to the root document DOM, so it can be moved within that DOM without importing.
+     *
+     * @return {@link Element}, or null if the signature is not built yet
+     */
+    public Element getSignatureElement() {
+        return signatureDom;
+    }
+
+    /**
+     * Returns the Id attribute of the created ds:Signature element.
+     *
+     * @return signature ID, or null if the signature is not built yet
+     */
+    public String getSignatureId() {
+        return signatureDom != null ? signatureDom.getAttribute(XMLDSigAttribute.ID.getAttributeName()) : null;
+    }
+    // ################ BLOK BİTTİ (TEK DOM) ################
+
     /**
      * Adds the content of a timestamp into a given timestamp element
      *
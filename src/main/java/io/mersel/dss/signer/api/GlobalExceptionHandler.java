@@ -2,6 +2,7 @@ package io.mersel.dss.signer.api;
 
 import io.mersel.dss.signer.api.exceptions.CertificateValidationException;
 import io.mersel.dss.signer.api.exceptions.SignatureException;
+import io.mersel.dss.signer.api.exceptions.SigningKeyNotFoundException;
 import io.mersel.dss.signer.api.exceptions.TimestampException;
 import io.mersel.dss.signer.api.models.ErrorModel;
 import org.slf4j.Logger;
@@ -26,6 +27,16 @@ public class GlobalExceptionHandler {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(GlobalExceptionHandler.class);
 
+    /**
+     * İstekte seçilen imzalama anahtarı bulunamadığında 400 döner.
+     */
+    @ExceptionHandler(SigningKeyNotFoundException.class)
+    public ResponseEntity<ErrorModel> handleSigningKeyNotFoundException(SigningKeyNotFoundException ex) {
+        LOGGER.warn("İmzalama anahtarı bulunamadı: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+            .body(new ErrorModel(ex.getErrorCode(), ex.getMessage()));
+    }
+
     /**
      * İmza ile ilgili exception'ları yönetir.
      */
@@ -0,0 +1,108 @@
+package io.mersel.dss.signer.api.config;
+
+import io.mersel.dss.signer.api.models.configurations.SignatureServiceConfiguration;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.http.io.SocketConfig;
+import org.apache.hc.core5.pool.PoolConcurrencyPolicy;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Tüm dış HTTP çağrıları (OCSP, CRL, AIA, TSA, TÜBİTAK) için paylaşılan
+ * bağlantı havuzunu yapılandırır.
+ * <p>
+ * Bağlantılar keep-alive ile tekrar kullanılır; böylece imza başına TCP ve TLS
+ * kurulum maliyeti ödenmez. Havuz durumu {@code http.client.pool.*} metrikleriyle
+ * yayınlanır.
+ */
+@Configuration
+public class HttpClientConfiguration {
+
+    private static final TimeValue VALIDATE_AFTER_INACTIVITY = TimeValue.ofSeconds(2);
+
+    private final SignatureServiceConfiguration config;
+
+    public HttpClientConfiguration(SignatureServiceConfiguration config) {
+        this.config = config;
+    }
+
+    /**
+     * Paylaşılan HTTP bağlantı havuzunu sağlar.
+     */
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager httpConnectionManager() {
+        Timeout readTimeout = Timeout.ofMilliseconds(config.getHttpReadTimeoutMs());
+
+        return PoolingHttpClientConnectionManagerBuilder.create()
+            .setPoolConcurrencyPolicy(PoolConcurrencyPolicy.STRICT)
+            .setMaxConnTotal(config.getHttpMaxConnections())
+            .setMaxConnPerRoute(config.getHttpMaxConnectionsPerRoute())
+            .setDefaultSocketConfig(SocketConfig.custom()
+                .setSoTimeout(readTimeout)
+                .setSoKeepAlive(true)
+                .setTcpNoDelay(true)
+                .build())
+            .setDefaultConnectionConfig(ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.ofMilliseconds(config.getHttpConnectTimeoutMs()))
+                .setSocketTimeout(readTimeout)
+                .setValidateAfterInactivity(VALIDATE_AFTER_INACTIVITY)
+                .build())
+            .build();
+    }
+
+    /**
+     * Paylaşılan havuzu kullanan HTTP istemcisini sağlar.
+     * Boşta kalan bağlantılar keep-alive süresi sonunda kapatılır.
+     */
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient httpClient(PoolingHttpClientConnectionManager httpConnectionManager) {
+        return HttpClients.custom()
+            .setConnectionManager(httpConnectionManager)
+            .setConnectionManagerShared(true)
+            .setDefaultRequestConfig(RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.ofMilliseconds(config.getHttpReadTimeoutMs()))
+                .setResponseTimeout(Timeout.ofMilliseconds(config.getHttpReadTimeoutMs()))
+                .build())
+            .setKeepAliveStrategy((response, context) -> TimeValue.ofMilliseconds(config.getHttpKeepAliveMs()))
+            .evictExpiredConnections()
+            .evictIdleConnections(TimeValue.ofMilliseconds(config.getHttpKeepAliveMs()))
+            .build();
+    }
+
+    /**
+     * Havuzdaki kiralık, boşta ve bekleyen bağlantı sayılarını yayınlar.
+     */
+    @Bean
+    public MeterBinder httpConnectionPoolMetrics(PoolingHttpClientConnectionManager httpConnectionManager) {
+        return registry -> {
+            Gauge.builder("http.client.pool.connections", httpConnectionManager,
+                    manager -> manager.getTotalStats().getLeased())
+                .tag("state", "leased")
+                .description("Kullanımdaki HTTP bağlantıları")
+                .register(registry);
+            Gauge.builder("http.client.pool.connections", httpConnectionManager,
+                    manager -> manager.getTotalStats().getAvailable())
+                .tag("state", "available")
+                .description("Tekrar kullanıma hazır boşta bağlantılar")
+                .register(registry);
+            Gauge.builder("http.client.pool.connections", httpConnectionManager,
+                    manager -> manager.getTotalStats().getPending())
+                .tag("state", "pending")
+                .description("Havuzdan bağlantı bekleyen istekler")
+                .register(registry);
+            Gauge.builder("http.client.pool.max", httpConnectionManager,
+                    manager -> manager.getTotalStats().getMax())
+                .description("Havuzun en fazla bağlantı sayısı")
+                .register(registry);
+        };
+    }
+}
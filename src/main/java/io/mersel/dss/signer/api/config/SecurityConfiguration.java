@@ -44,6 +44,7 @@ public class SecurityConfiguration implements WebMvcConfigurer {
                 .allowedHeaders("*")
                 .exposedHeaders(
                     "x-signature-value",
+                    "x-upgrade-job-id",
                     "Content-Disposition",
                     "X-Timestamp-Time",
                     "X-Timestamp-TSA",
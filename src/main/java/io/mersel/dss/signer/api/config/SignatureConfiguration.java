@@ -1,27 +1,39 @@
 package io.mersel.dss.signer.api.config;
 
-import eu.europa.esig.dss.service.crl.OnlineCRLSource;
 import eu.europa.esig.dss.service.ocsp.OnlineOCSPSource;
 import eu.europa.esig.dss.spi.validation.CertificateVerifier;
 import eu.europa.esig.dss.spi.validation.CommonCertificateVerifier;
 import eu.europa.esig.dss.spi.validation.RevocationDataVerifier;
 import eu.europa.esig.dss.spi.x509.CommonTrustedCertificateSource;
 import eu.europa.esig.dss.spi.x509.aia.DefaultAIASource;
+import io.mersel.dss.signer.api.SignatureApplication;
 import io.mersel.dss.signer.api.models.SigningContext;
+import io.mersel.dss.signer.api.models.SigningKey;
 import io.mersel.dss.signer.api.models.SigningMaterial;
 import io.mersel.dss.signer.api.models.configurations.SignatureServiceConfiguration;
 import io.mersel.dss.signer.api.services.SigningMaterialFactory;
 import io.mersel.dss.signer.api.services.certificate.CertificateChainProvider;
 import io.mersel.dss.signer.api.services.certificate.LocalCertificateChainProvider;
 import io.mersel.dss.signer.api.services.certificate.OnlineCertificateChainProvider;
+import io.mersel.dss.signer.api.services.http.PooledDataLoader;
 import io.mersel.dss.signer.api.services.keystore.KeyStoreProvider;
 import io.mersel.dss.signer.api.services.keystore.PKCS11KeyStoreProvider;
+import io.mersel.dss.signer.api.services.keystore.PKCS11ProviderManager;
 import io.mersel.dss.signer.api.services.keystore.PfxKeyStoreProvider;
+import io.mersel.dss.signer.api.services.keystore.SigningKeyRegistry;
+import io.mersel.dss.signer.api.services.keystore.SigningSessionPool;
+import io.mersel.dss.signer.api.services.revocation.CachingCRLSource;
+import io.mersel.dss.signer.api.services.revocation.CachingOCSPSource;
+import io.mersel.dss.signer.api.services.revocation.SigningCertificateRevocationMonitor;
 import io.mersel.dss.signer.api.services.KamusmRootCertificateService;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 import org.springframework.util.StringUtils;
 
+import java.nio.file.Paths;
 import java.security.cert.X509Certificate;
 import java.util.ArrayList;
 import java.util.List;
@@ -34,13 +46,27 @@ import java.util.concurrent.Semaphore;
 @Configuration
 public class SignatureConfiguration {
 
+    /**
+     * İptal verisi için kabul edilen en uzun tazelik süresi (5 dakika).
+     */
+    private static final long REVOCATION_MAX_FRESHNESS_MS = 5 * 60 * 1000L;
+    private static final String CRL_CACHE_DIR_NAME = "crl-cache";
+    private static final int MAX_PKCS11_TOKENS = 9;
+    private static final int MAX_SIGNING_KEYS = 20;
+
     private final SignatureServiceConfiguration config;
     private final KamusmRootCertificateService rootCertificateService;
+    private final PoolingHttpClientConnectionManager httpConnectionManager;
+    private final PKCS11ProviderManager pkcs11Providers;
 
     public SignatureConfiguration(SignatureServiceConfiguration config,
-                                 KamusmRootCertificateService rootCertificateService) {
+                                 KamusmRootCertificateService rootCertificateService,
+                                 PoolingHttpClientConnectionManager httpConnectionManager,
+                                 PKCS11ProviderManager pkcs11Providers) {
         this.config = config;
         this.rootCertificateService = rootCertificateService;
+        this.httpConnectionManager = httpConnectionManager;
+        this.pkcs11Providers = pkcs11Providers;
         
         // DSS OCSP için GET metodu kullanımını etkinleştir
         System.setProperty("dss.http.use.get.for.ocsp", "true");
@@ -53,7 +79,7 @@ public class SignatureConfiguration {
     @Bean
     public KeyStoreProvider keyStoreProvider() {
         if (StringUtils.hasText(config.getPkcs11LibraryPath())) {
-            return new PKCS11KeyStoreProvider(
+            return pkcs11Providers.getProvider(
                 config.getPkcs11LibraryPath(),
                 config.getPkcs11Slot()
             );
@@ -77,7 +103,7 @@ public class SignatureConfiguration {
         
         // Online sağlayıcı (yüksek öncelik)
         if (config.isCertificateChainGetOnline()) {
-            providers.add(new OnlineCertificateChainProvider());
+            providers.add(new OnlineCertificateChainProvider(pooledDataLoader(null)));
         }
         
         // Yerel dosya sağlayıcı (yedek)
@@ -93,40 +119,35 @@ public class SignatureConfiguration {
     }
 
     /**
-     * Uygulama için ana imzalama materyalini sağlar.
-     * Başlangıçta bir kez oluşturulur ve tüm imzalama işlemleri için tekrar kullanılır.
+     * Varsayılan imzalama anahtarının keystore alias'ı ve materyalini sağlar.
+     * Keystore başlangıçta bir kez yüklenir; materyal ve alias bu bağlamdan türetilir.
      */
     @Bean
-    public SigningMaterial signingMaterial(SigningMaterialFactory factory,
-                                          KeyStoreProvider provider) {
-        char[] pin = config.getCertificatePin().toCharArray();
-        
-        SigningContext context = factory.createSigningContext(
+    public SigningContext signingContext(SigningMaterialFactory factory,
+                                         KeyStoreProvider provider) {
+        return factory.createSigningContext(
             provider,
-            pin,
+            signingPin(),
             config.getCertificateAlias(),
             config.getCertificateSerialNumber()
         );
-        
-        return context.getMaterial();
+    }
+
+    /**
+     * Uygulama için ana imzalama materyalini sağlar.
+     * Başlangıçta bir kez oluşturulur ve tüm imzalama işlemleri için tekrar kullanılır.
+     */
+    @Bean
+    public SigningMaterial signingMaterial(SigningContext signingContext) {
+        return signingContext.getMaterial();
     }
 
     /**
      * Keystore işlemleri için imzalama alias'ını sağlar.
      */
     @Bean
-    public String signingAlias(SigningMaterialFactory factory,
-                              KeyStoreProvider provider) {
-        char[] pin = config.getCertificatePin().toCharArray();
-        
-        SigningContext context = factory.createSigningContext(
-            provider,
-            pin,
-            config.getCertificateAlias(),
-            config.getCertificateSerialNumber()
-        );
-        
-        return context.getAlias();
+    public String signingAlias(SigningContext signingContext) {
+        return signingContext.getAlias();
     }
 
     /**
@@ -146,11 +167,134 @@ public class SignatureConfiguration {
     }
 
     /**
-     * Eşzamanlı imza işlemlerini kontrol etmek için semaphore sağlar.
+     * İmzalama anahtarına açılmış oturum havuzunu sağlar.
+     * PKCS11_LIBRARY/PKCS11_SLOT birincil token'dır; aynı anahtarı taşıyan ek
+     * token'lar PKCS11_LIBRARY_2/PKCS11_SLOT_2... ile tanımlanır ve imzalar
+     * token'lar arasında dağıtılır. Token başına oturum sayısı MAX_SESSION_COUNT
+     * ile sınırlıdır; oturum sadece ham imza üretimi süresince tutulur.
      */
     @Bean
-    public Semaphore signatureSemaphore() {
-        return new Semaphore(config.getMaxSessionCount());
+    public SigningSessionPool signingSessionPool(KeyStoreProvider provider,
+                                                 SigningMaterial signingMaterial,
+                                                 String signingAlias,
+                                                 Environment environment) {
+        List<KeyStoreProvider> tokens = new ArrayList<>();
+        tokens.add(provider);
+        if (provider instanceof PKCS11KeyStoreProvider) {
+            for (int i = 2; i <= MAX_PKCS11_TOKENS; i++) {
+                String library = environment.getProperty("PKCS11_LIBRARY_" + i);
+                String slot = environment.getProperty("PKCS11_SLOT_" + i);
+                if (!StringUtils.hasText(library) && !StringUtils.hasText(slot)) {
+                    break;
+                }
+                tokens.add(pkcs11Providers.getProvider(
+                    StringUtils.hasText(library) ? library : config.getPkcs11LibraryPath(),
+                    StringUtils.hasText(slot) ? Long.valueOf(slot.trim()) : config.getPkcs11Slot()
+                ));
+            }
+        }
+
+        return new SigningSessionPool(
+            SigningSessionPool.DEFAULT_KEY_NAME,
+            tokens,
+            signingPin(),
+            signingAlias,
+            signingMaterial,
+            config.getMaxSessionCount(),
+            config.getSigningSessionAcquireTimeoutMs()
+        );
+    }
+
+    /**
+     * Adlandırılmış imzalama anahtarlarının kaydını sağlar.
+     * Varsayılan anahtar yukarıdaki materyal ve oturum havuzudur. Ek anahtarlar
+     * SIGNING_KEY_PFX_PATH_2 veya SIGNING_KEY_PKCS11_LIBRARY_2/SIGNING_KEY_PKCS11_SLOT_2...
+     * ile tanımlanır ve ilk istekte yüklenir; istek X-Signing-Key header'ı ile
+     * alias veya seri numarası vererek anahtarı seçer. Sertifika yenilendiğinde
+     * anahtarlar yeniden başlatma olmadan yeniden yüklenir.
+     */
+    @Bean
+    public SigningKeyRegistry signingKeyRegistry(SigningMaterialFactory factory,
+                                                 ApplicationEventPublisher eventPublisher,
+                                                 SigningCertificateRevocationMonitor revocationMonitor,
+                                                 SigningMaterial signingMaterial,
+                                                 String signingAlias,
+                                                 SigningSessionPool signingSessionPool,
+                                                 Environment environment) {
+        List<SigningKeyRegistry.Definition> definitions = new ArrayList<>();
+        for (int i = 2; i <= MAX_SIGNING_KEYS; i++) {
+            String pfxPath = environment.getProperty("SIGNING_KEY_PFX_PATH_" + i);
+            String library = environment.getProperty("SIGNING_KEY_PKCS11_LIBRARY_" + i);
+            KeyStoreProvider keyProvider;
+            if (StringUtils.hasText(library)) {
+                String slot = environment.getProperty("SIGNING_KEY_PKCS11_SLOT_" + i);
+                keyProvider = pkcs11Providers.getProvider(library,
+                    StringUtils.hasText(slot) ? Long.valueOf(slot.trim()) : config.getPkcs11Slot());
+            } else if (StringUtils.hasText(pfxPath)) {
+                keyProvider = new PfxKeyStoreProvider(pfxPath);
+            } else {
+                break;
+            }
+            definitions.add(new SigningKeyRegistry.Definition(
+                "key-" + i,
+                keyProvider,
+                environment.getProperty("SIGNING_KEY_PIN_" + i, config.getCertificatePin()).toCharArray(),
+                environment.getProperty("SIGNING_KEY_ALIAS_" + i),
+                environment.getProperty("SIGNING_KEY_SERIAL_NUMBER_" + i),
+                environment.getProperty("SIGNING_KEY_MAX_SESSIONS_" + i, Integer.class, config.getMaxSessionCount())
+            ));
+        }
+
+        return new SigningKeyRegistry(
+            factory,
+            eventPublisher,
+            revocationMonitor,
+            new SigningKeyRegistry.Definition(
+                SigningSessionPool.DEFAULT_KEY_NAME,
+                signingSessionPool.getKeyStoreProviders(),
+                signingPin(),
+                config.getCertificateAlias(),
+                config.getCertificateSerialNumber(),
+                config.getMaxSessionCount()
+            ),
+            new SigningKey(SigningSessionPool.DEFAULT_KEY_NAME, signingAlias, signingPin(), signingMaterial),
+            signingSessionPool,
+            definitions,
+            config.getSigningKeyIdleEvictMs(),
+            config.getSigningKeyMaxLoaded(),
+            config.getSigningSessionAcquireTimeoutMs()
+        );
+    }
+
+    /**
+     * Eşzamanlı dış ağ işlemlerini (TSA, OCSP, CRL) sınırlayan semaphore sağlar.
+     * Yavaş bir TSA çağrısının HSM oturumlarını bloklamasını önlemek için
+     * imzalama oturum havuzundan bağımsız boyutlandırılır.
+     */
+    @Bean
+    public Semaphore networkSemaphore() {
+        return new Semaphore(config.getMaxNetworkConcurrency());
+    }
+
+    /**
+     * Süreç genelinde paylaşılan OCSP kaynağını sağlar.
+     * Yanıtlar sertifika/issuer çiftine göre, doğrulayıcının tazelik sınırı
+     * ve nextUpdate süresince tekrar kullanılır.
+     */
+    @Bean
+    public CachingOCSPSource ocspSource() {
+        return new CachingOCSPSource(new OnlineOCSPSource(pooledDataLoader(PooledDataLoader.OCSP_CONTENT_TYPE)),
+            config.getOcspCacheMaxEntries(), REVOCATION_MAX_FRESHNESS_MS);
+    }
+
+    /**
+     * Diskte kalıcı, seri numarası indeksli CRL kaynağını sağlar.
+     * CRL'ler nextUpdate zamanına kadar yeniden indirilmez ve yeniden başlatmada diskten okunur.
+     */
+    @Bean
+    public CachingCRLSource crlSource() {
+        return new CachingCRLSource(pooledDataLoader(null),
+            Paths.get(SignatureApplication.ROOT_DIR, CRL_CACHE_DIR_NAME), REVOCATION_MAX_FRESHNESS_MS);
     }
 
     /**
@@ -172,27 +316,24 @@ public class SignatureConfiguration {
         // İptal verisi doğrulayıcısını yapılandır
         RevocationDataVerifier revocationVerifier = 
             RevocationDataVerifier.createDefaultRevocationDataVerifier();
-        Long fiveMinutes = 5 * 60 * 1000L;
         revocationVerifier.setCheckRevocationFreshnessNextUpdate(true);
-        revocationVerifier.setSignatureMaximumRevocationFreshness(fiveMinutes);
-        revocationVerifier.setTimestampMaximumRevocationFreshness(fiveMinutes);
-        revocationVerifier.setRevocationMaximumRevocationFreshness(fiveMinutes);
+        revocationVerifier.setSignatureMaximumRevocationFreshness(REVOCATION_MAX_FRESHNESS_MS);
+        revocationVerifier.setTimestampMaximumRevocationFreshness(REVOCATION_MAX_FRESHNESS_MS);
+        revocationVerifier.setRevocationMaximumRevocationFreshness(REVOCATION_MAX_FRESHNESS_MS);
         verifier.setRevocationDataVerifier(revocationVerifier);
 
         // İptal yedeklemeyi etkinleştir
         verifier.setRevocationFallback(true);
 
-        // OCSP kaynağını yapılandır
-        OnlineOCSPSource ocspSource = new OnlineOCSPSource();
-        verifier.setOcspSource(ocspSource);
+        // OCSP kaynağını yapılandır (paylaşılan cache üzerinden)
+        verifier.setOcspSource(ocspSource());
 
         // Zincir oluşturma için AIA kaynağını yapılandır
-        DefaultAIASource aiaSource = new DefaultAIASource();
+        DefaultAIASource aiaSource = new DefaultAIASource(pooledDataLoader(null));
         verifier.setAIASource(aiaSource);
 
-        // CRL kaynağını yapılandır
-        OnlineCRLSource crlSource = new OnlineCRLSource();
-        verifier.setCrlSource(crlSource);
+        // CRL kaynağını yapılandır (disk cache ve seri numarası indeksi üzerinden)
+        verifier.setCrlSource(crlSource());
 
         return verifier;
     }
@@ -205,5 +346,10 @@ public class SignatureConfiguration {
         return new eu.europa.esig.dss.xades.signature.XAdESService(certificateVerifier);
     }
 
+    /**
+     * Paylaşılan HTTP bağlantı havuzunu kullanan DSS data loader'ı oluşturur.
+     */
+    private PooledDataLoader pooledDataLoader(String contentType) {
+        return new PooledDataLoader(httpConnectionManager, contentType, config.getHttpReadTimeoutMs());
+    }
 }
-
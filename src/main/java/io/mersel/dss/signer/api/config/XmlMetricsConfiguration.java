@@ -0,0 +1,38 @@
+package io.mersel.dss.signer.api.config;
+
+import io.mersel.dss.signer.api.util.XmlPools;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Arrays;
+
+/**
+ * Paylaşılan XML altyapısının ({@link XmlPools}) havuz metriklerini yayınlar.
+ * <p>
+ * {@code xml.pool.requests} sayacı bileşen ({@code component}) ve sonuç
+ * ({@code result=hit|miss}) etiketleriyle raporlanır.
+ */
+@Configuration
+public class XmlMetricsConfiguration {
+
+    @Bean
+    public MeterBinder xmlPoolMetrics() {
+        return registry -> {
+            for (String component : Arrays.asList(
+                    XmlPools.DOCUMENT_BUILDER, XmlPools.TRANSFORMER, XmlPools.SIGNATURE_FACTORY)) {
+                FunctionCounter.builder("xml.pool.requests", component, XmlPools::hits)
+                        .tag("component", component)
+                        .tag("result", "hit")
+                        .description("Thread'e ait mevcut XML örneğinin kullanıldığı erişimler")
+                        .register(registry);
+                FunctionCounter.builder("xml.pool.requests", component, XmlPools::misses)
+                        .tag("component", component)
+                        .tag("result", "miss")
+                        .description("Yeni XML örneği oluşturulan erişimler")
+                        .register(registry);
+            }
+        };
+    }
+}
@@ -1,9 +1,13 @@
 package io.mersel.dss.signer.api.controllers;
 
+import java.util.Base64;
 import java.util.UUID;
 
+import javax.servlet.http.HttpServletRequest;
+
 import io.mersel.dss.signer.api.enums.TimestampType;
-import io.mersel.dss.signer.api.models.SigningMaterial;
+import io.mersel.dss.signer.api.models.SigningKey;
+import io.mersel.dss.signer.api.services.keystore.SigningKeyRegistry;
 import io.mersel.dss.signer.api.services.signature.cades.CAdESSignatureService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -14,9 +18,11 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -24,6 +30,7 @@ import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.mersel.dss.signer.api.dtos.SignCadesDigestDto;
 import io.mersel.dss.signer.api.dtos.SignCadesDto;
 import io.mersel.dss.signer.api.models.ErrorModel;
 import io.mersel.dss.signer.api.models.SignResponse;
@@ -31,6 +38,8 @@ import io.mersel.dss.signer.api.models.SignResponse;
 /**
  * CAdES (CMS İleri Seviye Elektronik İmza) işlemleri için REST controller.
  * Farklı CAdES seviyelerini destekler: CAdES-B, CAdES-T, CAdES-A.
+ * Büyük veya ikili içerik {@code /v1/cadessign/stream} ile belleğe alınmadan,
+ * ayrık imza ise {@code /v1/cadessign/digest} ile yalnızca içerik özetinden oluşturulur.
  */
 @RestController
 @CrossOrigin(origins = "*", allowedHeaders = "*", methods = {RequestMethod.GET, RequestMethod.POST, RequestMethod.PUT, RequestMethod.DELETE, RequestMethod.OPTIONS})
@@ -39,12 +48,12 @@ public class CadesController {
     private static final Logger LOGGER = LoggerFactory.getLogger(CadesController.class);
 
     private final CAdESSignatureService cadesSignatureService;
-    private final SigningMaterial signingMaterial;
+    private final SigningKeyRegistry keyRegistry;
 
     public CadesController(CAdESSignatureService cadesSignatureService,
-                          SigningMaterial signingMaterial) {
+                          SigningKeyRegistry keyRegistry) {
         this.cadesSignatureService = cadesSignatureService;
-        this.signingMaterial = signingMaterial;
+        this.keyRegistry = keyRegistry;
     }
 
     @Operation(
@@ -78,8 +87,11 @@ public class CadesController {
             @Parameter(description = "Zaman damgası türü: none, signature, content, archive, esc, all (varsayılan: signature)")
             @RequestParam(value = "timestampType", defaultValue = "signature") String timestampTypeStr,
             @Parameter(description = "İmza ID'si (opsiyonel)")
-            @RequestParam(value = "signatureId", required = false) String signatureId) {
+            @RequestParam(value = "signatureId", required = false) String signatureId,
+            @Parameter(description = "İmzalama anahtarı: alias veya hex seri numarası (opsiyonel, varsayılan anahtar)")
+            @RequestHeader(value = SigningKeyRegistry.KEY_SELECTOR_HEADER, required = false) String keySelector) {
         
+        SigningKey signingKey = keyRegistry.resolve(keySelector);
         try {
             if (content == null || content.trim().isEmpty()) {
                 LOGGER.warn("Geçersiz istek: içerik boş");
@@ -93,7 +105,7 @@ public class CadesController {
                 content,
                 timestampType,
                 signatureId,
-                signingMaterial
+                signingKey.getMaterial()
             );
 
             LOGGER.info("CAdES imzası başarıyla oluşturuldu. Zaman damgası türü: {}", 
@@ -135,7 +147,11 @@ public class CadesController {
         @ApiResponse(responseCode = "500",
             description = "Sunucu hatası")
     })
-    public ResponseEntity<?> signCadesFromJson(@RequestBody SignCadesDto dto) {
+    public ResponseEntity<?> signCadesFromJson(
+            @RequestBody SignCadesDto dto,
+            @Parameter(description = "İmzalama anahtarı: alias veya hex seri numarası (opsiyonel, varsayılan anahtar)")
+            @RequestHeader(value = SigningKeyRegistry.KEY_SELECTOR_HEADER, required = false) String keySelector) {
+        SigningKey signingKey = keyRegistry.resolve(keySelector);
         try {
             if (dto.getContent() == null || dto.getContent().trim().isEmpty()) {
                 LOGGER.warn("Geçersiz istek: içerik boş");
@@ -149,7 +165,7 @@ public class CadesController {
                 dto.getContent(),
                 timestampType,
                 dto.getSignatureId(),
-                signingMaterial
+                signingKey.getMaterial()
             );
 
             LOGGER.info("CAdES imzası (JSON endpoint) başarıyla oluşturuldu. Zaman damgası türü: {}", 
@@ -173,4 +189,152 @@ public class CadesController {
                 .body(new ErrorModel("SIGNATURE_FAILED", e.getMessage()));
         }
     }
+
+    @Operation(
+        summary = "İkili içeriği akış modunda CAdES imzası ile imzalar",
+        description = "İstek gövdesi (application/octet-stream) belleğe alınmadan okunur, özeti hesaplanırken " +
+                      "gömülü (attached) CMS imzası olarak doğrudan yanıta yazılır. Bellek kullanımı içerik " +
+                      "boyutundan bağımsızdır; büyük ve ikili dosyalar için kullanılır.\n\n" +
+                      "**Zaman Damgası Türleri:** `none`, `signature` (varsayılan), `content`, `esc`. " +
+                      "Zaman damgaları akışın sonunda eklenir. `archive` ve `all` tüm imzalı belgenin yeniden " +
+                      "işlenmesini gerektirdiği için bu endpoint'te desteklenmez; `/v1/cadessign` kullanılmalıdır.\n\n" +
+                      "`x-timestamp-type` yanıt başlığı uygulanan türü bildirir: TSP servisi yapılandırılmamışsa " +
+                      "veya TÜBİTAK kontörü eşik altındaysa (`content`, `esc`) `none` döner. Yanıt akış halinde " +
+                      "yazıldığından TSA akışın sonunda yanıt vermezse imza zaman damgasız (CAdES-B) olarak tamamlanır; " +
+                      "diğer imzalama hataları yanıtın yarıda kesilmesiyle sonuçlanır."
+    )
+    @PostMapping(value = "/v1/cadessign/stream",
+        consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE,
+        produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", 
+            description = "İmzalama başarılı",
+            content = @Content(schema = @Schema(type = "string", format = "binary"))),
+        @ApiResponse(responseCode = "400", 
+            description = "Geçersiz istek veya akış modunda desteklenmeyen zaman damgası türü",
+            content = @Content(schema = @Schema(implementation = ErrorModel.class))),
+        @ApiResponse(responseCode = "500",
+            description = "Sunucu hatası")
+    })
+    public ResponseEntity<?> signCadesStream(
+            HttpServletRequest request,
+            @Parameter(description = "Zaman damgası türü: none, signature, content, esc (varsayılan: signature)")
+            @RequestParam(value = "timestampType", defaultValue = "signature") String timestampTypeStr,
+            @Parameter(description = "İmzalama anahtarı: alias veya hex seri numarası (opsiyonel, varsayılan anahtar)")
+            @RequestHeader(value = SigningKeyRegistry.KEY_SELECTOR_HEADER, required = false) String keySelector) {
+
+        SigningKey signingKey = keyRegistry.resolve(keySelector);
+        try {
+            if (request.getContentLengthLong() == 0) {
+                LOGGER.warn("Geçersiz istek: içerik boş");
+                return ResponseEntity.badRequest()
+                    .body(new ErrorModel("INVALID_INPUT", "İçerik zorunludur"));
+            }
+
+            TimestampType timestampType = TimestampType.fromValue(timestampTypeStr);
+            if (!cadesSignatureService.isStreamable(timestampType)) {
+                return ResponseEntity.badRequest()
+                    .body(new ErrorModel("UNSUPPORTED_TIMESTAMP_TYPE",
+                        timestampType.getValue() + " zaman damgası akış modunda desteklenmiyor; /v1/cadessign kullanın"));
+            }
+
+            // Başlıklar içerikten önce yazılır; uygulanacak tür akış başlamadan belirlenir
+            TimestampType effectiveType = cadesSignatureService.effectiveTimestampType(timestampType);
+            StreamingResponseBody body = output -> cadesSignatureService.signStream(
+                request.getInputStream(), effectiveType, signingKey.getMaterial(), output);
+
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
+            headers.setContentDispositionFormData("attachment", 
+                "signed-" + UUID.randomUUID() + ".p7s");
+            headers.set("x-timestamp-type", effectiveType.getValue());
+
+            return new ResponseEntity<>(body, headers, HttpStatus.OK);
+
+        } catch (Exception e) {
+            LOGGER.error("CAdES akış imzası başlatılamadı", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new ErrorModel("SIGNATURE_FAILED", e.getMessage()));
+        }
+    }
+
+    @Operation(
+        summary = "İçerik özetinden ayrık (detached) CAdES imzası oluşturur",
+        description = "İçerik yüklenmeden, istemcinin hesapladığı özet ile ayrık CMS imzası (.p7s) üretir. " +
+                      "messageDigest, SigningCertificateV2 ve SigningTime imzalı öznitelikleri diğer CAdES " +
+                      "endpoint'leriyle aynıdır; imzalama maliyeti içerik boyutundan bağımsızdır.\n\n" +
+                      "**Özet Algoritmaları:** SHA-256 (varsayılan), SHA-384, SHA-512\n\n" +
+                      "**Zaman Damgası Türleri:** `none`, `signature` (varsayılan, CAdES-T)\n\n" +
+                      "`x-timestamp-type` yanıt başlığı uygulanan türü bildirir: TSP servisi yapılandırılmamışsa " +
+                      "imza zaman damgasız (CAdES-B) üretilir ve `none` döner."
+    )
+    @PostMapping(value = "/v1/cadessign/digest",
+        consumes = MediaType.APPLICATION_JSON_VALUE,
+        produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", 
+            description = "İmzalama başarılı",
+            content = @Content(schema = @Schema(type = "string", format = "binary"))),
+        @ApiResponse(responseCode = "400", 
+            description = "Geçersiz özet, algoritma veya zaman damgası türü",
+            content = @Content(schema = @Schema(implementation = ErrorModel.class))),
+        @ApiResponse(responseCode = "500",
+            description = "Sunucu hatası")
+    })
+    public ResponseEntity<?> signCadesFromDigest(
+            @RequestBody SignCadesDigestDto dto,
+            @Parameter(description = "İmzalama anahtarı: alias veya hex seri numarası (opsiyonel, varsayılan anahtar)")
+            @RequestHeader(value = SigningKeyRegistry.KEY_SELECTOR_HEADER, required = false) String keySelector) {
+        SigningKey signingKey = keyRegistry.resolve(keySelector);
+        try {
+            if (dto.getDigest() == null || dto.getDigest().trim().isEmpty()) {
+                LOGGER.warn("Geçersiz istek: özet boş");
+                return ResponseEntity.badRequest()
+                    .body(new ErrorModel("INVALID_INPUT", "Özet değeri zorunludur"));
+            }
+
+            byte[] digest;
+            try {
+                digest = Base64.getDecoder().decode(dto.getDigest().trim());
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest()
+                    .body(new ErrorModel("INVALID_BASE64", "Özet değeri geçerli Base64 formatında olmalıdır"));
+            }
+
+            TimestampType timestampType = TimestampType.fromValue(dto.getTimestampType());
+            if (!cadesSignatureService.isDigestTimestampSupported(timestampType)) {
+                return ResponseEntity.badRequest()
+                    .body(new ErrorModel("UNSUPPORTED_TIMESTAMP_TYPE",
+                        timestampType.getValue() + " zaman damgası özet modunda desteklenmiyor"));
+            }
+
+            // Yanıt başlığı istenen değil, uygulanan türü bildirir
+            TimestampType effectiveType = cadesSignatureService.effectiveTimestampType(timestampType);
+            SignResponse result;
+            try {
+                result = cadesSignatureService.signDigest(
+                    digest, dto.getDigestAlgorithm(), effectiveType, signingKey.getMaterial());
+            } catch (IllegalArgumentException e) {
+                LOGGER.warn("Geçersiz istek: {}", e.getMessage());
+                return ResponseEntity.badRequest()
+                    .body(new ErrorModel("INVALID_DIGEST", e.getMessage()));
+            }
+
+            LOGGER.info("Ayrık CAdES imzası özetten oluşturuldu. Zaman damgası türü: {}",
+                effectiveType.getDescription());
+
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
+            headers.setContentDispositionFormData("attachment", 
+                "signed-" + UUID.randomUUID() + ".p7s");
+            headers.set("x-timestamp-type", effectiveType.getValue());
+
+            return new ResponseEntity<>(result.getSignedDocument(), headers, HttpStatus.OK);
+
+        } catch (Exception e) {
+            LOGGER.error("CAdES imzası oluşturulurken hata", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new ErrorModel("SIGNATURE_FAILED", e.getMessage()));
+        }
+    }
 }
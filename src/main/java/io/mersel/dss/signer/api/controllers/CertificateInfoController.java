@@ -1,11 +1,13 @@
 package io.mersel.dss.signer.api.controllers;
 
 import io.mersel.dss.signer.api.dtos.CertificateInfoDto;
+import io.mersel.dss.signer.api.models.SigningKey;
 import io.mersel.dss.signer.api.models.configurations.SignatureServiceConfiguration;
 import io.mersel.dss.signer.api.services.CertificateInfoService;
 import io.mersel.dss.signer.api.services.keystore.KeyStoreProvider;
 import io.mersel.dss.signer.api.services.keystore.PKCS11KeyStoreProvider;
 import io.mersel.dss.signer.api.services.keystore.PfxKeyStoreProvider;
+import io.mersel.dss.signer.api.services.keystore.SigningKeyRegistry;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -16,9 +18,9 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
 
+import java.security.cert.X509Certificate;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -41,6 +43,15 @@ public class CertificateInfoController {
     @Autowired
     private SignatureServiceConfiguration config;
 
+    /**
+     * Uygulamanın keystore sağlayıcısı; PKCS#11'de token provider'ı her istekte tekrar kullanılır.
+     */
+    @Autowired
+    private KeyStoreProvider keyStoreProvider;
+
+    @Autowired
+    private SigningKeyRegistry keyRegistry;
+
     /**
      * Yapılandırılmış keystore'dan tüm sertifikaları listeler.
      * 
@@ -50,7 +61,8 @@ public class CertificateInfoController {
     @Operation(
         summary = "Keystore sertifikalarını listele",
         description = "Yapılandırılmış keystore (PKCS#11 veya PFX) içerisindeki tüm sertifikaları listeler. " +
-                     "Bu endpoint ile alias ve serial number bilgilerini öğrenebilirsiniz.",
+                     "Bu endpoint ile alias ve serial number bilgilerini öğrenebilirsiniz. " +
+                     "Liste CERTIFICATE_LIST_CACHE_TTL_MS süresince cache'ten döner; anahtar yeniden yüklenince yenilenir.",
         responses = {
             @ApiResponse(
                 responseCode = "200",
@@ -64,12 +76,11 @@ public class CertificateInfoController {
         try {
             LOGGER.info("Sertifika listesi istendi");
             
-            // Keystore provider'ı belirle
-            KeyStoreProvider provider = createKeyStoreProvider();
+            KeyStoreProvider provider = keyStoreProvider;
             char[] pin = config.getCertificatePin().toCharArray();
             
-            // Sertifikaları listele
-            List<CertificateInfoDto> certificates = certificateInfoService.listCertificates(provider, pin);
+            // Sertifikaları listele (cache'ten; süre dolunca keystore'dan yenilenir)
+            List<CertificateInfoDto> certificates = certificateInfoService.getCertificates(provider, pin);
             
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
@@ -107,7 +118,7 @@ public class CertificateInfoController {
         Map<String, Object> info = new HashMap<>();
         
         try {
-            KeyStoreProvider provider = createKeyStoreProvider();
+            KeyStoreProvider provider = keyStoreProvider;
             info.put("success", true);
             info.put("keystoreType", provider.getType());
             
@@ -120,6 +131,13 @@ public class CertificateInfoController {
             
             info.put("certificateAlias", config.getCertificateAlias());
             info.put("certificateSerialNumber", config.getCertificateSerialNumber());
+
+            // Kullanımdaki imzalama sertifikası; bellekteki materyalden okunur
+            SigningKey signingKey = keyRegistry.getDefaultKey();
+            X509Certificate certificate = signingKey.getMaterial().getSigningCertificate();
+            info.put("activeAlias", signingKey.getAlias());
+            info.put("activeSerialNumberHex", certificate.getSerialNumber().toString(16).toUpperCase());
+            info.put("activeValidTo", certificate.getNotAfter());
             
         } catch (Exception e) {
             info.put("success", false);
@@ -128,24 +146,4 @@ public class CertificateInfoController {
         
         return ResponseEntity.ok(info);
     }
-
-    /**
-     * Yapılandırmaya göre uygun KeyStoreProvider oluşturur.
-     */
-    private KeyStoreProvider createKeyStoreProvider() {
-        if (StringUtils.hasText(config.getPkcs11LibraryPath())) {
-            return new PKCS11KeyStoreProvider(
-                config.getPkcs11LibraryPath(),
-                config.getPkcs11Slot()
-            );
-        } else if (StringUtils.hasText(config.getPfxPath())) {
-            return new PfxKeyStoreProvider(config.getPfxPath());
-        } else {
-            throw new IllegalStateException(
-                "Ne PKCS11_LIBRARY ne de PFX_PATH yapılandırılmamış. " +
-                "Keystore bilgisi bulunamadı."
-            );
-        }
-    }
 }
-
@@ -1,10 +1,16 @@
 package io.mersel.dss.signer.api.controllers;
 
+import io.mersel.dss.signer.api.dtos.SignHashBatchRequestDto;
+import io.mersel.dss.signer.api.dtos.SignHashBatchResponseDto;
 import io.mersel.dss.signer.api.dtos.SignHashRequestDto;
 import io.mersel.dss.signer.api.dtos.SignHashResponseDto;
 import io.mersel.dss.signer.api.models.ErrorModel;
+import io.mersel.dss.signer.api.models.SigningCertificateArtifacts;
 import io.mersel.dss.signer.api.models.SigningMaterial;
+import io.mersel.dss.signer.api.services.keystore.SigningKeyRegistry;
+import io.mersel.dss.signer.api.util.CryptoUtils;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -12,18 +18,19 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RestController;
 
-import java.security.Signature;
-import java.security.cert.CertificateEncodingException;
-import java.security.cert.X509Certificate;
+import java.util.ArrayList;
 import java.util.Base64;
+import java.util.List;
 
 /**
  * Hash imzalama için REST controller.
@@ -37,10 +44,13 @@ public class HashSignController {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(HashSignController.class);
 
-    private final SigningMaterial signingMaterial;
+    private final SigningKeyRegistry keyRegistry;
+    private final int batchMaxHashes;
 
-    public HashSignController(SigningMaterial signingMaterial) {
-        this.signingMaterial = signingMaterial;
+    public HashSignController(SigningKeyRegistry keyRegistry,
+                              @Value("${SIGN_HASH_BATCH_MAX_HASHES:1000}") int batchMaxHashes) {
+        this.keyRegistry = keyRegistry;
+        this.batchMaxHashes = batchMaxHashes;
     }
 
     @Operation(
@@ -72,7 +82,11 @@ public class HashSignController {
             description = "Sunucu hatası",
             content = @Content(schema = @Schema(implementation = ErrorModel.class)))
     })
-    public ResponseEntity<?> signHash(@RequestBody SignHashRequestDto request) {
+    public ResponseEntity<?> signHash(
+            @RequestBody SignHashRequestDto request,
+            @Parameter(description = "İmzalama anahtarı: alias veya hex seri numarası (opsiyonel, varsayılan anahtar)")
+            @RequestHeader(value = SigningKeyRegistry.KEY_SELECTOR_HEADER, required = false) String keySelector) {
+        SigningMaterial signingMaterial = keyRegistry.resolve(keySelector).getMaterial();
         try {
             // Validasyon
             if (request.getHash() == null || request.getHash().trim().isEmpty()) {
@@ -91,29 +105,32 @@ public class HashSignController {
                     .body(new ErrorModel("INVALID_BASE64", "Hash değeri geçerli Base64 formatında olmalıdır"));
             }
 
-            // İmza algoritmasını belirle
-            String signatureAlgorithm = getSignatureAlgorithm(request.getHashAlgorithm());
+            // İmza algoritmasını ve imzalanacak veriyi belirle
+            PreparedHash prepared;
+            try {
+                prepared = prepare(signingMaterial, request, hashBytes);
+            } catch (IllegalArgumentException e) {
+                LOGGER.warn("Hash imzalama isteği reddedildi: {}", e.getMessage());
+                return ResponseEntity.badRequest()
+                    .body(new ErrorModel("INVALID_HASH", e.getMessage()));
+            }
             
-            LOGGER.info("Hash imzalama başlıyor. Hash algoritması: {}, İmza algoritması: {}", 
-                request.getHashAlgorithm(), signatureAlgorithm);
+            LOGGER.info("Hash imzalama başlıyor. Hash algoritması: {}, İmza algoritması: {}, Ham mod: {}", 
+                request.getHashAlgorithm(), prepared.signatureAlgorithm, request.isPreHashed());
 
-            // Hash'i imzala
-            Signature signature = Signature.getInstance(signatureAlgorithm);
-            signature.initSign(signingMaterial.getPrivateKey());
-            signature.update(hashBytes);
-            byte[] signatureBytes = signature.sign();
+            // Hash'i havuzdaki bir imzalama oturumuyla imzala
+            byte[] signatureBytes = keyRegistry.sessionPool(signingMaterial).execute(
+                session -> session.sign(prepared.jcaAlgorithm, prepared.data));
 
             // Response oluştur
             SignHashResponseDto response = new SignHashResponseDto();
             response.setSignatureValue(Base64.getEncoder().encodeToString(signatureBytes));
-            response.setSignatureAlgorithm(signatureAlgorithm);
-            
-            // Sertifika bilgilerini ekle
-            X509Certificate cert = signingMaterial.getSigningCertificate();
-            response.setCertificate(Base64.getEncoder().encodeToString(cert.getEncoded()));
+            response.setSignatureAlgorithm(prepared.signatureAlgorithm);
             
-            // Sertifika zincirini PKCS7 formatında ekle
-            response.setCertificateChain(buildCertificateChainPEM());
+            // Sertifika ve zincir (PEM) materyal ile birlikte bir kez kodlanmıştır
+            SigningCertificateArtifacts artifacts = signingMaterial.getArtifacts();
+            response.setCertificate(artifacts.getCertificateBase64());
+            response.setCertificateChain(artifacts.getCertificateChainPem());
 
             LOGGER.info("Hash başarıyla imzalandı. İmza boyutu: {} bytes", signatureBytes.length);
 
@@ -126,13 +143,133 @@ public class HashSignController {
         }
     }
 
+    @Operation(
+        summary = "Birden çok hash değerini tek istekte imzalar",
+        description = "Client tarafında hazırlanan hash'leri aynı imzalama oturumunda art arda imzalar. " +
+                      "İmzalar istekteki sırayla döner; sertifika ve zincir yanıtta bir kez yer alır.\n\n" +
+                      "Her hash kendi `hashAlgorithm` değerini taşıyabilir (varsayılan SHA-256). " +
+                      "Bir istekteki en fazla hash sayısı SIGN_HASH_BATCH_MAX_HASHES ile sınırlıdır (varsayılan 1000)."
+    )
+    @PostMapping(value = "/v1/signhash/batch",
+        consumes = MediaType.APPLICATION_JSON_VALUE,
+        produces = MediaType.APPLICATION_JSON_VALUE)
+    @ApiResponses({
+        @ApiResponse(responseCode = "200",
+            description = "Hash'ler başarıyla imzalandı",
+            content = @Content(schema = @Schema(implementation = SignHashBatchResponseDto.class))),
+        @ApiResponse(responseCode = "400",
+            description = "Geçersiz istek",
+            content = @Content(schema = @Schema(implementation = ErrorModel.class))),
+        @ApiResponse(responseCode = "500",
+            description = "Sunucu hatası",
+            content = @Content(schema = @Schema(implementation = ErrorModel.class)))
+    })
+    public ResponseEntity<?> signHashBatch(
+            @RequestBody SignHashBatchRequestDto request,
+            @Parameter(description = "İmzalama anahtarı: alias veya hex seri numarası (opsiyonel, varsayılan anahtar)")
+            @RequestHeader(value = SigningKeyRegistry.KEY_SELECTOR_HEADER, required = false) String keySelector) {
+        SigningMaterial signingMaterial = keyRegistry.resolve(keySelector).getMaterial();
+        try {
+            List<SignHashRequestDto> items = request.getHashes();
+            if (items == null || items.isEmpty()) {
+                LOGGER.warn("Toplu hash imzalama isteği reddedildi: hash listesi boş");
+                return ResponseEntity.badRequest()
+                    .body(new ErrorModel("INVALID_INPUT", "En az bir hash zorunludur"));
+            }
+            if (items.size() > batchMaxHashes) {
+                LOGGER.warn("Toplu hash imzalama isteği reddedildi: {} hash (sınır {})", items.size(), batchMaxHashes);
+                return ResponseEntity.badRequest()
+                    .body(new ErrorModel("BATCH_TOO_LARGE",
+                        "Bir istekte en fazla " + batchMaxHashes + " hash imzalanabilir"));
+            }
+
+            // İmzalamadan önce tüm öğeleri doğrula
+            PreparedHash[] prepared = new PreparedHash[items.size()];
+            for (int i = 0; i < items.size(); i++) {
+                SignHashRequestDto item = items.get(i);
+                if (item == null || item.getHash() == null || item.getHash().trim().isEmpty()) {
+                    return ResponseEntity.badRequest()
+                        .body(new ErrorModel("INVALID_INPUT", "Hash değeri zorunludur (sıra: " + i + ")"));
+                }
+                byte[] hashBytes;
+                try {
+                    hashBytes = Base64.getDecoder().decode(item.getHash());
+                } catch (IllegalArgumentException e) {
+                    return ResponseEntity.badRequest()
+                        .body(new ErrorModel("INVALID_BASE64",
+                            "Hash değeri geçerli Base64 formatında olmalıdır (sıra: " + i + ")"));
+                }
+                try {
+                    prepared[i] = prepare(signingMaterial, item, hashBytes);
+                } catch (IllegalArgumentException e) {
+                    return ResponseEntity.badRequest()
+                        .body(new ErrorModel("INVALID_HASH", e.getMessage() + " (sıra: " + i + ")"));
+                }
+            }
+
+            LOGGER.info("Toplu hash imzalama başlıyor. Hash sayısı: {}", prepared.length);
+
+            // Tüm hash'ler tek oturumda art arda imzalanır
+            byte[][] signatureValues = keyRegistry.sessionPool(signingMaterial).execute(session -> {
+                byte[][] values = new byte[prepared.length][];
+                for (int i = 0; i < prepared.length; i++) {
+                    values[i] = session.sign(prepared[i].jcaAlgorithm, prepared[i].data);
+                }
+                return values;
+            });
+
+            List<SignHashBatchResponseDto.Signature> signatures = new ArrayList<>(signatureValues.length);
+            for (int i = 0; i < signatureValues.length; i++) {
+                signatures.add(new SignHashBatchResponseDto.Signature(
+                    Base64.getEncoder().encodeToString(signatureValues[i]), prepared[i].signatureAlgorithm));
+            }
+
+            SigningCertificateArtifacts artifacts = signingMaterial.getArtifacts();
+            SignHashBatchResponseDto response = new SignHashBatchResponseDto();
+            response.setSignatures(signatures);
+            response.setCertificate(artifacts.getCertificateBase64());
+            response.setCertificateChain(artifacts.getCertificateChainPem());
+
+            LOGGER.info("Toplu hash imzalama tamamlandı. İmza sayısı: {}", signatures.size());
+
+            return ResponseEntity.ok(response);
+
+        } catch (Exception e) {
+            LOGGER.error("Toplu hash imzalama hatası", e);
+            return ResponseEntity.internalServerError()
+                .body(new ErrorModel("SIGN_ERROR", "Toplu hash imzalama başarısız: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * İmzalanacak veriyi ve JCA algoritmasını belirler. Ham modda (preHashed)
+     * özet tekrar özetlenmez: RSA anahtarlarında DigestInfo'ya sarılıp
+     * NONEwithRSA, EC anahtarlarında doğrudan NONEwithECDSA ile imzalanır.
+     * Sonuç her iki modda da {@code SHA*withRSA/ECDSA} imzasıdır.
+     *
+     * @throws IllegalArgumentException Ham modda algoritma, özet uzunluğu veya anahtar tipi uymuyorsa
+     */
+    private PreparedHash prepare(SigningMaterial signingMaterial, SignHashRequestDto item, byte[] hashBytes) {
+        String signatureAlgorithm = getSignatureAlgorithm(signingMaterial, item.getHashAlgorithm());
+        if (!item.isPreHashed()) {
+            return new PreparedHash(signatureAlgorithm, signatureAlgorithm, hashBytes);
+        }
+        String rawAlgorithm = CryptoUtils.getRawSignatureAlgorithm(signingMaterial.getPrivateKey());
+        if ("NONEwithRSA".equals(rawAlgorithm)) {
+            return new PreparedHash(rawAlgorithm, signatureAlgorithm,
+                CryptoUtils.encodeDigestInfo(item.getHashAlgorithm(), hashBytes));
+        }
+        CryptoUtils.checkDigestLength(item.getHashAlgorithm(), hashBytes);
+        return new PreparedHash(rawAlgorithm, signatureAlgorithm, hashBytes);
+    }
+
     /**
      * Hash algoritmasına göre imza algoritmasını belirler.
      * RSA key için SHA*withRSA, EC key için SHA*withECDSA kullanılır.
      */
-    private String getSignatureAlgorithm(String hashAlgorithm) {
+    private String getSignatureAlgorithm(SigningMaterial signingMaterial, String hashAlgorithm) {
         String keyAlgorithm = signingMaterial.getPrivateKey().getAlgorithm();
-        String normalizedHash = hashAlgorithm.toUpperCase().replace("-", "");
+        String normalizedHash = CryptoUtils.normalizeHashAlgorithm(hashAlgorithm);
         
         if ("RSA".equals(keyAlgorithm)) {
             switch (normalizedHash) {
@@ -165,18 +302,17 @@ public class HashSignController {
     }
 
     /**
-     * Sertifika zincirini PEM formatında birleştirir.
+     * Oturumda imzalanacak veri; {@code signatureAlgorithm} yanıtta bildirilen eşdeğer algoritmadır.
      */
-    private String buildCertificateChainPEM() throws CertificateEncodingException {
-        StringBuilder pemChain = new StringBuilder();
-        
-        for (X509Certificate cert : signingMaterial.getCertificateChain()) {
-            pemChain.append("-----BEGIN CERTIFICATE-----\n");
-            pemChain.append(Base64.getMimeEncoder(64, "\n".getBytes())
-                .encodeToString(cert.getEncoded()));
-            pemChain.append("\n-----END CERTIFICATE-----\n");
+    private static final class PreparedHash {
+        private final String jcaAlgorithm;
+        private final String signatureAlgorithm;
+        private final byte[] data;
+
+        private PreparedHash(String jcaAlgorithm, String signatureAlgorithm, byte[] data) {
+            this.jcaAlgorithm = jcaAlgorithm;
+            this.signatureAlgorithm = signatureAlgorithm;
+            this.data = data;
         }
-        
-        return pemChain.toString();
     }
 }
@@ -1,8 +1,11 @@
 package io.mersel.dss.signer.api.controllers;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.UUID;
 
-import io.mersel.dss.signer.api.models.SigningMaterial;
+import io.mersel.dss.signer.api.models.SigningKey;
+import io.mersel.dss.signer.api.services.keystore.SigningKeyRegistry;
 import io.mersel.dss.signer.api.services.signature.pades.PAdESSignatureService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -11,11 +14,14 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -27,6 +33,7 @@ import io.mersel.dss.signer.api.models.SignResponse;
 /**
  * PAdES (PDF İleri Seviye Elektronik İmza) işlemleri için REST controller.
  * CAdES tabanlı PDF belge imzalama işlemlerini yönetir.
+ * Büyük PDF'ler {@code /v1/padessign/stream} ile geçici dosyalar üzerinden imzalanır.
  */
 @RestController
 @CrossOrigin(origins = "*", allowedHeaders = "*", methods = {RequestMethod.GET, RequestMethod.POST, RequestMethod.PUT, RequestMethod.DELETE, RequestMethod.OPTIONS})
@@ -35,12 +42,12 @@ public class PadesController {
     private static final Logger LOGGER = LoggerFactory.getLogger(PadesController.class);
 
     private final PAdESSignatureService padesSignatureService;
-    private final SigningMaterial signingMaterial;
+    private final SigningKeyRegistry keyRegistry;
 
     public PadesController(PAdESSignatureService padesSignatureService,
-                          SigningMaterial signingMaterial) {
+                          SigningKeyRegistry keyRegistry) {
         this.padesSignatureService = padesSignatureService;
-        this.signingMaterial = signingMaterial;
+        this.keyRegistry = keyRegistry;
     }
 
     @Operation(
@@ -56,7 +63,11 @@ public class PadesController {
             content = @Content(schema = @Schema(implementation = ErrorModel.class))),
         @ApiResponse(responseCode = "500")
     })
-    public ResponseEntity<?> signPades(@ModelAttribute SignPadesDto dto) {
+    public ResponseEntity<?> signPades(
+            @ModelAttribute SignPadesDto dto,
+            @Parameter(description = "İmzalama anahtarı: alias veya hex seri numarası (opsiyonel, varsayılan anahtar)")
+            @RequestHeader(value = SigningKeyRegistry.KEY_SELECTOR_HEADER, required = false) String keySelector) {
+        SigningKey signingKey = keyRegistry.resolve(keySelector);
         try {
             if (dto.getDocument() == null) {
                 LOGGER.warn("Geçersiz istek: PDF belgesi eksik");
@@ -74,7 +85,7 @@ public class PadesController {
                 attachment,
                 dto.getAttachmentFileName(),
                 appendMode,
-                signingMaterial
+                signingKey.getMaterial()
             );
 
             LOGGER.info("PAdES imzası başarıyla oluşturuldu (ekleme modu: {})", appendMode);
@@ -90,4 +101,98 @@ public class PadesController {
                 .body(new ErrorModel("SIGNATURE_FAILED", e.getMessage()));
         }
     }
+
+    @Operation(
+        summary = "Büyük PDF belgelerini dosya tabanlı PAdES imzası ile imzalar",
+        description = "/v1/padessign ile aynı imzayı üretir; ancak PDF, dosya eki ve imzalı çıktı bellek " +
+                     "yerine geçici dosyalarda tutulur. Girdi kısmi modda okunur, imzalanan byte aralıkları dosyadan parça parça " +
+                     "özetlenir ve imzalı PDF yanıta akış olarak yazılır. Geçici dosyalar yanıt tamamlanınca silinir " +
+                     "(dizin: PADES_TEMP_DIR, varsayılan sistem geçici dizini)."
+    )
+    @RequestMapping(value = "/v1/padessign/stream", method = RequestMethod.POST,
+        consumes = {MediaType.MULTIPART_FORM_DATA_VALUE})
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", 
+            content = @Content(mediaType = MediaType.APPLICATION_PDF_VALUE, schema = @Schema(type = "string", format = "binary"))),
+        @ApiResponse(responseCode = "400", 
+            content = @Content(schema = @Schema(implementation = ErrorModel.class))),
+        @ApiResponse(responseCode = "500")
+    })
+    public ResponseEntity<?> signPadesStream(
+            @ModelAttribute SignPadesDto dto,
+            @Parameter(description = "İmzalama anahtarı: alias veya hex seri numarası (opsiyonel, varsayılan anahtar)")
+            @RequestHeader(value = SigningKeyRegistry.KEY_SELECTOR_HEADER, required = false) String keySelector) {
+        SigningKey signingKey = keyRegistry.resolve(keySelector);
+        if (dto.getDocument() == null || dto.getDocument().isEmpty()) {
+            LOGGER.warn("Geçersiz istek: PDF belgesi eksik");
+            return ResponseEntity.badRequest()
+                .body(new ErrorModel("INVALID_INPUT", "PDF belgesi zorunludur"));
+        }
+
+        Path input = null;
+        Path output = null;
+        Path attachment = null;
+        try {
+            boolean appendMode = Boolean.TRUE.equals(dto.getAppendMode());
+
+            // Yüklenen parçalar diske taşınır; belge ve ek heap'e alınmaz
+            input = padesSignatureService.createTempFile("pades-in-", ".pdf");
+            output = padesSignatureService.createTempFile("pades-out-", ".pdf");
+            dto.getDocument().transferTo(input.toFile());
+            if (dto.getAttachment() != null && !dto.getAttachment().isEmpty()) {
+                attachment = padesSignatureService.createTempFile("pades-attachment-", ".tmp");
+                dto.getAttachment().transferTo(attachment.toFile());
+            }
+
+            padesSignatureService.signPdfFile(
+                input,
+                output,
+                attachment,
+                dto.getAttachmentFileName(),
+                appendMode,
+                signingKey.getMaterial()
+            );
+
+            LOGGER.info("PAdES imzası dosya tabanlı olarak oluşturuldu (ekleme modu: {})", appendMode);
+
+            deleteQuietly(attachment);
+            Path signedInput = input;
+            Path signedOutput = output;
+            long length = Files.size(signedOutput);
+            StreamingResponseBody body = out -> {
+                try {
+                    Files.copy(signedOutput, out);
+                } finally {
+                    deleteQuietly(signedInput);
+                    deleteQuietly(signedOutput);
+                }
+            };
+
+            return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_PDF)
+                .contentLength(length)
+                .header("Content-Disposition",
+                    "attachment; filename=\"signed-" + UUID.randomUUID() + ".pdf\"")
+                .body(body);
+
+        } catch (Exception e) {
+            deleteQuietly(input);
+            deleteQuietly(output);
+            deleteQuietly(attachment);
+            LOGGER.error("PAdES imzası oluşturulurken hata", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new ErrorModel("SIGNATURE_FAILED", e.getMessage()));
+        }
+    }
+
+    private void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (Exception e) {
+            LOGGER.warn("Geçici PAdES dosyası silinemedi: {} - {}", file, e.getMessage());
+        }
+    }
 }
@@ -0,0 +1,100 @@
+package io.mersel.dss.signer.api.controllers;
+
+import io.mersel.dss.signer.api.exceptions.SigningKeyNotFoundException;
+import io.mersel.dss.signer.api.models.ErrorModel;
+import io.mersel.dss.signer.api.models.SigningKey;
+import io.mersel.dss.signer.api.services.keystore.SigningKeyRegistry;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.security.cert.X509Certificate;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * İmzalama anahtarı yönetimi. Sertifika yenilendiğinde anahtarın yeniden
+ * başlatma olmadan devreye alınması için kullanılır.
+ */
+@RestController
+@CrossOrigin(origins = "*", allowedHeaders = "*", methods = {RequestMethod.GET, RequestMethod.POST, RequestMethod.PUT, RequestMethod.DELETE, RequestMethod.OPTIONS})
+@RequestMapping("/api/signing-keys")
+@Tag(name = "Signing Keys", description = "İmzalama anahtarı yönetimi")
+public class SigningKeyController {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SigningKeyController.class);
+
+    private final SigningKeyRegistry keyRegistry;
+
+    public SigningKeyController(SigningKeyRegistry keyRegistry) {
+        this.keyRegistry = keyRegistry;
+    }
+
+    @Operation(
+        summary = "İmzalama anahtarını yeniden yükler",
+        description = "Anahtarı keystore'dan (PFX veya PKCS#11) yeniden okur, deneme imzasıyla doğrular ve " +
+                     "yeni materyali tek adımda devreye alır. Devam eden imzalar eski materyalle tamamlanır; " +
+                     "yükleme başarısız olursa mevcut anahtar kullanılmaya devam eder. " +
+                     "Yenilenen sertifika farklı bir alias veya seri numarasıyla eklendiyse bu parametrelerle seçilir."
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Anahtar yeniden yüklendi"),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Anahtar adı tanımlı değil",
+            content = @Content(schema = @Schema(implementation = ErrorModel.class))
+        ),
+        @ApiResponse(
+            responseCode = "500",
+            description = "Anahtar yüklenemedi veya doğrulanamadı; mevcut anahtar korunur",
+            content = @Content(schema = @Schema(implementation = ErrorModel.class))
+        )
+    })
+    @PostMapping("/reload")
+    public ResponseEntity<?> reload(
+            @Parameter(description = "Anahtar adı (default, key-2, ...); boşsa varsayılan anahtar")
+            @RequestParam(value = "key", required = false) String keyName,
+            @Parameter(description = "Yeni sertifikanın alias'ı")
+            @RequestParam(value = "alias", required = false) String alias,
+            @Parameter(description = "Yeni sertifikanın hex seri numarası")
+            @RequestParam(value = "serialNumber", required = false) String serialNumber) {
+        try {
+            LOGGER.info("İmzalama anahtarı yeniden yükleme isteği alındı: {}",
+                keyName != null ? keyName : "default");
+
+            SigningKey key = keyRegistry.reload(keyName, alias, serialNumber);
+            X509Certificate certificate = key.getMaterial().getSigningCertificate();
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("key", key.getName());
+            response.put("alias", key.getAlias());
+            response.put("serialNumberHex", certificate.getSerialNumber().toString(16));
+            response.put("subject", certificate.getSubjectX500Principal().getName());
+            response.put("validTo", certificate.getNotAfter());
+            return ResponseEntity.ok(response);
+
+        } catch (SigningKeyNotFoundException e) {
+            throw e;
+
+        } catch (Exception e) {
+            LOGGER.error("İmzalama anahtarı yeniden yüklenemedi", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new ErrorModel("RELOAD_FAILED", "Anahtar yeniden yüklenemedi: " + e.getMessage()));
+        }
+    }
+}
@@ -3,7 +3,7 @@ package io.mersel.dss.signer.api.controllers;
 import io.mersel.dss.signer.api.dtos.TubitakCreditResponseDto;
 import io.mersel.dss.signer.api.exceptions.TimestampException;
 import io.mersel.dss.signer.api.models.ErrorModel;
-import io.mersel.dss.signer.api.services.timestamp.tubitak.TubitakCreditService;
+import io.mersel.dss.signer.api.services.timestamp.tubitak.TubitakCreditMonitor;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -31,15 +31,17 @@ public class TubitakController {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(TubitakController.class);
 
-    private final TubitakCreditService tubitakCreditService;
+    private final TubitakCreditMonitor tubitakCreditMonitor;
 
-    public TubitakController(TubitakCreditService tubitakCreditService) {
-        this.tubitakCreditService = tubitakCreditService;
+    public TubitakController(TubitakCreditMonitor tubitakCreditMonitor) {
+        this.tubitakCreditMonitor = tubitakCreditMonitor;
     }
 
     @Operation(
         summary = "TÜBİTAK zaman damgası kontör bilgisini sorgular",
         description = "TÜBİTAK ESYA zaman damgası servisi için kalan kontör miktarını döndürür. " +
+                     "Bakiye arka planda periyodik olarak sorgulanır; son sorgudan sonra harcanan kontör düşülerek " +
+                     "tahmini bakiye döner. " +
                      "Bu endpoint sadece IS_TUBITAK_TSP=true olarak yapılandırılmışsa kullanılabilir."
     )
     @ApiResponses({
@@ -64,7 +66,7 @@ public class TubitakController {
         try {
             LOGGER.info("TÜBİTAK kontör sorgulama isteği alındı");
 
-            if (!tubitakCreditService.isAvailable()) {
+            if (!tubitakCreditMonitor.isAvailable()) {
                 LOGGER.warn("TÜBİTAK servisi kullanılamıyor - yapılandırma kontrol edin");
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                     .body(new ErrorModel(
@@ -74,7 +76,7 @@ public class TubitakController {
                     ));
             }
 
-            TubitakCreditResponseDto creditInfo = tubitakCreditService.checkCredit();
+            TubitakCreditResponseDto creditInfo = tubitakCreditMonitor.getCredit();
 
             LOGGER.info("TÜBİTAK kontör sorgulaması başarılı. Kalan kontör: {}",
                     creditInfo.getRemainingCredit());
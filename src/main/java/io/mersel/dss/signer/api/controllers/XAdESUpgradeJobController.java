@@ -0,0 +1,100 @@
+package io.mersel.dss.signer.api.controllers;
+
+import io.mersel.dss.signer.api.dtos.UpgradeJobStatusDto;
+import io.mersel.dss.signer.api.models.ErrorModel;
+import io.mersel.dss.signer.api.models.enums.UpgradeJobStatus;
+import io.mersel.dss.signer.api.services.signature.xades.XAdESUpgradeJobService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Ertelenmiş XAdES-A yükseltme işlerinin durumunu ve sonucunu sunan controller.
+ */
+@RestController
+@CrossOrigin(origins = "*", allowedHeaders = "*", methods = {RequestMethod.GET, RequestMethod.POST, RequestMethod.PUT, RequestMethod.DELETE, RequestMethod.OPTIONS})
+@RequestMapping("/v1/xadessign/jobs")
+@Tag(name = "XAdES Upgrade Jobs", description = "Ertelenmiş e-Arşiv Raporu XAdES-A yükseltme işleri")
+public class XAdESUpgradeJobController {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(XAdESUpgradeJobController.class);
+
+    private final XAdESUpgradeJobService upgradeJobService;
+
+    public XAdESUpgradeJobController(XAdESUpgradeJobService upgradeJobService) {
+        this.upgradeJobService = upgradeJobService;
+    }
+
+    @Operation(
+        summary = "Yükseltme işinin durumunu sorgular",
+        description = "PENDING, RUNNING, COMPLETED veya FAILED durumunu, deneme sayısını ve son hatayı döndürür"
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200",
+            content = @Content(schema = @Schema(implementation = UpgradeJobStatusDto.class))),
+        @ApiResponse(responseCode = "404",
+            content = @Content(schema = @Schema(implementation = ErrorModel.class)))
+    })
+    @GetMapping("/{jobId}")
+    public ResponseEntity<?> getJobStatus(@PathVariable String jobId) {
+        UpgradeJobStatusDto status = upgradeJobService.getStatus(jobId);
+        if (status == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(new ErrorModel("JOB_NOT_FOUND", "Yükseltme işi bulunamadı: " + jobId));
+        }
+        return ResponseEntity.ok(status);
+    }
+
+    @Operation(
+        summary = "XAdES-A seviyesine yükseltilmiş belgeyi indirir",
+        description = "İş tamamlanmadıysa 409 döner; durum /v1/xadessign/jobs/{jobId} ile takip edilmelidir"
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200",
+            content = @Content(schema = @Schema(type = "string", format = "binary"))),
+        @ApiResponse(responseCode = "404",
+            content = @Content(schema = @Schema(implementation = ErrorModel.class))),
+        @ApiResponse(responseCode = "409",
+            content = @Content(schema = @Schema(implementation = ErrorModel.class)))
+    })
+    @GetMapping("/{jobId}/document")
+    public ResponseEntity<?> getUpgradedDocument(@PathVariable String jobId) {
+        try {
+            UpgradeJobStatusDto status = upgradeJobService.getStatus(jobId);
+            if (status == null) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(new ErrorModel("JOB_NOT_FOUND", "Yükseltme işi bulunamadı: " + jobId));
+            }
+
+            if (status.getStatus() != UpgradeJobStatus.COMPLETED) {
+                return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(new ErrorModel("JOB_NOT_COMPLETED",
+                        "Yükseltme işi henüz tamamlanmadı. Durum: " + status.getStatus()));
+            }
+
+            byte[] document = upgradeJobService.getUpgradedDocument(jobId);
+            return ResponseEntity.ok()
+                .header("Content-Disposition",
+                    "attachment; filename=\"signed-" + jobId + ".xml\"")
+                .body(document);
+
+        } catch (Exception e) {
+            LOGGER.error("Yükseltilmiş belge okunamadı: {}", jobId, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new ErrorModel("JOB_READ_FAILED", e.getMessage()));
+        }
+    }
+}
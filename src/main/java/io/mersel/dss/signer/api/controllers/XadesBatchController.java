@@ -0,0 +1,152 @@
+package io.mersel.dss.signer.api.controllers;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import io.mersel.dss.signer.api.exceptions.SignatureException;
+import io.mersel.dss.signer.api.models.SigningKey;
+import io.mersel.dss.signer.api.services.keystore.SigningKeyRegistry;
+import io.mersel.dss.signer.api.services.signature.xades.XAdESBatchSignatureService;
+import io.mersel.dss.signer.api.services.util.CompressionService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.mersel.dss.signer.api.dtos.SignXadesBatchDto;
+import io.mersel.dss.signer.api.models.ErrorModel;
+import io.mersel.dss.signer.api.models.enums.DocumentType;
+
+/**
+ * Toplu XAdES imzalama için REST controller.
+ * Çok sayıda XML belgesini tek istekte imzalar ve ZIP olarak döndürür.
+ */
+@RestController
+@CrossOrigin(origins = "*", allowedHeaders = "*", methods = {RequestMethod.GET, RequestMethod.POST, RequestMethod.PUT, RequestMethod.DELETE, RequestMethod.OPTIONS})
+public class XadesBatchController {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(XadesBatchController.class);
+
+    private final XAdESBatchSignatureService batchSignatureService;
+    private final CompressionService compressionService;
+    private final SigningKeyRegistry keyRegistry;
+
+    public XadesBatchController(XAdESBatchSignatureService batchSignatureService,
+                                CompressionService compressionService,
+                                SigningKeyRegistry keyRegistry) {
+        this.batchSignatureService = batchSignatureService;
+        this.compressionService = compressionService;
+        this.keyRegistry = keyRegistry;
+    }
+
+    @Operation(
+        summary = "Birden fazla XML belgesini tek istekte XAdES ile imzalar",
+        description = "Belgeler 'Documents' multipart parçaları veya 'Archive' ZIP dosyası olarak gönderilir. " +
+                     "Yanıt, imzalı belgeleri ve her belgenin durumunu içeren manifest.json dosyasını " +
+                     "barındıran bir ZIP arşividir. Hatalı belgeler diğerlerini etkilemez."
+    )
+    @RequestMapping(value = "/v1/xadessign/batch", method = RequestMethod.POST,
+        consumes = {MediaType.MULTIPART_FORM_DATA_VALUE})
+    @ApiResponses({
+        @ApiResponse(responseCode = "200",
+            content = @Content(mediaType = "application/zip", schema = @Schema(type = "string", format = "binary"))),
+        @ApiResponse(responseCode = "400",
+            content = @Content(schema = @Schema(implementation = ErrorModel.class))),
+        @ApiResponse(responseCode = "500")
+    })
+    public ResponseEntity<?> signXadesBatch(
+            @ModelAttribute SignXadesBatchDto dto,
+            @Parameter(description = "İmzalama anahtarı: alias veya hex seri numarası (opsiyonel, varsayılan anahtar)")
+            @RequestHeader(value = SigningKeyRegistry.KEY_SELECTOR_HEADER, required = false) String keySelector) {
+        SigningKey signingKey = keyRegistry.resolve(keySelector);
+        try {
+            if (dto.getDocumentType() == null || dto.getDocumentType() == DocumentType.None) {
+                return ResponseEntity.badRequest()
+                    .body(new ErrorModel("INVALID_INPUT", "Belge tipi zorunludur"));
+            }
+
+            Map<String, byte[]> documents = collectDocuments(dto);
+            if (documents.isEmpty()) {
+                LOGGER.warn("Geçersiz toplu istek: belge bulunamadı");
+                return ResponseEntity.badRequest()
+                    .body(new ErrorModel("INVALID_INPUT", "En az bir belge gönderilmelidir"));
+            }
+            if (documents.size() > batchSignatureService.getMaxDocuments()) {
+                return ResponseEntity.badRequest()
+                    .body(new ErrorModel("BATCH_TOO_LARGE",
+                        "Toplu istekte en fazla " + batchSignatureService.getMaxDocuments() + " belge gönderilebilir"));
+            }
+
+            DocumentType documentType = dto.getDocumentType();
+            boolean deferUpgrade = Boolean.TRUE.equals(dto.getDeferUpgrade());
+
+            LOGGER.info("Toplu XAdES imzalama isteği. Belge sayısı: {}, belge tipi: {}",
+                documents.size(), documentType);
+
+            StreamingResponseBody body = output -> batchSignatureService.signBatch(
+                documents, documentType, deferUpgrade, signingKey.getMaterial(), output);
+
+            return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .header("Content-Disposition",
+                    "attachment; filename=\"signed-batch-" + UUID.randomUUID() + ".zip\"")
+                .body(body);
+
+        } catch (SignatureException e) {
+            LOGGER.warn("Geçersiz toplu istek: {}", e.getMessage());
+            return ResponseEntity.badRequest()
+                .body(new ErrorModel("INVALID_INPUT", e.getMessage()));
+
+        } catch (Exception e) {
+            LOGGER.error("Toplu XAdES imzalama başlatılamadı", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new ErrorModel("SIGNATURE_FAILED", e.getMessage()));
+        }
+    }
+
+    /**
+     * Multipart parçalarından veya ZIP arşivinden belgeleri sıralı olarak toplar.
+     * Aynı adlı veya adsız parçalar, mevcut adlarla çakışmayacak şekilde yeniden adlandırılır.
+     */
+    private Map<String, byte[]> collectDocuments(SignXadesBatchDto dto) throws Exception {
+        int maxDocuments = batchSignatureService.getMaxDocuments();
+
+        if (dto.getArchive() != null && !dto.getArchive().isEmpty()) {
+            return compressionService.unzipAllEntries(dto.getArchive().getInputStream(), maxDocuments);
+        }
+
+        Map<String, byte[]> documents = new LinkedHashMap<>();
+        if (dto.getDocuments() != null) {
+            for (MultipartFile file : dto.getDocuments()) {
+                if (file == null || file.isEmpty()) {
+                    continue;
+                }
+                String name = file.getOriginalFilename();
+                if (name != null) {
+                    name = name.substring(Math.max(name.lastIndexOf('/'), name.lastIndexOf('\\')) + 1);
+                }
+                if (name == null || name.trim().isEmpty()) {
+                    name = "document.xml";
+                }
+                documents.put(CompressionService.uniqueName(documents, name), file.getBytes());
+            }
+        }
+        return documents;
+    }
+}
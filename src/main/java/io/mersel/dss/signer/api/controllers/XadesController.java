@@ -2,7 +2,8 @@ package io.mersel.dss.signer.api.controllers;
 
 import java.util.UUID;
 
-import io.mersel.dss.signer.api.models.SigningMaterial;
+import io.mersel.dss.signer.api.models.SigningKey;
+import io.mersel.dss.signer.api.services.keystore.SigningKeyRegistry;
 import io.mersel.dss.signer.api.services.signature.wssecurity.WsSecuritySignatureService;
 import io.mersel.dss.signer.api.services.signature.xades.XAdESSignatureService;
 import io.mersel.dss.signer.api.util.Utilities;
@@ -13,12 +14,14 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RestController;
 import org.w3c.dom.Document;
 
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -41,25 +44,21 @@ public class XadesController {
 
     private final XAdESSignatureService xadesSignatureService;
     private final WsSecuritySignatureService wsSecuritySignatureService;
-    private final SigningMaterial signingMaterial;
-    private final String signingAlias;
-    private final char[] signingPin;
+    private final SigningKeyRegistry keyRegistry;
 
     public XadesController(XAdESSignatureService xadesSignatureService,
                           WsSecuritySignatureService wsSecuritySignatureService,
-                          SigningMaterial signingMaterial,
-                          String signingAlias,
-                          char[] signingPin) {
+                          SigningKeyRegistry keyRegistry) {
         this.xadesSignatureService = xadesSignatureService;
         this.wsSecuritySignatureService = wsSecuritySignatureService;
-        this.signingMaterial = signingMaterial;
-        this.signingAlias = signingAlias;
-        this.signingPin = signingPin;
+        this.keyRegistry = keyRegistry;
     }
 
     @Operation(
         summary = "XML belgelerini XAdES imzası ile imzalar",
-        description = "e-Fatura, e-Arşiv Raporu, Uygulama Yanıtı, İrsaliye, HrXml ve diğer XML belgelerini destekler"
+        description = "e-Fatura, e-Arşiv Raporu, Uygulama Yanıtı, İrsaliye, HrXml ve diğer XML belgelerini destekler. " +
+                     "DeferUpgrade=true ile e-Arşiv Raporu XAdES-B olarak hemen döner; XAdES-A belgesi " +
+                     "x-upgrade-job-id ile /v1/xadessign/jobs/{jobId} üzerinden alınır"
     )
     @RequestMapping(value = "/v1/xadessign", method = RequestMethod.POST, 
         consumes = {MediaType.MULTIPART_FORM_DATA_VALUE})
@@ -70,7 +69,11 @@ public class XadesController {
             content = @Content(schema = @Schema(implementation = ErrorModel.class))),
         @ApiResponse(responseCode = "500")
     })
-    public ResponseEntity<?> signXades(@ModelAttribute SignXadesDto dto) {
+    public ResponseEntity<?> signXades(
+            @ModelAttribute SignXadesDto dto,
+            @Parameter(description = "İmzalama anahtarı: alias veya hex seri numarası (opsiyonel, varsayılan anahtar)")
+            @RequestHeader(value = SigningKeyRegistry.KEY_SELECTOR_HEADER, required = false) String keySelector) {
+        SigningKey signingKey = keyRegistry.resolve(keySelector);
         try {
             if (dto.getDocument() == null || dto.getDocumentType() == DocumentType.None) {
                 LOGGER.warn("Geçersiz istek: belge veya belge tipi eksik");
@@ -79,23 +82,28 @@ public class XadesController {
             }
 
             boolean zipped = Boolean.TRUE.equals(dto.getZipFile());
+            boolean deferUpgrade = Boolean.TRUE.equals(dto.getDeferUpgrade());
             
             SignResponse result = xadesSignatureService.signXml(
                 dto.getDocument().getInputStream(),
                 dto.getDocumentType(),
                 dto.getSignatureId(),
                 zipped,
-                signingMaterial
+                deferUpgrade,
+                signingKey.getMaterial()
             );
 
             LOGGER.info("XAdES imzası başarıyla oluşturuldu. Belge tipi: {}", 
                 dto.getDocumentType());
 
-            return ResponseEntity.ok()
+            ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
                 .header("x-signature-value", result.getSignatureValue())
                 .header("Content-Disposition", 
-                    "attachment; filename=\"signed-" + UUID.randomUUID() + ".xml\"")
-                .body(result.getSignedDocument());
+                    "attachment; filename=\"signed-" + UUID.randomUUID() + ".xml\"");
+            if (result.getUpgradeJobId() != null) {
+                builder.header("x-upgrade-job-id", result.getUpgradeJobId());
+            }
+            return builder.body(result.getSignedDocument());
 
         } catch (Exception e) {
             LOGGER.error("XAdES imzası oluşturulurken hata", e);
@@ -117,7 +125,11 @@ public class XadesController {
             content = @Content(schema = @Schema(implementation = ErrorModel.class))),
         @ApiResponse(responseCode = "500")
     })
-    public ResponseEntity<?> signWsSecurity(@ModelAttribute SignWsSecurityDto dto) {
+    public ResponseEntity<?> signWsSecurity(
+            @ModelAttribute SignWsSecurityDto dto,
+            @Parameter(description = "İmzalama anahtarı: alias veya hex seri numarası (opsiyonel, varsayılan anahtar)")
+            @RequestHeader(value = SigningKeyRegistry.KEY_SELECTOR_HEADER, required = false) String keySelector) {
+        SigningKey signingKey = keyRegistry.resolve(keySelector);
         try {
             if (dto.getDocument() == null || dto.getDocument().isEmpty()) {
                 LOGGER.warn("Geçersiz istek: SOAP belgesi eksik");
@@ -136,9 +148,9 @@ public class XadesController {
             SignResponse result = wsSecuritySignatureService.signSoapEnvelope(
                 soapDocument,
                 useSoap12,
-                signingMaterial,
-                signingAlias,
-                signingPin
+                signingKey.getMaterial(),
+                signingKey.getAlias(),
+                signingKey.getPin()
             );
 
             LOGGER.info("WS-Security imzası başarıyla oluşturuldu (SOAP {})", useSoap12 ? "1.2" : "1.1");
@@ -0,0 +1,89 @@
+package io.mersel.dss.signer.api.dtos;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Toplu imzalama yanıtında tek bir belgenin sonucu.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchSignItemResultDto {
+
+    public static final String STATUS_SIGNED = "SIGNED";
+    public static final String STATUS_FAILED = "FAILED";
+
+    @JsonProperty("name")
+    private String name;
+
+    @JsonProperty("status")
+    private String status;
+
+    @JsonProperty("signatureValue")
+    private String signatureValue;
+
+    @JsonProperty("upgradeJobId")
+    private String upgradeJobId;
+
+    @JsonProperty("error")
+    private String error;
+
+    public BatchSignItemResultDto() {
+    }
+
+    public static BatchSignItemResultDto signed(String name, String signatureValue, String upgradeJobId) {
+        BatchSignItemResultDto result = new BatchSignItemResultDto();
+        result.name = name;
+        result.status = STATUS_SIGNED;
+        result.signatureValue = signatureValue;
+        result.upgradeJobId = upgradeJobId;
+        return result;
+    }
+
+    public static BatchSignItemResultDto failed(String name, String error) {
+        BatchSignItemResultDto result = new BatchSignItemResultDto();
+        result.name = name;
+        result.status = STATUS_FAILED;
+        result.error = error;
+        return result;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getSignatureValue() {
+        return signatureValue;
+    }
+
+    public void setSignatureValue(String signatureValue) {
+        this.signatureValue = signatureValue;
+    }
+
+    public String getUpgradeJobId() {
+        return upgradeJobId;
+    }
+
+    public void setUpgradeJobId(String upgradeJobId) {
+        this.upgradeJobId = upgradeJobId;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
@@ -0,0 +1,47 @@
+package io.mersel.dss.signer.api.dtos;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * İçerik özetinden ayrık (detached) CAdES imzalama isteği için DTO.
+ * İçerik gönderilmez; istemci özeti kendisi hesaplar.
+ */
+@Schema(description = "Özetten ayrık CAdES imzalama isteği")
+public class SignCadesDigestDto {
+
+    @Schema(description = "İmzalanacak içeriğin Base64 encoded özeti", required = true,
+            example = "n4bQgYhMfWWaL+qgxVrQFaO/TxsrC4Is0V1sFbDwCgg=")
+    private String digest;
+
+    @Schema(description = "Özet algoritması", example = "SHA-256", defaultValue = "SHA-256",
+            allowableValues = {"SHA-256", "SHA-384", "SHA-512"})
+    private String digestAlgorithm = "SHA-256";
+
+    @Schema(description = "Zaman damgası türü: none, signature", defaultValue = "signature",
+            allowableValues = {"none", "signature"})
+    private String timestampType = "signature";
+
+    public String getDigest() {
+        return digest;
+    }
+
+    public void setDigest(String digest) {
+        this.digest = digest;
+    }
+
+    public String getDigestAlgorithm() {
+        return digestAlgorithm;
+    }
+
+    public void setDigestAlgorithm(String digestAlgorithm) {
+        this.digestAlgorithm = digestAlgorithm;
+    }
+
+    public String getTimestampType() {
+        return timestampType;
+    }
+
+    public void setTimestampType(String timestampType) {
+        this.timestampType = timestampType;
+    }
+}
@@ -0,0 +1,26 @@
+package io.mersel.dss.signer.api.dtos;
+
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+/**
+ * Toplu hash imzalama isteği için DTO.
+ * Her öğe kendi hash algoritmasını taşır; imzalar aynı sırayla döner.
+ */
+@Schema(description = "Toplu hash imzalama isteği")
+public class SignHashBatchRequestDto {
+
+    @ArraySchema(arraySchema = @Schema(description = "İmzalanacak hash'ler (sıralı)", required = true),
+        schema = @Schema(implementation = SignHashRequestDto.class))
+    private List<SignHashRequestDto> hashes;
+
+    public List<SignHashRequestDto> getHashes() {
+        return hashes;
+    }
+
+    public void setHashes(List<SignHashRequestDto> hashes) {
+        this.hashes = hashes;
+    }
+}
@@ -0,0 +1,83 @@
+package io.mersel.dss.signer.api.dtos;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+/**
+ * Toplu hash imzalama yanıtı için DTO.
+ * Sertifika ve zincir tüm imzalar için bir kez döner.
+ */
+@Schema(description = "Toplu hash imzalama yanıtı")
+public class SignHashBatchResponseDto {
+
+    @Schema(description = "İmzalar, istekteki hash sırasıyla")
+    private List<Signature> signatures;
+
+    @Schema(description = "Base64 encoded imzalama sertifikası (DER format)")
+    private String certificate;
+
+    @Schema(description = "Sertifika zinciri (PEM format)")
+    private String certificateChain;
+
+    public List<Signature> getSignatures() {
+        return signatures;
+    }
+
+    public void setSignatures(List<Signature> signatures) {
+        this.signatures = signatures;
+    }
+
+    public String getCertificate() {
+        return certificate;
+    }
+
+    public void setCertificate(String certificate) {
+        this.certificate = certificate;
+    }
+
+    public String getCertificateChain() {
+        return certificateChain;
+    }
+
+    public void setCertificateChain(String certificateChain) {
+        this.certificateChain = certificateChain;
+    }
+
+    /**
+     * Tek bir hash'in imzası.
+     */
+    @Schema(name = "SignHashBatchSignature", description = "Toplu istekteki tek bir hash'in imzası")
+    public static class Signature {
+
+        @Schema(description = "Base64 encoded imza değeri")
+        private String signatureValue;
+
+        @Schema(description = "Kullanılan imza algoritması")
+        private String signatureAlgorithm;
+
+        public Signature() {
+        }
+
+        public Signature(String signatureValue, String signatureAlgorithm) {
+            this.signatureValue = signatureValue;
+            this.signatureAlgorithm = signatureAlgorithm;
+        }
+
+        public String getSignatureValue() {
+            return signatureValue;
+        }
+
+        public void setSignatureValue(String signatureValue) {
+            this.signatureValue = signatureValue;
+        }
+
+        public String getSignatureAlgorithm() {
+            return signatureAlgorithm;
+        }
+
+        public void setSignatureAlgorithm(String signatureAlgorithm) {
+            this.signatureAlgorithm = signatureAlgorithm;
+        }
+    }
+}
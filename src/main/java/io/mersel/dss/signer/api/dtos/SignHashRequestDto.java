@@ -15,6 +15,11 @@ public class SignHashRequestDto {
     @Schema(description = "Hash algoritması", example = "SHA-256", defaultValue = "SHA-256")
     private String hashAlgorithm = "SHA-256";
 
+    @Schema(description = "true ise hash, hashAlgorithm ile hesaplanmış özet olarak imzalanır ve tekrar özetlenmez " +
+        "(RSA: DigestInfo + NONEwithRSA, EC: NONEwithECDSA); sonuç standart SHA*withRSA/ECDSA imzasıdır",
+        defaultValue = "false")
+    private boolean preHashed;
+
     public String getHash() {
         return hash;
     }
@@ -30,4 +35,12 @@ public class SignHashRequestDto {
     public void setHashAlgorithm(String hashAlgorithm) {
         this.hashAlgorithm = hashAlgorithm;
     }
+
+    public boolean isPreHashed() {
+        return preHashed;
+    }
+
+    public void setPreHashed(boolean preHashed) {
+        this.preHashed = preHashed;
+    }
 }
@@ -0,0 +1,50 @@
+package io.mersel.dss.signer.api.dtos;
+
+import java.util.List;
+
+import org.springframework.web.multipart.MultipartFile;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.mersel.dss.signer.api.models.enums.DocumentType;
+
+public class SignXadesBatchDto {
+    private List<MultipartFile> Documents;
+    private MultipartFile Archive;
+    private DocumentType DocumentType;
+    private Boolean DeferUpgrade;
+
+    public List<MultipartFile> getDocuments() {
+        return Documents;
+    }
+
+    @Schema(description = "İmzalanacak XML belgeleri (her biri ayrı multipart parça)")
+    public void setDocuments(List<MultipartFile> documents) {
+        Documents = documents;
+    }
+
+    public MultipartFile getArchive() {
+        return Archive;
+    }
+
+    @Schema(description = "İmzalanacak XML belgelerini içeren ZIP arşivi (Documents yerine)")
+    public void setArchive(MultipartFile archive) {
+        Archive = archive;
+    }
+
+    public io.mersel.dss.signer.api.models.enums.DocumentType getDocumentType() {
+        return DocumentType;
+    }
+
+    @Schema(enumAsRef = true)
+    public void setDocumentType(io.mersel.dss.signer.api.models.enums.DocumentType documentType) {
+        DocumentType = documentType;
+    }
+
+    public Boolean getDeferUpgrade() {
+        return DeferUpgrade;
+    }
+
+    public void setDeferUpgrade(Boolean deferUpgrade) {
+        DeferUpgrade = deferUpgrade;
+    }
+}
@@ -12,6 +12,7 @@ public class SignXadesDto {
     private String SignatureId;
     private DocumentType DocumentType;
     private Boolean ZipFile;
+    private Boolean DeferUpgrade;
 
     public String getSignatureId() {
         return SignatureId;
@@ -47,4 +48,14 @@ public class SignXadesDto {
     public void setZipFile(Boolean zipFile) {
         ZipFile = zipFile;
     }
+
+    public Boolean getDeferUpgrade() {
+        return DeferUpgrade;
+    }
+
+    @Schema(description = "e-Arşiv Raporu için XAdES-A yükseltmesini arka plana ertele. "
+            + "XAdES-B imzalı belge hemen döner, iş ID'si x-upgrade-job-id header'ında gelir.")
+    public void setDeferUpgrade(Boolean deferUpgrade) {
+        DeferUpgrade = deferUpgrade;
+    }
 }
@@ -0,0 +1,89 @@
+package io.mersel.dss.signer.api.dtos;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.mersel.dss.signer.api.models.enums.UpgradeJobStatus;
+
+/**
+ * Ertelenmiş XAdES-A yükseltme işinin durum bilgisi.
+ */
+public class UpgradeJobStatusDto {
+
+    @JsonProperty("jobId")
+    private String jobId;
+
+    @JsonProperty("status")
+    private UpgradeJobStatus status;
+
+    @JsonProperty("attempts")
+    private int attempts;
+
+    @JsonProperty("createdAt")
+    private Long createdAt;
+
+    @JsonProperty("updatedAt")
+    private Long updatedAt;
+
+    @JsonProperty("lastError")
+    private String lastError;
+
+    public UpgradeJobStatusDto() {
+    }
+
+    public UpgradeJobStatusDto(String jobId, UpgradeJobStatus status, int attempts,
+                               Long createdAt, Long updatedAt, String lastError) {
+        this.jobId = jobId;
+        this.status = status;
+        this.attempts = attempts;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+        this.lastError = lastError;
+    }
+
+    public String getJobId() {
+        return jobId;
+    }
+
+    public void setJobId(String jobId) {
+        this.jobId = jobId;
+    }
+
+    public UpgradeJobStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(UpgradeJobStatus status) {
+        this.status = status;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public Long getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Long createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Long getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Long updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+}
@@ -0,0 +1,12 @@
+package io.mersel.dss.signer.api.exceptions;
+
+/**
+ * İstekte belirtilen anahtar seçici (alias veya seri numarası) hiçbir
+ * kayıtlı imzalama anahtarıyla eşleşmediğinde fırlatılır.
+ */
+public class SigningKeyNotFoundException extends SignatureException {
+
+    public SigningKeyNotFoundException(String message) {
+        super("SIGNING_KEY_NOT_FOUND", message);
+    }
+}
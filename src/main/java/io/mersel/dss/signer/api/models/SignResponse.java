@@ -5,12 +5,19 @@ import javax.validation.constraints.NotBlank;
 public class SignResponse {
     private byte[] SignedDocument;
     private String SignatureValue;
+    private String UpgradeJobId;
 
     public SignResponse(byte[] signedDocument, String signatureValue) {
         SignedDocument = signedDocument;
         SignatureValue = signatureValue;
     }
 
+    public SignResponse(byte[] signedDocument, String signatureValue, String upgradeJobId) {
+        SignedDocument = signedDocument;
+        SignatureValue = signatureValue;
+        UpgradeJobId = upgradeJobId;
+    }
+
     public byte[] getSignedDocument() {
         return SignedDocument;
     }
@@ -27,4 +34,15 @@ public class SignResponse {
     public void setSignatureValue(String SignatureValue) {
         this.SignatureValue = SignatureValue;
     }
+
+    /**
+     * Ertelenmiş XAdES-A yükseltme işinin tanımlayıcısı; yükseltme ertelenmediyse null.
+     */
+    public String getUpgradeJobId() {
+        return UpgradeJobId;
+    }
+
+    public void setUpgradeJobId(String UpgradeJobId) {
+        this.UpgradeJobId = UpgradeJobId;
+    }
 }
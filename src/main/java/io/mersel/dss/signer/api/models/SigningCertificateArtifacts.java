@@ -0,0 +1,140 @@
+package io.mersel.dss.signer.api.models;
+
+import eu.europa.esig.dss.model.x509.CertificateToken;
+import eu.europa.esig.dss.spi.x509.CommonCertificateSource;
+import io.mersel.dss.signer.api.exceptions.KeyStoreException;
+import org.bouncycastle.asn1.DERSet;
+import org.bouncycastle.asn1.cms.Attribute;
+import org.bouncycastle.asn1.ess.ESSCertIDv2;
+import org.bouncycastle.asn1.ess.SigningCertificateV2;
+import org.bouncycastle.asn1.nist.NISTObjectIdentifiers;
+import org.bouncycastle.asn1.pkcs.PKCSObjectIdentifiers;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.AlgorithmIdentifier;
+import org.bouncycastle.asn1.x509.GeneralName;
+import org.bouncycastle.asn1.x509.GeneralNames;
+import org.bouncycastle.asn1.x509.IssuerSerial;
+import org.bouncycastle.cert.X509CertificateHolder;
+import org.bouncycastle.util.CollectionStore;
+import org.bouncycastle.util.Store;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * İmzalama sertifikasından türeyen ve her imzada aynı kalan değerler.
+ * <p>
+ * {@link SigningMaterial} ile birlikte bir kez oluşturulur; CAdES/PAdES
+ * SigningCertificateV2 özniteliği, CMS sertifika deposu, WS-Security
+ * BinarySecurityToken içeriği, /v1/signhash PEM zinciri ve XAdES doğrulayıcısının
+ * yardımcı sertifika kaynağı istek başına yeniden hesaplanmaz. Tüm alanlar
+ * değiştirilemez veya salt okunur kullanılır.
+ */
+public final class SigningCertificateArtifacts {
+
+    private final X509CertificateHolder signingCertificateHolder;
+    private final Store<X509CertificateHolder> certificateStore;
+    private final Attribute signingCertificateV2Attribute;
+    private final String certificateBase64;
+    private final String certificateChainPem;
+    private final String binarySecurityTokenId;
+    private final CommonCertificateSource chainSource;
+
+    SigningCertificateArtifacts(X509Certificate signingCertificate,
+                                List<X509Certificate> certificateChain,
+                                List<CertificateToken> certificateTokens) {
+        try {
+            byte[] encoded = signingCertificate.getEncoded();
+            this.signingCertificateHolder = new X509CertificateHolder(encoded);
+            List<X509CertificateHolder> chainHolders = new ArrayList<>(certificateChain.size());
+            for (X509Certificate certificate : certificateChain) {
+                chainHolders.add(new X509CertificateHolder(certificate.getEncoded()));
+            }
+            this.certificateStore = new CollectionStore<>(chainHolders);
+
+            // SigningCertificateV2: SHA-256 sertifika özeti ve issuer/serial
+            byte[] certificateHash = MessageDigest.getInstance("SHA-256").digest(encoded);
+            IssuerSerial issuerSerial = new IssuerSerial(
+                new GeneralNames(new GeneralName(
+                    X500Name.getInstance(signingCertificate.getIssuerX500Principal().getEncoded()))),
+                signingCertificate.getSerialNumber());
+            ESSCertIDv2 essCert = new ESSCertIDv2(
+                new AlgorithmIdentifier(NISTObjectIdentifiers.id_sha256), certificateHash, issuerSerial);
+            this.signingCertificateV2Attribute = new Attribute(
+                PKCSObjectIdentifiers.id_aa_signingCertificateV2,
+                new DERSet(new SigningCertificateV2(new ESSCertIDv2[]{essCert})));
+
+            this.certificateBase64 = Base64.getEncoder().encodeToString(encoded);
+            this.binarySecurityTokenId = "X509-" + signingCertificate.getSerialNumber();
+
+            StringBuilder pemChain = new StringBuilder();
+            Base64.Encoder mimeEncoder = Base64.getMimeEncoder(64, "\n".getBytes(StandardCharsets.US_ASCII));
+            for (X509Certificate certificate : certificateChain) {
+                pemChain.append("-----BEGIN CERTIFICATE-----\n");
+                pemChain.append(mimeEncoder.encodeToString(certificate.getEncoded()));
+                pemChain.append("\n-----END CERTIFICATE-----\n");
+            }
+            this.certificateChainPem = pemChain.toString();
+        } catch (Exception e) {
+            throw new KeyStoreException("İmzalama sertifikası işlenemedi: " + e.getMessage(), e);
+        }
+
+        this.chainSource = new CommonCertificateSource();
+        for (CertificateToken token : certificateTokens) {
+            chainSource.addCertificate(token);
+        }
+    }
+
+    /**
+     * CMS SignerInfo için imzalama sertifikası.
+     */
+    public X509CertificateHolder getSigningCertificateHolder() {
+        return signingCertificateHolder;
+    }
+
+    /**
+     * CMS imzasına eklenecek sertifika zinciri.
+     */
+    public Store<X509CertificateHolder> getCertificateStore() {
+        return certificateStore;
+    }
+
+    /**
+     * SHA-256 ESSCertIDv2 içeren SigningCertificateV2 imzalı özniteliği.
+     */
+    public Attribute getSigningCertificateV2Attribute() {
+        return signingCertificateV2Attribute;
+    }
+
+    /**
+     * İmzalama sertifikasının satır sonu içermeyen Base64 DER kodlaması.
+     */
+    public String getCertificateBase64() {
+        return certificateBase64;
+    }
+
+    /**
+     * Sertifika zincirinin PEM formatı (64 karakter satırlı).
+     */
+    public String getCertificateChainPem() {
+        return certificateChainPem;
+    }
+
+    /**
+     * WS-Security BinarySecurityToken wsu:Id değeri.
+     */
+    public String getBinarySecurityTokenId() {
+        return binarySecurityTokenId;
+    }
+
+    /**
+     * Zincirin DSS sertifika kaynağı; doğrulayıcının yardımcı kaynaklarına bir kez eklenir.
+     */
+    public CommonCertificateSource getChainSource() {
+        return chainSource;
+    }
+}
@@ -0,0 +1,36 @@
+package io.mersel.dss.signer.api.models;
+
+/**
+ * Kayıtlı bir imzalama anahtarı: adı, keystore alias'ı, PIN'i ve imzalama materyali.
+ * İmza isteklerinde anahtar seçici ile çözümlenir.
+ */
+public final class SigningKey {
+
+    private final String name;
+    private final String alias;
+    private final char[] pin;
+    private final SigningMaterial material;
+
+    public SigningKey(String name, String alias, char[] pin, SigningMaterial material) {
+        this.name = name;
+        this.alias = alias;
+        this.pin = pin;
+        this.material = material;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getAlias() {
+        return alias;
+    }
+
+    public char[] getPin() {
+        return pin;
+    }
+
+    public SigningMaterial getMaterial() {
+        return material;
+    }
+}
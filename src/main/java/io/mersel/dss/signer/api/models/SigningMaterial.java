@@ -19,6 +19,7 @@ public final class SigningMaterial {
     private final X509Certificate signingCertificate;
     private final List<X509Certificate> certificateChain;
     private final List<CertificateToken> certificateTokens;
+    private final SigningCertificateArtifacts artifacts;
 
     public SigningMaterial(PrivateKey privateKey, 
                           X509Certificate signingCertificate,
@@ -29,6 +30,8 @@ public final class SigningMaterial {
         this.certificateTokens = this.certificateChain.stream()
                 .map(CertificateToken::new)
                 .collect(Collectors.toList());
+        this.artifacts = new SigningCertificateArtifacts(
+                signingCertificate, this.certificateChain, this.certificateTokens);
     }
 
     public PrivateKey getPrivateKey() {
@@ -50,5 +53,12 @@ public final class SigningMaterial {
     public CertificateToken getPrimaryCertificateToken() {
         return certificateTokens.get(0);
     }
+
+    /**
+     * Sertifikadan türeyen, imzalar arasında paylaşılan önceden hesaplanmış değerler.
+     */
+    public SigningCertificateArtifacts getArtifacts() {
+        return artifacts;
+    }
 }
 
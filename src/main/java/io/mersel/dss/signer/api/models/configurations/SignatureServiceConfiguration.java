@@ -54,6 +54,35 @@ public class SignatureServiceConfiguration {
     @Value("${MAX_SESSION_COUNT:5}")
     private int maxSessionCount;
 
+    @Value("${SIGNING_SESSION_ACQUIRE_TIMEOUT_MS:30000}")
+    private long signingSessionAcquireTimeoutMs;
+
+    @Value("${SIGNING_KEY_IDLE_EVICT_MS:1800000}")
+    private long signingKeyIdleEvictMs;
+
+    @Value("${SIGNING_KEY_MAX_LOADED:10}")
+    private int signingKeyMaxLoaded;
+
+    @Value("${MAX_NETWORK_CONCURRENCY:20}")
+    private int maxNetworkConcurrency;
+
+    @Value("${OCSP_CACHE_MAX_ENTRIES:1000}")
+    private int ocspCacheMaxEntries;
+
+    @Value("${HTTP_CONNECT_TIMEOUT_MS:5000}")
+    private int httpConnectTimeoutMs;
+
+    @Value("${HTTP_READ_TIMEOUT_MS:30000}")
+    private int httpReadTimeoutMs;
+
+    @Value("${HTTP_MAX_CONNECTIONS:100}")
+    private int httpMaxConnections;
+
+    @Value("${HTTP_MAX_CONNECTIONS_PER_ROUTE:20}")
+    private int httpMaxConnectionsPerRoute;
+
+    @Value("${HTTP_KEEP_ALIVE_MS:60000}")
+    private long httpKeepAliveMs;
 
     @Value("${CERTSTORE_PATH:SertifikaDeposu.svt}")
     private String certStorePath;
@@ -122,6 +151,46 @@ public class SignatureServiceConfiguration {
         return maxSessionCount;
     }
 
+    public long getSigningSessionAcquireTimeoutMs() {
+        return signingSessionAcquireTimeoutMs;
+    }
+
+    public long getSigningKeyIdleEvictMs() {
+        return signingKeyIdleEvictMs;
+    }
+
+    public int getSigningKeyMaxLoaded() {
+        return signingKeyMaxLoaded;
+    }
+
+    public int getMaxNetworkConcurrency() {
+        return maxNetworkConcurrency;
+    }
+
+    public int getOcspCacheMaxEntries() {
+        return ocspCacheMaxEntries;
+    }
+
+    public int getHttpConnectTimeoutMs() {
+        return httpConnectTimeoutMs;
+    }
+
+    public int getHttpReadTimeoutMs() {
+        return httpReadTimeoutMs;
+    }
+
+    public int getHttpMaxConnections() {
+        return httpMaxConnections;
+    }
+
+    public int getHttpMaxConnectionsPerRoute() {
+        return httpMaxConnectionsPerRoute;
+    }
+
+    public long getHttpKeepAliveMs() {
+        return httpKeepAliveMs;
+    }
+
     public boolean isTubitakTsp() {
         return isTubitakTsp;
     }
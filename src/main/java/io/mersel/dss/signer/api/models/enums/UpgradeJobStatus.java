@@ -0,0 +1,11 @@
+package io.mersel.dss.signer.api.models.enums;
+
+/**
+ * Ertelenmiş XAdES-A yükseltme işlerinin durumları.
+ */
+public enum UpgradeJobStatus {
+    PENDING,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -3,15 +3,22 @@ package io.mersel.dss.signer.api.services;
 import io.mersel.dss.signer.api.dtos.CertificateInfoDto;
 import io.mersel.dss.signer.api.exceptions.KeyStoreException;
 import io.mersel.dss.signer.api.services.keystore.KeyStoreProvider;
+import io.mersel.dss.signer.api.services.keystore.SigningKeyReloadedEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
 import java.security.KeyStore;
 import java.security.cert.X509Certificate;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Enumeration;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import org.bouncycastle.asn1.ASN1ObjectIdentifier;
 import org.bouncycastle.asn1.ASN1Sequence;
 import org.bouncycastle.asn1.ASN1String;
@@ -22,6 +29,10 @@ import org.bouncycastle.asn1.x509.Extension;
 
 /**
  * Keystore içerisindeki sertifika bilgilerini listeleme servisi.
+ * <p>
+ * API için liste keystore sağlayıcısı başına cache'lenir; böylece her istekte
+ * token'a login olunup tüm alias'lar okunmaz. Cache süre dolunca veya imzalama
+ * anahtarı yeniden yüklendiğinde yenilenir.
  */
 @Service
 public class CertificateInfoService {
@@ -32,6 +43,57 @@ public class CertificateInfoService {
     private static final String ID_QT_CPS = "1.3.6.1.5.5.7.2.1";
     private static final String ID_QT_UNOTICE = "1.3.6.1.5.5.7.2.2";
 
+    private final long cacheTtlMillis;
+    private final Map<KeyStoreProvider, CachedListing> listings = new ConcurrentHashMap<>();
+
+    /**
+     * Komut satırı kullanımı için; liste cache'lenmez.
+     */
+    public CertificateInfoService() {
+        this(0L);
+    }
+
+    @Autowired
+    public CertificateInfoService(@Value("${CERTIFICATE_LIST_CACHE_TTL_MS:300000}") long cacheTtlMillis) {
+        this.cacheTtlMillis = cacheTtlMillis;
+    }
+
+    /**
+     * Sertifika listesini cache'ten döndürür; cache boşsa veya süresi dolmuşsa
+     * keystore'dan bir kez okuyup cache'ler.
+     *
+     * @param provider KeyStore sağlayıcısı (PKCS11 veya PFX)
+     * @param pin KeyStore için PIN/şifre
+     * @return Değiştirilemez sertifika bilgileri listesi
+     */
+    public List<CertificateInfoDto> getCertificates(KeyStoreProvider provider, char[] pin) {
+        CachedListing cached = listings.get(provider);
+        if (cached != null && cached.isFresh(cacheTtlMillis)) {
+            return cached.certificates;
+        }
+        synchronized (provider) {
+            cached = listings.get(provider);
+            if (cached != null && cached.isFresh(cacheTtlMillis)) {
+                return cached.certificates;
+            }
+            List<CertificateInfoDto> certificates = Collections.unmodifiableList(listCertificates(provider, pin));
+            if (cacheTtlMillis > 0) {
+                listings.put(provider, new CachedListing(certificates));
+            }
+            return certificates;
+        }
+    }
+
+    /**
+     * İmzalama anahtarı yeniden yüklendiğinde keystore içeriği değişmiş
+     * olabileceğinden cache'lenen listeler bırakılır.
+     */
+    @EventListener
+    public void onSigningKeyReloaded(SigningKeyReloadedEvent event) {
+        listings.clear();
+        LOGGER.debug("Sertifika listesi cache'i temizlendi: {}", event.getKey().getName());
+    }
+
     /**
      * Verilen keystore provider'dan tüm sertifikaları listeler.
      * 
@@ -312,5 +374,17 @@ public class CertificateInfoService {
             return null;
         }
     }
-}
 
+    private static final class CachedListing {
+        private final List<CertificateInfoDto> certificates;
+        private final long loadedAt = System.currentTimeMillis();
+
+        private CachedListing(List<CertificateInfoDto> certificates) {
+            this.certificates = certificates;
+        }
+
+        private boolean isFresh(long ttlMillis) {
+            return System.currentTimeMillis() - loadedAt < ttlMillis;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package io.mersel.dss.signer.api.services.certificate;
 
+import eu.europa.esig.dss.spi.client.http.DataLoader;
 import org.bouncycastle.asn1.ASN1Encodable;
 import org.bouncycastle.asn1.ASN1ObjectIdentifier;
 import org.bouncycastle.asn1.ASN1Sequence;
@@ -10,8 +11,7 @@ import org.bouncycastle.cert.jcajce.JcaX509ExtensionUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.InputStream;
-import java.net.URL;
+import java.io.ByteArrayInputStream;
 import java.security.cert.CertificateFactory;
 import java.security.cert.X509Certificate;
 import java.util.ArrayList;
@@ -26,6 +26,15 @@ public class OnlineCertificateChainProvider implements CertificateChainProvider
     private static final Logger LOGGER = LoggerFactory.getLogger(OnlineCertificateChainProvider.class);
     private static final String CA_ISSUER_OID = "1.3.6.1.5.5.7.48.2";
 
+    private final DataLoader dataLoader;
+
+    /**
+     * @param dataLoader Issuer sertifikalarını indirmek için kullanılacak data loader
+     */
+    public OnlineCertificateChainProvider(DataLoader dataLoader) {
+        this.dataLoader = dataLoader;
+    }
+
     @Override
     public List<X509Certificate> buildChain(X509Certificate cert) throws Exception {
         List<X509Certificate> chain = new ArrayList<>();
@@ -101,11 +110,12 @@ public class OnlineCertificateChainProvider implements CertificateChainProvider
     }
 
     private X509Certificate downloadCertificate(String urlStr) throws Exception {
-        URL url = new URL(urlStr);
-        try (InputStream in = url.openStream()) {
-            CertificateFactory cf = CertificateFactory.getInstance("X.509");
-            return (X509Certificate) cf.generateCertificate(in);
+        byte[] encoded = dataLoader.get(urlStr);
+        if (encoded == null || encoded.length == 0) {
+            return null;
         }
+        CertificateFactory cf = CertificateFactory.getInstance("X.509");
+        return (X509Certificate) cf.generateCertificate(new ByteArrayInputStream(encoded));
     }
 
     private boolean isSelfSigned(X509Certificate cert) {
@@ -5,6 +5,7 @@ import eu.europa.esig.dss.enumerations.SignatureAlgorithm;
 import eu.europa.esig.dss.model.SignatureValue;
 import eu.europa.esig.dss.model.ToBeSigned;
 import io.mersel.dss.signer.api.exceptions.SignatureException;
+import io.mersel.dss.signer.api.services.keystore.SigningSession;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
@@ -59,5 +60,35 @@ public class CryptoSignerService {
             throw new SignatureException("İmza oluşturulamadı", e);
         }
     }
+
+    /**
+     * Veriyi havuzdan ödünç alınmış oturumun anahtarı ve provider'ı ile imzalar.
+     * 
+     * @param dataToSign İmzalanacak veri
+     * @param session İmzalama oturumu
+     * @param digestAlgorithm Kullanılacak digest algoritması
+     * @return Algoritma ve imza byte'larını içeren imza değeri
+     * @throws SignatureException İmzalama başarısız olursa
+     */
+    public SignatureValue sign(ToBeSigned dataToSign,
+                               SigningSession session,
+                               DigestAlgorithm digestAlgorithm) {
+        try {
+            SignatureAlgorithm signatureAlgorithm = 
+                algorithmResolver.determineSignatureAlgorithm(session.getPrivateKey(), digestAlgorithm);
+
+            byte[] signatureBytes = session.sign(signatureAlgorithm.getJCEId(), dataToSign.getBytes());
+
+            LOGGER.debug("İmza başarıyla oluşturuldu. Algoritma: {}", 
+                signatureAlgorithm);
+
+            return new SignatureValue(signatureAlgorithm, signatureBytes);
+
+        } catch (SignatureException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new SignatureException("İmza oluşturulamadı", e);
+        }
+    }
 }
 
@@ -0,0 +1,47 @@
+package io.mersel.dss.signer.api.services.http;
+
+import eu.europa.esig.dss.service.http.commons.CommonsDataLoader;
+import org.apache.hc.client5.http.impl.classic.HttpClientBuilder;
+import org.apache.hc.client5.http.io.HttpClientConnectionManager;
+
+/**
+ * Uygulamanın paylaşılan HTTP bağlantı havuzunu kullanan DSS {@link CommonsDataLoader}'ı.
+ * <p>
+ * DSS varsayılan olarak her istek için yeni bir bağlantı yöneticisi oluşturup
+ * istek sonunda kapatır; bu da her OCSP/CRL/TSA çağrısında yeniden TCP ve TLS
+ * kurulumu demektir. Bu sınıf bağlantı yöneticisi olarak havuzu verir ve
+ * istemci kapatılırken havuzun açık kalmasını sağlar. Bağlantı ve okuma zaman
+ * aşımları havuzun bağlantı yapılandırmasından gelir.
+ */
+public class PooledDataLoader extends CommonsDataLoader {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final String OCSP_CONTENT_TYPE = "application/ocsp-request";
+    public static final String TIMESTAMP_QUERY_CONTENT_TYPE = "application/timestamp-query";
+
+    private final transient HttpClientConnectionManager connectionManager;
+
+    /**
+     * @param connectionManager Paylaşılan bağlantı havuzu
+     * @param contentType       POST isteklerinin içerik tipi ({@code null} olabilir)
+     * @param readTimeoutMs     Yanıt ve havuzdan bağlantı bekleme zaman aşımı
+     */
+    public PooledDataLoader(HttpClientConnectionManager connectionManager, String contentType, int readTimeoutMs) {
+        super(contentType);
+        this.connectionManager = connectionManager;
+        setTimeoutResponse(readTimeoutMs);
+        setTimeoutConnectionRequest(readTimeoutMs);
+    }
+
+    @Override
+    protected HttpClientConnectionManager getConnectionManager() {
+        return connectionManager;
+    }
+
+    @Override
+    protected synchronized HttpClientBuilder getHttpClientBuilder(String url) {
+        // İstemci kapatıldığında paylaşılan havuz kapatılmaz
+        return super.getHttpClientBuilder(url).setConnectionManagerShared(true);
+    }
+}
@@ -22,5 +22,12 @@ public interface KeyStoreProvider {
      * @return KeyStore tipi (örn. "PKCS11", "PKCS12")
      */
     String getType();
+
+    /**
+     * Önbelleğe alınmış keystore'u bırakır; sonraki {@link #loadKeyStore(char[])}
+     * çağrısı kaynağı yeniden okur. Sertifika yenilendiğinde kullanılır.
+     */
+    default void refresh() {
+    }
 }
 
@@ -10,60 +10,263 @@ import java.nio.charset.StandardCharsets;
 import java.security.KeyStore;
 import java.security.Provider;
 import java.security.Security;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * PKCS#11 donanım güvenlik modülleri (HSM) için KeyStore sağlayıcısı.
  * Hem slot tabanlı hem de kütüphane tabanlı yapılandırmayı destekler.
+ * <p>
+ * Token başına tek bir SunPKCS11 provider'ı oluşturulur, global provider
+ * listesine bir kez eklenir ve keystore ile birlikte tekrar kullanılır.
+ * İmzalama oturumlarının provider'ları da oturum sırası başına bir kez
+ * oluşturulur ve global listeye eklenmez. Token çıkarıldığında veya oturum
+ * kaybolduğunda ({@code CKR_DEVICE_REMOVED}, {@code CKR_SESSION_HANDLE_INVALID} vb.)
+ * aynı provider ile yeniden login olunur; bu da başarısız olursa eski provider
+ * logout edilerek bırakılır ve aynı adla yeniden oluşturulur.
  */
 public class PKCS11KeyStoreProvider implements KeyStoreProvider {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(PKCS11KeyStoreProvider.class);
 
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+    /**
+     * Token'ın çıkarıldığını veya oturumun kaybolduğunu gösteren PKCS#11 hata kodları.
+     */
+    private static final String[] TOKEN_LOST_ERRORS = {
+        "CKR_DEVICE_REMOVED",
+        "CKR_DEVICE_ERROR",
+        "CKR_TOKEN_NOT_PRESENT",
+        "CKR_TOKEN_NOT_RECOGNIZED",
+        "CKR_SESSION_HANDLE_INVALID",
+        "CKR_SESSION_CLOSED",
+        "CKR_USER_NOT_LOGGED_IN",
+        "Token has been removed"
+    };
+
     private final String libraryPath;
     private final Long slotIndex;
     private final String providerName;
 
+    private SunPKCS11 provider;
+    private KeyStore keyStore;
+    private final Map<Integer, SunPKCS11> sessionProviders = new HashMap<>();
+    private final AtomicLong reconnectCount = new AtomicLong();
+
     public PKCS11KeyStoreProvider(String libraryPath, Long slotIndex) {
         this.libraryPath = libraryPath;
         this.slotIndex = slotIndex;
-        this.providerName = "PKCS11Provider_" + System.identityHashCode(this);
+        this.providerName = "PKCS11Provider_" + SEQUENCE.incrementAndGet();
     }
 
+    /**
+     * Token keystore'unu döndürür. Keystore ilk çağrıda yüklenir ve sonraki
+     * çağrılarda, token erişilebilir olduğu sürece aynı örnek döner.
+     */
     @Override
-    public KeyStore loadKeyStore(char[] pin) {
+    public synchronized KeyStore loadKeyStore(char[] pin) {
+        if (keyStore != null && isAlive(keyStore)) {
+            return keyStore;
+        }
+        boolean reconnect = keyStore != null;
         try {
-            Provider provider = buildPKCS11Provider();
-            KeyStore keyStore = KeyStore.getInstance("PKCS11", provider);
-            keyStore.load(null, pin);
-            
+            if (provider == null) {
+                provider = createProvider(providerName);
+                Security.addProvider(provider);
+                LOGGER.debug("PKCS11 provider yapılandırıldı: {}", providerName);
+            }
+            keyStore = login(provider, pin);
+        } catch (Exception e) {
+            if (provider == null || !isTokenLost(e)) {
+                throw new KeyStoreException("PKCS11 keystore yüklenemedi: " + libraryPath, e);
+            }
+            LOGGER.warn("PKCS11 token'ına yeniden login olunamadı, provider yeniden oluşturuluyor: {} - {}",
+                libraryPath, e.getMessage());
+            try {
+                Security.removeProvider(provider.getName());
+                release(provider);
+                provider = createProvider(providerName);
+                Security.addProvider(provider);
+                keyStore = login(provider, pin);
+            } catch (Exception ex) {
+                keyStore = null;
+                throw new KeyStoreException("PKCS11 keystore yüklenemedi: " + libraryPath, ex);
+            }
+        }
+
+        if (reconnect) {
+            reconnectCount.incrementAndGet();
+            LOGGER.info("PKCS11 token'ına yeniden bağlanıldı. Kütüphane: {}", libraryPath);
+        } else {
             LOGGER.info("PKCS11 KeyStore başarıyla yüklendi. Kütüphane: {}", libraryPath);
-            return keyStore;
-            
+        }
+        return keyStore;
+    }
+
+    /**
+     * İmzalama oturumu için ayrı bir provider üzerinden keystore açar.
+     * <p>
+     * Her oturum sırasının provider'ı bir kez oluşturulur, kendi PKCS#11
+     * oturumlarını yönetir ve global provider listesine eklenmez; imzalama
+     * işlemleri bu provider'a sabitlenir. Token kaybında önce aynı provider
+     * ile yeniden login olunur; SunPKCS11 kaybı ilk hatada algılar ve sonraki
+     * login yeni token'ı başlatır. Yalnızca bu da başarısız olursa eski
+     * provider bırakılıp yerine yenisi oluşturulur.
+     *
+     * @param pin          Token PIN'i
+     * @param sessionIndex Oturum sırası
+     * @return Oturuma ait yüklenmiş KeyStore
+     */
+    public KeyStore openSessionKeyStore(char[] pin, int sessionIndex) {
+        SunPKCS11 sessionProvider;
+        synchronized (this) {
+            sessionProvider = sessionProviders.get(sessionIndex);
+            if (sessionProvider == null) {
+                sessionProvider = createProvider(providerName + "_s" + sessionIndex);
+                sessionProviders.put(sessionIndex, sessionProvider);
+            }
+        }
+        try {
+            KeyStore sessionKeyStore = login(sessionProvider, pin);
+            LOGGER.debug("PKCS11 imzalama oturumu açıldı: {} (oturum: {})", libraryPath, sessionIndex);
+            return sessionKeyStore;
+
         } catch (Exception e) {
-            throw new KeyStoreException("PKCS11 keystore yüklenemedi: " + libraryPath, e);
+            if (!isTokenLost(e)) {
+                throw new KeyStoreException("PKCS11 imzalama oturumu açılamadı: " + libraryPath, e);
+            }
+            try {
+                KeyStore sessionKeyStore = login(sessionProvider, pin);
+                reconnectCount.incrementAndGet();
+                LOGGER.info("PKCS11 imzalama oturumuna yeniden login olundu: {} (oturum: {})",
+                    libraryPath, sessionIndex);
+                return sessionKeyStore;
+            } catch (Exception retry) {
+                if (!isTokenLost(retry)) {
+                    throw new KeyStoreException("PKCS11 imzalama oturumu açılamadı: " + libraryPath, retry);
+                }
+                LOGGER.warn("PKCS11 imzalama oturumuna yeniden login olunamadı, provider yeniden oluşturuluyor: " +
+                    "{} (oturum: {}) - {}", libraryPath, sessionIndex, retry.getMessage());
+            }
+            try {
+                synchronized (this) {
+                    release(sessionProviders.remove(sessionIndex));
+                    sessionProvider = createProvider(providerName + "_s" + sessionIndex);
+                    sessionProviders.put(sessionIndex, sessionProvider);
+                }
+                KeyStore sessionKeyStore = login(sessionProvider, pin);
+                reconnectCount.incrementAndGet();
+                LOGGER.info("PKCS11 imzalama oturumu yeni provider ile açıldı: {} (oturum: {})",
+                    libraryPath, sessionIndex);
+                return sessionKeyStore;
+            } catch (Exception ex) {
+                throw new KeyStoreException("PKCS11 imzalama oturumu açılamadı: " + libraryPath, ex);
+            }
         }
     }
 
+    /**
+     * Token nesneleri sonraki yüklemede yeniden okunur; provider korunur.
+     */
+    @Override
+    public synchronized void refresh() {
+        keyStore = null;
+    }
+
+    /**
+     * Hatanın token'ın çıkarılmasından veya PKCS#11 oturumunun kaybolmasından
+     * kaynaklanıp kaynaklanmadığını döndürür; bu durumda yeniden login gerekir.
+     */
+    public static boolean isTokenLost(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            String message = cause.getMessage();
+            if (message == null) {
+                continue;
+            }
+            for (String code : TOKEN_LOST_ERRORS) {
+                if (message.contains(code)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
     @Override
     public String getType() {
         return "PKCS11";
     }
 
-    private Provider buildPKCS11Provider() {
+    public String getLibraryPath() {
+        return libraryPath;
+    }
+
+    public Long getSlotIndex() {
+        return slotIndex;
+    }
+
+    /**
+     * Token'a yeniden bağlanma sayısı (keystore ve oturum provider'ları).
+     */
+    public long getReconnectCount() {
+        return reconnectCount.get();
+    }
+
+    /**
+     * Provider ile token'a login olup keystore'u yükler. Yeniden bağlanırken de
+     * logout yapılmaz: PKCS#11 login durumu aynı kütüphaneyi kullanan tüm
+     * provider'larca paylaşıldığından logout, devam eden imza oturumlarını
+     * düşürür. SunPKCS11 token oturumu zaten login durumdaysa tekrar login
+     * olmaz; yalnızca token logout olmuşsa PIN ile login olunur.
+     */
+    private KeyStore login(Provider target, char[] pin) throws Exception {
+        KeyStore loaded = KeyStore.getInstance("PKCS11", target);
+        loaded.load(null, pin);
+        return loaded;
+    }
+
+    /**
+     * Yerine yenisi oluşturulan provider'ı bırakır. Logout ile token oturumu
+     * kapatılır; provider'a başka referans kalmadığından yerel PKCS#11
+     * oturumları çöp toplayıcı ile serbest bırakılır. Token zaten erişilemez
+     * olduğundan logout hatası yalnızca loglanır.
+     */
+    private void release(SunPKCS11 replaced) {
+        if (replaced == null) {
+            return;
+        }
+        try {
+            replaced.logout();
+        } catch (Exception e) {
+            LOGGER.debug("Bırakılan PKCS11 provider'ından logout olunamadı: {} - {}",
+                replaced.getName(), e.getMessage());
+        }
+    }
+
+    private boolean isAlive(KeyStore loaded) {
+        try {
+            loaded.size();
+            return true;
+        } catch (Exception e) {
+            LOGGER.warn("PKCS11 token'ı yanıt vermiyor, yeniden bağlanılacak: {} - {}",
+                libraryPath, e.getMessage());
+            return false;
+        }
+    }
+
+    private SunPKCS11 createProvider(String name) {
         StringBuilder config = new StringBuilder();
-        config.append("name = ").append(providerName).append('\n');
+        config.append("name = ").append(name).append('\n');
         config.append("library = \"").append(libraryPath).append("\"\n");
-        
+
         if (slotIndex != null && slotIndex >= 0) {
             config.append("slotListIndex = ").append(slotIndex).append('\n');
         }
-        
+
         byte[] configBytes = config.toString().getBytes(StandardCharsets.UTF_8);
-        SunPKCS11 provider = new SunPKCS11(new ByteArrayInputStream(configBytes));
-        Security.addProvider(provider);
-        
-        LOGGER.debug("PKCS11 provider yapılandırıldı: {}", providerName);
-        return provider;
+        return new SunPKCS11(new ByteArrayInputStream(configBytes));
     }
 }
-
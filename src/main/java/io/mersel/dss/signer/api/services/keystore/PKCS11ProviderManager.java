@@ -0,0 +1,60 @@
+package io.mersel.dss.signer.api.services.keystore;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Yapılandırılmış PKCS#11 token'larının keystore sağlayıcılarını yönetir.
+ * <p>
+ * Aynı kütüphane ve slot için her zaman aynı {@link PKCS11KeyStoreProvider}
+ * döner; böylece token başına tek bir SunPKCS11 provider'ı oluşturulur ve
+ * varsayılan anahtar, ek token'lar, ek imzalama anahtarları ve sertifika
+ * listeleme aynı provider'ı paylaşır. Yeniden bağlanmalar
+ * {@code pkcs11.token.reconnects} metriğiyle yayınlanır.
+ */
+@Component
+public class PKCS11ProviderManager implements MeterBinder {
+
+    private final Map<String, PKCS11KeyStoreProvider> providers = new ConcurrentHashMap<>();
+    private volatile MeterRegistry registry;
+
+    /**
+     * Token'ın keystore sağlayıcısını döndürür; ilk çağrıda oluşturur.
+     *
+     * @param libraryPath PKCS#11 kütüphanesinin yolu
+     * @param slotIndex   Slot sırası; {@code null} ise kütüphanenin ilk slot'u
+     */
+    public PKCS11KeyStoreProvider getProvider(String libraryPath, Long slotIndex) {
+        return providers.computeIfAbsent(libraryPath.trim() + "#" + slotIndex, key -> {
+            PKCS11KeyStoreProvider provider = new PKCS11KeyStoreProvider(libraryPath.trim(), slotIndex);
+            MeterRegistry meterRegistry = registry;
+            if (meterRegistry != null) {
+                registerReconnectCounter(meterRegistry, provider);
+            }
+            return provider;
+        });
+    }
+
+    public int getTokenCount() {
+        return providers.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.registry = registry;
+        providers.values().forEach(provider -> registerReconnectCounter(registry, provider));
+    }
+
+    private void registerReconnectCounter(MeterRegistry meterRegistry, PKCS11KeyStoreProvider provider) {
+        FunctionCounter.builder("pkcs11.token.reconnects", provider, PKCS11KeyStoreProvider::getReconnectCount)
+            .tag("library", provider.getLibraryPath())
+            .tag("slot", String.valueOf(provider.getSlotIndex()))
+            .description("PKCS#11 token'ına yeniden login sayısı")
+            .register(meterRegistry);
+    }
+}
@@ -48,6 +48,21 @@ public class PfxKeyStoreProvider implements KeyStoreProvider {
         }
     }
 
+    /**
+     * PFX dosyasının son değiştirilme zamanı; dosya yoksa 0.
+     */
+    public long getLastModified() {
+        try {
+            return Files.getLastModifiedTime(Paths.get(pfxPath)).toMillis();
+        } catch (Exception e) {
+            return 0L;
+        }
+    }
+
+    public String getPfxPath() {
+        return pfxPath;
+    }
+
     @Override
     public String getType() {
         return "PKCS12";
@@ -0,0 +1,25 @@
+package io.mersel.dss.signer.api.services.keystore;
+
+import io.mersel.dss.signer.api.models.SigningKey;
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Ek imzalama anahtarı kullanılmadığı veya yüklü anahtar sınırı aşıldığı için
+ * boşaltıldığında yayınlanır. Anahtarı izleyen servisler materyali bırakır.
+ */
+public class SigningKeyEvictedEvent extends ApplicationEvent {
+
+    private final SigningKey key;
+
+    public SigningKeyEvictedEvent(Object source, SigningKey key) {
+        super(source);
+        this.key = key;
+    }
+
+    /**
+     * Boşaltılan anahtar.
+     */
+    public SigningKey getKey() {
+        return key;
+    }
+}
@@ -0,0 +1,25 @@
+package io.mersel.dss.signer.api.services.keystore;
+
+import io.mersel.dss.signer.api.models.SigningKey;
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Ek imzalama anahtarı ilk istekte veya boşaltıldıktan sonra yeniden yüklendiğinde yayınlanır.
+ * Sertifikaya bağlı izleme yapan servisler anahtarı bu olayla izlemeye alır.
+ */
+public class SigningKeyLoadedEvent extends ApplicationEvent {
+
+    private final SigningKey key;
+
+    public SigningKeyLoadedEvent(Object source, SigningKey key) {
+        super(source);
+        this.key = key;
+    }
+
+    /**
+     * Yüklenen anahtar.
+     */
+    public SigningKey getKey() {
+        return key;
+    }
+}
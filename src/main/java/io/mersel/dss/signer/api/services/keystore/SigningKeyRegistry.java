@@ -0,0 +1,629 @@
+package io.mersel.dss.signer.api.services.keystore;
+
+import io.mersel.dss.signer.api.exceptions.CertificateValidationException;
+import io.mersel.dss.signer.api.exceptions.KeyStoreException;
+import io.mersel.dss.signer.api.exceptions.SigningKeyNotFoundException;
+import io.mersel.dss.signer.api.models.SigningContext;
+import io.mersel.dss.signer.api.models.SigningKey;
+import io.mersel.dss.signer.api.models.SigningMaterial;
+import io.mersel.dss.signer.api.services.SigningMaterialFactory;
+import io.mersel.dss.signer.api.services.revocation.SigningCertificateRevocationMonitor;
+import io.mersel.dss.signer.api.util.CryptoUtils;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.StringUtils;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.Signature;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Adlandırılmış imzalama anahtarlarının kaydı.
+ * <p>
+ * Varsayılan anahtar (PFX_PATH / PKCS11_LIBRARY ve CERTIFICATE_ALIAS)
+ * başlangıçta yüklenir ve hiç boşaltılmaz. Ek anahtarlar tanımlarıyla
+ * kaydedilir ve ilk istekte yüklenir; {@code idleEvictMillis} boyunca
+ * kullanılmayan veya {@code maxLoaded} sınırını aşan anahtarlar en eski
+ * kullanım sırasıyla boşaltılır. Alias veya seri numarası yapılandırılmamış
+ * tanımların sertifikası başlangıçta bir kez okunup (oturum havuzu açılmadan)
+ * indekslenir; eşleşmeyen seçiciler hiçbir anahtar yüklenmeden reddedilir.
+ * Boşaltılan anahtarın havuzu, yeniden yüklemede yerine geçilen havuzlar
+ * gibi bekleme süresinden sonra ve bekleyen işi kalmayınca kapatılır.
+ * Her anahtarın kendi
+ * {@link SigningSessionPool}'u vardır; böylece eşzamanlılık bütçesi anahtar
+ * başınadır. Güven, OCSP, CRL ve TSA cache'leri tüm anahtarlarca paylaşılır.
+ * <p>
+ * İstekler anahtarı {@value #KEY_SELECTOR_HEADER} header'ındaki alias veya
+ * hex seri numarasıyla seçer; header yoksa varsayılan anahtar kullanılır.
+ * <p>
+ * Sertifika yenilendiğinde anahtar {@link #reload(String, String, String)}
+ * ile yeniden yüklenir: yeni materyal ve oturum havuzu istek yolu dışında
+ * oluşturulup deneme imzasıyla doğrulanır, ardından tek adımda devreye
+ * alınır. Eski materyali çözümlemiş istekler eski havuzla tamamlanır; eski
+ * havuz bekleyen işi kalmayınca kapatılır. PFX dosyası değiştiğinde yeniden
+ * yükleme kendiliğinden yapılır.
+ * <p>
+ * Çözümlenen anahtar ve oturum havuzu istenen her materyal için
+ * {@link SigningCertificateRevocationMonitor} sorgulanır; zinciri iptal
+ * edilmiş anahtarla hiçbir imza yolu (XAdES, WS-Security, CAdES, PAdES,
+ * {@code /v1/signhash}) imzalayamaz.
+ * <p>
+ * Ek anahtarların yüklenmesi {@link SigningKeyLoadedEvent}, boşaltılması
+ * {@link SigningKeyEvictedEvent}, yeniden yükleme {@link SigningKeyReloadedEvent}
+ * ile yayınlanır.
+ */
+public class SigningKeyRegistry implements MeterBinder {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SigningKeyRegistry.class);
+
+    /**
+     * İmzalama anahtarını seçen istek header'ı (alias veya hex seri numarası).
+     */
+    public static final String KEY_SELECTOR_HEADER = "X-Signing-Key";
+
+    /**
+     * Yerine geçilen veya boşaltılan havuzun, eski materyali tutan isteklere açık kalacağı en kısa süre.
+     */
+    private static final long RETIRED_POOL_GRACE_MILLIS = 10 * 60 * 1000L;
+
+    private static final byte[] KEY_CHECK_PAYLOAD = "mersel-signing-key-check".getBytes(StandardCharsets.UTF_8);
+
+    private final SigningMaterialFactory materialFactory;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SigningCertificateRevocationMonitor revocationMonitor;
+    private final Definition defaultDefinition;
+    private final List<Definition> definitions;
+    private final long idleEvictMillis;
+    private final int maxLoaded;
+    private final long acquireTimeoutMillis;
+
+    private final Map<SigningMaterial, Definition> materials = Collections.synchronizedMap(new WeakHashMap<>());
+    private final List<RetiredPool> retiredPools = new CopyOnWriteArrayList<>();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong reloads = new AtomicLong();
+    private volatile MeterRegistry registry;
+
+    /**
+     * @param materialFactory      Anahtarların imzalama materyalini oluşturan fabrika
+     * @param eventPublisher       Yükleme, boşaltma ve yeniden yükleme olaylarının yayınlanacağı publisher
+     * @param revocationMonitor    İmzalamadan önce sorgulanan iptal izleyicisi
+     * @param defaultDefinition    Varsayılan anahtarın tanımı (yeniden yükleme için)
+     * @param defaultKey           Başlangıçta yüklenmiş varsayılan anahtar
+     * @param defaultPool          Varsayılan anahtarın oturum havuzu
+     * @param definitions          Ek anahtar tanımları
+     * @param idleEvictMillis      Kullanılmayan ek anahtarın boşaltılacağı süre
+     * @param maxLoaded            Aynı anda yüklü tutulacak en fazla ek anahtar sayısı
+     * @param acquireTimeoutMillis Ek anahtar havuzlarında boş oturum için en fazla bekleme süresi
+     */
+    public SigningKeyRegistry(SigningMaterialFactory materialFactory,
+                              ApplicationEventPublisher eventPublisher,
+                              SigningCertificateRevocationMonitor revocationMonitor,
+                              Definition defaultDefinition,
+                              SigningKey defaultKey,
+                              SigningSessionPool defaultPool,
+                              List<Definition> definitions,
+                              long idleEvictMillis,
+                              int maxLoaded,
+                              long acquireTimeoutMillis) {
+        this.materialFactory = materialFactory;
+        this.eventPublisher = eventPublisher;
+        this.revocationMonitor = revocationMonitor;
+        this.defaultDefinition = defaultDefinition;
+        this.defaultDefinition.entry = new Entry(defaultKey, defaultPool);
+        this.defaultDefinition.sourceModified = defaultDefinition.sourceModified();
+        this.definitions = Collections.unmodifiableList(new ArrayList<>(definitions));
+        this.idleEvictMillis = idleEvictMillis;
+        this.maxLoaded = Math.max(1, maxLoaded);
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+        for (Definition definition : this.definitions) {
+            if (!definition.hasSelector()) {
+                index(definition);
+            }
+        }
+
+        LOGGER.info("İmzalama anahtarı kaydı hazır. Ek anahtar tanımı: {}", this.definitions.size());
+    }
+
+    /**
+     * Anahtar seçiciye karşılık gelen imzalama anahtarını döndürür; gerekirse yükler.
+     *
+     * @param selector Alias veya hex seri numarası; boşsa varsayılan anahtar
+     * @throws SigningKeyNotFoundException     Seçici hiçbir anahtarla eşleşmezse
+     * @throws CertificateValidationException Anahtarın sertifika zinciri iptal edilmişse
+     */
+    public SigningKey resolve(String selector) {
+        SigningKey key = select(selector);
+        revocationMonitor.assertNotRevoked(key.getMaterial());
+        return key;
+    }
+
+    private SigningKey select(String selector) {
+        Entry defaultEntry = defaultDefinition.entry;
+        if (!StringUtils.hasText(selector)) {
+            return defaultEntry.key;
+        }
+        String trimmed = selector.trim();
+        if (defaultEntry.matches(trimmed)) {
+            return defaultEntry.key;
+        }
+        for (Definition definition : definitions) {
+            Entry entry = definition.entry;
+            if (entry != null && entry.matches(trimmed)) {
+                entry.touch();
+                return entry.key;
+            }
+        }
+
+        // Yapılandırılmış alias/seri numarası eşleşen tanımı yükle
+        for (Definition definition : definitions) {
+            if (definition.declares(trimmed)) {
+                return load(definition).key;
+            }
+        }
+
+        // Seçicisi yapılandırılmamış tanımları indekslenmiş sertifikaya göre eşleştir
+        for (Definition definition : definitions) {
+            if (!definition.hasSelector() && definition.indexed != null && definition.indexed.matches(trimmed)) {
+                return load(definition).key;
+            }
+        }
+
+        throw new SigningKeyNotFoundException("İmzalama anahtarı bulunamadı: " + trimmed);
+    }
+
+    public SigningKey getDefaultKey() {
+        return defaultDefinition.entry.key;
+    }
+
+    /**
+     * İmzalama materyaline ait oturum havuzunu döndürür. Materyal yeniden
+     * yüklemeyle yerine geçilmişse eski havuz, istek çözümlendikten sonra
+     * anahtar boşaltıldıysa aynı tanımın yeniden yüklenmiş havuzu döner.
+     * Havuz, anahtar çözümlendikten sonra iptal edilmiş zincirler için verilmez.
+     *
+     * @throws CertificateValidationException Materyalin sertifika zinciri iptal edilmişse
+     */
+    public SigningSessionPool sessionPool(SigningMaterial material) {
+        revocationMonitor.assertNotRevoked(material);
+        Entry defaultEntry = defaultDefinition.entry;
+        if (material == defaultEntry.key.getMaterial()) {
+            return defaultEntry.pool;
+        }
+        for (RetiredPool retired : retiredPools) {
+            if (retired.entry.key.getMaterial() == material) {
+                return retired.entry.pool;
+            }
+        }
+        Definition definition = materials.get(material);
+        if (definition == null) {
+            throw new KeyStoreException("İmzalama materyali için oturum havuzu bulunamadı");
+        }
+        Entry entry = load(definition);
+        if (!entry.key.getMaterial().getSigningCertificate().equals(material.getSigningCertificate())) {
+            throw new KeyStoreException("İmzalama anahtarı yenilendi, istek tekrarlanmalıdır: " + definition.name);
+        }
+        return entry.pool;
+    }
+
+    /**
+     * Anahtarı kaynağından yeniden yükler ve yeni materyali tek adımda devreye alır.
+     * Yükleme veya doğrulama başarısız olursa mevcut materyal kullanılmaya devam eder.
+     *
+     * @param keyName      Anahtar adı; boşsa varsayılan anahtar
+     * @param alias        Yeni sertifikanın alias'ı; boşsa yapılandırılmış seçici kullanılır
+     * @param serialNumber Yeni sertifikanın hex seri numarası; boşsa yapılandırılmış seçici kullanılır
+     * @return Devreye alınan anahtar
+     * @throws SigningKeyNotFoundException Anahtar adı tanımlı değilse
+     */
+    public SigningKey reload(String keyName, String alias, String serialNumber) {
+        Definition definition = findDefinition(keyName);
+        synchronized (definition.reloadLock) {
+            LOGGER.info("İmzalama anahtarı yeniden yükleniyor: {}", definition.name);
+            boolean override = StringUtils.hasText(alias) || StringUtils.hasText(serialNumber);
+            String targetAlias = override ? trimToNull(alias) : definition.alias;
+            String targetSerial = override ? trimToNull(serialNumber) : definition.serialNumber;
+            long sourceModified = definition.sourceModified();
+
+            definition.providers.forEach(KeyStoreProvider::refresh);
+            Entry replacement = open(definition, targetAlias, targetSerial);
+            verifyKeyPair(replacement);
+
+            Entry previous;
+            synchronized (definition) {
+                previous = definition.entry;
+                if (previous != null) {
+                    previous.pool.unbindMeters();
+                }
+                MeterRegistry meterRegistry = registry;
+                if (meterRegistry != null) {
+                    replacement.pool.bindTo(meterRegistry);
+                }
+                definition.entry = replacement;
+                definition.indexed = new IndexedCertificate(replacement.key);
+                definition.alias = targetAlias;
+                definition.serialNumber = targetSerial;
+                definition.sourceModified = sourceModified;
+            }
+            materials.put(replacement.key.getMaterial(), definition);
+            if (previous != null) {
+                materials.remove(previous.key.getMaterial());
+                retiredPools.add(new RetiredPool(previous));
+            }
+            reloads.incrementAndGet();
+            LOGGER.info("İmzalama anahtarı devreye alındı: {} - {} (seri: {})", definition.name,
+                replacement.key.getMaterial().getSigningCertificate().getSubjectX500Principal(),
+                replacement.key.getMaterial().getSigningCertificate().getSerialNumber().toString(16));
+
+            eventPublisher.publishEvent(new SigningKeyReloadedEvent(this, replacement.key,
+                previous != null ? previous.key.getMaterial() : null));
+            if (definition != defaultDefinition) {
+                evictOverflow();
+            }
+            return replacement.key;
+        }
+    }
+
+    /**
+     * Kullanılmayan ek anahtarları boşaltır, yüklü ek anahtarların
+     * oturumlarını canlı tutar, başlangıçta okunamayan sertifikaları
+     * yeniden indekslemeyi dener ve işi biten eski havuzları kapatır.
+     */
+    @Scheduled(fixedDelayString = "${SIGNING_SESSION_KEEPALIVE_MS:60000}",
+        initialDelayString = "${SIGNING_SESSION_KEEPALIVE_MS:60000}")
+    public void maintain() {
+        long now = System.currentTimeMillis();
+        for (Definition definition : definitions) {
+            Entry entry = definition.entry;
+            if (entry == null) {
+                if (!definition.hasSelector() && definition.indexed == null) {
+                    index(definition);
+                }
+                continue;
+            }
+            if (now - entry.lastUsed > idleEvictMillis) {
+                evict(definition, "kullanılmıyor");
+            } else {
+                entry.pool.keepAlive();
+            }
+        }
+        for (RetiredPool retired : retiredPools) {
+            if (now - retired.retiredAt > RETIRED_POOL_GRACE_MILLIS && retired.entry.pool.getOutstandingCount() == 0) {
+                retiredPools.remove(retired);
+                retired.entry.pool.close();
+                LOGGER.info("Devreden çıkarılan imzalama havuzu kapatıldı: {}", retired.entry.key.getName());
+            }
+        }
+    }
+
+    /**
+     * Yüklü PFX anahtarlarının dosyası değiştiyse anahtarı yeniden yükler.
+     */
+    @Scheduled(fixedDelayString = "${SIGNING_KEY_WATCH_INTERVAL_MS:60000}",
+        initialDelayString = "${SIGNING_KEY_WATCH_INTERVAL_MS:60000}")
+    public void watchSources() {
+        List<Definition> loaded = new ArrayList<>();
+        loaded.add(defaultDefinition);
+        for (Definition definition : definitions) {
+            if (definition.entry != null) {
+                loaded.add(definition);
+            }
+        }
+        for (Definition definition : loaded) {
+            long modified = definition.sourceModified();
+            if (modified == 0L || modified == definition.sourceModified) {
+                continue;
+            }
+            LOGGER.info("İmzalama anahtarı dosyası değişti: {}", definition.name);
+            try {
+                reload(definition.name, null, null);
+            } catch (Exception e) {
+                // Aynı dosya her kontrolde tekrar denenmesin; yeni bir değişiklik beklenir
+                definition.sourceModified = modified;
+                LOGGER.error("İmzalama anahtarı yeniden yüklenemedi, mevcut materyal kullanılmaya devam ediyor: {} - {}",
+                    definition.name, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Yüklü ek anahtar sayısı (varsayılan anahtar hariç).
+     */
+    public int getLoadedCount() {
+        int loaded = 0;
+        for (Definition definition : definitions) {
+            if (definition.entry != null) {
+                loaded++;
+            }
+        }
+        return loaded;
+    }
+
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+
+    public long getReloadCount() {
+        return reloads.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.registry = registry;
+        Gauge.builder("signing.key.loaded", this, SigningKeyRegistry::getLoadedCount)
+            .description("Yüklü ek imzalama anahtarları")
+            .register(registry);
+        FunctionCounter.builder("signing.key.evictions", this, SigningKeyRegistry::getEvictionCount)
+            .description("Boşaltılan ek imzalama anahtarları")
+            .register(registry);
+        FunctionCounter.builder("signing.key.reloads", this, SigningKeyRegistry::getReloadCount)
+            .description("Yeniden yüklenip devreye alınan imzalama anahtarları")
+            .register(registry);
+        for (Definition definition : definitions) {
+            Entry entry = definition.entry;
+            if (entry != null) {
+                entry.pool.bindTo(registry);
+            }
+        }
+    }
+
+    private Definition findDefinition(String keyName) {
+        if (!StringUtils.hasText(keyName) || defaultDefinition.name.equals(keyName.trim())) {
+            return defaultDefinition;
+        }
+        for (Definition definition : definitions) {
+            if (definition.name.equals(keyName.trim())) {
+                return definition;
+            }
+        }
+        throw new SigningKeyNotFoundException("İmzalama anahtarı tanımlı değil: " + keyName);
+    }
+
+    private Entry load(Definition definition) {
+        Entry entry;
+        synchronized (definition) {
+            entry = definition.entry;
+            if (entry != null) {
+                entry.touch();
+                return entry;
+            }
+
+            LOGGER.info("İmzalama anahtarı yükleniyor: {}", definition.name);
+            definition.sourceModified = definition.sourceModified();
+            entry = open(definition, definition.alias, definition.serialNumber);
+            materials.put(entry.key.getMaterial(), definition);
+            MeterRegistry meterRegistry = registry;
+            if (meterRegistry != null) {
+                entry.pool.bindTo(meterRegistry);
+            }
+            definition.entry = entry;
+            definition.indexed = new IndexedCertificate(entry.key);
+        }
+        eventPublisher.publishEvent(new SigningKeyLoadedEvent(this, entry.key));
+        evictOverflow();
+        return entry;
+    }
+
+    /**
+     * Seçicisi yapılandırılmamış tanımın sertifikasını oturum havuzu açmadan
+     * okuyup alias ve seri numarasını saklar. Okunamazsa tanım bakım
+     * sırasında tekrar denenene kadar hiçbir seçiciyle eşleşmez.
+     */
+    private void index(Definition definition) {
+        try {
+            SigningContext context = materialFactory.createSigningContext(
+                definition.providers.get(0), definition.pin, null, null);
+            definition.indexed = new IndexedCertificate(context.getAlias(),
+                context.getMaterial().getSigningCertificate().getSerialNumber());
+            LOGGER.info("İmzalama anahtarı sertifikası indekslendi: {} (alias: {})",
+                definition.name, context.getAlias());
+        } catch (Exception e) {
+            LOGGER.warn("İmzalama anahtarı sertifikası okunamadı, bakımda tekrar denenecek: {} - {}",
+                definition.name, e.getMessage());
+        }
+    }
+
+    private Entry open(Definition definition, String alias, String serialNumber) {
+        SigningContext context = materialFactory.createSigningContext(
+            definition.providers.get(0), definition.pin, alias, serialNumber);
+        SigningSessionPool pool = new SigningSessionPool(definition.name, definition.providers, definition.pin,
+            context.getAlias(), context.getMaterial(), definition.maxSessions, acquireTimeoutMillis);
+        return new Entry(new SigningKey(definition.name, context.getAlias(), definition.pin, context.getMaterial()), pool);
+    }
+
+    /**
+     * Yeni havuzla deneme imzası atıp sertifikanın açık anahtarıyla doğrular;
+     * anahtar ile sertifika eşleşmiyorsa materyal devreye alınmaz.
+     */
+    private void verifyKeyPair(Entry entry) {
+        SigningMaterial material = entry.key.getMaterial();
+        String algorithm = CryptoUtils.getSignatureAlgorithm(material.getPrivateKey());
+        try {
+            byte[] signatureValue = entry.pool.execute(session -> session.sign(algorithm, KEY_CHECK_PAYLOAD));
+            Signature verifier = Signature.getInstance(algorithm);
+            verifier.initVerify(material.getSigningCertificate().getPublicKey());
+            verifier.update(KEY_CHECK_PAYLOAD);
+            if (!verifier.verify(signatureValue)) {
+                throw new KeyStoreException("Özel anahtar imzalama sertifikasıyla eşleşmiyor: " + entry.key.getName());
+            }
+        } catch (KeyStoreException e) {
+            entry.pool.close();
+            throw e;
+        } catch (Exception e) {
+            entry.pool.close();
+            throw new KeyStoreException("Yeni imzalama anahtarı doğrulanamadı: " + entry.key.getName(), e);
+        }
+    }
+
+    private void evictOverflow() {
+        while (getLoadedCount() > maxLoaded) {
+            Definition oldest = null;
+            for (Definition definition : definitions) {
+                Entry entry = definition.entry;
+                if (entry != null && (oldest == null || entry.lastUsed < oldest.entry.lastUsed)) {
+                    oldest = definition;
+                }
+            }
+            if (oldest == null) {
+                return;
+            }
+            evict(oldest, "yüklü anahtar sınırı aşıldı");
+        }
+    }
+
+    private void evict(Definition definition, String reason) {
+        Entry entry;
+        synchronized (definition) {
+            entry = definition.entry;
+            definition.entry = null;
+        }
+        if (entry != null) {
+            // İsteği çözümlenmiş imzalar eski havuzla tamamlanır; havuz bakımda kapatılır
+            entry.pool.unbindMeters();
+            retiredPools.add(new RetiredPool(entry));
+            evictions.incrementAndGet();
+            LOGGER.info("İmzalama anahtarı boşaltıldı: {} ({})", definition.name, reason);
+            eventPublisher.publishEvent(new SigningKeyEvictedEvent(this, entry.key));
+        }
+    }
+
+    private static boolean serialMatches(String selector, BigInteger serialNumber) {
+        try {
+            return new BigInteger(selector, 16).equals(serialNumber);
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private static String trimToNull(String value) {
+        return StringUtils.hasText(value) ? value.trim() : null;
+    }
+
+    /**
+     * İmzalama anahtarı tanımı. Ek anahtarlar ilk istekte yüklenir.
+     */
+    public static final class Definition {
+        private final String name;
+        private final List<KeyStoreProvider> providers;
+        private final char[] pin;
+        private final int maxSessions;
+        private final Object reloadLock = new Object();
+        private volatile String alias;
+        private volatile String serialNumber;
+        private volatile Entry entry;
+        private volatile IndexedCertificate indexed;
+        private volatile long sourceModified;
+
+        /**
+         * @param name         Metrik ve loglarda kullanılacak ad
+         * @param provider     Anahtarın bulunduğu keystore sağlayıcısı
+         * @param pin          Keystore PIN'i
+         * @param alias        İsteğe bağlı alias
+         * @param serialNumber İsteğe bağlı hex seri numarası
+         * @param maxSessions  Anahtarın eşzamanlı imza bütçesi
+         */
+        public Definition(String name, KeyStoreProvider provider, char[] pin,
+                          String alias, String serialNumber, int maxSessions) {
+            this(name, Collections.singletonList(provider), pin, alias, serialNumber, maxSessions);
+        }
+
+        /**
+         * @param providers Aynı anahtarı taşıyan token'ların keystore sağlayıcıları
+         * @see #Definition(String, KeyStoreProvider, char[], String, String, int)
+         */
+        public Definition(String name, List<? extends KeyStoreProvider> providers, char[] pin,
+                          String alias, String serialNumber, int maxSessions) {
+            this.name = name;
+            this.providers = Collections.unmodifiableList(new ArrayList<>(providers));
+            this.pin = pin;
+            this.alias = trimToNull(alias);
+            this.serialNumber = trimToNull(serialNumber);
+            this.maxSessions = maxSessions;
+        }
+
+        private boolean hasSelector() {
+            return alias != null || serialNumber != null;
+        }
+
+        private boolean declares(String selector) {
+            if (selector.equalsIgnoreCase(alias)) {
+                return true;
+            }
+            try {
+                return serialNumber != null && serialMatches(selector, new BigInteger(serialNumber, 16));
+            } catch (NumberFormatException e) {
+                return false;
+            }
+        }
+
+        /**
+         * PFX kaynaklı anahtarlarda dosyanın değiştirilme zamanı; diğerlerinde 0.
+         */
+        private long sourceModified() {
+            KeyStoreProvider provider = providers.get(0);
+            return provider instanceof PfxKeyStoreProvider ? ((PfxKeyStoreProvider) provider).getLastModified() : 0L;
+        }
+    }
+
+    private static final class Entry {
+        private final SigningKey key;
+        private final SigningSessionPool pool;
+        private volatile long lastUsed = System.currentTimeMillis();
+
+        private Entry(SigningKey key, SigningSessionPool pool) {
+            this.key = key;
+            this.pool = pool;
+        }
+
+        private boolean matches(String selector) {
+            return selector.equalsIgnoreCase(key.getAlias())
+                || serialMatches(selector, key.getMaterial().getSigningCertificate().getSerialNumber());
+        }
+
+        private void touch() {
+            lastUsed = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * Seçicisi yapılandırılmamış tanımın sertifika kimliği; anahtar ve havuz tutulmaz.
+     */
+    private static final class IndexedCertificate {
+        private final String alias;
+        private final BigInteger serialNumber;
+
+        private IndexedCertificate(String alias, BigInteger serialNumber) {
+            this.alias = alias;
+            this.serialNumber = serialNumber;
+        }
+
+        private IndexedCertificate(SigningKey key) {
+            this(key.getAlias(), key.getMaterial().getSigningCertificate().getSerialNumber());
+        }
+
+        private boolean matches(String selector) {
+            return selector.equalsIgnoreCase(alias) || serialMatches(selector, serialNumber);
+        }
+    }
+
+    private static final class RetiredPool {
+        private final Entry entry;
+        private final long retiredAt = System.currentTimeMillis();
+
+        private RetiredPool(Entry entry) {
+            this.entry = entry;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package io.mersel.dss.signer.api.services.keystore;
+
+import io.mersel.dss.signer.api.models.SigningKey;
+import io.mersel.dss.signer.api.models.SigningMaterial;
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * İmzalama anahtarı yeniden yüklenip yeni materyal devreye alındığında yayınlanır.
+ * Sertifikaya bağlı cache'ler bu olayla eski materyale ait değerleri bırakır.
+ */
+public class SigningKeyReloadedEvent extends ApplicationEvent {
+
+    private final SigningKey key;
+    private final SigningMaterial previousMaterial;
+
+    public SigningKeyReloadedEvent(Object source, SigningKey key, SigningMaterial previousMaterial) {
+        super(source);
+        this.key = key;
+        this.previousMaterial = previousMaterial;
+    }
+
+    /**
+     * Devreye alınan anahtar.
+     */
+    public SigningKey getKey() {
+        return key;
+    }
+
+    /**
+     * Yerine geçilen materyal; anahtar daha önce yüklenmemişse {@code null}.
+     */
+    public SigningMaterial getPreviousMaterial() {
+        return previousMaterial;
+    }
+
+    public boolean isDefaultKey() {
+        return SigningSessionPool.DEFAULT_KEY_NAME.equals(key.getName());
+    }
+}
@@ -0,0 +1,146 @@
+package io.mersel.dss.signer.api.services.keystore;
+
+import java.security.KeyStore;
+import java.security.PrivateKey;
+import java.security.Provider;
+import java.security.Signature;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * İmzalama anahtarına açılmış tek bir oturum.
+ * <p>
+ * PKCS#11 keystore'larında her oturum kendi provider'ı üzerinden bir token'a
+ * ayrıca login olmuş bir anahtar tutar; böylece eşzamanlı imzalar aynı
+ * provider'ın oturum yönetiminde sıraya girmez. PFX anahtarlarında tüm
+ * oturumlar aynı yazılım anahtarını paylaşır ve provider sabitlenmez.
+ * Oturumlar {@link SigningSessionPool} üzerinden ödünç alınır; aynı anda
+ * yalnızca bir thread tarafından kullanılır.
+ * <p>
+ * İmza nesneleri algoritma başına bir kez oluşturulup anahtarla
+ * başlatılır ve sonraki imzalarda tekrar kullanılır; provider araması ve
+ * anahtar hazırlığı her imzada yapılmaz. Oturum yeniden açıldığında
+ * önbellek temizlenir.
+ */
+public final class SigningSession {
+
+    private static final double LATENCY_SMOOTHING = 0.2;
+
+    private final int tokenIndex;
+    private final String tokenName;
+    private final int index;
+    private final String name;
+
+    private volatile PrivateKey privateKey;
+    private volatile Provider provider;
+    private volatile KeyStore keyStore;
+    private final Map<String, Signature> signatures = new ConcurrentHashMap<>();
+
+    private final AtomicLong successCount = new AtomicLong();
+    private final AtomicLong failureCount = new AtomicLong();
+    private volatile double latencyMillis = Double.NaN;
+
+    SigningSession(int tokenIndex, String tokenName, int index,
+                   PrivateKey privateKey, Provider provider, KeyStore keyStore) {
+        this.tokenIndex = tokenIndex;
+        this.tokenName = tokenName;
+        this.index = index;
+        this.name = "session-" + index;
+        open(privateKey, provider, keyStore);
+    }
+
+    /**
+     * Veriyi bu oturumun anahtarı ve sabitlenmiş provider'ı ile imzalar.
+     *
+     * @param signatureAlgorithm JCA imza algoritması (ör. SHA256withRSA)
+     * @param data               İmzalanacak veri
+     */
+    public byte[] sign(String signatureAlgorithm, byte[] data) throws Exception {
+        Signature signature = signatures.get(signatureAlgorithm);
+        if (signature == null) {
+            signature = provider != null
+                ? Signature.getInstance(signatureAlgorithm, provider)
+                : Signature.getInstance(signatureAlgorithm);
+            signature.initSign(privateKey);
+            signatures.put(signatureAlgorithm, signature);
+        }
+        try {
+            // sign() nesneyi initSign sonrası durumuna döndürür; aynı anahtarla tekrar kullanılabilir
+            signature.update(data);
+            return signature.sign();
+        } catch (Exception e) {
+            signatures.remove(signatureAlgorithm);
+            throw e;
+        }
+    }
+
+    public PrivateKey getPrivateKey() {
+        return privateKey;
+    }
+
+    /**
+     * Oturumun sabitlendiği provider; PFX anahtarlarında {@code null}.
+     */
+    public Provider getProvider() {
+        return provider;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Oturumun açıldığı token'ın adı.
+     */
+    public String getTokenName() {
+        return tokenName;
+    }
+
+    public long getSuccessCount() {
+        return successCount.get();
+    }
+
+    public long getFailureCount() {
+        return failureCount.get();
+    }
+
+    /**
+     * Son işlemlerin üstel ortalama süresi (ms); henüz işlem yoksa {@link Double#NaN}.
+     */
+    public double getLatencyMillis() {
+        return latencyMillis;
+    }
+
+    int getTokenIndex() {
+        return tokenIndex;
+    }
+
+    int getIndex() {
+        return index;
+    }
+
+    KeyStore getKeyStore() {
+        return keyStore;
+    }
+
+    void open(PrivateKey privateKey, Provider provider, KeyStore keyStore) {
+        this.privateKey = privateKey;
+        this.provider = provider;
+        this.keyStore = keyStore;
+        signatures.clear();
+    }
+
+    void recordSuccess(long elapsedNanos) {
+        successCount.incrementAndGet();
+        double elapsedMillis = elapsedNanos / 1_000_000.0;
+        double current = latencyMillis;
+        latencyMillis = Double.isNaN(current)
+            ? elapsedMillis
+            : current + LATENCY_SMOOTHING * (elapsedMillis - current);
+    }
+
+    void recordFailure() {
+        failureCount.incrementAndGet();
+    }
+}
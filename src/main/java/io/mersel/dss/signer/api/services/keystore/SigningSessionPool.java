@@ -0,0 +1,684 @@
+package io.mersel.dss.signer.api.services.keystore;
+
+import io.mersel.dss.signer.api.exceptions.KeyStoreException;
+import io.mersel.dss.signer.api.exceptions.SignatureException;
+import io.mersel.dss.signer.api.models.SigningMaterial;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.bouncycastle.asn1.x509.AlgorithmIdentifier;
+import org.bouncycastle.operator.ContentSigner;
+import org.bouncycastle.operator.DefaultSignatureAlgorithmIdentifierFinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.security.KeyStore;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.PrivateKey;
+import java.security.cert.Certificate;
+import java.security.cert.X509Certificate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * İmzalama anahtarına açılmış oturumların havuzu.
+ * <p>
+ * Aynı anahtarı taşıyan bir veya daha fazla token (HSM bölümü, slot veya
+ * akıllı kart) desteklenir. Her token'a başlangıçta {@code sessionsPerToken}
+ * adet oturum açılır; her oturum ayrı bir SunPKCS11 provider'ı ile token'a
+ * login olur. Token daha az oturuma izin veriyorsa açılabilen kadarıyla
+ * devam edilir. Tüm token'ların aynı imzalama sertifikasını sunduğu
+ * başlangıçta doğrulanır.
+ * <p>
+ * İmzalar en az bekleyen isteğe sahip sağlıklı token'a yönlendirilir. İmza
+ * hatasından sonra oturum token üzerinde yanıt vermiyorsa token rotasyondan
+ * çıkarılır; periyodik sağlık kontrolü token'ı yeniden açabildiğinde tekrar
+ * rotasyona alır. Boştaki oturumlar aynı kontrolde küçük bir özet işlemiyle
+ * canlı tutulur. PFX anahtarlarında tek bir sanal token vardır, oturumlar aynı
+ * anahtarı paylaşır ve havuz yalnızca eşzamanlı imza sayısını sınırlar.
+ * <p>
+ * Ham imza üreten tüm yollar (XAdES, CAdES, PAdES, hash imzalama,
+ * WS-Security) oturumu yalnızca imza süresince tutar. Oturum ve token
+ * durumu {@code signing.session.*} ve {@code signing.token.*} metrikleriyle
+ * yayınlanır.
+ */
+public class SigningSessionPool implements MeterBinder {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SigningSessionPool.class);
+
+    /**
+     * Yapılandırmadaki varsayılan imzalama anahtarının adı.
+     */
+    public static final String DEFAULT_KEY_NAME = "default";
+
+    private static final String KEEPALIVE_DIGEST_ALGORITHM = "SHA-256";
+    private static final byte[] KEEPALIVE_PAYLOAD = new byte[0];
+
+    /**
+     * CMS imzacıları için algoritma tanımlayıcıları; algoritma adı başına bir kez çözülür.
+     */
+    private static final Map<String, AlgorithmIdentifier> ALGORITHM_IDENTIFIERS = new ConcurrentHashMap<>();
+
+    private final String keyName;
+    private final char[] pin;
+    private final String alias;
+    private final X509Certificate signingCertificate;
+    private final PrivateKey softwareKey;
+    private final int sessionsPerToken;
+    private final long acquireTimeoutMillis;
+
+    private final List<Token> tokens;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition sessionReleased = lock.newCondition();
+    private int nextToken;
+    private volatile boolean closed;
+    private volatile MeterRegistry registry;
+    private final List<Meter> meters = new CopyOnWriteArrayList<>();
+
+    /**
+     * Tek keystore için havuz oluşturur.
+     *
+     * @see #SigningSessionPool(String, List, char[], String, SigningMaterial, int, long)
+     */
+    public SigningSessionPool(KeyStoreProvider keyStoreProvider,
+                              char[] pin,
+                              String alias,
+                              SigningMaterial material,
+                              int sessionCount,
+                              long acquireTimeoutMillis) {
+        this(DEFAULT_KEY_NAME, Collections.singletonList(keyStoreProvider), pin, alias, material,
+            sessionCount, acquireTimeoutMillis);
+    }
+
+    /**
+     * @param keyName              Metriklerde kullanılacak anahtar adı
+     * @param keyStoreProviders    Aynı anahtarı taşıyan token'ların keystore sağlayıcıları
+     * @param pin                  Keystore PIN'i
+     * @param alias                İmzalama anahtarının alias'ı
+     * @param material             Oturumların doğrulanacağı imzalama materyali
+     * @param sessionsPerToken     Token başına açılacak en fazla oturum sayısı
+     * @param acquireTimeoutMillis Boş oturum için en fazla bekleme süresi
+     */
+    public SigningSessionPool(String keyName,
+                              List<? extends KeyStoreProvider> keyStoreProviders,
+                              char[] pin,
+                              String alias,
+                              SigningMaterial material,
+                              int sessionsPerToken,
+                              long acquireTimeoutMillis) {
+        this.keyName = keyName;
+        this.pin = pin;
+        this.alias = alias;
+        this.signingCertificate = material.getSigningCertificate();
+        this.softwareKey = material.getPrivateKey();
+        this.sessionsPerToken = Math.max(1, sessionsPerToken);
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+
+        List<Token> opened = new ArrayList<>();
+        for (int i = 0; i < keyStoreProviders.size(); i++) {
+            Token token = new Token(i, keyStoreProviders.get(i));
+            open(token);
+            opened.add(token);
+        }
+        this.tokens = Collections.unmodifiableList(opened);
+
+        if (getHealthyTokenCount() == 0) {
+            throw new KeyStoreException("Hiçbir token üzerinde imzalama oturumu açılamadı");
+        }
+        LOGGER.info("İmzalama oturum havuzu hazır. Tip: {}, token: {}, oturum: {}",
+            keyStoreProviders.get(0).getType(), tokens.size(), getSessionCount());
+    }
+
+    /**
+     * Boş bir oturum ödünç alıp işlemi çalıştırır; süre ve hata oturuma yazılır.
+     * PKCS#11 oturumu token çıkarıldığı veya oturum kaybolduğu için hata
+     * verirse oturum yeniden login olunarak açılır ve işlem bir kez tekrarlanır.
+     *
+     * @throws SignatureException Süre içinde boş oturum bulunamazsa
+     */
+    public <T> T execute(SessionOperation<T> operation) throws Exception {
+        SigningSession session = acquire();
+        boolean tokenLost = false;
+        try {
+            try {
+                return apply(session, operation);
+            } catch (Exception e) {
+                if (session.getProvider() == null) {
+                    throw e;
+                }
+                if (!PKCS11KeyStoreProvider.isTokenLost(e) || !reopen(session)) {
+                    tokenLost = !ping(session);
+                    throw e;
+                }
+            }
+            LOGGER.warn("İmzalama oturumu yeniden açıldı, işlem tekrarlanıyor: {}/{}",
+                session.getTokenName(), session.getName());
+            try {
+                return apply(session, operation);
+            } catch (Exception e) {
+                tokenLost = !ping(session);
+                throw e;
+            }
+        } finally {
+            release(session, tokenLost);
+        }
+    }
+
+    /**
+     * BouncyCastle CMS üreticileri için, imzayı havuzdaki bir oturumla üreten
+     * {@link ContentSigner} oluşturur. Oturum yalnızca
+     * {@link ContentSigner#getSignature()} süresince tutulur.
+     *
+     * @param signatureAlgorithm JCA imza algoritması (ör. SHA256withRSA)
+     */
+    public ContentSigner contentSigner(String signatureAlgorithm) {
+        AlgorithmIdentifier algorithmIdentifier = ALGORITHM_IDENTIFIERS.computeIfAbsent(signatureAlgorithm,
+            algorithm -> new DefaultSignatureAlgorithmIdentifierFinder().find(algorithm));
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+        return new ContentSigner() {
+            @Override
+            public AlgorithmIdentifier getAlgorithmIdentifier() {
+                return algorithmIdentifier;
+            }
+
+            @Override
+            public OutputStream getOutputStream() {
+                return buffer;
+            }
+
+            @Override
+            public byte[] getSignature() {
+                try {
+                    return execute(session -> session.sign(signatureAlgorithm, buffer.toByteArray()));
+                } catch (SignatureException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw new SignatureException("İmza oluşturulamadı", e);
+                }
+            }
+        };
+    }
+
+    /**
+     * Sağlık kontrolü: boştaki oturumları token üzerinde küçük bir işlemle
+     * canlı tutar, yanıt vermeyen token'ı rotasyondan çıkarır ve rotasyon
+     * dışındaki token'ları yeniden açmayı dener. Yeniden açılırken farklı bir
+     * sertifika sunan token loglanır ve anahtar yeniden yüklenene kadar
+     * rotasyon dışında bırakılır; diğer token'ların kontrolü sürer.
+     */
+    @Scheduled(fixedDelayString = "${SIGNING_SESSION_KEEPALIVE_MS:60000}",
+        initialDelayString = "${SIGNING_SESSION_KEEPALIVE_MS:60000}")
+    public void keepAlive() {
+        if (closed) {
+            return;
+        }
+        for (Token token : tokens) {
+            if (!token.isPkcs11()) {
+                continue;
+            }
+            if (token.healthy) {
+                checkIdleSessions(token);
+            } else if (token.outstanding == 0 && !token.mismatched) {
+                try {
+                    open(token);
+                } catch (CertificateMismatchException e) {
+                    token.mismatched = true;
+                    LOGGER.error("Token rotasyon dışında bırakıldı, anahtar yeniden yüklenene kadar denenmeyecek: {}",
+                        e.getMessage());
+                    continue;
+                }
+                if (token.healthy) {
+                    lock.lock();
+                    try {
+                        sessionReleased.signalAll();
+                    } finally {
+                        lock.unlock();
+                    }
+                }
+            }
+        }
+    }
+
+    public int getSessionCount() {
+        return getSessions().size();
+    }
+
+    public int getTokenCount() {
+        return tokens.size();
+    }
+
+    public int getHealthyTokenCount() {
+        int healthy = 0;
+        for (Token token : tokens) {
+            if (token.healthy) {
+                healthy++;
+            }
+        }
+        return healthy;
+    }
+
+    public int getIdleCount() {
+        lock.lock();
+        try {
+            int idle = 0;
+            for (Token token : tokens) {
+                if (token.healthy) {
+                    idle += token.idle.size();
+                }
+            }
+            return idle;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Token'da işlenmekte olan imza sayısı.
+     */
+    public int getOutstanding(int tokenIndex) {
+        return tokens.get(tokenIndex).outstanding;
+    }
+
+    public boolean isHealthy(int tokenIndex) {
+        return tokens.get(tokenIndex).healthy;
+    }
+
+    public String getKeyName() {
+        return keyName;
+    }
+
+    /**
+     * Havuzun metriklerini kayıttan kaldırır; havuz imza vermeye devam eder.
+     * Aynı anahtarın yenilenen havuzu metrikleri devralmadan önce çağrılır.
+     */
+    public void unbindMeters() {
+        MeterRegistry meterRegistry = registry;
+        registry = null;
+        if (meterRegistry != null) {
+            meters.forEach(meterRegistry::remove);
+        }
+        meters.clear();
+    }
+
+    /**
+     * Havuzun metriklerini kaldırır ve boştaki oturumları bırakır. Devam eden
+     * imzalar tamamlanabilir; bırakılan oturumlar havuza geri alınmaz.
+     */
+    public void close() {
+        closed = true;
+        unbindMeters();
+        lock.lock();
+        try {
+            for (Token token : tokens) {
+                token.healthy = false;
+                token.idle.clear();
+            }
+            sessionReleased.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        LOGGER.info("İmzalama oturum havuzu kapatıldı: {}", keyName);
+    }
+
+    /**
+     * Tüm token'larda işlenmekte olan imza sayısı.
+     */
+    public int getOutstandingCount() {
+        int outstanding = 0;
+        for (Token token : tokens) {
+            outstanding += token.outstanding;
+        }
+        return outstanding;
+    }
+
+    /**
+     * Havuzun token'larının keystore sağlayıcıları (token sırasıyla).
+     */
+    public List<KeyStoreProvider> getKeyStoreProviders() {
+        List<KeyStoreProvider> providers = new ArrayList<>();
+        for (Token token : tokens) {
+            providers.add(token.provider);
+        }
+        return providers;
+    }
+
+    public int getSessionsPerToken() {
+        return sessionsPerToken;
+    }
+
+    public List<SigningSession> getSessions() {
+        lock.lock();
+        try {
+            List<SigningSession> sessions = new ArrayList<>();
+            for (Token token : tokens) {
+                sessions.addAll(token.sessions);
+            }
+            return sessions;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.registry = registry;
+        meters.add(Gauge.builder("signing.session.open", this, pool -> {
+                int open = 0;
+                for (Token token : pool.tokens) {
+                    if (token.healthy) {
+                        open += token.idle.size() + token.outstanding;
+                    }
+                }
+                return open;
+            })
+            .tag("key", keyName)
+            .description("Rotasyondaki token'lara açık imzalama oturumları")
+            .register(registry));
+        meters.add(Gauge.builder("signing.session.idle", this, SigningSessionPool::getIdleCount)
+            .tag("key", keyName)
+            .description("Boşta bekleyen imzalama oturumları")
+            .register(registry));
+        for (Token token : tokens) {
+            meters.add(Gauge.builder("signing.token.outstanding", token, t -> t.outstanding)
+                .tag("key", keyName)
+                .tag("token", token.name)
+                .description("Token'da işlenmekte olan imzalar")
+                .register(registry));
+            meters.add(Gauge.builder("signing.token.healthy", token, t -> t.healthy ? 1 : 0)
+                .tag("key", keyName)
+                .tag("token", token.name)
+                .description("Token rotasyondaysa 1")
+                .register(registry));
+        }
+        for (SigningSession session : getSessions()) {
+            registerSessionMeters(registry, session);
+        }
+    }
+
+    /**
+     * En az bekleyen isteğe sahip, boş oturumu olan sağlıklı token'dan oturum
+     * alır. Eşitlikte token'lar sırayla seçilir.
+     */
+    private SigningSession acquire() throws InterruptedException {
+        long remaining = TimeUnit.MILLISECONDS.toNanos(acquireTimeoutMillis);
+        lock.lock();
+        try {
+            while (true) {
+                if (closed) {
+                    throw new SignatureException("SIGNING_SESSION_UNAVAILABLE",
+                        "İmzalama oturum havuzu kapatıldı: " + keyName);
+                }
+                Token selected = null;
+                for (int i = 0; i < tokens.size(); i++) {
+                    Token token = tokens.get((nextToken + i) % tokens.size());
+                    if (token.healthy && !token.idle.isEmpty()
+                        && (selected == null || token.outstanding < selected.outstanding)) {
+                        selected = token;
+                    }
+                }
+                if (selected != null) {
+                    nextToken = (selected.index + 1) % tokens.size();
+                    selected.outstanding++;
+                    return selected.idle.pollFirst();
+                }
+                if (remaining <= 0) {
+                    throw new SignatureException("SIGNING_SESSION_UNAVAILABLE",
+                        "İmzalama oturumu " + acquireTimeoutMillis + " ms içinde alınamadı");
+                }
+                remaining = sessionReleased.awaitNanos(remaining);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void release(SigningSession session, boolean tokenLost) {
+        Token token = tokens.get(session.getTokenIndex());
+        lock.lock();
+        try {
+            token.outstanding--;
+            if (tokenLost) {
+                markDown(token);
+            } else if (token.healthy) {
+                token.idle.addFirst(session);
+            }
+            sessionReleased.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void checkIdleSessions(Token token) {
+        for (SigningSession session : token.sessions) {
+            lock.lock();
+            try {
+                if (!token.healthy || !token.idle.remove(session)) {
+                    continue;
+                }
+                token.outstanding++;
+            } finally {
+                lock.unlock();
+            }
+            release(session, !ping(session));
+            if (!token.healthy) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Token'ı rotasyondan çıkarır. Kilit altında çağrılmalıdır.
+     */
+    private void markDown(Token token) {
+        if (token.healthy) {
+            token.healthy = false;
+            token.idle.clear();
+            LOGGER.error("Token rotasyondan çıkarıldı: {}", token.name);
+        }
+    }
+
+    /**
+     * Token'ın oturumlarını açar veya yeniden açar. İlk oturum açılamazsa token
+     * rotasyon dışında kalır; sonraki oturumlar açılamazsa token sınırına
+     * ulaşıldığı kabul edilir.
+     */
+    private void open(Token token) {
+        List<SigningSession> openedSessions = new ArrayList<>();
+        int limit = token.sessions.isEmpty() ? sessionsPerToken : token.sessions.size();
+        for (int i = 0; i < limit; i++) {
+            SigningSession session = i < token.sessions.size() ? token.sessions.get(i) : null;
+            try {
+                if (!token.isPkcs11()) {
+                    if (session == null) {
+                        session = new SigningSession(token.index, token.name, i,
+                            softwareKey, null, null);
+                    }
+                } else {
+                    KeyStore keyStore = ((PKCS11KeyStoreProvider) token.provider).openSessionKeyStore(pin, i);
+                    PrivateKey privateKey = loadKey(token, keyStore);
+                    if (session == null) {
+                        session = new SigningSession(token.index, token.name, i,
+                            privateKey, keyStore.getProvider(), keyStore);
+                    } else {
+                        session.open(privateKey, keyStore.getProvider(), keyStore);
+                    }
+                }
+                openedSessions.add(session);
+            } catch (CertificateMismatchException e) {
+                throw e;
+            } catch (KeyStoreException e) {
+                if (openedSessions.isEmpty()) {
+                    LOGGER.warn("Token'a oturum açılamadı, sağlık kontrolünde tekrar denenecek: {} - {}",
+                        token.name, e.getMessage());
+                    return;
+                }
+                LOGGER.warn("Token {} oturumdan fazlasına izin vermiyor: {} - {}",
+                    openedSessions.size(), token.name, e.getMessage());
+                break;
+            }
+        }
+
+        lock.lock();
+        try {
+            if (token.sessions.isEmpty()) {
+                token.sessions.addAll(openedSessions);
+                MeterRegistry meterRegistry = registry;
+                if (meterRegistry != null) {
+                    openedSessions.forEach(session -> registerSessionMeters(meterRegistry, session));
+                }
+            }
+            token.idle.clear();
+            token.idle.addAll(openedSessions);
+            if (!token.healthy) {
+                token.healthy = true;
+                LOGGER.info("Token rotasyonda: {} ({} oturum)", token.name, openedSessions.size());
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private <T> T apply(SigningSession session, SessionOperation<T> operation) throws Exception {
+        long start = System.nanoTime();
+        try {
+            T result = operation.apply(session);
+            session.recordSuccess(System.nanoTime() - start);
+            return result;
+        } catch (Exception e) {
+            session.recordFailure();
+            throw e;
+        }
+    }
+
+    /**
+     * Kaybolan PKCS#11 oturumunu aynı provider ile yeniden login olarak açar.
+     */
+    private boolean reopen(SigningSession session) {
+        Token token = tokens.get(session.getTokenIndex());
+        try {
+            KeyStore keyStore = ((PKCS11KeyStoreProvider) token.provider).openSessionKeyStore(pin, session.getIndex());
+            session.open(loadKey(token, keyStore), keyStore.getProvider(), keyStore);
+            return true;
+        } catch (KeyStoreException e) {
+            LOGGER.warn("İmzalama oturumu yeniden açılamadı: {}/{} - {}",
+                session.getTokenName(), session.getName(), e.getMessage());
+            return false;
+        }
+    }
+
+    private PrivateKey loadKey(Token token, KeyStore keyStore) {
+        Certificate certificate;
+        try {
+            certificate = keyStore.getCertificate(alias);
+        } catch (Exception e) {
+            throw new KeyStoreException("Oturum sertifikası okunamadı: " + alias, e);
+        }
+        if (certificate == null || !certificate.equals(signingCertificate)) {
+            throw new CertificateMismatchException(
+                "Token imzalama sertifikasını sunmuyor: " + token.name + " (alias: " + alias + ")");
+        }
+        try {
+            return (PrivateKey) keyStore.getKey(alias, pin);
+        } catch (Exception e) {
+            throw new KeyStoreException("Oturum anahtarı yüklenemedi: " + alias, e);
+        }
+    }
+
+    private void registerSessionMeters(MeterRegistry meterRegistry, SigningSession session) {
+        meters.add(FunctionCounter.builder("signing.session.operations", session, SigningSession::getSuccessCount)
+            .tag("key", keyName)
+            .tag("token", session.getTokenName())
+            .tag("session", session.getName())
+            .tag("result", "success")
+            .description("Oturum üzerinden yapılan imza işlemleri")
+            .register(meterRegistry));
+        meters.add(FunctionCounter.builder("signing.session.operations", session, SigningSession::getFailureCount)
+            .tag("key", keyName)
+            .tag("token", session.getTokenName())
+            .tag("session", session.getName())
+            .tag("result", "failure")
+            .description("Oturum üzerinden yapılan imza işlemleri")
+            .register(meterRegistry));
+        meters.add(Gauge.builder("signing.session.latency.ms", session, SigningSession::getLatencyMillis)
+            .tag("key", keyName)
+            .tag("token", session.getTokenName())
+            .tag("session", session.getName())
+            .description("Oturumun ortalama imza süresi")
+            .register(meterRegistry));
+    }
+
+    private boolean ping(SigningSession session) {
+        try {
+            MessageDigest.getInstance(KEEPALIVE_DIGEST_ALGORITHM, session.getProvider()).digest(KEEPALIVE_PAYLOAD);
+            return true;
+        } catch (NoSuchAlgorithmException e) {
+            try {
+                return session.getKeyStore().isKeyEntry(alias);
+            } catch (Exception ex) {
+                LOGGER.warn("İmzalama oturumu yanıt vermiyor: {} - {}", session.getName(), ex.getMessage());
+                return false;
+            }
+        } catch (Exception e) {
+            LOGGER.warn("İmzalama oturumu yanıt vermiyor: {} - {}", session.getName(), e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Ödünç alınan oturumla çalıştırılan işlem.
+     */
+    @FunctionalInterface
+    public interface SessionOperation<T> {
+        T apply(SigningSession session) throws Exception;
+    }
+
+    /**
+     * Token farklı bir sertifika sunuyor; yapılandırma hatasıdır ve tekrar denenmez.
+     */
+    private static final class CertificateMismatchException extends KeyStoreException {
+        private CertificateMismatchException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Aynı anahtarı taşıyan tek bir token ve oturumları.
+     * Alanlar havuz kilidi altında değiştirilir.
+     */
+    private static final class Token {
+        private final int index;
+        private final String name;
+        private final KeyStoreProvider provider;
+        private final List<SigningSession> sessions = new ArrayList<>();
+        private final Deque<SigningSession> idle = new ArrayDeque<>();
+        private volatile int outstanding;
+        private volatile boolean healthy;
+        private volatile boolean mismatched;
+
+        private Token(int index, KeyStoreProvider provider) {
+            this.index = index;
+            this.name = "token-" + index;
+            this.provider = provider;
+        }
+
+        private boolean isPkcs11() {
+            return provider instanceof PKCS11KeyStoreProvider;
+        }
+    }
+}
@@ -0,0 +1,285 @@
+package io.mersel.dss.signer.api.services.revocation;
+
+import eu.europa.esig.dss.crl.CRLBinary;
+import eu.europa.esig.dss.crl.CRLUtils;
+import eu.europa.esig.dss.crl.CRLValidity;
+import eu.europa.esig.dss.enumerations.DigestAlgorithm;
+import eu.europa.esig.dss.enumerations.RevocationOrigin;
+import eu.europa.esig.dss.model.x509.CertificateToken;
+import eu.europa.esig.dss.service.crl.OnlineCRLSource;
+import eu.europa.esig.dss.spi.DSSUtils;
+import eu.europa.esig.dss.spi.client.http.DataLoader;
+import eu.europa.esig.dss.spi.exception.DSSExternalResourceException;
+import eu.europa.esig.dss.spi.x509.revocation.crl.CRLToken;
+import eu.europa.esig.dss.utils.Utils;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * CRL'leri diskte saklayan ve seri numarası indeksiyle sorgulayan CRL kaynağı.
+ * <p>
+ * İndirilen her CRL {@code cacheDirectory} altına URL'in SHA-256 özetiyle
+ * ({@code <hash>.crl}) yazılır ve yanına {@link CrlSerialIndex} dosyası
+ * ({@code <hash>.idx}) oluşturulur. CRL {@code nextUpdate} (yoksa
+ * {@code thisUpdate + maxAge}) zamanına kadar tekrar indirilmez; iptal sorguları
+ * {@link IndexedCRLUtils} üzerinden indeksle yanıtlanır. Dosyalar yeniden
+ * başlatmada okunduğundan soğuk başlangıçta geçerli CRL'ler yeniden indirilmez.
+ * <p>
+ * CRL ayrıştırma ve imza doğrulaması CRL sürümü başına bir kez yapılır; oluşan
+ * {@link CRLValidity} indeksiyle birlikte cache'te tutulur ve her sorguda aynı
+ * örnek {@link CRLToken}'a verilir. Sorgu maliyeti CRL boyutundan bağımsızdır.
+ */
+public class CachingCRLSource extends OnlineCRLSource implements MeterBinder {
+
+    private static final long serialVersionUID = 1L;
+    private static final Logger LOGGER = LoggerFactory.getLogger(CachingCRLSource.class);
+
+    private static final String CRL_EXTENSION = ".crl";
+    private static final String INDEX_EXTENSION = ".idx";
+
+    private final Path cacheDirectory;
+    private final long maxAgeMillis;
+    private final transient Map<String, CachedCrl> cache = new ConcurrentHashMap<>();
+    private final transient Map<String, Object> locks = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * @param dataLoader     CRL indirmelerinde kullanılacak data loader
+     * @param cacheDirectory CRL ve indeks dosyalarının saklanacağı dizin
+     * @param maxAgeMillis   {@code nextUpdate} içermeyen CRL'lerin tekrar kullanılacağı süre
+     */
+    public CachingCRLSource(DataLoader dataLoader, Path cacheDirectory, long maxAgeMillis) {
+        super(dataLoader);
+        this.cacheDirectory = cacheDirectory;
+        this.maxAgeMillis = maxAgeMillis;
+        if (!IndexedCRLUtils.isSelected()) {
+            LOGGER.warn("DSS CRL yardımcısı olarak IndexedCRLUtils seçilmedi; iptal sorguları CRL tam taranarak yanıtlanacak");
+        }
+        try {
+            Files.createDirectories(cacheDirectory);
+        } catch (IOException e) {
+            throw new IllegalStateException("CRL cache dizini oluşturulamadı: " + cacheDirectory, e);
+        }
+    }
+
+    @Override
+    public CRLToken getRevocationToken(CertificateToken certificateToken,
+                                       CertificateToken issuerCertificateToken,
+                                       List<String> alternativeUrls) {
+        List<String> urls = getCRLAccessURLs(certificateToken, alternativeUrls);
+        if (Utils.isCollectionEmpty(urls)) {
+            LOGGER.debug("Sertifika için CRL adresi bulunamadı: {}", certificateToken.getDSSIdAsString());
+            return null;
+        }
+
+        for (int i = 0; i < urls.size(); i++) {
+            String url = urls.get(i);
+            try {
+                CRLValidity validity = obtain(url, issuerCertificateToken);
+                CRLToken token = new CRLToken(certificateToken, validity);
+                token.setExternalOrigin(RevocationOrigin.EXTERNAL);
+                token.setSourceURL(url);
+                return token;
+            } catch (Exception e) {
+                if (i == urls.size() - 1) {
+                    throw new DSSExternalResourceException(String.format(
+                        "Unable to retrieve CRL for certificate with Id '%s' from URL '%s'. Reason : %s",
+                        certificateToken.getDSSIdAsString(), url, e.getMessage()), e);
+                }
+                LOGGER.warn("CRL alınamadı, sonraki adres deneniyor: {} - {}", url, e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Bellekteki CRL kayıtlarını ve indeks kayıtlarını bırakır. Disk dosyaları korunur.
+     */
+    public void clear() {
+        for (CachedCrl crl : cache.values()) {
+            IndexedCRLUtils.unregister(crl.validity);
+        }
+        cache.clear();
+    }
+
+    /**
+     * Bellekte tutulan CRL sayısı.
+     */
+    public int size() {
+        return cache.size();
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("crl.cache.requests", this, CachingCRLSource::getHitCount)
+                .tag("result", "hit")
+                .description("Cache'ten karşılanan CRL istekleri")
+                .register(registry);
+        FunctionCounter.builder("crl.cache.requests", this, CachingCRLSource::getMissCount)
+                .tag("result", "miss")
+                .description("CRL indirmesi gerektiren istekler")
+                .register(registry);
+        Gauge.builder("crl.cache.size", this, CachingCRLSource::size)
+                .description("Bellekteki CRL sayısı")
+                .register(registry);
+    }
+
+    private CRLValidity obtain(String url, CertificateToken issuer) throws IOException {
+        CachedCrl cached = cache.get(url);
+        if (isUsable(cached, issuer)) {
+            hits.incrementAndGet();
+            return cached.validity;
+        }
+
+        synchronized (locks.computeIfAbsent(url, key -> new Object())) {
+            cached = cache.get(url);
+            if (isUsable(cached, issuer)) {
+                hits.incrementAndGet();
+                return cached.validity;
+            }
+
+            String fileName = Utils.toHex(DSSUtils.digest(DigestAlgorithm.SHA256, url.getBytes(StandardCharsets.UTF_8)));
+            Path crlFile = cacheDirectory.resolve(fileName + CRL_EXTENSION);
+            Path indexFile = cacheDirectory.resolve(fileName + INDEX_EXTENSION);
+
+            CachedCrl loaded = cached == null ? loadFromDisk(url, crlFile, indexFile, issuer) : null;
+            if (isUsable(loaded, issuer)) {
+                hits.incrementAndGet();
+                replace(url, loaded);
+                return loaded.validity;
+            }
+
+            misses.incrementAndGet();
+            return download(url, crlFile, indexFile, issuer);
+        }
+    }
+
+    private CachedCrl loadFromDisk(String url, Path crlFile, Path indexFile, CertificateToken issuer) {
+        if (!Files.isRegularFile(crlFile)) {
+            return null;
+        }
+        try {
+            CRLValidity validity = CRLUtils.buildCRLValidity(
+                CRLUtils.buildCRLBinary(Files.readAllBytes(crlFile)), issuer);
+            if (!validity.isSignatureIntact()) {
+                LOGGER.warn("Diskteki CRL imzası geçersiz, yeniden indirilecek: {}", url);
+                return null;
+            }
+
+            byte[] digest = digestOf(validity);
+            CrlSerialIndex index = CrlSerialIndex.open(indexFile, digest);
+            if (index == null) {
+                index = CrlSerialIndex.build(validity.getDerEncoded(), digest, indexFile);
+            }
+            LOGGER.info("CRL diskten yüklendi: {} ({} kayıt, nextUpdate: {})",
+                url, index.size(), validity.getNextUpdate());
+            return new CachedCrl(validity, index, expiryOf(validity));
+        } catch (Exception e) {
+            LOGGER.warn("Diskteki CRL okunamadı, yeniden indirilecek: {} - {}", url, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * CRL'i indirir, imzası geçerliyse diske yazıp doğrulama sonucuyla birlikte cache'e ekler.
+     */
+    private CRLValidity download(String url, Path crlFile, Path indexFile, CertificateToken issuer) throws IOException {
+        CRLBinary crlBinary = executeCRLRequest(url);
+        CRLValidity validity = CRLUtils.buildCRLValidity(crlBinary, issuer);
+        if (!validity.isSignatureIntact()) {
+            // Geçersiz CRL diske yazılmaz ve cache'lenmez; doğrulayıcı token üzerinden reddeder
+            return validity;
+        }
+
+        byte[] bytes = crlBinary.getBinaries();
+        Path tempFile = crlFile.resolveSibling(crlFile.getFileName() + ".tmp");
+        Files.write(tempFile, bytes);
+        Files.move(tempFile, crlFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        CrlSerialIndex index = null;
+        try {
+            index = CrlSerialIndex.build(bytes, digestOf(validity), indexFile);
+        } catch (IOException e) {
+            LOGGER.warn("CRL indekslenemedi, sorgular tam tarama ile yapılacak: {} - {}", url, e.getMessage());
+        }
+
+        LOGGER.info("CRL indirildi: {} ({} bayt, nextUpdate: {})", url, bytes.length, validity.getNextUpdate());
+        replace(url, new CachedCrl(validity, index, expiryOf(validity)));
+        return validity;
+    }
+
+    private void replace(String url, CachedCrl crl) {
+        CachedCrl previous = cache.put(url, crl);
+        if (previous != null && previous.validity != crl.validity) {
+            IndexedCRLUtils.unregister(previous.validity);
+        }
+        if (crl.index != null) {
+            IndexedCRLUtils.register(crl.validity, crl.index, ByteBuffer.wrap(crl.validity.getDerEncoded()));
+        }
+    }
+
+    private boolean isUsable(CachedCrl crl, CertificateToken issuer) {
+        return crl != null
+            && crl.expiresAt > System.currentTimeMillis()
+            && issuer.equals(crl.issuer);
+    }
+
+    private long expiryOf(CRLValidity validity) {
+        if (validity.getNextUpdate() != null) {
+            return validity.getNextUpdate().getTime();
+        }
+        Date thisUpdate = validity.getThisUpdate();
+        return (thisUpdate != null ? thisUpdate.getTime() : System.currentTimeMillis()) + maxAgeMillis;
+    }
+
+    /**
+     * CRL'in SHA-256 özeti; {@link CRLBinary} oluşturulurken hesaplanan kimlik özeti tekrar kullanılır.
+     */
+    private static byte[] digestOf(CRLValidity validity) {
+        return validity.getCrlBinary().getDigestValue(DigestAlgorithm.SHA256);
+    }
+
+    /**
+     * Cache kaydı. Doğrulama sonucu CRL sürümü başına bir kez oluşturulur ve
+     * indeks bu örneğe bağlanır.
+     */
+    private static final class CachedCrl {
+        private final CRLValidity validity;
+        private final CertificateToken issuer;
+        private final CrlSerialIndex index;
+        private final long expiresAt;
+
+        private CachedCrl(CRLValidity validity, CrlSerialIndex index, long expiresAt) {
+            this.validity = validity;
+            this.issuer = validity.getIssuerToken();
+            this.index = index;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package io.mersel.dss.signer.api.services.revocation;
+
+import eu.europa.esig.dss.model.x509.CertificateToken;
+import eu.europa.esig.dss.model.x509.revocation.ocsp.OCSP;
+import eu.europa.esig.dss.spi.x509.revocation.RevocationSourceAlternateUrlsSupport;
+import eu.europa.esig.dss.spi.x509.revocation.RevocationToken;
+import eu.europa.esig.dss.spi.x509.revocation.ocsp.OCSPSource;
+import eu.europa.esig.dss.spi.x509.revocation.ocsp.OCSPToken;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Süreç genelinde paylaşılan, sınırlı boyutlu OCSP token cache'i.
+ * <p>
+ * Token'lar sertifika ve sağlayıcı (issuer) çiftine göre saklanır ve
+ * {@code thisUpdate + maxAge} ile {@code nextUpdate} değerlerinden erken olanına
+ * kadar tekrar kullanılır; böylece doğrulayıcının tazelik kontrolünü geçemeyecek
+ * bir yanıt hiçbir zaman cache'ten dönmez. Aynı anahtar için eşzamanlı istekler
+ * tek bir OCSP çağrısında birleştirilir; bu sayede C ve XL seviyeleri aynı
+ * yanıtı (aynı digest) görür.
+ */
+public class CachingOCSPSource implements OCSPSource, RevocationSourceAlternateUrlsSupport<OCSP>, MeterBinder {
+
+    private static final long serialVersionUID = 1L;
+    private static final Logger LOGGER = LoggerFactory.getLogger(CachingOCSPSource.class);
+
+    private final OCSPSource delegate;
+    private final long maxAgeMillis;
+    private final Map<String, CachedToken> cache;
+    private final transient ConcurrentHashMap<String, CompletableFuture<OCSPToken>> inFlight = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * @param delegate     Gerçek OCSP sorgularını yapan kaynak
+     * @param maxEntries   Cache'te tutulacak en fazla token sayısı
+     * @param maxAgeMillis {@code thisUpdate}'ten itibaren kabul edilen en uzun süre
+     */
+    public CachingOCSPSource(OCSPSource delegate, int maxEntries, long maxAgeMillis) {
+        this.delegate = delegate;
+        this.maxAgeMillis = maxAgeMillis;
+        final int capacity = Math.max(1, maxEntries);
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<String, CachedToken>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedToken> eldest) {
+                return size() > capacity;
+            }
+        });
+    }
+
+    @Override
+    public OCSPToken getRevocationToken(CertificateToken certificateToken, CertificateToken issuerCertificateToken) {
+        return getRevocationToken(certificateToken, issuerCertificateToken, null);
+    }
+
+    @Override
+    public OCSPToken getRevocationToken(CertificateToken certificateToken,
+                                        CertificateToken issuerCertificateToken,
+                                        List<String> alternativeUrls) {
+        if (certificateToken == null || issuerCertificateToken == null) {
+            return fetch(certificateToken, issuerCertificateToken, alternativeUrls);
+        }
+
+        String key = certificateToken.getDSSIdAsString() + ":" + issuerCertificateToken.getDSSIdAsString();
+        OCSPToken cached = lookup(key);
+        if (cached != null) {
+            hits.incrementAndGet();
+            return cached;
+        }
+
+        CompletableFuture<OCSPToken> pending = new CompletableFuture<>();
+        CompletableFuture<OCSPToken> existing = inFlight.putIfAbsent(key, pending);
+        if (existing != null) {
+            // Aynı sertifika için süren sorgu var; sonucunu paylaş
+            hits.incrementAndGet();
+            return await(existing);
+        }
+
+        misses.incrementAndGet();
+        try {
+            OCSPToken token = fetch(certificateToken, issuerCertificateToken, alternativeUrls);
+            store(key, token);
+            pending.complete(token);
+            return token;
+        } catch (RuntimeException e) {
+            pending.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, pending);
+        }
+    }
+
+    /**
+     * Cache'i atlayarak OCSP sunucusundan yeni yanıt alır ve cache'e yazar.
+     * Süresi dolmadan önce yenileme yapan arka plan işleri için kullanılır.
+     *
+     * @return Yeni OCSP token'ı; sunucu yanıt vermezse {@code null}
+     */
+    public OCSPToken refresh(CertificateToken certificateToken, CertificateToken issuerCertificateToken) {
+        String key = certificateToken.getDSSIdAsString() + ":" + issuerCertificateToken.getDSSIdAsString();
+        misses.incrementAndGet();
+        OCSPToken token = fetch(certificateToken, issuerCertificateToken, null);
+        store(key, token);
+        return token;
+    }
+
+    /**
+     * Cache'teki tüm token'ları siler.
+     */
+    public void clear() {
+        cache.clear();
+    }
+
+    /**
+     * Cache'teki (süresi dolmuş olanlar dahil) token sayısı.
+     */
+    public int size() {
+        return cache.size();
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("ocsp.cache.requests", this, CachingOCSPSource::getHitCount)
+                .tag("result", "hit")
+                .description("Cache'ten karşılanan OCSP istekleri")
+                .register(registry);
+        FunctionCounter.builder("ocsp.cache.requests", this, CachingOCSPSource::getMissCount)
+                .tag("result", "miss")
+                .description("OCSP sunucusuna giden istekler")
+                .register(registry);
+        Gauge.builder("ocsp.cache.size", this, CachingOCSPSource::size)
+                .description("Cache'teki OCSP token sayısı")
+                .register(registry);
+    }
+
+    @SuppressWarnings("unchecked")
+    private OCSPToken fetch(CertificateToken certificateToken,
+                            CertificateToken issuerCertificateToken,
+                            List<String> alternativeUrls) {
+        if (alternativeUrls != null && delegate instanceof RevocationSourceAlternateUrlsSupport) {
+            RevocationToken<OCSP> token = ((RevocationSourceAlternateUrlsSupport<OCSP>) delegate)
+                    .getRevocationToken(certificateToken, issuerCertificateToken, alternativeUrls);
+            return (OCSPToken) token;
+        }
+        return delegate.getRevocationToken(certificateToken, issuerCertificateToken);
+    }
+
+    private OCSPToken lookup(String key) {
+        CachedToken entry = cache.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt <= System.currentTimeMillis()) {
+            cache.remove(key, entry);
+            return null;
+        }
+        return entry.token;
+    }
+
+    private void store(String key, OCSPToken token) {
+        if (token == null) {
+            return;
+        }
+
+        long expiresAt = expiryOf(token);
+        if (expiresAt <= System.currentTimeMillis()) {
+            LOGGER.debug("OCSP yanıtı tazelik süresini aşmış, cache'lenmiyor: {}", key);
+            return;
+        }
+        cache.put(key, new CachedToken(token, expiresAt));
+    }
+
+    private long expiryOf(OCSPToken token) {
+        Date issued = token.getThisUpdate() != null ? token.getThisUpdate() : token.getProductionDate();
+        long expiresAt = (issued != null ? issued.getTime() : System.currentTimeMillis()) + maxAgeMillis;
+        if (token.getNextUpdate() != null) {
+            expiresAt = Math.min(expiresAt, token.getNextUpdate().getTime());
+        }
+        return expiresAt;
+    }
+
+    private OCSPToken await(CompletableFuture<OCSPToken> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private static final class CachedToken {
+        private final OCSPToken token;
+        private final long expiresAt;
+
+        private CachedToken(OCSPToken token, long expiresAt) {
+            this.token = token;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
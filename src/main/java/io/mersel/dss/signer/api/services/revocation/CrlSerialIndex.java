@@ -0,0 +1,264 @@
+package io.mersel.dss.signer.api.services.revocation;
+
+import org.bouncycastle.asn1.ASN1Primitive;
+import org.bouncycastle.asn1.x509.TBSCertList;
+import org.bouncycastle.jce.provider.X509CRLEntryObject;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.cert.X509CRLEntry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * CRL'deki iptal kayıtları için seri numarasına göre sıralı, diskte tutulan indeks.
+ * <p>
+ * İndeks dosyası bellek eşlemeli (memory-mapped) açılır; her kayıt seri numarasını
+ * ve ilgili {@code revokedCertificates} girdisinin CRL içindeki konumunu taşır.
+ * Arama ikili arama ile yapılır, bulunan girdi (bellek eşlemeli) CRL içeriğinden okunur.
+ * <p>
+ * Dosya düzeni: {@code magic, version, crlDigest[32], count} başlığı ve ardından
+ * sabit uzunluklu kayıtlar ({@code serialLength, serial[32], offset, length}).
+ * {@code crlDigest} CRL'in SHA-256 özetidir; indeks yalnızca aynı CRL için açılır.
+ */
+public final class CrlSerialIndex {
+
+    private static final int MAGIC = 0x43524C49; // "CRLI"
+    private static final int VERSION = 2;
+    private static final int DIGEST_LENGTH = 32;
+    private static final int HEADER_SIZE = 4 + 4 + DIGEST_LENGTH + 4;
+    private static final int MAX_SERIAL_LENGTH = 32;
+    private static final int RECORD_SIZE = 1 + MAX_SERIAL_LENGTH + 4 + 4;
+
+    private static final int TAG_INTEGER = 0x02;
+    private static final int TAG_SEQUENCE = 0x30;
+    private static final int TAG_UTC_TIME = 0x17;
+    private static final int TAG_GENERALIZED_TIME = 0x18;
+
+    private final ByteBuffer records;
+    private final int count;
+
+    private CrlSerialIndex(ByteBuffer records, int count) {
+        this.records = records;
+        this.count = count;
+    }
+
+    /**
+     * CRL baytlarından indeks dosyasını oluşturur ve açar.
+     *
+     * @param crl       DER kodlu CRL
+     * @param crlDigest CRL'in SHA-256 özeti
+     * @param indexFile Yazılacak indeks dosyası
+     * @throws IOException CRL yapısı indekslenemezse veya dosya yazılamazsa
+     */
+    public static CrlSerialIndex build(byte[] crl, byte[] crlDigest, Path indexFile) throws IOException {
+        checkDigest(crlDigest);
+        List<long[]> entries = readEntries(crl);
+        entries.sort((a, b) -> serialOf(crl, a).compareTo(serialOf(crl, b)));
+
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + entries.size() * RECORD_SIZE);
+        buffer.putInt(MAGIC).putInt(VERSION).put(crlDigest).putInt(entries.size());
+        for (long[] entry : entries) {
+            int serialOffset = (int) entry[0];
+            int serialLength = (int) entry[1];
+            buffer.put((byte) serialLength);
+            buffer.put(crl, serialOffset, serialLength);
+            buffer.position(buffer.position() + MAX_SERIAL_LENGTH - serialLength);
+            buffer.putInt((int) entry[2]).putInt((int) entry[3]);
+        }
+        buffer.flip();
+
+        Path tempFile = indexFile.resolveSibling(indexFile.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tempFile,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(tempFile, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        return open(indexFile, crlDigest);
+    }
+
+    /**
+     * Mevcut indeks dosyasını açar.
+     *
+     * @param indexFile İndeks dosyası
+     * @param crlDigest İndeksin ait olması gereken CRL'in SHA-256 özeti
+     * @return İndeks; dosya yoksa, eski sürümdeyse veya başka bir CRL'e aitse {@code null}
+     */
+    public static CrlSerialIndex open(Path indexFile, byte[] crlDigest) throws IOException {
+        checkDigest(crlDigest);
+        if (!Files.isRegularFile(indexFile)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(indexFile, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE) {
+                return null;
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (mapped.getInt(0) != MAGIC || mapped.getInt(4) != VERSION) {
+                return null;
+            }
+            byte[] storedDigest = new byte[DIGEST_LENGTH];
+            ((ByteBuffer) mapped.duplicate().position(8)).get(storedDigest);
+            if (!MessageDigest.isEqual(storedDigest, crlDigest)) {
+                return null;
+            }
+            int count = mapped.getInt(8 + DIGEST_LENGTH);
+            if (channel.size() != HEADER_SIZE + (long) count * RECORD_SIZE) {
+                return null;
+            }
+            mapped.position(HEADER_SIZE);
+            return new CrlSerialIndex(mapped.slice(), count);
+        }
+    }
+
+    /**
+     * Seri numarasına ait iptal girdisini döndürür.
+     *
+     * @param crl    İndeksin oluşturulduğu DER kodlu CRL; konumu değiştirilmez
+     * @param serial Sertifika seri numarası
+     * @return İptal girdisi; sertifika CRL'de yoksa {@code null}
+     */
+    public X509CRLEntry find(ByteBuffer crl, BigInteger serial) throws IOException {
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int comparison = readSerial(middle).compareTo(serial);
+            if (comparison < 0) {
+                low = middle + 1;
+            } else if (comparison > 0) {
+                high = middle - 1;
+            } else {
+                int position = middle * RECORD_SIZE + 1 + MAX_SERIAL_LENGTH;
+                int offset = records.getInt(position);
+                int length = records.getInt(position + 4);
+                byte[] entry = new byte[length];
+                ByteBuffer view = crl.duplicate();
+                view.position(offset);
+                view.get(entry);
+                return new X509CRLEntryObject(TBSCertList.CRLEntry.getInstance(ASN1Primitive.fromByteArray(entry)));
+            }
+        }
+        return null;
+    }
+
+    /**
+     * İndeksteki iptal kaydı sayısı.
+     */
+    public int size() {
+        return count;
+    }
+
+    private BigInteger readSerial(int index) {
+        int position = index * RECORD_SIZE;
+        byte[] serial = new byte[records.get(position)];
+        for (int i = 0; i < serial.length; i++) {
+            serial[i] = records.get(position + 1 + i);
+        }
+        return new BigInteger(serial);
+    }
+
+    private static void checkDigest(byte[] crlDigest) {
+        if (crlDigest == null || crlDigest.length != DIGEST_LENGTH) {
+            throw new IllegalArgumentException("CRL özeti SHA-256 (32 bayt) olmalıdır");
+        }
+    }
+
+    private static BigInteger serialOf(byte[] crl, long[] entry) {
+        return new BigInteger(Arrays.copyOfRange(crl, (int) entry[0], (int) (entry[0] + entry[1])));
+    }
+
+    /**
+     * {@code revokedCertificates} girdilerini {@code [serialOffset, serialLength, entryOffset, entryLength]}
+     * olarak okur.
+     */
+    private static List<long[]> readEntries(byte[] crl) throws IOException {
+        int[] certificateList = header(crl, 0, TAG_SEQUENCE);
+        int[] tbsCertList = header(crl, certificateList[0], TAG_SEQUENCE);
+        int position = tbsCertList[0];
+        int end = tbsCertList[0] + tbsCertList[1];
+
+        if (position < end && (crl[position] & 0xFF) == TAG_INTEGER) {
+            position = skip(crl, position); // version
+        }
+        position = skip(crl, position); // signature
+        position = skip(crl, position); // issuer
+        position = skip(crl, position); // thisUpdate
+        if (position < end && isTime(crl[position])) {
+            position = skip(crl, position); // nextUpdate
+        }
+
+        List<long[]> entries = new ArrayList<>();
+        if (position >= end || (crl[position] & 0xFF) != TAG_SEQUENCE) {
+            return entries;
+        }
+
+        int[] revoked = header(crl, position, TAG_SEQUENCE);
+        int entryPosition = revoked[0];
+        int revokedEnd = revoked[0] + revoked[1];
+        while (entryPosition < revokedEnd) {
+            int[] entry = header(crl, entryPosition, TAG_SEQUENCE);
+            int[] serial = header(crl, entry[0], TAG_INTEGER);
+            if (serial[1] < 1 || serial[1] > MAX_SERIAL_LENGTH) {
+                throw new IOException("Desteklenmeyen seri numarası uzunluğu: " + serial[1]);
+            }
+            int entryEnd = entry[0] + entry[1];
+            entries.add(new long[]{serial[0], serial[1], entryPosition, entryEnd - entryPosition});
+            entryPosition = entryEnd;
+        }
+        return entries;
+    }
+
+    private static boolean isTime(byte tag) {
+        int value = tag & 0xFF;
+        return value == TAG_UTC_TIME || value == TAG_GENERALIZED_TIME;
+    }
+
+    private static int skip(byte[] crl, int position) throws IOException {
+        int[] element = header(crl, position, -1);
+        return element[0] + element[1];
+    }
+
+    /**
+     * DER elemanının içerik başlangıcını ve uzunluğunu döndürür.
+     */
+    private static int[] header(byte[] crl, int position, int expectedTag) throws IOException {
+        if (position + 2 > crl.length) {
+            throw new IOException("CRL beklenmedik şekilde sona erdi");
+        }
+        int tag = crl[position] & 0xFF;
+        if (expectedTag >= 0 && tag != expectedTag) {
+            throw new IOException("Beklenmeyen DER etiketi: " + tag + " (konum " + position + ")");
+        }
+        int length = crl[position + 1] & 0xFF;
+        int contentStart = position + 2;
+        if (length > 0x7F) {
+            int lengthBytes = length & 0x7F;
+            if (lengthBytes < 1 || lengthBytes > 4 || contentStart + lengthBytes > crl.length) {
+                throw new IOException("Geçersiz DER uzunluğu (konum " + position + ")");
+            }
+            length = 0;
+            for (int i = 0; i < lengthBytes; i++) {
+                length = (length << 8) | (crl[contentStart + i] & 0xFF);
+            }
+            contentStart += lengthBytes;
+        }
+        if (length < 0 || contentStart + length > crl.length) {
+            throw new IOException("DER uzunluğu CRL sınırını aşıyor (konum " + position + ")");
+        }
+        return new int[]{contentStart, length};
+    }
+}
@@ -0,0 +1,122 @@
+package io.mersel.dss.signer.api.services.revocation;
+
+import eu.europa.esig.dss.crl.CRLBinary;
+import eu.europa.esig.dss.crl.CRLUtils;
+import eu.europa.esig.dss.crl.CRLValidity;
+import eu.europa.esig.dss.crl.ICRLUtils;
+import eu.europa.esig.dss.crl.stream.impl.CRLUtilsStreamImpl;
+import eu.europa.esig.dss.model.x509.CertificateToken;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.security.cert.X509CRLEntry;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * DSS'nin CRL yardımcılarını seri numarası indeksiyle genişleten {@link ICRLUtils} uygulaması.
+ * <p>
+ * {@code META-INF/services} üzerinden kaydedilir. Uygulama sınıfları bağımlılıklardan
+ * önce yüklendiğinden DSS {@link CRLUtils} ilk bulduğu uygulama olarak bu sınıfı seçer;
+ * {@link CachingCRLSource} seçimi {@link #isSelected()} ile doğrular. Başka bir
+ * uygulama seçilmişse sorgular yine doğru, ancak CRL tam taranarak yanıtlanır.
+ * <p>
+ * İndeks, {@link CachingCRLSource}'un CRL sürümü başına bir kez oluşturduğu
+ * {@link CRLValidity} örneğine bağlanır; iptal sorgusunda CRL yeniden özetlenmez
+ * veya ayrıştırılmaz. Kayıtlı olmayan CRL'ler stream parser'a bırakılır.
+ */
+public class IndexedCRLUtils implements ICRLUtils {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(IndexedCRLUtils.class);
+
+    private static final Map<CRLValidity, IndexedCrl> INDEXES =
+        Collections.synchronizedMap(new IdentityHashMap<>());
+
+    private static volatile boolean selected;
+
+    private final CRLUtilsStreamImpl delegate = new CRLUtilsStreamImpl();
+
+    /**
+     * ServiceLoader tarafından, DSS {@link CRLUtils} bu uygulamayı seçtiğinde çağrılır.
+     */
+    public IndexedCRLUtils() {
+        selected = true;
+    }
+
+    /**
+     * DSS {@link CRLUtils} sınıfını yükleyip iptal sorgularının bu uygulamadan
+     * geçip geçmediğini döndürür.
+     */
+    static boolean isSelected() {
+        try {
+            Class.forName(CRLUtils.class.getName(), true, CRLUtils.class.getClassLoader());
+        } catch (ClassNotFoundException | LinkageError e) {
+            LOGGER.warn("DSS CRL yardımcısı yüklenemedi: {}", e.getMessage());
+            return false;
+        }
+        return selected;
+    }
+
+    /**
+     * CRL için indeksi kaydeder; aynı {@link CRLValidity} örneğiyle yapılan
+     * sonraki iptal sorguları indeksten yanıtlanır.
+     *
+     * @param validity CRL'in cache'te tutulan doğrulama sonucu
+     * @param index    CRL'in seri numarası indeksi
+     * @param content  İndeksin ait olduğu DER kodlu CRL içeriği
+     */
+    static void register(CRLValidity validity, CrlSerialIndex index, ByteBuffer content) {
+        INDEXES.put(validity, new IndexedCrl(index, content));
+    }
+
+    /**
+     * CRL'e ait indeks kaydını kaldırır.
+     */
+    static void unregister(CRLValidity validity) {
+        INDEXES.remove(validity);
+    }
+
+    /**
+     * Doğrulama sonucu için kayıtlı bir indeks olup olmadığını döndürür.
+     */
+    static boolean isIndexed(CRLValidity validity) {
+        return INDEXES.containsKey(validity);
+    }
+
+    @Override
+    public CRLBinary buildCRLBinary(byte[] binaries) {
+        return delegate.buildCRLBinary(binaries);
+    }
+
+    @Override
+    public CRLValidity buildCRLValidity(CRLBinary crlBinary, CertificateToken issuerToken) throws IOException {
+        return delegate.buildCRLValidity(crlBinary, issuerToken);
+    }
+
+    @Override
+    public X509CRLEntry getRevocationInfo(CRLValidity crlValidity, BigInteger certificateSerialNumber) {
+        IndexedCrl indexed = INDEXES.get(crlValidity);
+        if (indexed != null) {
+            try {
+                return indexed.index.find(indexed.content, certificateSerialNumber);
+            } catch (IOException e) {
+                LOGGER.warn("CRL indeksinden okunamadı, tam tarama yapılacak: {}", e.getMessage());
+            }
+        }
+        return delegate.getRevocationInfo(crlValidity, certificateSerialNumber);
+    }
+
+    private static final class IndexedCrl {
+        private final CrlSerialIndex index;
+        private final ByteBuffer content;
+
+        private IndexedCrl(CrlSerialIndex index, ByteBuffer content) {
+            this.index = index;
+            this.content = content;
+        }
+    }
+}
@@ -0,0 +1,297 @@
+package io.mersel.dss.signer.api.services.revocation;
+
+import eu.europa.esig.dss.enumerations.CertificateStatus;
+import eu.europa.esig.dss.model.x509.CertificateToken;
+import eu.europa.esig.dss.spi.x509.revocation.RevocationToken;
+import io.mersel.dss.signer.api.exceptions.CertificateValidationException;
+import io.mersel.dss.signer.api.models.SigningKey;
+import io.mersel.dss.signer.api.models.SigningMaterial;
+import io.mersel.dss.signer.api.services.keystore.SigningKeyEvictedEvent;
+import io.mersel.dss.signer.api.services.keystore.SigningKeyLoadedEvent;
+import io.mersel.dss.signer.api.services.keystore.SigningKeyReloadedEvent;
+import io.mersel.dss.signer.api.services.keystore.SigningSessionPool;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * İmzalama sertifika zincirlerinin iptal durumunu arka planda izleyen servis.
+ * <p>
+ * Varsayılan anahtarın ve anahtar kaydının yüklediği her ek anahtarın
+ * ({@code SIGNING_KEY_*}) zinciri izlenir; boşaltılan anahtarlar izlemeden
+ * çıkarılır, yeniden yüklenen anahtarların zinciri değiştirilir. Zincirdeki her
+ * sertifika için OCSP (olmazsa CRL) yanıtı periyodik olarak yenilenir. Yanıtlar
+ * paylaşılan OCSP/CRL cache'lerine yazıldığından XAdES C/XL/A seviyeleri
+ * doğrulama verisini istek yolunda ağdan çekmez. İmzalama öncesinde güncel
+ * durum bu servisten okunur: sertifika iptal edilmişse imza reddedilir, durum
+ * bilinmiyor veya eskiyse DSS'nin çevrimiçi kontrolü yapılır.
+ */
+@Service
+public class SigningCertificateRevocationMonitor implements MeterBinder {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SigningCertificateRevocationMonitor.class);
+
+    private final Map<String, MonitoredKey> keys = new ConcurrentHashMap<>();
+    private final CachingOCSPSource ocspSource;
+    private final CachingCRLSource crlSource;
+    private final boolean enabled;
+    private final long maxStatusAgeMillis;
+
+    public SigningCertificateRevocationMonitor(SigningMaterial signingMaterial,
+                                               CachingOCSPSource ocspSource,
+                                               CachingCRLSource crlSource,
+                                               @Value("${REVOCATION_MONITOR_ENABLED:true}") boolean enabled,
+                                               @Value("${REVOCATION_MONITOR_MAX_STATUS_AGE_MS:600000}") long maxStatusAgeMillis) {
+        this.ocspSource = ocspSource;
+        this.crlSource = crlSource;
+        this.enabled = enabled;
+        this.maxStatusAgeMillis = maxStatusAgeMillis;
+        keys.put(SigningSessionPool.DEFAULT_KEY_NAME, new MonitoredKey(signingMaterial));
+    }
+
+    /**
+     * İzlenen tüm zincirlerin iptal durumunu yeniler. Aralık, OCSP tazelik
+     * süresinden (5 dk) kısa tutulmalıdır ki cache'teki yanıt istek yolunda hiç bayatlamasın.
+     */
+    @Scheduled(fixedDelayString = "${REVOCATION_MONITOR_INTERVAL_MS:120000}", initialDelay = 0)
+    public void refresh() {
+        if (!enabled) {
+            return;
+        }
+        for (Map.Entry<String, MonitoredKey> entry : keys.entrySet()) {
+            refresh(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Yüklenen ek anahtarın zincirini izlemeye alır ve iptal durumunu hemen çeker.
+     */
+    @EventListener
+    public void onSigningKeyLoaded(SigningKeyLoadedEvent event) {
+        monitor(event.getKey());
+    }
+
+    /**
+     * Anahtar yeniden yüklendiğinde izlenen zincirini değiştirir ve yeni
+     * zincirin iptal durumunu hemen çeker.
+     */
+    @EventListener
+    public void onSigningKeyReloaded(SigningKeyReloadedEvent event) {
+        monitor(event.getKey());
+    }
+
+    /**
+     * Boşaltılan ek anahtarın zincirini izlemeden çıkarır.
+     */
+    @EventListener
+    public void onSigningKeyEvicted(SigningKeyEvictedEvent event) {
+        SigningKey key = event.getKey();
+        MonitoredKey monitored = keys.get(key.getName());
+        if (monitored != null && monitored.material == key.getMaterial()) {
+            keys.remove(key.getName(), monitored);
+            LOGGER.debug("İmzalama anahtarı iptal izlemesinden çıkarıldı: {}", key.getName());
+        }
+    }
+
+    /**
+     * Sertifika iptal edilmişse imzalamayı reddeder.
+     *
+     * @throws CertificateValidationException İzlenen zincirde iptal edilmiş sertifika varsa
+     */
+    public void assertNotRevoked(SigningMaterial material) {
+        MonitoredKey monitored = find(material);
+        RevocationSnapshot current = monitored != null ? monitored.snapshot : null;
+        if (current != null && current.status.isRevoked()) {
+            throw new CertificateValidationException(
+                "İmzalama sertifika zinciri iptal edilmiş: " + current.revocationReason
+                    + (current.revocationDate != null ? ", iptal tarihi: " + current.revocationDate : ""));
+        }
+    }
+
+    /**
+     * Malzeme için güncel ve iyi (GOOD) bir iptal durumu olup olmadığını döndürür.
+     * {@code false} ise çağıran iptal kontrolünü istek yolunda yapmalıdır.
+     */
+    public boolean hasCurrentGoodStatus(SigningMaterial material) {
+        MonitoredKey monitored = find(material);
+        RevocationSnapshot current = monitored != null ? monitored.snapshot : null;
+        return current != null
+            && current.status.isGood()
+            && current.expiresAt > System.currentTimeMillis();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("signing.certificate.revocation.status", this, SigningCertificateRevocationMonitor::statusValue)
+            .description("İzlenen imzalama zincirlerinin en kötü iptal durumu (1: GOOD, 0: UNKNOWN, -1: REVOKED)")
+            .register(registry);
+        Gauge.builder("signing.certificate.revocation.age.seconds", this, SigningCertificateRevocationMonitor::ageSeconds)
+            .description("İzlenen zincirlerde en eski iptal durumu kontrolünden bu yana geçen süre")
+            .register(registry);
+    }
+
+    private void monitor(SigningKey key) {
+        MonitoredKey monitored = new MonitoredKey(key.getMaterial());
+        keys.put(key.getName(), monitored);
+        if (enabled) {
+            refresh(key.getName(), monitored);
+        }
+    }
+
+    private void refresh(String keyName, MonitoredKey monitored) {
+        List<CertificateToken> chain = monitored.material.getCertificateTokens();
+        CertificateStatus aggregate = CertificateStatus.GOOD;
+        Date revocationDate = null;
+        String revocationReason = null;
+        long expiresAt = System.currentTimeMillis() + maxStatusAgeMillis;
+
+        for (CertificateToken certificate : chain) {
+            if (certificate.isSelfSigned()) {
+                continue;
+            }
+            CertificateToken issuer = findIssuer(certificate, chain);
+            if (issuer == null) {
+                LOGGER.warn("İmzalama zincirinde sağlayıcı bulunamadı: {} (anahtar: {})",
+                    certificate.getSubject().getRFC2253(), keyName);
+                aggregate = CertificateStatus.UNKNOWN;
+                continue;
+            }
+
+            RevocationToken<?> token = fetch(certificate, issuer);
+            if (token == null || !token.isValid() || token.getStatus() == null) {
+                aggregate = aggregate.isRevoked() ? aggregate : CertificateStatus.UNKNOWN;
+                continue;
+            }
+
+            if (token.getStatus().isRevoked()) {
+                aggregate = CertificateStatus.REVOKED;
+                revocationDate = token.getRevocationDate();
+                revocationReason = certificate.getSubject().getRFC2253()
+                    + (token.getReason() != null ? " (" + token.getReason() + ")" : "");
+            } else if (!token.getStatus().isGood() && !aggregate.isRevoked()) {
+                aggregate = CertificateStatus.UNKNOWN;
+            }
+            if (token.getNextUpdate() != null) {
+                expiresAt = Math.min(expiresAt, token.getNextUpdate().getTime());
+            }
+        }
+
+        RevocationSnapshot previous = monitored.snapshot;
+        monitored.snapshot = new RevocationSnapshot(aggregate, System.currentTimeMillis(), expiresAt,
+            revocationDate, revocationReason);
+
+        if (aggregate.isRevoked()) {
+            LOGGER.error("İmzalama sertifika zinciri iptal edilmiş: {} - iptal tarihi: {} (anahtar: {})",
+                revocationReason, revocationDate, keyName);
+        } else if (previous == null || previous.status != aggregate) {
+            LOGGER.info("İmzalama sertifika zinciri iptal durumu: {} (anahtar: {})", aggregate, keyName);
+        }
+    }
+
+    private double statusValue() {
+        double worst = 1;
+        for (MonitoredKey monitored : keys.values()) {
+            RevocationSnapshot current = monitored.snapshot;
+            if (current != null && current.status.isRevoked()) {
+                return -1;
+            }
+            if (current == null || !current.status.isGood()) {
+                worst = 0;
+            }
+        }
+        return keys.isEmpty() ? 0 : worst;
+    }
+
+    private double ageSeconds() {
+        long oldest = Long.MAX_VALUE;
+        for (MonitoredKey monitored : keys.values()) {
+            RevocationSnapshot current = monitored.snapshot;
+            if (current != null) {
+                oldest = Math.min(oldest, current.checkedAt);
+            }
+        }
+        return oldest == Long.MAX_VALUE ? Double.NaN : (System.currentTimeMillis() - oldest) / 1000.0;
+    }
+
+    /**
+     * Materyalin imzalama sertifikasını taşıyan izlenen anahtarı döndürür; izlenmiyorsa {@code null}.
+     */
+    private MonitoredKey find(SigningMaterial material) {
+        if (material == null) {
+            return null;
+        }
+        CertificateToken certificate = material.getPrimaryCertificateToken();
+        for (MonitoredKey monitored : keys.values()) {
+            if (monitored.material == material
+                || monitored.material.getPrimaryCertificateToken().equals(certificate)) {
+                return monitored;
+            }
+        }
+        return null;
+    }
+
+    private RevocationToken<?> fetch(CertificateToken certificate, CertificateToken issuer) {
+        try {
+            RevocationToken<?> token = ocspSource.refresh(certificate, issuer);
+            if (token != null) {
+                return token;
+            }
+        } catch (Exception e) {
+            LOGGER.warn("OCSP sorgusu başarısız, CRL denenecek: {} - {}",
+                certificate.getSubject().getRFC2253(), e.getMessage());
+        }
+
+        try {
+            return crlSource.getRevocationToken(certificate, issuer);
+        } catch (Exception e) {
+            LOGGER.warn("CRL sorgusu başarısız: {} - {}", certificate.getSubject().getRFC2253(), e.getMessage());
+            return null;
+        }
+    }
+
+    private CertificateToken findIssuer(CertificateToken certificate, List<CertificateToken> chain) {
+        for (CertificateToken candidate : chain) {
+            if (candidate != certificate && certificate.isSignedBy(candidate)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    private static final class MonitoredKey {
+        private final SigningMaterial material;
+        private volatile RevocationSnapshot snapshot;
+
+        private MonitoredKey(SigningMaterial material) {
+            this.material = material;
+        }
+    }
+
+    private static final class RevocationSnapshot {
+        private final CertificateStatus status;
+        private final long checkedAt;
+        private final long expiresAt;
+        private final Date revocationDate;
+        private final String revocationReason;
+
+        private RevocationSnapshot(CertificateStatus status, long checkedAt, long expiresAt,
+                                   Date revocationDate, String revocationReason) {
+            this.status = status;
+            this.checkedAt = checkedAt;
+            this.expiresAt = expiresAt;
+            this.revocationDate = revocationDate;
+            this.revocationReason = revocationReason;
+        }
+    }
+}
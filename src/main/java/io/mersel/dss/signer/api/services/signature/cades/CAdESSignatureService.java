@@ -8,11 +8,16 @@ import eu.europa.esig.dss.model.InMemoryDocument;
 import eu.europa.esig.dss.model.TimestampBinary;
 import eu.europa.esig.dss.enumerations.DigestAlgorithm;
 import eu.europa.esig.dss.spi.validation.CertificateVerifier;
+import eu.europa.esig.dss.spi.x509.tsp.TSPSource;
 import io.mersel.dss.signer.api.enums.TimestampType;
 import io.mersel.dss.signer.api.exceptions.SignatureException;
 import io.mersel.dss.signer.api.models.SignResponse;
+import io.mersel.dss.signer.api.models.SigningCertificateArtifacts;
 import io.mersel.dss.signer.api.models.SigningMaterial;
+import io.mersel.dss.signer.api.models.configurations.SignatureServiceConfiguration;
+import io.mersel.dss.signer.api.services.keystore.SigningKeyRegistry;
 import io.mersel.dss.signer.api.services.timestamp.TimestampConfigurationService;
+import io.mersel.dss.signer.api.services.timestamp.tubitak.TubitakCreditMonitor;
 import io.mersel.dss.signer.api.util.CryptoUtils;
 import org.bouncycastle.asn1.ASN1EncodableVector;
 import org.bouncycastle.asn1.ASN1ObjectIdentifier;
@@ -22,36 +27,44 @@ import org.bouncycastle.asn1.DERSet;
 import org.bouncycastle.asn1.cms.Attribute;
 import org.bouncycastle.asn1.cms.AttributeTable;
 import org.bouncycastle.asn1.cms.CMSAttributes;
-import org.bouncycastle.asn1.ess.ESSCertIDv2;
-import org.bouncycastle.asn1.ess.SigningCertificateV2;
-import org.bouncycastle.asn1.nist.NISTObjectIdentifiers;
 import org.bouncycastle.asn1.pkcs.PKCSObjectIdentifiers;
-import org.bouncycastle.asn1.x500.X500Name;
 import org.bouncycastle.asn1.x509.AlgorithmIdentifier;
-import org.bouncycastle.asn1.x509.GeneralName;
-import org.bouncycastle.asn1.x509.GeneralNames;
-import org.bouncycastle.asn1.x509.IssuerSerial;
-import org.bouncycastle.cert.jcajce.JcaCertStore;
+import org.bouncycastle.cms.CMSAbsentContent;
+import org.bouncycastle.cms.CMSAttributeTableGenerationException;
+import org.bouncycastle.cms.CMSAttributeTableGenerator;
 import org.bouncycastle.cms.CMSProcessableByteArray;
 import org.bouncycastle.cms.CMSSignedData;
 import org.bouncycastle.cms.CMSSignedDataGenerator;
+import org.bouncycastle.cms.CMSSignedDataStreamGenerator;
 import org.bouncycastle.cms.DefaultSignedAttributeTableGenerator;
+import org.bouncycastle.cms.SignerInfoGenerator;
 import org.bouncycastle.cms.SignerInformation;
 import org.bouncycastle.cms.SignerInformationStore;
 import org.bouncycastle.cms.jcajce.JcaSignerInfoGeneratorBuilder;
 import org.bouncycastle.operator.ContentSigner;
-import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
-import org.bouncycastle.operator.jcajce.JcaDigestCalculatorProviderBuilder;
+import org.bouncycastle.operator.DigestCalculator;
+import org.bouncycastle.operator.DigestCalculatorProvider;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PreDestroy;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * CAdES (CMS İleri Seviye Elektronik İmza) imzaları oluşturan servis.
@@ -70,6 +83,9 @@ import java.util.concurrent.Semaphore;
  *   <li>SigningCertificateV2 özniteliği</li>
  *   <li>SigningTime özniteliği</li>
  *   <li>Parametrik zaman damgası türü seçimi</li>
+ *   <li>Birbirinden bağımsız zaman damgaları eş zamanlı alınır; CMS tek seferde kodlanır</li>
+ *   <li>Büyük/ikili içerik için akış (stream) modunda imzalama</li>
+ *   <li>İstemcinin hesapladığı içerik özetinden ayrık (detached) imza</li>
  * </ul>
  */
 @Service
@@ -81,16 +97,45 @@ public class CAdESSignatureService {
     private static final ASN1ObjectIdentifier ID_AA_ETS_ESC_TIMESTAMP = 
         new ASN1ObjectIdentifier("0.4.0.1733.2.4");
 
+    private static final int STREAM_BUFFER_SIZE = 64 * 1024;
+
     private final TimestampConfigurationService timestampService;
-    private final CertificateVerifier certificateVerifier;
-    private final Semaphore semaphore;
+    private final TubitakCreditMonitor creditMonitor;
+    private final SigningKeyRegistry keyRegistry;
+    private final Semaphore networkSemaphore;
+    private final CAdESService archiveService;
+    private final ExecutorService timestampExecutor;
 
     public CAdESSignatureService(TimestampConfigurationService timestampService,
+                                 TubitakCreditMonitor creditMonitor,
                                  CertificateVerifier certificateVerifier,
-                                 Semaphore signatureSemaphore) {
+                                 SigningKeyRegistry keyRegistry,
+                                 @Qualifier("networkSemaphore") Semaphore networkSemaphore,
+                                 SignatureServiceConfiguration config) {
         this.timestampService = timestampService;
-        this.certificateVerifier = certificateVerifier;
-        this.semaphore = signatureSemaphore;
+        this.creditMonitor = creditMonitor;
+        this.keyRegistry = keyRegistry;
+        this.networkSemaphore = networkSemaphore;
+
+        // Arşiv yükseltmesi tek bir CAdESService ile yapılır; TSP kaynağı her
+        // çağrıda güncel yapılandırmadan ve kontör takibiyle çözülür
+        this.archiveService = new CAdESService(certificateVerifier);
+        this.archiveService.setTspSource((digestAlgorithm, digest) ->
+            tspSource(TimestampType.ARCHIVE).getTimeStampResponse(digestAlgorithm, digest));
+
+        // Zaman damgası istekleri ağ izniyle sınırlıdır; havuz da izin sayısı kadar iş parçacığı açar
+        AtomicInteger threadCounter = new AtomicInteger();
+        int timestampThreads = Math.max(1, config.getMaxNetworkConcurrency());
+        this.timestampExecutor = Executors.newFixedThreadPool(timestampThreads, runnable -> {
+            Thread thread = new Thread(runnable, "cades-timestamp-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timestampExecutor.shutdownNow();
     }
 
     /**
@@ -123,37 +168,240 @@ public class CAdESSignatureService {
                                     TimestampType timestampType,
                                     String signatureId,
                                     SigningMaterial material) {
+        Future<Attribute> contentTimestamp = null;
         try {
             LOGGER.info("CAdES imzalama başlıyor. Zaman damgası türü: {}", timestampType.getDescription());
 
             // İçeriği byte dizisine çevir
             byte[] contentBytes = content.getBytes(StandardCharsets.UTF_8);
 
-            // CMS imzası oluştur
-            byte[] signedBytes = createCMSSignature(contentBytes, material);
+            timestampType = effectiveTimestampType(timestampType);
 
-            // Zaman damgası ekle
-            if (timestampType != TimestampType.NONE && timestampService.isAvailable()) {
-                signedBytes = addTimestamps(signedBytes, contentBytes, timestampType);
+            // İçerik zaman damgası imza değerine bağlı değildir; HSM imzasıyla eş zamanlı alınır
+            if (timestampType == TimestampType.CONTENT) {
+                byte[] contentDigest = MessageDigest.getInstance("SHA-256").digest(contentBytes);
+                contentTimestamp = submitTimestamp(() -> createContentTimestamp(contentDigest));
+            }
+
+            // CMS imzası oluştur; SignerInformation zaman damgaları eklenene kadar bellekte kalır
+            CMSSignedData signedData = createCMSSignature(contentBytes, material);
+
+            byte[] signedBytes;
+            if (timestampType != TimestampType.NONE) {
+                signedBytes = addTimestamps(signedData, timestampType, contentTimestamp);
                 LOGGER.info("CAdES imzası oluşturuldu ({}). Boyut: {} bytes", 
                     getCAdESLevel(timestampType), signedBytes.length);
             } else {
-                if (timestampType != TimestampType.NONE) {
-                    LOGGER.warn("Zaman damgası istendi ancak TSP servisi yapılandırılmamış. CAdES-B döndürülüyor.");
-                }
+                signedBytes = signedData.getEncoded();
                 LOGGER.info("CAdES-B imzası oluşturuldu. Boyut: {} bytes", signedBytes.length);
             }
 
             return new SignResponse(signedBytes, null);
 
         } catch (SignatureException e) {
+            cancel(contentTimestamp);
             throw e;
         } catch (Exception e) {
+            cancel(contentTimestamp);
             LOGGER.error("CAdES imzası oluşturulurken hata", e);
             throw new SignatureException("CAdES imzası oluşturulamadı", e);
         }
     }
     
+    /**
+     * İçeriği belleğe almadan, gömülü (attached) CAdES imzası olarak doğrudan
+     * çıktıya yazar. İçerik okunurken özeti hesaplanır ve aynı anda CMS içine
+     * kopyalanır; bellek kullanımı içerik boyutundan bağımsızdır.
+     * <p>
+     * İmza, içerik ve ESC zaman damgaları imza değeri üretildikten sonra, akışın
+     * sonunda imzasız öznitelik olarak eklenir. Arşiv zaman damgası tüm imzalı
+     * belgenin yeniden işlenmesini gerektirdiği için bu modda desteklenmez.
+     * <p>
+     * İçerik bu noktada çıktıya yazılmış olduğundan TSA hatası imzayı yarıda
+     * bırakmaz; imza zaman damgasız (CAdES-B) olarak tamamlanır. Uygulanacak tür
+     * akış başlamadan {@link #effectiveTimestampType} ile belirlenmelidir.
+     *
+     * @param content       İmzalanacak içerik
+     * @param timestampType Uygulanacak zaman damgası türü (NONE, SIGNATURE, CONTENT, ESC)
+     * @param material      İmzalama sertifikası ve private key içeren materyal
+     * @param output        CMS (.p7s) çıktısının yazılacağı akış; kapatılmaz
+     * @return Yazılan içerik boyutu (byte)
+     */
+    public long signStream(InputStream content,
+                           TimestampType timestampType,
+                           SigningMaterial material,
+                           OutputStream output) {
+        if (!isStreamable(timestampType)) {
+            throw new SignatureException(timestampType.getDescription() + " akış modunda desteklenmiyor");
+        }
+        try {
+            LOGGER.info("CAdES akış imzalama başlıyor. Zaman damgası türü: {}", timestampType.getDescription());
+
+            SigningCertificateArtifacts artifacts = material.getArtifacts();
+            CMSSignedDataStreamGenerator generator = new CMSSignedDataStreamGenerator();
+            generator.addSignerInfoGenerator(buildSignerInfoGenerator(material,
+                CryptoUtils.getSignatureAlgorithm(material.getPrivateKey()),
+                CryptoUtils.digestCalculatorProvider(),
+                timestampType == TimestampType.NONE ? null : timestampAttributeGenerator(timestampType, true)));
+            generator.addCertificates(artifacts.getCertificateStore());
+
+            long size = 0;
+            byte[] buffer = new byte[STREAM_BUFFER_SIZE];
+            try (OutputStream signedContent = generator.open(output, true)) {
+                int read;
+                while ((read = content.read(buffer)) != -1) {
+                    signedContent.write(buffer, 0, read);
+                    size += read;
+                }
+            }
+            output.flush();
+
+            LOGGER.info("CAdES imzası akış modunda oluşturuldu. İçerik boyutu: {} bytes", size);
+            return size;
+
+        } catch (SignatureException e) {
+            throw e;
+        } catch (Exception e) {
+            LOGGER.error("CAdES akış imzası oluşturulurken hata", e);
+            throw new SignatureException("CAdES imzası oluşturulamadı", e);
+        }
+    }
+
+    /**
+     * İstemcinin hesapladığı içerik özetinden ayrık (detached) CAdES imzası
+     * oluşturur. İçerik sunucuya gönderilmez; messageDigest özniteliği verilen
+     * özetle doldurulur, SigningCertificateV2 ve SigningTime öznitelikleri
+     * {@link #signContent} ile aynıdır. Maliyet içerik boyutundan bağımsızdır.
+     * <p>
+     * Uygulanacak tür, yanıtta bildirilebilmesi için çağıran tarafından
+     * {@link #effectiveTimestampType} ile önceden belirlenir.
+     *
+     * @param digest          İçeriğin özeti
+     * @param digestAlgorithm Özet algoritması (SHA-256, SHA-384, SHA-512)
+     * @param timestampType   Uygulanacak zaman damgası türü (NONE veya SIGNATURE)
+     * @param material        İmzalama sertifikası ve private key içeren materyal
+     * @return Ayrık imza (PKCS#7/CMS formatında) içeren yanıt
+     * @throws IllegalArgumentException Algoritma desteklenmiyorsa veya özet uzunluğu uymuyorsa
+     */
+    public SignResponse signDigest(byte[] digest,
+                                   String digestAlgorithm,
+                                   TimestampType timestampType,
+                                   SigningMaterial material) {
+        if ("SHA1".equals(CryptoUtils.normalizeHashAlgorithm(digestAlgorithm))) {
+            throw new IllegalArgumentException("CAdES imzasında SHA-1 özeti desteklenmiyor");
+        }
+        CryptoUtils.checkDigestLength(digestAlgorithm, digest);
+        if (!isDigestTimestampSupported(timestampType)) {
+            throw new SignatureException(timestampType.getDescription() + " özet modunda desteklenmiyor");
+        }
+        try {
+            String signatureAlgorithm = CryptoUtils.getSignatureAlgorithm(material.getPrivateKey(), digestAlgorithm);
+            LOGGER.info("CAdES özet imzalama başlıyor. İmza algoritması: {}, Zaman damgası türü: {}",
+                signatureAlgorithm, timestampType.getDescription());
+
+            CMSSignedDataGenerator generator = new CMSSignedDataGenerator();
+            generator.addSignerInfoGenerator(buildSignerInfoGenerator(material, signatureAlgorithm,
+                precomputedDigestProvider(digest),
+                timestampType == TimestampType.NONE ? null : timestampAttributeGenerator(timestampType, false)));
+            generator.addCertificates(material.getArtifacts().getCertificateStore());
+
+            // İçerik yok (detached); özet hesaplayıcısı verilen özeti döndürür
+            byte[] signedBytes = generator.generate(new CMSAbsentContent(), false).getEncoded();
+
+            LOGGER.info("{} ayrık imzası özetten oluşturuldu. Boyut: {} bytes",
+                getCAdESLevel(timestampType), signedBytes.length);
+            return new SignResponse(signedBytes, null);
+
+        } catch (SignatureException e) {
+            throw e;
+        } catch (Exception e) {
+            LOGGER.error("CAdES özet imzası oluşturulurken hata", e);
+            throw new SignatureException("CAdES imzası oluşturulamadı", e);
+        }
+    }
+
+    /**
+     * Zaman damgası türünün özet modunda üretilebilir olup olmadığını döndürür.
+     * İçerik olmadığından yalnızca imza zaman damgası eklenebilir.
+     */
+    public boolean isDigestTimestampSupported(TimestampType timestampType) {
+        return timestampType == TimestampType.NONE || timestampType == TimestampType.SIGNATURE;
+    }
+
+    /**
+     * Zaman damgası türünün akış modunda üretilebilir olup olmadığını döndürür.
+     */
+    public boolean isStreamable(TimestampType timestampType) {
+        return timestampType != TimestampType.ARCHIVE && timestampType != TimestampType.ALL;
+    }
+
+    /**
+     * TSP servisi yoksa veya kontör eşik altındaysa zorunlu olmayan zaman
+     * damgalarını (ESC, CONTENT) atlayarak uygulanacak türü belirler.
+     * Akış ve özet modlarında yanıt başlığında bildirilebilmesi için çağıran
+     * tarafından imzalamadan önce kullanılır.
+     */
+    public TimestampType effectiveTimestampType(TimestampType timestampType) {
+        if (timestampType == TimestampType.NONE) {
+            return timestampType;
+        }
+        if (!timestampService.isAvailable()) {
+            LOGGER.warn("Zaman damgası istendi ancak TSP servisi yapılandırılmamış. CAdES-B döndürülüyor.");
+            return TimestampType.NONE;
+        }
+        if (creditMonitor.shouldThrottle(timestampType)) {
+            LOGGER.warn("TÜBİTAK kontörü eşik altında, {} atlanıyor. CAdES-B döndürülüyor.",
+                timestampType.getDescription());
+            return TimestampType.NONE;
+        }
+        return timestampType;
+    }
+
+    /**
+     * Zaman damgalarını imza değeri üretildikten sonra ekleyen imzasız
+     * öznitelik üreticisi (akış ve özet modları). BouncyCastle imza değerini
+     * ve içerik özetini parametre olarak verir.
+     *
+     * @param fallbackToBaseline TSA hatasında imzasız öznitelik eklemeden
+     *                           (CAdES-B) devam edilsin mi; akış modunda içerik
+     *                           çıktıya yazılmış olduğundan hata imzayı kesmemelidir
+     */
+    private CMSAttributeTableGenerator timestampAttributeGenerator(TimestampType type, boolean fallbackToBaseline) {
+        return parameters -> {
+            byte[] signatureValue = (byte[]) parameters.get(CMSAttributeTableGenerator.SIGNATURE);
+            byte[] contentDigest = (byte[]) parameters.get(CMSAttributeTableGenerator.DIGEST);
+            ASN1EncodableVector unsignedAttrs = new ASN1EncodableVector();
+            try {
+                // TSA çağrıları HSM izninden bağımsız olarak ağ izni altında yapılır
+                networkSemaphore.acquire();
+                try {
+                    if (type == TimestampType.SIGNATURE) {
+                        unsignedAttrs.add(createSignatureTimestamp(signatureValue));
+                    } else if (type == TimestampType.CONTENT) {
+                        unsignedAttrs.add(createContentTimestamp(contentDigest));
+                    } else if (type == TimestampType.ESC) {
+                        unsignedAttrs.add(createESCTimestamp(signatureValue));
+                    }
+                } finally {
+                    networkSemaphore.release();
+                }
+            } catch (Exception e) {
+                if (e instanceof InterruptedException) {
+                    Thread.currentThread().interrupt();
+                }
+                if (fallbackToBaseline) {
+                    LOGGER.error("{} alınamadı, imza CAdES-B olarak tamamlanıyor: {}",
+                        type.getDescription(), e.getMessage(), e);
+                    return null;
+                }
+                LOGGER.error("Zaman damgası eklenirken hata: {}", e.getMessage(), e);
+                throw new CMSAttributeTableGenerationException("Zaman damgası eklenemedi", e);
+            }
+            LOGGER.info("Zaman damgaları başarıyla eklendi: {}", type.getDescription());
+            return new AttributeTable(unsignedAttrs);
+        };
+    }
+
     /**
      * Zaman damgası türüne göre CAdES seviyesini döndürür.
      */
@@ -175,30 +423,40 @@ public class CAdESSignatureService {
      * BouncyCastle ile CMS imzası oluşturur.
      * SigningCertificateV2 ve SigningTime öznitelikleri ile.
      */
-    private byte[] createCMSSignature(byte[] contentBytes, SigningMaterial material) throws Exception {
-        
-        // SigningCertificateV2 için sertifika hash'i hesapla
-        MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
-        byte[] certificateHash = messageDigest.digest(
-            material.getSigningCertificate().getEncoded());
-
-        // Issuer serial oluştur
-        GeneralName generalName = new GeneralName(
-            X500Name.getInstance(material.getSigningCertificate()
-                .getIssuerX500Principal().getEncoded()));
-        GeneralNames generalNames = new GeneralNames(generalName);
-        IssuerSerial issuerSerial = new IssuerSerial(
-            generalNames, material.getSigningCertificate().getSerialNumber());
-
-        // SigningCertificateV2 attribute oluştur
-        ESSCertIDv2 essCert = new ESSCertIDv2(
-            new AlgorithmIdentifier(NISTObjectIdentifiers.id_sha256),
-            certificateHash, issuerSerial);
-        SigningCertificateV2 signingCertificateV2 = new SigningCertificateV2(
-            new ESSCertIDv2[]{essCert});
-        Attribute signingCertAttr = new Attribute(
-            PKCSObjectIdentifiers.id_aa_signingCertificateV2,
-            new DERSet(signingCertificateV2));
+    private CMSSignedData createCMSSignature(byte[] contentBytes, SigningMaterial material) throws Exception {
+        SigningCertificateArtifacts artifacts = material.getArtifacts();
+
+        // CMS signed data generator oluştur
+        CMSSignedDataGenerator generator = new CMSSignedDataGenerator();
+        generator.addSignerInfoGenerator(buildSignerInfoGenerator(material,
+            CryptoUtils.getSignatureAlgorithm(material.getPrivateKey()),
+            CryptoUtils.digestCalculatorProvider(), null));
+        generator.addCertificates(artifacts.getCertificateStore());
+
+        // İmzayı oluştur (encapsulated = true, içerik imza içinde gömülü).
+        // İmzalama oturumu sadece imza değeri üretilirken tutulur.
+        CMSSignedData signedData = generator.generate(
+            new CMSProcessableByteArray(contentBytes), true);
+
+        LOGGER.debug("CAdES-B imzası oluşturuldu");
+        return signedData;
+    }
+
+    /**
+     * SigningCertificateV2 ve SigningTime imzalı öznitelikleriyle SignerInfo üreticisi oluşturur.
+     *
+     * @param signatureAlgorithm İmza algoritması; içerik özeti algoritması bundan türetilir
+     * @param digestProvider     İçerik özeti hesaplayıcı sağlayıcısı
+     * @param unsignedAttributes İmzasız öznitelik üreticisi; yoksa {@code null}
+     */
+    private SignerInfoGenerator buildSignerInfoGenerator(SigningMaterial material,
+                                                         String signatureAlgorithm,
+                                                         DigestCalculatorProvider digestProvider,
+                                                         CMSAttributeTableGenerator unsignedAttributes)
+            throws Exception {
+
+        // SigningCertificateV2 sertifikaya bağlıdır; materyal ile birlikte bir kez hesaplanır
+        SigningCertificateArtifacts artifacts = material.getArtifacts();
 
         // SigningTime attribute oluştur
         Attribute signingTimeAttr = new Attribute(
@@ -207,127 +465,159 @@ public class CAdESSignatureService {
 
         // Signed attributes oluştur
         ASN1EncodableVector signedAttributes = new ASN1EncodableVector();
-        signedAttributes.add(signingCertAttr);
+        signedAttributes.add(artifacts.getSigningCertificateV2Attribute());
         signedAttributes.add(signingTimeAttr);
         AttributeTable attributeTable = new AttributeTable(signedAttributes);
 
         // Signer oluştur
         JcaSignerInfoGeneratorBuilder signerInfoGeneratorBuilder = 
-            new JcaSignerInfoGeneratorBuilder(
-                new JcaDigestCalculatorProviderBuilder().build())
+            new JcaSignerInfoGeneratorBuilder(digestProvider)
                 .setSignedAttributeGenerator(
                     new DefaultSignedAttributeTableGenerator(attributeTable));
+        if (unsignedAttributes != null) {
+            signerInfoGeneratorBuilder.setUnsignedAttributeGenerator(unsignedAttributes);
+        }
 
-        // Dinamik algoritma seçimi (RSA veya EC key'e göre)
-        String signatureAlgorithm = CryptoUtils.getSignatureAlgorithm(material.getPrivateKey());
-        ContentSigner contentSigner = new JcaContentSignerBuilder(signatureAlgorithm)
-            .build(material.getPrivateKey());
+        ContentSigner contentSigner = keyRegistry.sessionPool(material).contentSigner(signatureAlgorithm);
 
-        // CMS signed data generator oluştur
-        CMSSignedDataGenerator generator = new CMSSignedDataGenerator();
-        generator.addSignerInfoGenerator(
-            signerInfoGeneratorBuilder.build(contentSigner, 
-                material.getSigningCertificate()));
-        generator.addCertificates(new JcaCertStore(material.getCertificateChain()));
+        return signerInfoGeneratorBuilder.build(contentSigner, artifacts.getSigningCertificateHolder());
+    }
 
-        semaphore.acquire();
-        try {
-            // İmzayı oluştur (encapsulated = true, içerik imza içinde gömülü)
-            CMSSignedData signedData = generator.generate(
-                new CMSProcessableByteArray(contentBytes), true);
-            
-            byte[] signedBytes = signedData.getEncoded();
+    /**
+     * İçeriği okumadan verilen özeti döndüren digest hesaplayıcı sağlayıcısı.
+     * Özet algoritması imza algoritmasıyla aynı hash'ten seçildiği için
+     * BouncyCastle'ın istediği algoritma ile özet her zaman uyumludur.
+     */
+    private static DigestCalculatorProvider precomputedDigestProvider(byte[] digest) {
+        return algorithm -> new DigestCalculator() {
+            @Override
+            public AlgorithmIdentifier getAlgorithmIdentifier() {
+                return algorithm;
+            }
 
-            LOGGER.debug("CAdES-B imzası oluşturuldu. Boyut: {} bytes", signedBytes.length);
-            return signedBytes;
+            @Override
+            public OutputStream getOutputStream() {
+                return new OutputStream() {
+                    @Override
+                    public void write(int b) {
+                        // İçerik yok; özet istemci tarafından hesaplanmıştır
+                    }
+                };
+            }
 
-        } finally {
-            semaphore.release();
-        }
+            @Override
+            public byte[] getDigest() {
+                return digest.clone();
+            }
+        };
     }
 
     /**
-     * Belirtilen türe göre zaman damgalarını ekler.
+     * Belirtilen türe göre zaman damgalarını bellekteki SignerInformation'a ekler.
+     * İmza değerine bağlı zaman damgaları, önceden başlatılmış içerik zaman
+     * damgasıyla eş zamanlı alınır; CMS arşiv yükseltmesi öncesinde yalnızca
+     * bir kez kodlanır.
+     *
+     * @param contentTimestamp İmzalamadan önce başlatılan içerik zaman damgası; yoksa {@code null}
      */
-    private byte[] addTimestamps(byte[] signedData, byte[] contentBytes, TimestampType type) {
+    private byte[] addTimestamps(CMSSignedData cms, TimestampType type, Future<Attribute> contentTimestamp) {
+        List<Future<Attribute>> pending = new ArrayList<>();
+        if (contentTimestamp != null) {
+            pending.add(contentTimestamp);
+        }
         try {
-            CMSSignedData cms = new CMSSignedData(signedData);
             SignerInformation signerInfo = cms.getSignerInfos().getSigners().iterator().next();
-            
-            ASN1EncodableVector unsignedAttrs = new ASN1EncodableVector();
-            
+            byte[] signatureValue = signerInfo.getSignature();
+
             // İmza zaman damgası (SIGNATURE veya ALL)
             if (type == TimestampType.SIGNATURE || type == TimestampType.ALL) {
-                Attribute sigTs = createSignatureTimestamp(signerInfo);
-                unsignedAttrs.add(sigTs);
-                LOGGER.debug("İmza zaman damgası eklendi");
+                pending.add(submitTimestamp(() -> createSignatureTimestamp(signatureValue)));
             }
-            
-            // İçerik zaman damgası (CONTENT)
-            if (type == TimestampType.CONTENT) {
-                Attribute contentTs = createContentTimestamp(contentBytes);
-                unsignedAttrs.add(contentTs);
-                LOGGER.debug("İçerik zaman damgası eklendi");
+
+            // ESC zaman damgası
+            if (type == TimestampType.ESC) {
+                pending.add(submitTimestamp(() -> createESCTimestamp(signatureValue)));
             }
-            
+
+            ASN1EncodableVector unsignedAttrs = new ASN1EncodableVector();
+            for (Future<Attribute> timestamp : pending) {
+                unsignedAttrs.add(awaitTimestamp(timestamp));
+            }
+
+            CMSSignedData timestamped = cms;
+            if (unsignedAttrs.size() > 0) {
+                SignerInformation newSigner = SignerInformation.replaceUnsignedAttributes(
+                    signerInfo, new AttributeTable(unsignedAttrs));
+                Collection<SignerInformation> newSigners = new ArrayList<>();
+                newSigners.add(newSigner);
+                timestamped = CMSSignedData.replaceSigners(cms, new SignerInformationStore(newSigners));
+                LOGGER.debug("{} zaman damgası eklendi", unsignedAttrs.size());
+            }
+            byte[] encoded = timestamped.getEncoded();
+
             // Arşiv zaman damgası için DSS level extension kullan (ATSv3 formatı)
             if (type == TimestampType.ARCHIVE || type == TimestampType.ALL) {
-                // Önce mevcut timestamp'ları ekle, sonra DSS ile archive timestamp ekle
-                if (unsignedAttrs.size() > 0) {
-                    AttributeTable tempTable = new AttributeTable(unsignedAttrs);
-                    SignerInformation tempSigner = SignerInformation.replaceUnsignedAttributes(signerInfo, tempTable);
-                    Collection<SignerInformation> tempSigners = new ArrayList<>();
-                    tempSigners.add(tempSigner);
-                    cms = CMSSignedData.replaceSigners(cms, new SignerInformationStore(tempSigners));
-                }
-                // DSS ile CAdES-A seviyesine yükselt (ATSv3 formatı)
-                byte[] upgradedData = upgradeToArchiveLevel(cms.getEncoded());
+                byte[] upgradedData = upgradeToArchiveLevel(encoded);
                 LOGGER.debug("Arşiv zaman damgası eklendi (ATSv3 formatı)");
                 return upgradedData;
             }
-            
-            // ESC zaman damgası
-            if (type == TimestampType.ESC) {
-                Attribute escTs = createESCTimestamp(signerInfo);
-                unsignedAttrs.add(escTs);
-                LOGGER.debug("ESC zaman damgası eklendi");
-            }
-            
-            // Unsigned attributes tablosunu oluştur
-            AttributeTable unsignedTable = new AttributeTable(unsignedAttrs);
-            
-            // Yeni SignerInfo oluştur
-            SignerInformation newSigner = SignerInformation.replaceUnsignedAttributes(
-                signerInfo, unsignedTable);
-            
-            // Yeni CMS oluştur
-            Collection<SignerInformation> newSigners = new ArrayList<>();
-            newSigners.add(newSigner);
-            SignerInformationStore newSignerStore = new SignerInformationStore(newSigners);
-            
-            CMSSignedData newCms = CMSSignedData.replaceSigners(cms, newSignerStore);
-            
+
             LOGGER.info("Zaman damgaları başarıyla eklendi: {}", type.getDescription());
-            return newCms.getEncoded();
-            
+            return encoded;
+
+        } catch (SignatureException e) {
+            pending.forEach(this::cancel);
+            throw e;
         } catch (Exception e) {
+            pending.forEach(this::cancel);
             LOGGER.error("Zaman damgası eklenirken hata: {}", e.getMessage(), e);
             throw new SignatureException("Zaman damgası eklenemedi", e);
         }
     }
 
+    /**
+     * Zaman damgası isteğini ağ izni altında, arka planda başlatır.
+     */
+    private Future<Attribute> submitTimestamp(Callable<Attribute> request) {
+        return timestampExecutor.submit(() -> {
+            // TSA çağrıları HSM izninden bağımsız olarak ağ izni altında yapılır
+            networkSemaphore.acquire();
+            try {
+                return request.call();
+            } finally {
+                networkSemaphore.release();
+            }
+        });
+    }
+
+    private Attribute awaitTimestamp(Future<Attribute> timestamp) throws Exception {
+        try {
+            return timestamp.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            throw cause instanceof Exception ? (Exception) cause : e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SignatureException("Zaman damgası beklenirken kesintiye uğradı", e);
+        }
+    }
+
+    private void cancel(Future<?> timestamp) {
+        if (timestamp != null) {
+            timestamp.cancel(true);
+        }
+    }
+
     /**
      * İmza zaman damgası oluşturur (CAdES-T).
      * İmza değerinin SHA-256 hash'i üzerine timestamp alır.
      * OID: 1.2.840.113549.1.9.16.2.14
      */
-    private Attribute createSignatureTimestamp(SignerInformation signerInfo) throws Exception {
-        byte[] signatureBytes = signerInfo.getSignature();
-        
+    private Attribute createSignatureTimestamp(byte[] signatureBytes) throws Exception {
         MessageDigest digest = MessageDigest.getInstance("SHA-256");
         byte[] signatureDigest = digest.digest(signatureBytes);
         
-        TimestampBinary timestampBinary = timestampService.getTspSource()
+        TimestampBinary timestampBinary = tspSource(TimestampType.SIGNATURE)
             .getTimeStampResponse(DigestAlgorithm.SHA256, signatureDigest);
         byte[] timestampToken = timestampBinary.getBytes();
         
@@ -344,11 +634,8 @@ public class CAdESSignatureService {
      * İmzalanan içeriğin SHA-256 hash'i üzerine timestamp alır.
      * OID: 1.2.840.113549.1.9.16.2.20
      */
-    private Attribute createContentTimestamp(byte[] contentBytes) throws Exception {
-        MessageDigest digest = MessageDigest.getInstance("SHA-256");
-        byte[] contentDigest = digest.digest(contentBytes);
-        
-        TimestampBinary timestampBinary = timestampService.getTspSource()
+    private Attribute createContentTimestamp(byte[] contentDigest) throws Exception {
+        TimestampBinary timestampBinary = tspSource(TimestampType.CONTENT)
             .getTimeStampResponse(DigestAlgorithm.SHA256, contentDigest);
         byte[] timestampToken = timestampBinary.getBytes();
         
@@ -368,10 +655,6 @@ public class CAdESSignatureService {
         try {
             LOGGER.debug("CAdES-A seviyesine yükseltiliyor (ATSv3 formatı)...");
             
-            // DSS CAdES servisi oluştur
-            CAdESService cadesService = new CAdESService(certificateVerifier);
-            cadesService.setTspSource(timestampService.getTspSource());
-            
             // İmzalı veriyi DSS document'ına çevir
             DSSDocument signedDocument = new InMemoryDocument(signedData);
             
@@ -379,8 +662,14 @@ public class CAdESSignatureService {
             CAdESSignatureParameters parameters = new CAdESSignatureParameters();
             parameters.setSignatureLevel(SignatureLevel.CAdES_BASELINE_LTA);
             
-            // Seviye yükseltme
-            DSSDocument extendedDocument = cadesService.extendDocument(signedDocument, parameters);
+            // Seviye yükseltme (TSA, OCSP ve CRL çağrıları ağ izni altında yapılır)
+            DSSDocument extendedDocument;
+            networkSemaphore.acquire();
+            try {
+                extendedDocument = archiveService.extendDocument(signedDocument, parameters);
+            } finally {
+                networkSemaphore.release();
+            }
             
             LOGGER.info("CAdES-A seviyesine başarıyla yükseltildi (ATSv3 formatı)");
             
@@ -407,14 +696,12 @@ public class CAdESSignatureService {
      * ESC (Extended Signature and Certificates) zaman damgası oluşturur.
      * OID: 0.4.0.1733.2.4 (ETSI)
      */
-    private Attribute createESCTimestamp(SignerInformation signerInfo) throws Exception {
-        // ESC timestamp için imza değeri + signed attributes hash'i kullanılır
-        byte[] signatureBytes = signerInfo.getSignature();
-        
+    private Attribute createESCTimestamp(byte[] signatureBytes) throws Exception {
+        // ESC timestamp için imza değeri hash'i kullanılır
         MessageDigest digest = MessageDigest.getInstance("SHA-256");
         byte[] escDigest = digest.digest(signatureBytes);
         
-        TimestampBinary timestampBinary = timestampService.getTspSource()
+        TimestampBinary timestampBinary = tspSource(TimestampType.ESC)
             .getTimeStampResponse(DigestAlgorithm.SHA256, escDigest);
         byte[] timestampToken = timestampBinary.getBytes();
         
@@ -425,4 +712,11 @@ public class CAdESSignatureService {
             ID_AA_ETS_ESC_TIMESTAMP,
             new DERSet(tsTokenAsn1));
     }
+
+    /**
+     * Kontör harcamasını zaman damgası türüne göre sayan TSP kaynağını döndürür.
+     */
+    private TSPSource tspSource(TimestampType type) {
+        return creditMonitor.track(timestampService.getTspSource(), "cades", type.getValue());
+    }
 }
@@ -1,43 +1,37 @@
 package io.mersel.dss.signer.api.services.signature.pades;
 
+import com.itextpdf.text.io.RandomAccessSourceFactory;
 import com.itextpdf.text.pdf.*;
 import io.mersel.dss.signer.api.exceptions.SignatureException;
 import io.mersel.dss.signer.api.models.SignResponse;
+import io.mersel.dss.signer.api.models.SigningCertificateArtifacts;
 import io.mersel.dss.signer.api.models.SigningMaterial;
+import io.mersel.dss.signer.api.services.keystore.SigningKeyRegistry;
 import io.mersel.dss.signer.api.util.CryptoUtils;
-import org.apache.commons.io.IOUtils;
 import org.bouncycastle.asn1.ASN1EncodableVector;
-import org.bouncycastle.asn1.DERSet;
-import org.bouncycastle.asn1.cms.Attribute;
+import org.bouncycastle.asn1.ASN1ObjectIdentifier;
 import org.bouncycastle.asn1.cms.AttributeTable;
-import org.bouncycastle.asn1.ess.ESSCertIDv2;
-import org.bouncycastle.asn1.ess.SigningCertificateV2;
-import org.bouncycastle.asn1.nist.NISTObjectIdentifiers;
-import org.bouncycastle.asn1.pkcs.PKCSObjectIdentifiers;
-import org.bouncycastle.asn1.x500.X500Name;
-import org.bouncycastle.asn1.x509.AlgorithmIdentifier;
-import org.bouncycastle.asn1.x509.GeneralName;
-import org.bouncycastle.asn1.x509.GeneralNames;
-import org.bouncycastle.asn1.x509.IssuerSerial;
-import org.bouncycastle.cert.jcajce.JcaCertStore;
-import org.bouncycastle.cms.CMSProcessableByteArray;
+import org.bouncycastle.asn1.cms.CMSObjectIdentifiers;
 import org.bouncycastle.cms.CMSSignedData;
 import org.bouncycastle.cms.CMSSignedDataGenerator;
+import org.bouncycastle.cms.CMSTypedData;
 import org.bouncycastle.cms.DefaultSignedAttributeTableGenerator;
 import org.bouncycastle.cms.jcajce.JcaSignerInfoGeneratorBuilder;
 import org.bouncycastle.operator.ContentSigner;
-import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
-import org.bouncycastle.operator.jcajce.JcaDigestCalculatorProviderBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
-import java.security.MessageDigest;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.Calendar;
 import java.util.HashMap;
-import java.util.concurrent.Semaphore;
 
 /**
  * PAdES (PDF İleri Seviye Elektronik İmza) imzaları oluşturan servis.
@@ -49,6 +43,7 @@ import java.util.concurrent.Semaphore;
  *   <li>Dosya eki desteği</li>
  *   <li>Çoklu imza için ekleme modu</li>
  *   <li>SigningCertificateV2 özniteliği</li>
+ *   <li>Büyük PDF'ler için geçici dosya tabanlı imzalama</li>
  * </ul>
  */
 @Service
@@ -56,11 +51,16 @@ public class PAdESSignatureService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(PAdESSignatureService.class);
     private static final int SIGNATURE_SIZE_ESTIMATE = 8192;
+    private static final int RANGE_BUFFER_SIZE = 64 * 1024;
 
-    private final Semaphore semaphore;
+    private final SigningKeyRegistry keyRegistry;
+    private final Path tempDirectory;
 
-    public PAdESSignatureService(Semaphore signatureSemaphore) {
-        this.semaphore = signatureSemaphore;
+    public PAdESSignatureService(SigningKeyRegistry keyRegistry,
+                                 @Value("${PADES_TEMP_DIR:}") String tempDirectory) {
+        this.keyRegistry = keyRegistry;
+        this.tempDirectory = tempDirectory == null || tempDirectory.trim().isEmpty()
+            ? null : Paths.get(tempDirectory.trim());
     }
 
     /**
@@ -89,123 +89,217 @@ public class PAdESSignatureService {
                 stamper.addFileAttachment(null, attachment, null, attachmentFileName);
             }
 
-            // İmza görünümünü yapılandır
-            PdfSignatureAppearance appearance = stamper.getSignatureAppearance();
-            appearance.setLocation("Turkey");
-            appearance.setSignDate(Calendar.getInstance());
-
-            // İmza sözlüğünü oluştur
-            PdfSignature pdfSignature = new PdfSignature(
-                PdfName.ADOBE_PPKLITE, PdfName.ETSI_CADES_DETACHED);
-            pdfSignature.setReason(appearance.getReason());
-            pdfSignature.setLocation(appearance.getLocation());
-            pdfSignature.setContact(appearance.getContact());
-            pdfSignature.setDate(new PdfDate(appearance.getSignDate()));
-            appearance.setCryptoDictionary(pdfSignature);
-
-            // İmza için yer ayır
-            HashMap<PdfName, Integer> exclusionSizes = new HashMap<>();
-            exclusionSizes.put(PdfName.CONTENTS, SIGNATURE_SIZE_ESTIMATE * 2 + 2);
-            appearance.preClose(exclusionSizes);
-
-            // CMS imzasını oluştur
-            byte[] signatureBytes = createCMSSignature(
-                appearance, material);
-
-            // İmzayı göm
-            PdfDictionary dictionary = new PdfDictionary();
-            dictionary.put(PdfName.CONTENTS, 
-                new PdfString(signatureBytes).setHexWriting(true));
-            appearance.close(dictionary);
+            sign(stamper, material);
 
             LOGGER.info("PAdES imzası başarıyla oluşturuldu");
             return new SignResponse(outputStream.toByteArray(), null);
 
+        } catch (SignatureException e) {
+            throw e;
         } catch (Exception e) {
             LOGGER.error("PAdES imzası oluşturulurken hata", e);
             throw new SignatureException("PAdES imzası oluşturulamadı", e);
         }
     }
 
+    /**
+     * Büyük PDF belgelerini belleğe almadan imzalar. Girdi kısmi modda
+     * (yalnızca xref tablosu bellekte) okunur, imzalı çıktı doğrudan hedef
+     * dosyaya yazılır ve imzalanacak byte aralıkları dosyadan okunarak
+     * parça parça özetlenir. Dosya eki de diskten okunarak gömülür. Heap
+     * kullanımı PDF ve ek boyutundan büyük ölçüde bağımsızdır.
+     *
+     * @param input              İmzalanacak PDF dosyası
+     * @param output             İmzalı PDF'in yazılacağı dosya (varsa üzerine yazılır)
+     * @param attachment         İsteğe bağlı dosya eki
+     * @param attachmentFileName İsteğe bağlı ek dosya adı
+     * @param appendMode         İmzanın eklenmesi (true) veya yeni revizyon (false)
+     * @param material           İmzalama sertifikası ve private key içeren materyal
+     */
+    public void signPdfFile(Path input,
+                            Path output,
+                            Path attachment,
+                            String attachmentFileName,
+                            boolean appendMode,
+                            SigningMaterial material) {
+        PdfReader reader = null;
+        try {
+            RandomAccessFileOrArray source = new RandomAccessFileOrArray(
+                new RandomAccessSourceFactory().setForceRead(false).createBestSource(input.toString()));
+            reader = new PdfReader(source, null);
+
+            // Çıktı akışı verilmediğinde iText imzalı belgeyi doğrudan geçici dosyada bırakır
+            PdfStamper stamper = PdfStamper.createSignature(
+                reader, null, '\0', output.toFile(), appendMode);
+
+            // Ek, belleğe alınmadan dosyadan çıktıya sıkıştırılarak yazılır
+            if (attachment != null && attachmentFileName != null) {
+                stamper.addFileAttachment(null, PdfFileSpecification.fileEmbedded(
+                    stamper.getWriter(), attachment.toString(), attachmentFileName, null));
+            }
+
+            sign(stamper, material);
+
+            LOGGER.info("PAdES imzası dosya tabanlı olarak oluşturuldu. Boyut: {} bytes", Files.size(output));
+
+        } catch (SignatureException e) {
+            throw e;
+        } catch (Exception e) {
+            LOGGER.error("PAdES imzası oluşturulurken hata", e);
+            throw new SignatureException("PAdES imzası oluşturulamadı", e);
+        } finally {
+            if (reader != null) {
+                reader.close();
+            }
+        }
+    }
+
+    /**
+     * Dosya tabanlı imzalama için geçici dosya oluşturur
+     * ({@code PADES_TEMP_DIR} tanımlı değilse sistem geçici dizini kullanılır).
+     */
+    public Path createTempFile(String prefix, String suffix) throws IOException {
+        return tempDirectory != null
+            ? Files.createTempFile(tempDirectory, prefix, suffix)
+            : Files.createTempFile(prefix, suffix);
+    }
+
+    /**
+     * İmza sözlüğünü hazırlar, imza için yer ayırır, CMS imzasını oluşturup gömer.
+     */
+    private void sign(PdfStamper stamper, SigningMaterial material) throws Exception {
+        // İmza görünümünü yapılandır
+        PdfSignatureAppearance appearance = stamper.getSignatureAppearance();
+        appearance.setLocation("Turkey");
+        appearance.setSignDate(Calendar.getInstance());
+
+        // İmza sözlüğünü oluştur
+        PdfSignature pdfSignature = new PdfSignature(
+            PdfName.ADOBE_PPKLITE, PdfName.ETSI_CADES_DETACHED);
+        pdfSignature.setReason(appearance.getReason());
+        pdfSignature.setLocation(appearance.getLocation());
+        pdfSignature.setContact(appearance.getContact());
+        pdfSignature.setDate(new PdfDate(appearance.getSignDate()));
+        appearance.setCryptoDictionary(pdfSignature);
+
+        // İmza için yer ayır
+        HashMap<PdfName, Integer> exclusionSizes = new HashMap<>();
+        exclusionSizes.put(PdfName.CONTENTS, SIGNATURE_SIZE_ESTIMATE * 2 + 2);
+        appearance.preClose(exclusionSizes);
+
+        // CMS imzasını oluştur
+        byte[] signatureBytes;
+        try {
+            signatureBytes = createCMSSignature(appearance, material);
+        } catch (Exception e) {
+            release(appearance);
+            throw e;
+        }
+
+        // İmzayı göm
+        PdfDictionary dictionary = new PdfDictionary();
+        dictionary.put(PdfName.CONTENTS, 
+            new PdfString(signatureBytes).setHexWriting(true));
+        appearance.close(dictionary);
+    }
+
+    /**
+     * İmza üretilemediğinde ayrılan alanı boş imzayla kapatır. iText, preClose
+     * ile açtığı çıktı dosyasını ve okuyucuyu yalnızca close() içinde bırakır;
+     * yarım kalan çıktı çağıran tarafından silinir.
+     */
+    private void release(PdfSignatureAppearance appearance) {
+        try {
+            PdfDictionary dictionary = new PdfDictionary();
+            dictionary.put(PdfName.CONTENTS,
+                new PdfString(new byte[SIGNATURE_SIZE_ESTIMATE]).setHexWriting(true));
+            appearance.close(dictionary);
+        } catch (Exception e) {
+            LOGGER.warn("İmza alanı kapatılamadı: {}", e.getMessage());
+        }
+    }
+
     /**
      * PDF içeriği için CMS imzası oluşturur.
      * SigningCertificateV2 özniteliği ile SHA-256 hash kullanır.
      */
     private byte[] createCMSSignature(PdfSignatureAppearance appearance,
                                      SigningMaterial material) throws Exception {
-        // SigningCertificateV2 için sertifika hash'i hesapla
-        MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
-        byte[] certificateHash = messageDigest.digest(
-            material.getSigningCertificate().getEncoded());
-
-        // Issuer serial oluştur
-        GeneralName generalName = new GeneralName(
-            X500Name.getInstance(material.getSigningCertificate()
-                .getIssuerX500Principal().getEncoded()));
-        GeneralNames generalNames = new GeneralNames(generalName);
-        IssuerSerial issuerSerial = new IssuerSerial(
-            generalNames, material.getSigningCertificate().getSerialNumber());
-
-        // Create SigningCertificateV2 attribute
-        ESSCertIDv2 essCert = new ESSCertIDv2(
-            new AlgorithmIdentifier(NISTObjectIdentifiers.id_sha256),
-            certificateHash, issuerSerial);
-        SigningCertificateV2 signingCertificateV2 = new SigningCertificateV2(
-            new ESSCertIDv2[]{essCert});
-        Attribute signingCertAttr = new Attribute(
-            PKCSObjectIdentifiers.id_aa_signingCertificateV2,
-            new DERSet(signingCertificateV2));
+        // SigningCertificateV2 sertifikaya bağlıdır; materyal ile birlikte bir kez hesaplanır
+        SigningCertificateArtifacts artifacts = material.getArtifacts();
 
         // Build signed attributes
         ASN1EncodableVector signedAttributes = new ASN1EncodableVector();
-        signedAttributes.add(signingCertAttr);
+        signedAttributes.add(artifacts.getSigningCertificateV2Attribute());
         AttributeTable attributeTable = new AttributeTable(signedAttributes);
 
         // Create signer
         JcaSignerInfoGeneratorBuilder signerInfoGeneratorBuilder = 
-            new JcaSignerInfoGeneratorBuilder(
-                new JcaDigestCalculatorProviderBuilder().build())
+            new JcaSignerInfoGeneratorBuilder(CryptoUtils.digestCalculatorProvider())
                 .setSignedAttributeGenerator(
                     new DefaultSignedAttributeTableGenerator(attributeTable));
 
         // Dinamik algoritma seçimi (RSA veya EC key'e göre)
         String signatureAlgorithm = CryptoUtils.getSignatureAlgorithm(material.getPrivateKey());
-        ContentSigner contentSigner = new JcaContentSignerBuilder(signatureAlgorithm)
-            .build(material.getPrivateKey());
+        ContentSigner contentSigner = keyRegistry.sessionPool(material).contentSigner(signatureAlgorithm);
 
         // Generate CMS signed data
         CMSSignedDataGenerator generator = new CMSSignedDataGenerator();
         generator.addSignerInfoGenerator(
-            signerInfoGeneratorBuilder.build(contentSigner, 
-                material.getSigningCertificate()));
-        generator.addCertificates(new JcaCertStore(material.getCertificateChain()));
+            signerInfoGeneratorBuilder.build(contentSigner, artifacts.getSigningCertificateHolder()));
+        generator.addCertificates(artifacts.getCertificateStore());
 
-        // Sign PDF content
-        InputStream rangeStream = appearance.getRangeStream();
-        byte[] rangeBytes = IOUtils.toByteArray(rangeStream);
+        // Byte aralıkları belleğe kopyalanmadan doğrudan özetlenir.
+        // İmzalama oturumu sadece imza değeri üretilirken tutulur
+        CMSSignedData signedData = generator.generate(new RangeContent(appearance), false);
 
-        semaphore.acquire();
-        try {
-            CMSSignedData signedData = generator.generate(
-                new CMSProcessableByteArray(rangeBytes), false);
-            byte[] encodedSignature = signedData.getEncoded();
-
-            if (encodedSignature.length > SIGNATURE_SIZE_ESTIMATE) {
-                throw new SignatureException(
-                    "Signature size exceeds reserved space: " + 
-                    encodedSignature.length + " > " + SIGNATURE_SIZE_ESTIMATE);
-            }
+        byte[] encodedSignature = signedData.getEncoded();
 
-            // Pad signature to reserved size
-            byte[] paddedSignature = new byte[SIGNATURE_SIZE_ESTIMATE];
-            System.arraycopy(encodedSignature, 0, paddedSignature, 0, 
-                encodedSignature.length);
+        if (encodedSignature.length > SIGNATURE_SIZE_ESTIMATE) {
+            throw new SignatureException(
+                "Signature size exceeds reserved space: " + 
+                encodedSignature.length + " > " + SIGNATURE_SIZE_ESTIMATE);
+        }
 
-            return paddedSignature;
+        // Pad signature to reserved size
+        byte[] paddedSignature = new byte[SIGNATURE_SIZE_ESTIMATE];
+        System.arraycopy(encodedSignature, 0, paddedSignature, 0, 
+            encodedSignature.length);
 
-        } finally {
-            semaphore.release();
+        return paddedSignature;
+    }
+
+    /**
+     * İmzalanacak byte aralıklarını iText'in aralık akışından parça parça
+     * okuyan ayrık (detached) CMS içeriği.
+     */
+    private static final class RangeContent implements CMSTypedData {
+        private final PdfSignatureAppearance appearance;
+
+        private RangeContent(PdfSignatureAppearance appearance) {
+            this.appearance = appearance;
+        }
+
+        @Override
+        public ASN1ObjectIdentifier getContentType() {
+            return CMSObjectIdentifiers.data;
+        }
+
+        @Override
+        public void write(OutputStream out) throws IOException {
+            byte[] buffer = new byte[RANGE_BUFFER_SIZE];
+            try (InputStream rangeStream = appearance.getRangeStream()) {
+                int read;
+                while ((read = rangeStream.read(buffer)) != -1) {
+                    out.write(buffer, 0, read);
+                }
+            }
+        }
+
+        @Override
+        public Object getContent() {
+            // BouncyCastle içerik null ise write() çağırmaz ve boş veriyi özetler
+            return appearance;
         }
     }
 }
-
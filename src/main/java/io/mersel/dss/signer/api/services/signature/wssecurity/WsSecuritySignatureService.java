@@ -4,6 +4,8 @@ import io.mersel.dss.signer.api.constants.XmlConstants;
 import io.mersel.dss.signer.api.exceptions.SignatureException;
 import io.mersel.dss.signer.api.models.SignResponse;
 import io.mersel.dss.signer.api.models.SigningMaterial;
+import io.mersel.dss.signer.api.services.keystore.SigningKeyRegistry;
+import io.mersel.dss.signer.api.util.XmlPools;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
@@ -17,15 +19,7 @@ import javax.xml.crypto.dsig.dom.DOMSignContext;
 import javax.xml.crypto.dsig.keyinfo.KeyInfo;
 import javax.xml.crypto.dsig.spec.ExcC14NParameterSpec;
 import javax.xml.crypto.dsig.spec.TransformParameterSpec;
-import javax.xml.transform.OutputKeys;
-import javax.xml.transform.Transformer;
-import javax.xml.transform.TransformerFactory;
-import javax.xml.transform.dom.DOMSource;
-import javax.xml.transform.stream.StreamResult;
-import java.io.ByteArrayOutputStream;
-import java.security.PrivateKey;
 import java.util.*;
-import java.util.concurrent.Semaphore;
 
 /**
  * SOAP mesajları için WS-Security imzaları oluşturan servis.
@@ -36,7 +30,9 @@ public class WsSecuritySignatureService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(WsSecuritySignatureService.class);
     private static final String NS_WSSE = "http://docs.oasis-open.org/wss/2004/01/oasis-200401-wss-wssecurity-secext-1.0.xsd";
-    private final Semaphore semaphore;
+    private static final String JDK_SIGNATURE_PROVIDER_PROPERTY = "org.jcp.xml.dsig.internal.dom.SignatureProvider";
+    private static final String SANTUARIO_SIGNATURE_PROVIDER_PROPERTY = "org.apache.jcp.xml.dsig.internal.dom.SignatureProvider";
+    private final SigningKeyRegistry keyRegistry;
 
     static {
         // Base64 line break'lerini devre dışı bırak (SignatureValue için)
@@ -44,8 +40,8 @@ public class WsSecuritySignatureService {
         System.setProperty("org.apache.xml.security.ignoreLineBreaks", "true");
     }
 
-    public WsSecuritySignatureService(Semaphore signatureSemaphore) {
-        this.semaphore = signatureSemaphore;
+    public WsSecuritySignatureService(SigningKeyRegistry keyRegistry) {
+        this.keyRegistry = keyRegistry;
     }
 
     /**
@@ -236,7 +232,7 @@ public class WsSecuritySignatureService {
     private String addBinarySecurityToken(Document document,
             String soapNamespace,
             SigningMaterial material) throws Exception {
-        String bstReference = "X509-" + material.getSigningCertificate().getSerialNumber();
+        String bstReference = material.getArtifacts().getBinarySecurityTokenId();
 
         Element headerElement = (Element) document
                 .getElementsByTagNameNS(soapNamespace, "Header").item(0);
@@ -260,9 +256,7 @@ public class WsSecuritySignatureService {
         binarySecurityToken.setAttributeNS(XmlConstants.NS_WSU, "wsu:Id", bstReference);
         // ID attribute'unu XML parser'a bildir
         binarySecurityToken.setIdAttributeNS(XmlConstants.NS_WSU, "Id", true);
-        binarySecurityToken.setTextContent(
-                Base64.getEncoder().encodeToString(
-                        material.getSigningCertificate().getEncoded()));
+        binarySecurityToken.setTextContent(material.getArtifacts().getCertificateBase64());
 
         securityElement.insertBefore(binarySecurityToken, securityElement.getFirstChild());
 
@@ -282,79 +276,85 @@ public class WsSecuritySignatureService {
             String bodyId,
             String tsId) throws Exception {
 
-        semaphore.acquire();
-        try {
-            XMLSignatureFactory sigFactory = XMLSignatureFactory.getInstance("DOM");
-
-            DigestMethod digestMethod = sigFactory.newDigestMethod(DigestMethod.SHA256, null);
-
-            // Body için transform: parametresiz (mimsoft)
-            Transform bodyTransform = sigFactory.newTransform(
-                    CanonicalizationMethod.EXCLUSIVE,
-                    (TransformParameterSpec) null);
-
-            // Timestamp için transform: wsse soap prefix'leri dahil (mimsoft)
-            ExcC14NParameterSpec tsExcSpec = new ExcC14NParameterSpec(Arrays.asList("wsse", "soap"));
-            Transform tsTransform = sigFactory.newTransform(
-                    CanonicalizationMethod.EXCLUSIVE,
-                    tsExcSpec);
-
-            // Referanslar: Body + Timestamp (mimsoft sıralaması)
-            List<Reference> refs = new ArrayList<>();
-            refs.add(sigFactory.newReference(
-                    "#" + bodyId,
-                    digestMethod,
-                    Collections.singletonList(bodyTransform),
-                    null,
-                    null));
-            refs.add(sigFactory.newReference(
-                    "#" + tsId,
-                    digestMethod,
-                    Collections.singletonList(tsTransform),
-                    null,
-                    null));
-
-            // SignedInfo: EXCLUSIVE C14N with soap prefix (mimsoft)
-            ExcC14NParameterSpec c14nSpec = new ExcC14NParameterSpec(Collections.singletonList("soap"));
-            SignedInfo signedInfo = sigFactory.newSignedInfo(
-                    sigFactory.newCanonicalizationMethod(
-                            CanonicalizationMethod.EXCLUSIVE,
-                            c14nSpec),
-                    sigFactory.newSignatureMethod(
-                            "http://www.w3.org/2001/04/xmldsig-more#rsa-sha256",
-                            null),
-                    refs);
-
-            // Benzersiz ID'ler oluştur (mimsoft uyumlu)
-            String sigId = "SIG-" + java.util.UUID.randomUUID().toString();
-            String kiId = "KI-" + java.util.UUID.randomUUID().toString();
-            String strId = "STR-" + java.util.UUID.randomUUID().toString();
-
-            // KeyInfo -> SecurityTokenReference (X509v3)
-            Element str = document.createElementNS(NS_WSSE, "wsse:SecurityTokenReference");
-            str.setAttributeNS(XmlConstants.NS_WSU, "wsu:Id", strId);
-
-            Element ref = document.createElementNS(NS_WSSE, "wsse:Reference");
-            ref.setAttribute("URI", "#" + bstReference);
-            ref.setAttribute(
-                    "ValueType",
-                    "http://docs.oasis-open.org/wss/2004/01/oasis-200401-wss-x509-token-profile-1.0#X509v3");
-            str.appendChild(ref);
-            List<XMLStructure> kiContent = Arrays.asList(new DOMStructure(str));
-            KeyInfo keyInfo = sigFactory.getKeyInfoFactory().newKeyInfo(kiContent, kiId);
-
-            PrivateKey privateKey = material.getPrivateKey();
-            XMLSignature signature = sigFactory.newXMLSignature(signedInfo, keyInfo, null, sigId, null);
-
-            DOMSignContext signContext = new DOMSignContext(privateKey, securityElement);
+        XMLSignatureFactory sigFactory = XmlPools.signatureFactory();
+
+        DigestMethod digestMethod = sigFactory.newDigestMethod(DigestMethod.SHA256, null);
+
+        // Body için transform: parametresiz (mimsoft)
+        Transform bodyTransform = sigFactory.newTransform(
+                CanonicalizationMethod.EXCLUSIVE,
+                (TransformParameterSpec) null);
+
+        // Timestamp için transform: wsse soap prefix'leri dahil (mimsoft)
+        ExcC14NParameterSpec tsExcSpec = new ExcC14NParameterSpec(Arrays.asList("wsse", "soap"));
+        Transform tsTransform = sigFactory.newTransform(
+                CanonicalizationMethod.EXCLUSIVE,
+                tsExcSpec);
+
+        // Referanslar: Body + Timestamp (mimsoft sıralaması)
+        List<Reference> refs = new ArrayList<>();
+        refs.add(sigFactory.newReference(
+                "#" + bodyId,
+                digestMethod,
+                Collections.singletonList(bodyTransform),
+                null,
+                null));
+        refs.add(sigFactory.newReference(
+                "#" + tsId,
+                digestMethod,
+                Collections.singletonList(tsTransform),
+                null,
+                null));
+
+        // SignedInfo: EXCLUSIVE C14N with soap prefix (mimsoft)
+        ExcC14NParameterSpec c14nSpec = new ExcC14NParameterSpec(Collections.singletonList("soap"));
+        SignedInfo signedInfo = sigFactory.newSignedInfo(
+                sigFactory.newCanonicalizationMethod(
+                        CanonicalizationMethod.EXCLUSIVE,
+                        c14nSpec),
+                sigFactory.newSignatureMethod(
+                        "http://www.w3.org/2001/04/xmldsig-more#rsa-sha256",
+                        null),
+                refs);
+
+        // Benzersiz ID'ler oluştur (mimsoft uyumlu)
+        String sigId = "SIG-" + java.util.UUID.randomUUID().toString();
+        String kiId = "KI-" + java.util.UUID.randomUUID().toString();
+        String strId = "STR-" + java.util.UUID.randomUUID().toString();
+
+        // KeyInfo -> SecurityTokenReference (X509v3)
+        Element str = document.createElementNS(NS_WSSE, "wsse:SecurityTokenReference");
+        str.setAttributeNS(XmlConstants.NS_WSU, "wsu:Id", strId);
+
+        Element ref = document.createElementNS(NS_WSSE, "wsse:Reference");
+        ref.setAttribute("URI", "#" + bstReference);
+        ref.setAttribute(
+                "ValueType",
+                "http://docs.oasis-open.org/wss/2004/01/oasis-200401-wss-x509-token-profile-1.0#X509v3");
+        str.appendChild(ref);
+        List<XMLStructure> kiContent = Arrays.asList(new DOMStructure(str));
+        KeyInfo keyInfo = sigFactory.getKeyInfoFactory().newKeyInfo(kiContent, kiId);
+
+        XMLSignature signature = sigFactory.newXMLSignature(signedInfo, keyInfo, null, sigId, null);
+
+        // Sadece imza üretimi imzalama oturumunu tutar
+        keyRegistry.sessionPool(material).execute(session -> {
+            // Oturum yeniden açılıp tekrar denenirse önceki denemenin imza elemanını kaldır
+            Element previousSignature = findElementById(document, sigId);
+            if (previousSignature != null) {
+                previousSignature.getParentNode().removeChild(previousSignature);
+            }
+            DOMSignContext signContext = new DOMSignContext(session.getPrivateKey(), securityElement);
             signContext.putNamespacePrefix(XMLSignature.XMLNS, "ds");
             signContext.putNamespacePrefix("http://www.w3.org/2001/10/xml-exc-c14n#", "ec");
-
+            if (session.getProvider() != null) {
+                // İmza, oturumun provider'ına sabitlenir
+                signContext.setProperty(JDK_SIGNATURE_PROVIDER_PROPERTY, session.getProvider());
+                signContext.setProperty(SANTUARIO_SIGNATURE_PROVIDER_PROPERTY, session.getProvider());
+            }
             signature.sign(signContext);
-
-        } finally {
-            semaphore.release();
-        }
+            return null;
+        });
     }
 
     /**
@@ -460,13 +460,6 @@ public class WsSecuritySignatureService {
      * Document'i byte dizisine dönüştürür.
      */
     private byte[] documentToBytes(Document document) throws Exception {
-        TransformerFactory transformerFactory = TransformerFactory.newInstance();
-        Transformer transformer = transformerFactory.newTransformer();
-        transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "yes");
-        transformer.setOutputProperty(OutputKeys.ENCODING, "UTF-8");
-
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-        transformer.transform(new DOMSource(document), new StreamResult(outputStream));
-        return outputStream.toByteArray();
+        return XmlPools.toBytes(document, true);
     }
 }
@@ -0,0 +1,158 @@
+package io.mersel.dss.signer.api.services.signature.xades;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.mersel.dss.signer.api.dtos.BatchSignItemResultDto;
+import io.mersel.dss.signer.api.models.SignResponse;
+import io.mersel.dss.signer.api.models.SigningMaterial;
+import io.mersel.dss.signer.api.models.enums.DocumentType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Birden fazla XML belgesini tek istekte paralel olarak XAdES ile imzalayan servis.
+ * <p>
+ * Belgeler sınırlı boyutlu bir worker havuzunda imzalanır; HSM ve ağ erişimi
+ * ayrıca kripto/ağ semaphore'ları ile sınırlanır. İmzalama sertifika zinciri
+ * doğrulayıcıya toplu işlem başında bir kez eklenir. Sonuçlar ZIP olarak,
+ * belge sırasıyla ve her belge tamamlandıkça yazılır; her belgenin durumu
+ * arşivin sonundaki {@value #MANIFEST_ENTRY_NAME} girdisinde yer alır.
+ */
+@Service
+public class XAdESBatchSignatureService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(XAdESBatchSignatureService.class);
+    public static final String MANIFEST_ENTRY_NAME = "manifest.json";
+
+    private final XAdESSignatureService xadesSignatureService;
+    private final ObjectMapper objectMapper;
+    private final int maxDocuments;
+    private final ExecutorService executor;
+
+    public XAdESBatchSignatureService(
+            XAdESSignatureService xadesSignatureService,
+            ObjectMapper objectMapper,
+            @Value("${XADES_BATCH_WORKER_COUNT:4}") int workerCount,
+            @Value("${XADES_BATCH_MAX_DOCUMENTS:500}") int maxDocuments) {
+        this.xadesSignatureService = xadesSignatureService;
+        this.objectMapper = objectMapper;
+        this.maxDocuments = maxDocuments;
+
+        AtomicInteger threadCounter = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Math.max(1, workerCount), runnable -> {
+            Thread thread = new Thread(runnable, "xades-batch-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Toplu istekte kabul edilen en fazla belge sayısı.
+     */
+    public int getMaxDocuments() {
+        return maxDocuments;
+    }
+
+    /**
+     * Belgeleri paralel imzalar ve sonuçları ZIP olarak çıktıya yazar.
+     * Tek bir belgenin hatası diğerlerini etkilemez; hata manifest'e yazılır.
+     *
+     * @param documents    Belge adı - XML içerik eşlemesi (sıralı)
+     * @param documentType Tüm belgeler için belge tipi
+     * @param deferUpgrade e-Arşiv Raporları için XAdES-A yükseltmesinin ertelenip ertelenmeyeceği
+     * @param material     İmzalama materyali
+     * @param output       ZIP yanıtının yazılacağı çıktı
+     * @return Belge bazında sonuçlar
+     */
+    public List<BatchSignItemResultDto> signBatch(Map<String, byte[]> documents,
+                                                  DocumentType documentType,
+                                                  boolean deferUpgrade,
+                                                  SigningMaterial material,
+                                                  OutputStream output) throws IOException {
+        // Zincir tüm toplu işlem için bir kez eklenir
+        xadesSignatureService.addSigningCertificateChainToVerifier(material);
+
+        Map<String, Future<SignResponse>> futures = new LinkedHashMap<>();
+        for (Map.Entry<String, byte[]> document : documents.entrySet()) {
+            byte[] xmlBytes = document.getValue();
+            futures.put(document.getKey(), executor.submit(() -> xadesSignatureService.signXmlBytes(
+                    xmlBytes, documentType, null, false, deferUpgrade, material)));
+        }
+
+        List<BatchSignItemResultDto> results = new ArrayList<>(futures.size());
+        int failed = 0;
+
+        ZipOutputStream zos = new ZipOutputStream(output);
+        for (Map.Entry<String, Future<SignResponse>> entry : futures.entrySet()) {
+            String name = entry.getKey();
+            try {
+                SignResponse response = entry.getValue().get();
+                zos.putNextEntry(new ZipEntry(name));
+                zos.write(response.getSignedDocument());
+                zos.closeEntry();
+                zos.flush();
+                results.add(BatchSignItemResultDto.signed(
+                        name, response.getSignatureValue(), response.getUpgradeJobId()));
+
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                LOGGER.warn("Toplu imzalamada belge imzalanamadı: {} - {}", name, cause.getMessage());
+                results.add(BatchSignItemResultDto.failed(name, describe(cause)));
+                failed++;
+
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                cancelRemaining(futures);
+                throw new IOException("Toplu imzalama kesintiye uğradı", e);
+            }
+        }
+
+        zos.putNextEntry(new ZipEntry(MANIFEST_ENTRY_NAME));
+        zos.write(objectMapper.writerWithDefaultPrettyPrinter().writeValueAsBytes(results));
+        zos.closeEntry();
+        zos.finish();
+        zos.flush();
+
+        LOGGER.info("Toplu XAdES imzalama tamamlandı. Toplam: {}, başarılı: {}, hatalı: {}",
+                results.size(), results.size() - failed, failed);
+        return results;
+    }
+
+    private void cancelRemaining(Map<String, Future<SignResponse>> futures) {
+        for (Future<SignResponse> future : futures.values()) {
+            future.cancel(true);
+        }
+    }
+
+    private String describe(Throwable error) {
+        Throwable root = error;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        if (root == error || root.getMessage() == null) {
+            return error.getMessage();
+        }
+        return error.getMessage() + ": " + root.getMessage();
+    }
+}
@@ -17,6 +17,7 @@ public class XAdESDocumentPlacementService {
 
     /**
      * İmza elemanını belge tipine göre uygun konuma yerleştirir.
+     * İmza elemanı zaten aynı belgeye aitse import edilmeden taşınır.
      * 
      * @param document Ana XML belgesi
      * @param signatureElement Yerleştirilecek imza elemanı
@@ -34,7 +35,11 @@ public class XAdESDocumentPlacementService {
         // Belge tipine göre hedef konumu belirle
         Node target = resolveTargetNode(document, documentType);
 
-        // İmzayı import et ve ekle
+        // Aynı belgedeki imza doğrudan taşınır, başka belgeden geliyorsa import edilir
+        if (signatureElement.getOwnerDocument() == document) {
+            target.appendChild(signatureElement);
+            return;
+        }
         Node importedSignature = document.importNode(signatureElement, true);
         target.appendChild(importedSignature);
     }
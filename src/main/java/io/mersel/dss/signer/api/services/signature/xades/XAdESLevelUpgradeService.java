@@ -1,6 +1,8 @@
 package io.mersel.dss.signer.api.services.signature.xades;
 
 import eu.europa.esig.dss.enumerations.DigestAlgorithm;
+import eu.europa.esig.dss.enumerations.SignatureLevel;
+import eu.europa.esig.dss.enumerations.SignaturePackaging;
 import eu.europa.esig.dss.model.DSSDocument;
 import eu.europa.esig.dss.spi.validation.CertificateVerifier;
 import eu.europa.esig.dss.xades.XAdESSignatureParameters;
@@ -8,6 +10,7 @@ import eu.europa.esig.dss.xades.XAdESTimestampParameters;
 import eu.europa.esig.dss.xades.signature.XAdESLevelA;
 import io.mersel.dss.signer.api.models.enums.DocumentType;
 import io.mersel.dss.signer.api.services.timestamp.TimestampConfigurationService;
+import io.mersel.dss.signer.api.services.timestamp.tubitak.TubitakCreditMonitor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
@@ -25,11 +28,22 @@ public class XAdESLevelUpgradeService {
 
     private final CertificateVerifier certificateVerifier;
     private final TimestampConfigurationService timestampService;
+    private final TubitakCreditMonitor creditMonitor;
 
     public XAdESLevelUpgradeService(CertificateVerifier certificateVerifier,
-                                   TimestampConfigurationService timestampService) {
+                                   TimestampConfigurationService timestampService,
+                                   TubitakCreditMonitor creditMonitor) {
         this.certificateVerifier = certificateVerifier;
         this.timestampService = timestampService;
+        this.creditMonitor = creditMonitor;
+    }
+
+    /**
+     * Belge tipi için XAdES-A yükseltmesi gerekip gerekmediğini döndürür.
+     * Sadece e-Arşiv Raporları ve timestamp servisi yapılandırılmışsa true döner.
+     */
+    public boolean isUpgradeRequired(DocumentType documentType) {
+        return documentType == DocumentType.EArchiveReport && timestampService.isAvailable();
     }
 
     /**
@@ -56,32 +70,56 @@ public class XAdESLevelUpgradeService {
         }
 
         try {
-            LOGGER.info("e-Arşiv Raporu için XAdES-A seviyesine yükseltiliyor...");
-
-            // Timestamp parametrelerini yapılandır
-            XAdESTimestampParameters tsParams = new XAdESTimestampParameters();
-            tsParams.setCanonicalizationMethod(CanonicalizationMethod.INCLUSIVE_WITH_COMMENTS);
-            tsParams.setDigestAlgorithm(DigestAlgorithm.SHA256);
-
-            baseParameters.setArchiveTimestampParameters(tsParams);
-            baseParameters.setSignatureTimestampParameters(tsParams);
-            baseParameters.setContentTimestampParameters(tsParams);
-            baseParameters.setEn319132(false);
-
-            // XAdES-A seviyesine yükselt
-            XAdESLevelA levelA = new XAdESLevelA(certificateVerifier);
-            levelA.setTspSource(timestampService.getTspSource());
-            
-            DSSDocument upgradedDocument = levelA.extendSignatures(signedDocument, baseParameters);
-
-            LOGGER.info("e-Arşiv Raporu başarıyla XAdES-A seviyesine yükseltildi");
-            return upgradedDocument;
-
+            return upgradeToArchiveLevel(signedDocument, baseParameters);
         } catch (Exception ex) {
             LOGGER.error("XAdES seviye yükseltme başarısız. XAdES-B seviyesi korunuyor.", ex);
             // Hata durumunda orijinal belgeyi döndür (XAdES-B)
             return signedDocument;
         }
     }
-}
 
+    /**
+     * Daha önce imzalanmış bir belgeyi XAdES-A seviyesine yükseltir.
+     * İmzalama parametreleri elde olmadığında (ertelenmiş yükseltme) kullanılır;
+     * genişletme için gereken parametreler sıfırdan oluşturulur.
+     * 
+     * @param signedDocument XAdES-B seviyesinde imzalı belge
+     * @return XAdES-A seviyesine yükseltilmiş belge
+     * @throws RuntimeException TSA/OCSP hatası gibi durumlarda; çağıran taraf tekrar deneyebilir
+     */
+    public DSSDocument upgradeToArchiveLevel(DSSDocument signedDocument) {
+        XAdESSignatureParameters parameters = new XAdESSignatureParameters();
+        parameters.setSignatureLevel(SignatureLevel.XAdES_BASELINE_B);
+        parameters.setSignaturePackaging(SignaturePackaging.ENVELOPED);
+        return upgradeToArchiveLevel(signedDocument, parameters);
+    }
+
+    /**
+     * Verilen parametrelerle XAdES-A yükseltmesini yapar. Hataları yutmaz.
+     * OCSP yanıtları doğrulayıcının paylaşılan cache'i üzerinden alınır.
+     */
+    private DSSDocument upgradeToArchiveLevel(DSSDocument signedDocument,
+                                             XAdESSignatureParameters baseParameters) {
+        LOGGER.info("e-Arşiv Raporu için XAdES-A seviyesine yükseltiliyor...");
+
+        // Timestamp parametrelerini yapılandır
+        XAdESTimestampParameters tsParams = new XAdESTimestampParameters();
+        tsParams.setCanonicalizationMethod(CanonicalizationMethod.INCLUSIVE_WITH_COMMENTS);
+        tsParams.setDigestAlgorithm(DigestAlgorithm.SHA256);
+
+        baseParameters.setArchiveTimestampParameters(tsParams);
+        baseParameters.setSignatureTimestampParameters(tsParams);
+        baseParameters.setContentTimestampParameters(tsParams);
+        baseParameters.setEn319132(false);
+
+        // XAdES-A seviyesine yükselt
+        XAdESLevelA levelA = new XAdESLevelA(certificateVerifier);
+        levelA.setTspSource(creditMonitor.track(timestampService.getTspSource(),
+            "xades", DocumentType.EArchiveReport.name()));
+        
+        DSSDocument upgradedDocument = levelA.extendSignatures(signedDocument, baseParameters);
+
+        LOGGER.info("e-Arşiv Raporu başarıyla XAdES-A seviyesine yükseltildi");
+        return upgradedDocument;
+    }
+}
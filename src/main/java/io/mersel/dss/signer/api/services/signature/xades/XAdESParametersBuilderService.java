@@ -11,6 +11,7 @@ import eu.europa.esig.dss.xades.reference.EnvelopedSignatureTransform;
 import io.mersel.dss.signer.api.models.SigningMaterial;
 import io.mersel.dss.signer.api.models.enums.DocumentType;
 import io.mersel.dss.signer.api.services.crypto.DigestAlgorithmResolverService;
+import io.mersel.dss.signer.api.services.revocation.SigningCertificateRevocationMonitor;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 import org.w3c.dom.Document;
@@ -31,9 +32,12 @@ public class XAdESParametersBuilderService {
     private static final String C14N_INCLUSIVE_WITH_COMMENTS = "http://www.w3.org/TR/2001/REC-xml-c14n-20010315#WithComments";
 
     private final DigestAlgorithmResolverService digestAlgorithmResolver;
+    private final SigningCertificateRevocationMonitor revocationMonitor;
 
-    public XAdESParametersBuilderService(DigestAlgorithmResolverService digestAlgorithmResolver) {
+    public XAdESParametersBuilderService(DigestAlgorithmResolverService digestAlgorithmResolver,
+            SigningCertificateRevocationMonitor revocationMonitor) {
         this.digestAlgorithmResolver = digestAlgorithmResolver;
+        this.revocationMonitor = revocationMonitor;
     }
 
     /**
@@ -45,6 +49,8 @@ public class XAdESParametersBuilderService {
      * @param signatureId  İsteğe bağlı imza ID'si
      * @param material     Sertifika ve anahtar içeren imzalama materyali
      * @return Yapılandırılmış XAdESSignatureParameters
+     * @throws io.mersel.dss.signer.api.exceptions.CertificateValidationException
+     *         İmzalama sertifika zinciri iptal edilmişse
      */
     public XAdESSignatureParameters buildParameters(Document document,
             DocumentType documentType,
@@ -73,7 +79,11 @@ public class XAdESParametersBuilderService {
         // İmzalama sertifikası ve zincir
         params.setSigningCertificate(material.getPrimaryCertificateToken());
         params.setCertificateChain(material.getCertificateTokens());
-        params.setCheckCertificateRevocation(true);
+
+        // İptal durumu arka planda izlenir; güncel GOOD durum varsa istek yolunda
+        // tekrar sorgulanmaz, iptal edilmişse imzalama reddedilir
+        revocationMonitor.assertNotRevoked(material);
+        params.setCheckCertificateRevocation(!revocationMonitor.hasCurrentGoodStatus(material));
 
         // KeyInfo yapılandırması
         params.setSignKeyInfo(false);
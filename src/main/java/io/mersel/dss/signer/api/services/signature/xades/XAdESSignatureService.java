@@ -1,34 +1,40 @@
 package io.mersel.dss.signer.api.services.signature.xades;
 
-import eu.europa.esig.dss.enumerations.MimeType;
 import eu.europa.esig.dss.model.DSSDocument;
-import eu.europa.esig.dss.model.InMemoryDocument;
 import eu.europa.esig.dss.model.SignatureValue;
 import eu.europa.esig.dss.model.ToBeSigned;
 import eu.europa.esig.dss.spi.validation.CertificateVerifier;
 import eu.europa.esig.dss.spi.validation.CommonCertificateVerifier;
 import eu.europa.esig.dss.spi.x509.CertificateSource;
 import eu.europa.esig.dss.spi.x509.CommonCertificateSource;
+import eu.europa.esig.dss.spi.x509.ListCertificateSource;
 import eu.europa.esig.dss.xades.XAdESSignatureParameters;
 import eu.europa.esig.dss.xades.reference.DSSReference;
-import eu.europa.esig.dss.xades.signature.XAdESLevelC;
 import eu.europa.esig.dss.xades.signature.XAdESService;
 import eu.europa.esig.dss.xades.signature.XAdESSignatureBuilder;
-import eu.europa.esig.dss.validation.SignedDocumentValidator;
+import eu.europa.esig.dss.xml.utils.DOMDocument;
 import io.mersel.dss.signer.api.exceptions.SignatureException;
 import io.mersel.dss.signer.api.models.SignResponse;
 import io.mersel.dss.signer.api.models.SigningMaterial;
 import io.mersel.dss.signer.api.models.enums.DocumentType;
-import eu.europa.esig.dss.model.x509.CertificateToken;
 import io.mersel.dss.signer.api.services.crypto.CryptoSignerService;
+import io.mersel.dss.signer.api.services.keystore.SigningKeyRegistry;
+import io.mersel.dss.signer.api.services.keystore.SigningKeyReloadedEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 
 import java.io.InputStream;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
 import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Semaphore;
 
 /**
@@ -60,29 +66,40 @@ public class XAdESSignatureService {
     private final XmlProcessingService xmlProcessor;
     private final XAdESDocumentPlacementService documentPlacement;
     private final XAdESLevelUpgradeService levelUpgradeService;
+    private final XAdESUpgradeJobService upgradeJobService;
     private final CryptoSignerService cryptoSigner;
     private final CertificateVerifier certificateVerifier;
     private final io.mersel.dss.signer.api.services.util.CompressionService compressionService;
-    private final Semaphore semaphore;
+    private final SigningKeyRegistry keyRegistry;
+    private final Semaphore networkSemaphore;
+
+    /**
+     * Doğrulayıcının yardımcı kaynaklarına eklenmiş imzalama zincirleri, imzalama sertifikasına göre.
+     */
+    private final Map<X509Certificate, CertificateSource> registeredChainSources = new ConcurrentHashMap<>();
 
     public XAdESSignatureService(XAdESService xadesService,
             XAdESParametersBuilderService parametersBuilder,
             XmlProcessingService xmlProcessor,
             XAdESDocumentPlacementService documentPlacement,
             XAdESLevelUpgradeService levelUpgradeService,
+            XAdESUpgradeJobService upgradeJobService,
             CryptoSignerService cryptoSigner,
             CertificateVerifier certificateVerifier,
             io.mersel.dss.signer.api.services.util.CompressionService compressionService,
-            Semaphore signatureSemaphore) {
+            SigningKeyRegistry keyRegistry,
+            @Qualifier("networkSemaphore") Semaphore networkSemaphore) {
         this.xadesService = xadesService;
         this.parametersBuilder = parametersBuilder;
         this.xmlProcessor = xmlProcessor;
         this.documentPlacement = documentPlacement;
         this.levelUpgradeService = levelUpgradeService;
+        this.upgradeJobService = upgradeJobService;
         this.cryptoSigner = cryptoSigner;
         this.certificateVerifier = certificateVerifier;
         this.compressionService = compressionService;
-        this.semaphore = signatureSemaphore;
+        this.keyRegistry = keyRegistry;
+        this.networkSemaphore = networkSemaphore;
     }
 
     /**
@@ -100,41 +117,93 @@ public class XAdESSignatureService {
             String signatureId,
             boolean zipped,
             SigningMaterial material) {
+        return signXml(xmlInputStream, documentType, signatureId, zipped, false, material);
+    }
+
+    /**
+     * XML belgesini XAdES imzası ile imzalar.
+     * <p>
+     * {@code deferUpgrade} true ise e-Arşiv Raporları için XAdES-A yükseltmesi istek
+     * thread'inde yapılmaz; XAdES-B imzalı belge hemen döner ve yükseltme
+     * {@link XAdESUpgradeJobService} üzerinden arka planda çalışır. İş tanımlayıcısı
+     * {@link SignResponse#getUpgradeJobId()} ile alınır.
+     * 
+     * @param xmlInputStream XML belgesi içeren input stream
+     * @param documentType   Belge tipi (e-Fatura, e-Arşiv vb.)
+     * @param signatureId    İsteğe bağlı imza tanımlayıcısı
+     * @param zipped         Belgenin ZIP formatında olup olmadığı
+     * @param deferUpgrade   XAdES-A yükseltmesinin arka plana ertelenip ertelenmeyeceği
+     * @param material       İmzalama sertifikası ve private key içeren materyal
+     * @return İmzalanmış belge, imza değeri ve (varsa) yükseltme işi tanımlayıcısı
+     */
+    public SignResponse signXml(InputStream xmlInputStream,
+            DocumentType documentType,
+            String signatureId,
+            boolean zipped,
+            boolean deferUpgrade,
+            SigningMaterial material) {
         try {
             // 1. XML byte'larını çıkar
             byte[] xmlBytes = extractXmlBytes(xmlInputStream, zipped);
 
-            // 2. Belge tipini normalize et
+            // 2. İmzalama sertifika zincirini doğrulayıcıya ekle
+            addSigningCertificateChainToVerifier(material);
+
+            return signXmlBytes(xmlBytes, documentType, signatureId, zipped, deferUpgrade, material);
+
+        } catch (SignatureException e) {
+            throw e;
+        } catch (Exception e) {
+            LOGGER.error("XAdES imzası oluşturulurken hata", e);
+            throw new SignatureException("XAdES imzası oluşturulamadı", e);
+        }
+    }
+
+    /**
+     * Çıkarılmış XML byte'larını imzalar. İmzalama zincirinin doğrulayıcıya
+     * önceden eklenmiş olduğunu varsayar; toplu imzalamada zincir bir kez eklenir.
+     */
+    SignResponse signXmlBytes(byte[] xmlBytes,
+            DocumentType documentType,
+            String signatureId,
+            boolean zipped,
+            boolean deferUpgrade,
+            SigningMaterial material) {
+        try {
+            // Belge tipini normalize et
             if (documentType == null || documentType == DocumentType.None) {
                 documentType = DocumentType.OtherXmlDocument;
             }
 
-            // 3. Belgeyi parse et
+            // 1. Belgeyi parse et
             Document document = xmlProcessor.parseDocument(xmlBytes);
 
-            // 4. Placeholder'ları imzalamadan ÖNCE kaldır (hash uyumluluğu için kritik)
+            // 2. Placeholder'ları imzalamadan ÖNCE kaldır (hash uyumluluğu için kritik)
             documentPlacement.removePlaceholderBeforeSigning(document, documentType);
 
-            // 5. Placeholder kaldırılmış belgeyi DSSDocument'a dönüştür
-            byte[] cleanedXmlBytes = xmlProcessor.documentToBytes(document);
-            DSSDocument dssDocument = new InMemoryDocument(cleanedXmlBytes, DEFAULT_XML_NAME,
-                    MimeType.fromFileExtension("xml"));
+            // 3. Aynı DOM'u DSS'e ver; imzalama boyunca serialize/parse turu yapılmaz
+            DSSDocument dssDocument = new DOMDocument(document, DEFAULT_XML_NAME);
 
-            // 6. Parametreleri oluştur
+            // 4. Parametreleri oluştur
             XAdESSignatureParameters parameters = parametersBuilder.buildParameters(
                     document, documentType, signatureId, material);
 
-            // 7. İmzalama sertifika zincirini doğrulayıcıya ekle
-            addSigningCertificateChainToVerifier(material);
-
-            // 8. İmzayı oluştur
+            // 5. İmzayı oluştur
+            boolean deferred = deferUpgrade && levelUpgradeService.isUpgradeRequired(documentType);
             SignResponse response = createSignature(document, dssDocument, parameters,
-                    documentType, material);
+                    documentType, deferred, material);
+
+            // Ertelenmiş yükseltme: XAdES-B belgeyi arka plan kuyruğuna al
+            if (deferred) {
+                String jobId = upgradeJobService.submit(response.getSignedDocument(), zipped);
+                response.setUpgradeJobId(jobId);
+            }
 
-            // 9. Gerekirse ZIP'le
+            // 6. Gerekirse ZIP'le
             if (zipped) {
                 byte[] zippedBytes = compressionService.zipBytes(ZIP_ENTRY_NAME, response.getSignedDocument());
-                return new SignResponse(zippedBytes, response.getSignatureValue());
+                return new SignResponse(zippedBytes, response.getSignatureValue(),
+                        response.getUpgradeJobId());
             }
 
             LOGGER.info("XAdES imzası başarıyla oluşturuldu. Belge tipi: {}", documentType);
@@ -151,126 +220,161 @@ public class XAdESSignatureService {
 
     /**
      * İmzalama sürecini orkestre ederek imzayı oluşturur.
-     * Semaphore ile eşzamanlı imza sayısını kontrol eder.
+     * Kripto semaphore'u sadece ham imza üretimi süresince, ağ semaphore'u ise
+     * iptal kontrolü ve XAdES-A yükseltmesi (TSA/OCSP/CRL) süresince tutulur.
+     * <p>
+     * İmza, builder tarafından doğrudan {@code mainDocument} DOM'una eklenir ve
+     * aynı DOM içinde hedef konuma taşınır; belge yalnızca çıktı için bir kez
+     * serialize edilir. XAdES-A yükseltmesi yapıldıysa yükseltilmiş belge bir kez
+     * parse edilir.
      */
     private SignResponse createSignature(Document mainDocument,
             DSSDocument dssDocument,
             XAdESSignatureParameters parameters,
             DocumentType documentType,
+            boolean deferUpgrade,
             SigningMaterial material) throws Exception {
 
-        // OCSP cache cleanup için signature ID'yi takip et
-        String actualSignatureId = null;
-        SignatureValue capturedSignatureValue = null;
-
-        semaphore.acquire();
-        try {
-            // Referanslar için içerik ayarla
-            if (parameters.getReferences() != null) {
-                for (DSSReference reference : parameters.getReferences()) {
-                    if (reference.getContents() == null &&
-                            (reference.getType() == null ||
-                                    !SIGNED_PROPERTIES_TYPE.equals(reference.getType()))) {
+        // Referanslar için içerik ayarla. Belgenin tamamını kapsayan referansın
+        // digest'i, imza DOM'a eklenmeden önce aynı DOM üzerinden hesaplanır.
+        if (parameters.getReferences() != null) {
+            for (DSSReference reference : parameters.getReferences()) {
+                if (reference.getContents() == null &&
+                        (reference.getType() == null ||
+                                !SIGNED_PROPERTIES_TYPE.equals(reference.getType()))) {
+                    if ("".equals(reference.getUri())) {
+                        reference.setContents(xmlProcessor.computeReferenceDigest(
+                                mainDocument, reference, DEFAULT_XML_NAME));
+                    } else {
                         reference.setContents(dssDocument);
                     }
                 }
             }
+        }
 
-            // İmza oluşturucuyu hazırla
-            XAdESSignatureBuilder signatureBuilder = XAdESSignatureBuilder.getSignatureBuilder(
-                    parameters, dssDocument, certificateVerifier);
-            parameters.getContext().setBuilder(signatureBuilder);
+        // İmza oluşturucuyu hazırla
+        XAdESSignatureBuilder signatureBuilder = XAdESSignatureBuilder.getSignatureBuilder(
+                parameters, dssDocument, certificateVerifier);
+        parameters.getContext().setBuilder(signatureBuilder);
 
-            ToBeSigned dataToSign = new ToBeSigned(signatureBuilder.build());
+        ToBeSigned dataToSign = new ToBeSigned(signatureBuilder.build());
 
-            // Veriyi imzala
-            SignatureValue signatureValue = cryptoSigner.sign(
-                    dataToSign,
-                    material.getPrivateKey(),
-                    parameters.getDigestAlgorithm());
-            
-            // SignatureValue'yu yakala (response için)
-            capturedSignatureValue = signatureValue;
+        // Veriyi imzala (sadece bu adım imzalama oturumunu tutar)
+        SignatureValue signatureValue = keyRegistry.sessionPool(material).execute(session -> cryptoSigner.sign(
+                dataToSign,
+                session,
+                parameters.getDigestAlgorithm()));
 
-            // İmzalı belgeyi oluştur
-            DSSDocument signedDocument = xadesService.signDocument(
+        // İmzalı belgeyi oluştur ve e-Arşiv Raporu ise XAdES-A seviyesine yükselt.
+        // İmzalama sertifikasının iptal kontrolü ve TSA çağrıları ağ izni altında yapılır.
+        DSSDocument signedDocument;
+        DSSDocument finalDocument;
+        networkSemaphore.acquire();
+        try {
+            signedDocument = xadesService.signDocument(
                     dssDocument, parameters, signatureValue);
 
-            // e-Arşiv Raporu ise XAdES-A seviyesine yükselt
-            signedDocument = levelUpgradeService.upgradeIfNeeded(
-                    signedDocument, documentType, parameters);
-
-            // Signature ID'yi yakala (cache cleanup için)
-            SignedDocumentValidator tempValidator = SignedDocumentValidator.fromDocument(signedDocument);
-            if (tempValidator.getSignatures() != null && !tempValidator.getSignatures().isEmpty()) {
-                actualSignatureId = tempValidator.getSignatures().get(0).getId();
-            }
+            finalDocument = deferUpgrade ? signedDocument
+                    : levelUpgradeService.upgradeIfNeeded(signedDocument, documentType, parameters);
+        } finally {
+            networkSemaphore.release();
+        }
 
-            // Son işleme: İmzayı doğru konuma yerleştir
-            byte[] signedBytes = xmlProcessor.dssDocumentToBytes(signedDocument);
-            Document signedDom = xmlProcessor.parseDocument(signedBytes);
-            Element signatureElement = xmlProcessor.findSignatureElement(signedDom);
+        // Son işleme: İmzayı doğru konuma yerleştir
+        byte[] finalSignedBytes;
+        if (finalDocument == signedDocument) {
+            // İmza elemanı mainDocument içinde; aynı DOM'da taşınır
+            Element signatureElement = signatureBuilder.getSignatureElement();
+            documentPlacement.placeSignatureElement(mainDocument, signatureElement, documentType);
+            finalSignedBytes = xmlProcessor.documentToBytes(mainDocument);
+        } else {
+            // XAdES-A yükseltmesi yeni bir belge üretir; yerleştirme onun DOM'unda yapılır
+            byte[] upgradedBytes = xmlProcessor.dssDocumentToBytes(finalDocument);
+            Document upgradedDom = xmlProcessor.parseDocument(upgradedBytes);
+            Element signatureElement = xmlProcessor.findSignatureElement(upgradedDom);
 
-            byte[] finalSignedBytes;
             if (signatureElement != null) {
-                documentPlacement.placeSignatureElement(
-                        mainDocument, signatureElement, documentType);
-                finalSignedBytes = xmlProcessor.documentToBytes(mainDocument);
+                documentPlacement.placeSignatureElement(upgradedDom, signatureElement, documentType);
+                finalSignedBytes = xmlProcessor.documentToBytes(upgradedDom);
             } else {
-                finalSignedBytes = signedBytes;
+                finalSignedBytes = upgradedBytes;
             }
+        }
 
-            // SignatureValue'yu Base64 string'e çevir
-            String encodedSignature = capturedSignatureValue != null 
-                ? Base64.getEncoder().encodeToString(capturedSignatureValue.getValue())
-                : null;
-
-            return new SignResponse(finalSignedBytes, encodedSignature);
-
-        } finally {
-            semaphore.release();
-
-            // OCSP cache cleanup (memory leak önleme)
-            if (actualSignatureId != null) {
-                // 1. Bu imzaya özel cache'i temizle (her imza için)
-                XAdESLevelC.cleanupOcspCache(actualSignatureId);
+        // SignatureValue'yu Base64 string'e çevir
+        String encodedSignature = Base64.getEncoder().encodeToString(signatureValue.getValue());
 
-                // 2. Eski genel cache'leri temizle (sadece e-Arşiv Raporu/XAdES-A upgrade yapıldıysa)
-                // Çünkü XAdES-A upgrade sırasında çok fazla OCSP/CRL cache'i oluşur
-                if (documentType == DocumentType.EArchiveReport) {
-                    XAdESLevelC.cleanupOldCaches(5 * 60 * 1000L);
-                }
-            }
-        }
+        return new SignResponse(finalSignedBytes, encodedSignature);
     }
 
     /**
      * İmzalama sertifika zincirini doğrulayıcının yardımcı kaynağına ekler.
      * Bu, DSS doğrulayıcısının zinciri çevrimiçi bulabilmesini sağlar.
+     * Zincir imzalama sertifikası başına yalnızca bir kez eklenir; aynı
+     * sertifikayla yeniden yüklenen veya boşaltılıp tekrar yüklenen anahtar
+     * yeni kaynak eklemez.
      */
-    private void addSigningCertificateChainToVerifier(SigningMaterial material) {
+    void addSigningCertificateChainToVerifier(SigningMaterial material) {
         if (!(certificateVerifier instanceof CommonCertificateVerifier)) {
             return;
         }
 
-        CommonCertificateVerifier commonVerifier = (CommonCertificateVerifier) certificateVerifier;
-        CertificateSource adjunctSource = commonVerifier.getAdjunctCertSources();
+        X509Certificate certificate = material.getSigningCertificate();
+        if (registeredChainSources.containsKey(certificate)) {
+            return;
+        }
 
-        CommonCertificateSource adjunct;
-        if (adjunctSource instanceof CommonCertificateSource) {
-            adjunct = (CommonCertificateSource) adjunctSource;
-        } else {
-            adjunct = new CommonCertificateSource();
-            commonVerifier.setAdjunctCertSources(adjunct);
+        CommonCertificateSource chainSource = material.getArtifacts().getChainSource();
+        synchronized (registeredChainSources) {
+            if (registeredChainSources.containsKey(certificate)) {
+                return;
+            }
+            List<CertificateSource> sources = adjunctSources();
+            sources.add(chainSource);
+            setAdjunctSources(sources);
+            registeredChainSources.put(certificate, chainSource);
         }
 
-        // İmzalama zincirindeki tüm sertifikaları ekle
-        for (CertificateToken cert : material.getCertificateTokens()) {
-            adjunct.addCertificate(cert);
+        LOGGER.debug("Doğrulayıcıya {} adet sertifika eklendi", chainSource.getNumberOfCertificates());
+    }
+
+    /**
+     * Anahtar farklı bir sertifikayla yeniden yüklendiğinde eski sertifikanın
+     * zincirini doğrulayıcının yardımcı kaynaklarından çıkarır.
+     */
+    @EventListener
+    public void onSigningKeyReloaded(SigningKeyReloadedEvent event) {
+        SigningMaterial previous = event.getPreviousMaterial();
+        if (previous == null || !(certificateVerifier instanceof CommonCertificateVerifier)) {
+            return;
         }
+        X509Certificate certificate = previous.getSigningCertificate();
+        if (certificate.equals(event.getKey().getMaterial().getSigningCertificate())) {
+            return;
+        }
+        synchronized (registeredChainSources) {
+            CertificateSource chainSource = registeredChainSources.remove(certificate);
+            if (chainSource == null) {
+                return;
+            }
+            List<CertificateSource> sources = adjunctSources();
+            sources.removeIf(source -> source == chainSource);
+            setAdjunctSources(sources);
+        }
+        LOGGER.debug("Yerine geçilen imzalama zinciri doğrulayıcıdan çıkarıldı: {}",
+            certificate.getSubjectX500Principal());
+    }
+
+    /**
+     * Yardımcı kaynakların değiştirilebilir kopyası; devam eden doğrulamalar
+     * eski listeyi okurken liste yerinde değiştirilmez.
+     */
+    private List<CertificateSource> adjunctSources() {
+        return new ArrayList<>(((CommonCertificateVerifier) certificateVerifier).getAdjunctCertSources().getSources());
+    }
 
-        LOGGER.debug("Doğrulayıcıya {} adet sertifika eklendi",
-                material.getCertificateTokens().size());
+    private void setAdjunctSources(List<CertificateSource> sources) {
+        ((CommonCertificateVerifier) certificateVerifier).setAdjunctCertSources(new ListCertificateSource(sources));
     }
 
     /**
@@ -0,0 +1,380 @@
+package io.mersel.dss.signer.api.services.signature.xades;
+
+import eu.europa.esig.dss.enumerations.MimeType;
+import eu.europa.esig.dss.model.DSSDocument;
+import eu.europa.esig.dss.model.InMemoryDocument;
+import io.mersel.dss.signer.api.SignatureApplication;
+import io.mersel.dss.signer.api.dtos.UpgradeJobStatusDto;
+import io.mersel.dss.signer.api.models.enums.UpgradeJobStatus;
+import io.mersel.dss.signer.api.services.util.CompressionService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * e-Arşiv Raporları için ertelenmiş XAdES-A yükseltme işlerini yöneten servis.
+ * <p>
+ * İstek thread'i XAdES-B imzalı belgeyi hemen döndürür; C → XL → A yükseltme
+ * zinciri (TSA ve OCSP çağrıları) arka plandaki worker havuzunda çalışır.
+ * İşler {@code XADES_UPGRADE_JOB_DIR} (varsayılan {@code ROOT_DIR/xades-upgrade-jobs})
+ * altında diske yazılır, böylece
+ * servis yeniden başlatıldığında bekleyen işler kaldığı yerden devam eder.
+ * Başarısız TSA/OCSP çağrıları üstel bekleme ile tekrar denenir.
+ */
+@Service
+public class XAdESUpgradeJobService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(XAdESUpgradeJobService.class);
+    private static final String JOB_DIR_NAME = "xades-upgrade-jobs";
+    private static final String ZIP_ENTRY_NAME = "signedcontent.xml";
+    private static final long MAX_RETRY_DELAY_MS = TimeUnit.MINUTES.toMillis(30);
+    private static final Pattern JOB_ID_PATTERN = Pattern.compile("[0-9a-fA-F\\-]{36}");
+
+    private final XAdESLevelUpgradeService levelUpgradeService;
+    private final CompressionService compressionService;
+    private final Semaphore networkSemaphore;
+    private final int workerCount;
+    private final int maxAttempts;
+    private final long retryDelayMs;
+    private final long retentionMs;
+    private final Path jobDirectory;
+
+    private final Map<String, UpgradeJob> jobs = new ConcurrentHashMap<>();
+    private ScheduledExecutorService executor;
+
+    public XAdESUpgradeJobService(
+            XAdESLevelUpgradeService levelUpgradeService,
+            CompressionService compressionService,
+            @Qualifier("networkSemaphore") Semaphore networkSemaphore,
+            @Value("${XADES_UPGRADE_WORKER_COUNT:2}") int workerCount,
+            @Value("${XADES_UPGRADE_MAX_ATTEMPTS:5}") int maxAttempts,
+            @Value("${XADES_UPGRADE_RETRY_DELAY_SECONDS:30}") long retryDelaySeconds,
+            @Value("${XADES_UPGRADE_JOB_RETENTION_HOURS:24}") long retentionHours,
+            @Value("${XADES_UPGRADE_JOB_DIR:}") String jobDirectory) {
+        this.levelUpgradeService = levelUpgradeService;
+        this.compressionService = compressionService;
+        this.networkSemaphore = networkSemaphore;
+        this.workerCount = Math.max(1, workerCount);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.retryDelayMs = TimeUnit.SECONDS.toMillis(Math.max(1, retryDelaySeconds));
+        this.retentionMs = TimeUnit.HOURS.toMillis(Math.max(1, retentionHours));
+        this.jobDirectory = jobDirectory == null || jobDirectory.trim().isEmpty()
+                ? Paths.get(SignatureApplication.ROOT_DIR, JOB_DIR_NAME) : Paths.get(jobDirectory.trim());
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        Files.createDirectories(jobDirectory);
+
+        AtomicInteger threadCounter = new AtomicInteger();
+        executor = Executors.newScheduledThreadPool(workerCount, runnable -> {
+            Thread thread = new Thread(runnable, "xades-upgrade-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        recoverPersistedJobs();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * XAdES-B imzalı belge için yeni bir yükseltme işi oluşturur ve kuyruğa alır.
+     *
+     * @param signedXml XAdES-B seviyesinde imzalı, son konumuna yerleştirilmiş XML
+     * @param zipped Yükseltilmiş belgenin ZIP olarak döndürülüp döndürülmeyeceği
+     * @return İş tanımlayıcısı
+     */
+    public String submit(byte[] signedXml, boolean zipped) {
+        UpgradeJob job = new UpgradeJob(UUID.randomUUID().toString(), zipped, System.currentTimeMillis());
+        try {
+            writeAtomically(payloadPath(job.id), signedXml);
+            persist(job);
+        } catch (IOException e) {
+            throw new IllegalStateException("Yükseltme işi diske yazılamadı: " + job.id, e);
+        }
+
+        jobs.put(job.id, job);
+        schedule(job, 0);
+
+        LOGGER.info("Ertelenmiş XAdES-A yükseltme işi oluşturuldu: {}", job.id);
+        return job.id;
+    }
+
+    /**
+     * İş durumunu döndürür. İş bulunamazsa null döner.
+     */
+    public UpgradeJobStatusDto getStatus(String jobId) {
+        UpgradeJob job = findJob(jobId);
+        if (job == null) {
+            return null;
+        }
+        synchronized (job) {
+            return new UpgradeJobStatusDto(job.id, job.status, job.attempts,
+                    job.createdAt, job.updatedAt, job.lastError);
+        }
+    }
+
+    /**
+     * Tamamlanmış işin XAdES-A seviyesindeki belgesini döndürür.
+     * İş tamamlanmamışsa null döner.
+     */
+    public byte[] getUpgradedDocument(String jobId) throws IOException {
+        UpgradeJob job = findJob(jobId);
+        if (job == null || job.status != UpgradeJobStatus.COMPLETED) {
+            return null;
+        }
+
+        byte[] upgraded = Files.readAllBytes(resultPath(job.id));
+        return job.zipped ? compressionService.zipBytes(ZIP_ENTRY_NAME, upgraded) : upgraded;
+    }
+
+    /**
+     * Saklama süresi dolmuş tamamlanmış ve başarısız işleri temizler.
+     */
+    @Scheduled(fixedDelayString = "${XADES_UPGRADE_CLEANUP_INTERVAL_MS:3600000}")
+    public void purgeExpiredJobs() {
+        long threshold = System.currentTimeMillis() - retentionMs;
+        for (UpgradeJob job : jobs.values()) {
+            boolean finished = job.status == UpgradeJobStatus.COMPLETED
+                    || job.status == UpgradeJobStatus.FAILED;
+            if (finished && job.updatedAt < threshold) {
+                jobs.remove(job.id);
+                deleteQuietly(metadataPath(job.id));
+                deleteQuietly(payloadPath(job.id));
+                deleteQuietly(resultPath(job.id));
+                LOGGER.debug("Süresi dolan yükseltme işi silindi: {}", job.id);
+            }
+        }
+    }
+
+    private UpgradeJob findJob(String jobId) {
+        if (jobId == null || !JOB_ID_PATTERN.matcher(jobId).matches()) {
+            return null;
+        }
+        return jobs.get(jobId);
+    }
+
+    private void schedule(UpgradeJob job, long delayMs) {
+        executor.schedule(() -> run(job), delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void run(UpgradeJob job) {
+        synchronized (job) {
+            job.status = UpgradeJobStatus.RUNNING;
+            job.updatedAt = System.currentTimeMillis();
+            persistQuietly(job);
+        }
+
+        try {
+            DSSDocument signedDocument = new InMemoryDocument(
+                    Files.readAllBytes(payloadPath(job.id)), ZIP_ENTRY_NAME, MimeType.fromFileExtension("xml"));
+
+            DSSDocument upgradedDocument;
+            networkSemaphore.acquire();
+            try {
+                upgradedDocument = levelUpgradeService.upgradeToArchiveLevel(signedDocument);
+            } finally {
+                networkSemaphore.release();
+            }
+
+            try (InputStream in = upgradedDocument.openStream()) {
+                Path tmp = Files.createTempFile(jobDirectory, job.id, ".tmp");
+                Files.copy(in, tmp, StandardCopyOption.REPLACE_EXISTING);
+                Files.move(tmp, resultPath(job.id), StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            }
+
+            synchronized (job) {
+                job.attempts++;
+                job.status = UpgradeJobStatus.COMPLETED;
+                job.lastError = null;
+                job.updatedAt = System.currentTimeMillis();
+                persistQuietly(job);
+            }
+            deleteQuietly(payloadPath(job.id));
+            LOGGER.info("Ertelenmiş XAdES-A yükseltme tamamlandı: {}", job.id);
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            LOGGER.warn("Yükseltme işi kesintiye uğradı, yeniden başlatmada devam edecek: {}", job.id);
+
+        } catch (Exception e) {
+            long delay;
+            synchronized (job) {
+                job.attempts++;
+                job.lastError = e.getMessage();
+                job.updatedAt = System.currentTimeMillis();
+                job.status = job.attempts >= maxAttempts ? UpgradeJobStatus.FAILED : UpgradeJobStatus.PENDING;
+                persistQuietly(job);
+                delay = retryDelayMs(job.attempts);
+            }
+
+            if (job.status == UpgradeJobStatus.FAILED) {
+                LOGGER.error("XAdES-A yükseltme işi {} denemeden sonra başarısız: {}", job.attempts, job.id, e);
+            } else {
+                LOGGER.warn("XAdES-A yükseltme denemesi başarısız ({}/{}), {} ms sonra tekrar denenecek: {} - {}",
+                        job.attempts, maxAttempts, delay, job.id, e.getMessage());
+                schedule(job, delay);
+            }
+        }
+    }
+
+    /**
+     * Başarısız denemeden sonraki bekleme süresi: her denemede iki katına çıkar,
+     * en fazla 30 dakika olur.
+     *
+     * @param attempts Şimdiye kadar yapılan deneme sayısı
+     */
+    long retryDelayMs(int attempts) {
+        return Math.min(retryDelayMs << Math.min(attempts - 1, 16), MAX_RETRY_DELAY_MS);
+    }
+
+    /**
+     * Diskteki işleri yükler; PENDING veya RUNNING durumundakileri yeniden kuyruğa alır.
+     */
+    private void recoverPersistedJobs() {
+        int resumed = 0;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(jobDirectory, "*.properties")) {
+            for (Path metadata : stream) {
+                try {
+                    UpgradeJob job = load(metadata);
+                    jobs.put(job.id, job);
+                    if (job.status == UpgradeJobStatus.PENDING || job.status == UpgradeJobStatus.RUNNING) {
+                        job.status = UpgradeJobStatus.PENDING;
+                        schedule(job, 0);
+                        resumed++;
+                    }
+                } catch (Exception e) {
+                    LOGGER.warn("Yükseltme işi okunamadı: {} - {}", metadata, e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Yükseltme iş dizini okunamadı: {}", jobDirectory, e);
+        }
+
+        if (resumed > 0) {
+            LOGGER.info("{} bekleyen XAdES-A yükseltme işi yeniden kuyruğa alındı", resumed);
+        }
+    }
+
+    private void persist(UpgradeJob job) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("id", job.id);
+        properties.setProperty("status", job.status.name());
+        properties.setProperty("zipped", String.valueOf(job.zipped));
+        properties.setProperty("attempts", String.valueOf(job.attempts));
+        properties.setProperty("createdAt", String.valueOf(job.createdAt));
+        properties.setProperty("updatedAt", String.valueOf(job.updatedAt));
+        if (job.lastError != null) {
+            properties.setProperty("lastError", job.lastError);
+        }
+
+        Path tmp = Files.createTempFile(jobDirectory, job.id, ".tmp");
+        try (OutputStream out = Files.newOutputStream(tmp)) {
+            properties.store(out, null);
+        }
+        Files.move(tmp, metadataPath(job.id), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void persistQuietly(UpgradeJob job) {
+        try {
+            persist(job);
+        } catch (IOException e) {
+            LOGGER.warn("Yükseltme işi durumu diske yazılamadı: {} - {}", job.id, e.getMessage());
+        }
+    }
+
+    private UpgradeJob load(Path metadata) throws IOException {
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(metadata)) {
+            properties.load(in);
+        }
+
+        UpgradeJob job = new UpgradeJob(
+                properties.getProperty("id"),
+                Boolean.parseBoolean(properties.getProperty("zipped")),
+                Long.parseLong(properties.getProperty("createdAt")));
+        job.status = UpgradeJobStatus.valueOf(properties.getProperty("status"));
+        job.attempts = Integer.parseInt(properties.getProperty("attempts", "0"));
+        job.updatedAt = Long.parseLong(properties.getProperty("updatedAt", String.valueOf(job.createdAt)));
+        job.lastError = properties.getProperty("lastError");
+        return job;
+    }
+
+    private void writeAtomically(Path target, byte[] content) throws IOException {
+        Path tmp = Files.createTempFile(jobDirectory, target.getFileName().toString(), ".tmp");
+        Files.write(tmp, content);
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            LOGGER.debug("Dosya silinemedi: {}", path);
+        }
+    }
+
+    private Path metadataPath(String jobId) {
+        return jobDirectory.resolve(jobId + ".properties");
+    }
+
+    private Path payloadPath(String jobId) {
+        return jobDirectory.resolve(jobId + ".xml");
+    }
+
+    private Path resultPath(String jobId) {
+        return jobDirectory.resolve(jobId + "-upgraded.xml");
+    }
+
+    /**
+     * Tek bir yükseltme işinin değiştirilebilir durumu.
+     */
+    private static final class UpgradeJob {
+        private final String id;
+        private final boolean zipped;
+        private final long createdAt;
+        private volatile UpgradeJobStatus status = UpgradeJobStatus.PENDING;
+        private volatile int attempts;
+        private volatile long updatedAt;
+        private volatile String lastError;
+
+        private UpgradeJob(String id, boolean zipped, long createdAt) {
+            this.id = id;
+            this.zipped = zipped;
+            this.createdAt = createdAt;
+            this.updatedAt = createdAt;
+        }
+    }
+}
@@ -1,7 +1,12 @@
 package io.mersel.dss.signer.api.services.signature.xades;
 
 import eu.europa.esig.dss.model.DSSDocument;
+import eu.europa.esig.dss.model.DigestDocument;
+import eu.europa.esig.dss.spi.DSSUtils;
+import eu.europa.esig.dss.xades.DSSXMLUtils;
+import eu.europa.esig.dss.xades.reference.DSSReference;
 import io.mersel.dss.signer.api.exceptions.SignatureException;
+import io.mersel.dss.signer.api.util.XmlPools;
 import org.springframework.stereotype.Service;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
@@ -9,15 +14,7 @@ import org.w3c.dom.NodeList;
 import org.xml.sax.SAXException;
 
 import javax.xml.crypto.dsig.XMLSignature;
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.transform.OutputKeys;
-import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerException;
-import javax.xml.transform.TransformerFactory;
-import javax.xml.transform.dom.DOMSource;
-import javax.xml.transform.stream.StreamResult;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
@@ -25,28 +22,19 @@ import java.io.IOException;
 /**
  * XML ayrıştırma ve dönüştürme işlemleri için servis.
  * Tüm XML işleme mantığını merkezileştirir.
+ * Parser ve transformer örnekleri {@link XmlPools} üzerinden thread başına tekrar kullanılır.
  */
 @Service
 public class XmlProcessingService {
 
-    private final DocumentBuilderFactory documentBuilderFactory;
-
-    public XmlProcessingService() {
-        this.documentBuilderFactory = DocumentBuilderFactory.newInstance();
-        this.documentBuilderFactory.setNamespaceAware(true);
-    }
-
     /**
      * XML byte'larını DOM Document'e ayrıştırır.
      */
     public Document parseDocument(byte[] xmlBytes) {
-        try {
-            DocumentBuilder builder = documentBuilderFactory.newDocumentBuilder();
-            try (ByteArrayInputStream inputStream = new ByteArrayInputStream(xmlBytes)) {
-                return builder.parse(inputStream);
-            }
-        } catch (ParserConfigurationException | SAXException | IOException e) {
-            throw new SignatureException("XML belgesi ayrıştırılamadı", e);
+        try (ByteArrayInputStream inputStream = new ByteArrayInputStream(xmlBytes)) {
+            return XmlPools.parse(inputStream, true);
+        } catch (SAXException | IOException e) {
+            throw new SignatureException("XML belgesi ayrıştırılamadı: " + e.getMessage(), e);
         }
     }
 
@@ -55,15 +43,7 @@ public class XmlProcessingService {
      */
     public byte[] documentToBytes(Document document) {
         try {
-            TransformerFactory transformerFactory = TransformerFactory.newInstance();
-            Transformer transformer = transformerFactory.newTransformer();
-            transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "no");
-            transformer.setOutputProperty(OutputKeys.ENCODING, "UTF-8");
-            
-            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-            transformer.transform(new DOMSource(document), new StreamResult(outputStream));
-            return outputStream.toByteArray();
-            
+            return XmlPools.toBytes(document, false);
         } catch (TransformerException e) {
             throw new SignatureException("Belge byte dizisine dönüştürülemedi", e);
         }
@@ -82,6 +62,18 @@ public class XmlProcessingService {
         }
     }
 
+    /**
+     * Belgenin tamamını kapsayan (URI="") referansın digest'ini verilen DOM
+     * üzerinden hesaplar. İmza elemanı DOM'a eklenmeden önce çağrılmalıdır.
+     * Dönen DigestDocument, DSS tarafından belge yeniden parse edilmeden
+     * referans içeriği olarak kullanılır.
+     */
+    public DSSDocument computeReferenceDigest(Document document, DSSReference reference, String name) {
+        byte[] transformed = DSSXMLUtils.applyTransforms(document, reference.getTransforms());
+        byte[] digest = DSSUtils.digest(reference.getDigestMethodAlgorithm(), transformed);
+        return new DigestDocument(reference.getDigestMethodAlgorithm(), digest, name);
+    }
+
     /**
      * XML belgesinde Signature elemanını bulur.
      */
@@ -1,55 +1,125 @@
 package io.mersel.dss.signer.api.services.timestamp;
 
-import eu.europa.esig.dss.service.http.commons.TimestampDataLoader;
+import eu.europa.esig.dss.service.http.commons.CommonsDataLoader;
 import eu.europa.esig.dss.service.tsp.OnlineTSPSource;
+import eu.europa.esig.dss.spi.x509.tsp.TSPSource;
 import io.mersel.dss.signer.api.exceptions.TimestampException;
+import io.mersel.dss.signer.api.models.configurations.SignatureServiceConfiguration;
+import io.mersel.dss.signer.api.services.http.PooledDataLoader;
+import io.mersel.dss.signer.api.services.timestamp.tubitak.TubitakCreditMonitor;
 import io.mersel.dss.signer.api.services.timestamp.tubitak.TubitakTimestampDataLoader;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
+import javax.annotation.PreDestroy;
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.ToDoubleFunction;
 
 /**
  * Zaman damgası sunucularını yapılandıran ve yöneten servis.
  * <p>
  * Standart RFC 3161 TSP sunucularının yanı sıra TÜBİTAK ESYA
  * zaman damgası sunucusunu da destekler.
+ * <p>
+ * {@code TS_SERVER_HOST} birincil sunucudur; ek sunucular {@code TS_SERVER_HOST_2},
+ * {@code TS_SERVER_HOST_3}... ve aynı sonekli kimlik bilgileriyle tanımlanır.
+ * Tüm sunucular {@link TimestampSourcePool} altında gecikme ağırlıklı
+ * yönlendirme, hata durumunda geçiş ve isteğe bağlı hedging ile kullanılır.
+ * TÜBİTAK sunucuları havuz içinde tek tek {@link TubitakCreditMonitor} ile
+ * sarılır; kontör yalnızca bu sunuculardan alınan damgalar için sayılır.
  */
 @Service
-public class TimestampConfigurationService {
+public class TimestampConfigurationService implements MeterBinder {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(TimestampConfigurationService.class);
 
+    private static final int MAX_TSP_SERVERS = 9;
+
     private final String tspServerUrl;
-    private final String tspUserId;
-    private final String tspUserPassword;
-    private final boolean isTubitakTsp;
+    private final List<TimestampServer> servers;
+    private final PoolingHttpClientConnectionManager httpConnectionManager;
+    private final int httpReadTimeoutMs;
+    private final int failureThreshold;
+    private final long ejectMillis;
+    private final boolean hedgeEnabled;
+    private final double hedgePercentile;
+    private final long hedgeMinDelayMillis;
+    private final TubitakCreditMonitor creditMonitor;
     
-    private volatile OnlineTSPSource tspSource;
+    private volatile TimestampSourcePool tspSource;
     private volatile boolean configured = false;
 
     public TimestampConfigurationService(
             @Value("${TS_SERVER_HOST:}") String tspServerUrl,
             @Value("${TS_USER_ID:}") String tspUserId,
             @Value("${TS_USER_PASSWORD:}") String tspUserPassword,
-            @Value("${IS_TUBITAK_TSP:false}") boolean isTubitakTsp) {
+            @Value("${IS_TUBITAK_TSP:false}") boolean isTubitakTsp,
+            @Value("${TS_FAILURE_THRESHOLD:3}") int failureThreshold,
+            @Value("${TS_EJECT_DURATION_MS:30000}") long ejectMillis,
+            @Value("${TS_HEDGE_ENABLED:false}") boolean hedgeEnabled,
+            @Value("${TS_HEDGE_PERCENTILE:0.95}") double hedgePercentile,
+            @Value("${TS_HEDGE_MIN_DELAY_MS:250}") long hedgeMinDelayMillis,
+            PoolingHttpClientConnectionManager httpConnectionManager,
+            SignatureServiceConfiguration config,
+            TubitakCreditMonitor creditMonitor,
+            Environment environment) {
         this.tspServerUrl = tspServerUrl;
-        this.tspUserId = tspUserId;
-        this.tspUserPassword = tspUserPassword;
-        this.isTubitakTsp = isTubitakTsp;
+        this.httpConnectionManager = httpConnectionManager;
+        this.httpReadTimeoutMs = config.getHttpReadTimeoutMs();
+        this.failureThreshold = failureThreshold;
+        this.ejectMillis = ejectMillis;
+        this.hedgeEnabled = hedgeEnabled;
+        this.hedgePercentile = hedgePercentile;
+        this.hedgeMinDelayMillis = hedgeMinDelayMillis;
+        this.creditMonitor = creditMonitor;
+
+        List<TimestampServer> list = new ArrayList<>();
+        if (StringUtils.hasText(tspServerUrl)) {
+            list.add(new TimestampServer("", tspServerUrl, tspUserId, tspUserPassword, isTubitakTsp));
+            // Ek sunucular ilk boş numaraya kadar okunur
+            for (int i = 2; i <= MAX_TSP_SERVERS; i++) {
+                String suffix = "_" + i;
+                String url = environment.getProperty("TS_SERVER_HOST" + suffix);
+                if (!StringUtils.hasText(url)) {
+                    break;
+                }
+                list.add(new TimestampServer(suffix, url,
+                    environment.getProperty("TS_USER_ID" + suffix, ""),
+                    environment.getProperty("TS_USER_PASSWORD" + suffix, ""),
+                    environment.getProperty("IS_TUBITAK_TSP" + suffix, Boolean.class, false)));
+            }
+        }
+        this.servers = Collections.unmodifiableList(list);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        TimestampSourcePool pool = tspSource;
+        if (pool != null) {
+            pool.shutdown();
+        }
     }
 
     /**
      * TSP kaynağını yapılandırır ve döndürür.
      * Yapılandırma bir kez yapılır ve cache'lenir.
      * 
-     * @return Yapılandırılmış OnlineTSPSource
+     * @return Yapılandırılmış sunucuların tamamını kullanan TSP kaynağı
      * @throws TimestampException Yapılandırma başarısız olursa
      */
-    public OnlineTSPSource getTspSource() {
+    public TSPSource getTspSource() {
         if (!StringUtils.hasText(tspServerUrl)) {
             throw new TimestampException(
                 "Timestamp sunucu URL'si yapılandırılmamış. TS_SERVER_HOST property'sini ayarlayın.");
@@ -64,29 +134,42 @@ public class TimestampConfigurationService {
                 return tspSource;
             }
 
-            try {
-                TimestampDataLoader dataLoader;
-                
-                if (isTubitakTsp) {
-                    dataLoader = configureTubitakAuthentication();
-                } else {
-                    dataLoader = new TimestampDataLoader();
-                    if (StringUtils.hasText(tspUserId)) {
-                        configureStandardAuthentication(dataLoader);
+            List<TimestampSourcePool.NamedSource> sources = new ArrayList<>();
+            for (TimestampServer server : servers) {
+                try {
+                    CommonsDataLoader dataLoader;
+
+                    if (server.tubitak) {
+                        dataLoader = configureTubitakAuthentication(server);
+                    } else {
+                        dataLoader = new PooledDataLoader(httpConnectionManager,
+                            PooledDataLoader.TIMESTAMP_QUERY_CONTENT_TYPE, httpReadTimeoutMs);
+                        if (StringUtils.hasText(server.userId)) {
+                            configureStandardAuthentication(server, dataLoader);
+                        }
                     }
-                }
 
-                tspSource = new OnlineTSPSource(tspServerUrl, dataLoader);
-                configured = true;
+                    TSPSource source = new OnlineTSPSource(server.url, dataLoader);
+                    if (server.tubitak) {
+                        source = creditMonitor.meter(source, server.url, isPolledAccount(server));
+                    }
+                    sources.add(new TimestampSourcePool.NamedSource(server.url, source));
 
-                LOGGER.info("Timestamp sunucusu yapılandırıldı: {} (Tip: {})", 
-                        tspServerUrl, isTubitakTsp ? "TÜBİTAK" : "Standart");
-                return tspSource;
+                    LOGGER.info("Timestamp sunucusu yapılandırıldı: {} (Tip: {})",
+                            server.url, server.tubitak ? "TÜBİTAK" : "Standart");
 
-            } catch (Exception e) {
-                throw new TimestampException(
-                    "Timestamp sunucusu yapılandırılamadı: " + tspServerUrl, e);
+                } catch (Exception e) {
+                    throw new TimestampException(
+                        "Timestamp sunucusu yapılandırılamadı: " + server.url, e);
+                }
             }
+
+            TimestampSourcePool pool = new TimestampSourcePool(sources, failureThreshold, ejectMillis,
+                hedgeEnabled, hedgePercentile, hedgeMinDelayMillis);
+            pool.setTaskDecorator(creditMonitor.propagateUsage());
+            tspSource = pool;
+            configured = true;
+            return tspSource;
         }
     }
 
@@ -97,25 +180,36 @@ public class TimestampConfigurationService {
         return StringUtils.hasText(tspServerUrl);
     }
 
+    /**
+     * Kontör bakiyesi birincil sunucunun ({@code TS_SERVER_HOST}) hesabından
+     * sorgulanır; aynı müşteri numarasını kullanan TÜBİTAK sunucuları bu bakiyeden harcar.
+     */
+    private boolean isPolledAccount(TimestampServer server) {
+        TimestampServer primary = servers.get(0);
+        return primary.tubitak && primary.userId.equals(server.userId);
+    }
+
     /**
      * TÜBİTAK zaman damgası sunucusu için DataLoader yapılandırır.
      */
-    private TimestampDataLoader configureTubitakAuthentication() {
-        if (!StringUtils.hasText(tspUserId)) {
+    private CommonsDataLoader configureTubitakAuthentication(TimestampServer server) {
+        if (!StringUtils.hasText(server.userId)) {
             throw new TimestampException(
-                "TÜBİTAK TSP için kullanıcı ID gerekli. TS_USER_ID ayarlayın.");
+                "TÜBİTAK TSP için kullanıcı ID gerekli. TS_USER_ID" + server.suffix + " ayarlayın.");
         }
         
-        if (!StringUtils.hasText(tspUserPassword)) {
+        if (!StringUtils.hasText(server.password)) {
             throw new TimestampException(
-                "TÜBİTAK TSP için parola gerekli. TS_USER_PASSWORD ayarlayın.");
+                "TÜBİTAK TSP için parola gerekli. TS_USER_PASSWORD" + server.suffix + " ayarlayın.");
         }
 
         try {
-            int customerId = Integer.parseInt(tspUserId);
+            int customerId = Integer.parseInt(server.userId);
             TubitakTimestampDataLoader dataLoader = new TubitakTimestampDataLoader(
+                    httpConnectionManager,
+                    httpReadTimeoutMs,
                     customerId,
-                    tspUserPassword
+                    server.password
             );
             
             LOGGER.info("TÜBİTAK timestamp yapılandırıldı. Kullanıcı ID: {}", customerId);
@@ -123,39 +217,103 @@ public class TimestampConfigurationService {
             
         } catch (NumberFormatException e) {
             throw new TimestampException(
-                "Kullanıcı ID sayısal olmalı: " + tspUserId, e);
+                "Kullanıcı ID sayısal olmalı: " + server.userId, e);
         }
     }
 
     /**
      * Standart HTTP Basic Auth yapılandırır.
      */
-    private void configureStandardAuthentication(TimestampDataLoader dataLoader) {
+    private void configureStandardAuthentication(TimestampServer server, CommonsDataLoader dataLoader) {
         try {
-            URI tspUri = URI.create(tspServerUrl);
+            URI tspUri = URI.create(server.url);
             int port = tspUri.getPort();
             
             if (port < 0) {
                 port = "https".equalsIgnoreCase(tspUri.getScheme()) ? 443 : 80;
             }
 
-            char[] password = StringUtils.hasText(tspUserPassword)
-                ? tspUserPassword.toCharArray()
+            char[] password = StringUtils.hasText(server.password)
+                ? server.password.toCharArray()
                 : new char[0];
 
             dataLoader.addAuthentication(
                 tspUri.getHost(), 
                 port, 
                 tspUri.getScheme(),
-                tspUserId, 
+                server.userId, 
                 password);
             dataLoader.setPreemptiveAuthentication(true);
 
-            LOGGER.debug("HTTP Basic Auth yapılandırıldı. Kullanıcı: {}", tspUserId);
+            LOGGER.debug("HTTP Basic Auth yapılandırıldı. Kullanıcı: {}", server.userId);
 
         } catch (Exception e) {
             LOGGER.warn("Kimlik doğrulama yapılandırılamadı: {}", e.getMessage());
         }
     }
-}
 
+    /**
+     * Sunucu metriklerini yayınlar. Aynı host üzerinde farklı yollar veya aynı URL
+     * farklı kullanıcılarla tanımlanabildiğinden her sunucu tam URL'i ({@code tsa})
+     * ve {@code TS_SERVER_HOST_n} numarasıyla ({@code index}) etiketlenir.
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (int i = 0; i < servers.size(); i++) {
+            final int index = i;
+            String tsa = servers.get(i).url;
+            String number = String.valueOf(i + 1);
+            FunctionCounter.builder("timestamp.tsa.requests", this,
+                    service -> service.poolValue(pool -> pool.getSuccessCount(index)))
+                .tag("tsa", tsa)
+                .tag("index", number)
+                .tag("result", "success")
+                .description("Zaman damgası sunucusu başarılı yanıtları")
+                .register(registry);
+            FunctionCounter.builder("timestamp.tsa.requests", this,
+                    service -> service.poolValue(pool -> pool.getFailureCount(index)))
+                .tag("tsa", tsa)
+                .tag("index", number)
+                .tag("result", "failure")
+                .description("Zaman damgası sunucusu hataları")
+                .register(registry);
+            Gauge.builder("timestamp.tsa.latency.ms", this,
+                    service -> service.poolValue(pool -> pool.getLatencyMillis(index)))
+                .tag("tsa", tsa)
+                .tag("index", number)
+                .description("Zaman damgası sunucusu ortalama gecikmesi (EWMA)")
+                .register(registry);
+            Gauge.builder("timestamp.tsa.ejected", this,
+                    service -> service.poolValue(pool -> pool.isEjected(index) ? 1 : 0))
+                .tag("tsa", tsa)
+                .tag("index", number)
+                .description("Sunucu hata nedeniyle devre dışıysa 1")
+                .register(registry);
+        }
+        FunctionCounter.builder("timestamp.tsa.hedged", this,
+                service -> service.poolValue(TimestampSourcePool::getHedgedCount))
+            .description("İkinci sunucuya da gönderilen (hedge) zaman damgası istekleri")
+            .register(registry);
+    }
+
+    private double poolValue(ToDoubleFunction<TimestampSourcePool> metric) {
+        TimestampSourcePool pool = tspSource;
+        return pool == null ? 0 : metric.applyAsDouble(pool);
+    }
+
+    private static final class TimestampServer {
+        private final String suffix;
+        private final String url;
+        private final String userId;
+        private final String password;
+        private final boolean tubitak;
+
+        private TimestampServer(String suffix, String url, String userId, String password, boolean tubitak) {
+            this.suffix = suffix;
+            this.url = url;
+            this.userId = userId;
+            this.password = password;
+            this.tubitak = tubitak;
+        }
+    }
+}
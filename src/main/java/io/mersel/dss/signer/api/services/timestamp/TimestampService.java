@@ -4,12 +4,13 @@ import eu.europa.esig.dss.enumerations.DigestAlgorithm;
 import eu.europa.esig.dss.enumerations.EncryptionAlgorithm;
 import eu.europa.esig.dss.enumerations.SignatureAlgorithm;
 import eu.europa.esig.dss.model.TimestampBinary;
-import eu.europa.esig.dss.service.tsp.OnlineTSPSource;
+import eu.europa.esig.dss.spi.x509.tsp.TSPSource;
 import io.mersel.dss.signer.api.dtos.TimestampRequestDto;
 import io.mersel.dss.signer.api.dtos.TimestampResponseDto;
 import io.mersel.dss.signer.api.dtos.TimestampValidationDto;
 import io.mersel.dss.signer.api.dtos.TimestampValidationResponseDto;
 import io.mersel.dss.signer.api.exceptions.TimestampException;
+import io.mersel.dss.signer.api.services.timestamp.tubitak.TubitakCreditMonitor;
 import org.bouncycastle.cert.X509CertificateHolder;
 import org.bouncycastle.cms.CMSSignedData;
 import org.bouncycastle.tsp.TimeStampResponse;
@@ -39,9 +40,12 @@ public class TimestampService {
     }
 
     private final TimestampConfigurationService timestampConfigurationService;
+    private final TubitakCreditMonitor creditMonitor;
 
-    public TimestampService(TimestampConfigurationService timestampConfigurationService) {
+    public TimestampService(TimestampConfigurationService timestampConfigurationService,
+                            TubitakCreditMonitor creditMonitor) {
         this.timestampConfigurationService = timestampConfigurationService;
+        this.creditMonitor = creditMonitor;
     }
 
     /**
@@ -85,7 +89,8 @@ public class TimestampService {
             byte[] digest = computeDigest(documentData, digestAlgorithm);
             
             // TSP source'u al
-            OnlineTSPSource tspSource = timestampConfigurationService.getTspSource();
+            TSPSource tspSource = creditMonitor.track(timestampConfigurationService.getTspSource(),
+                "timestamp", "binary");
             
             // DSS ile timestamp al
             TimestampBinary timestampBinary = tspSource.getTimeStampResponse(digestAlgorithm, digest);
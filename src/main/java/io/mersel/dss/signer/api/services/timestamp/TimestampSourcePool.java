@@ -0,0 +1,377 @@
+package io.mersel.dss.signer.api.services.timestamp;
+
+import eu.europa.esig.dss.enumerations.DigestAlgorithm;
+import eu.europa.esig.dss.model.TimestampBinary;
+import eu.europa.esig.dss.spi.x509.tsp.TSPSource;
+import io.mersel.dss.signer.api.exceptions.TimestampException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.task.TaskDecorator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Birden fazla zaman damgası sunucusunu (TSA) tek bir {@link TSPSource} olarak sunar.
+ * <p>
+ * İstekler sunucuların ölçülen gecikmesiyle ters orantılı ağırlıklarla
+ * (smooth weighted round-robin) dağıtılır. Hata veren sunucu atlanıp sıradakine
+ * geçilir; art arda {@code failureThreshold} kez hata veren sunucu
+ * {@code ejectMillis} süresince devre dışı kalır. Hedging açıksa ilk sunucu
+ * kendi gecikme yüzdeliğini ({@code hedgePercentile}) aştığında aynı istek ikinci
+ * sunucuya da gönderilir ve ilk gelen yanıt kullanılır.
+ * <p>
+ * Not: Hedge edilen istekler her iki sunucuda da kontör tüketir.
+ */
+public class TimestampSourcePool implements TSPSource {
+
+    private static final long serialVersionUID = 1L;
+    private static final Logger LOGGER = LoggerFactory.getLogger(TimestampSourcePool.class);
+
+    private static final double EWMA_ALPHA = 0.2;
+    private static final long INITIAL_LATENCY_MILLIS = 500;
+    private static final long MAX_LATENCY_MILLIS = 60_000;
+    private static final int LATENCY_WINDOW = 128;
+    private static final int MIN_HEDGE_SAMPLES = 16;
+    private static final long NOT_EJECTED = Long.MIN_VALUE;
+
+    private final transient List<Endpoint> endpoints;
+    private final int failureThreshold;
+    private final long ejectMillis;
+    private final boolean hedgeEnabled;
+    private final double hedgePercentile;
+    private final long hedgeMinDelayMillis;
+    private final transient ExecutorService hedgeExecutor;
+    private final transient LongSupplier nanoClock;
+
+    private final AtomicLong hedgedRequests = new AtomicLong();
+
+    private transient volatile TaskDecorator taskDecorator;
+
+    /**
+     * @param sources             Sunucu adı ve TSP kaynağı çiftleri (sıra önceliği belirlemez)
+     * @param failureThreshold    Sunucuyu devre dışı bırakan art arda hata sayısı
+     * @param ejectMillis         Devre dışı kalma süresi
+     * @param hedgeEnabled        Yavaş yanıtlarda ikinci sunucuya istek gönderilsin mi
+     * @param hedgePercentile     Hedge gecikmesi olarak kullanılacak yüzdelik (0-1)
+     * @param hedgeMinDelayMillis Hedge öncesi beklenecek en kısa süre
+     */
+    public TimestampSourcePool(List<NamedSource> sources, int failureThreshold, long ejectMillis,
+                               boolean hedgeEnabled, double hedgePercentile, long hedgeMinDelayMillis) {
+        this(sources, failureThreshold, ejectMillis, hedgeEnabled, hedgePercentile, hedgeMinDelayMillis,
+            System::nanoTime);
+    }
+
+    /**
+     * Gecikme ölçümü ve devre dışı kalma süresi için verilen saati kullanır (test'ler için).
+     *
+     * @param nanoClock {@link System#nanoTime()} gibi monoton nanosaniye saati
+     */
+    TimestampSourcePool(List<NamedSource> sources, int failureThreshold, long ejectMillis,
+                        boolean hedgeEnabled, double hedgePercentile, long hedgeMinDelayMillis,
+                        LongSupplier nanoClock) {
+        if (sources == null || sources.isEmpty()) {
+            throw new IllegalArgumentException("En az bir zaman damgası sunucusu gerekli");
+        }
+        List<Endpoint> list = new ArrayList<>();
+        for (NamedSource source : sources) {
+            list.add(new Endpoint(source.name, source.source));
+        }
+        this.endpoints = Collections.unmodifiableList(list);
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.ejectMillis = ejectMillis;
+        this.hedgeEnabled = hedgeEnabled && list.size() > 1;
+        this.hedgePercentile = Math.min(1.0, Math.max(0.0, hedgePercentile));
+        this.hedgeMinDelayMillis = hedgeMinDelayMillis;
+        this.nanoClock = nanoClock;
+
+        if (this.hedgeEnabled) {
+            AtomicInteger threadCounter = new AtomicInteger();
+            this.hedgeExecutor = Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "tsa-hedge-" + threadCounter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        } else {
+            this.hedgeExecutor = null;
+        }
+    }
+
+    @Override
+    public TimestampBinary getTimeStampResponse(DigestAlgorithm digestAlgorithm, byte[] digest) {
+        List<Endpoint> candidates = order();
+        if (hedgeEnabled && candidates.get(0).sampleCount() >= MIN_HEDGE_SAMPLES) {
+            return hedged(candidates, digestAlgorithm, digest);
+        }
+
+        RuntimeException last = null;
+        for (Endpoint endpoint : candidates) {
+            try {
+                return call(endpoint, digestAlgorithm, digest);
+            } catch (RuntimeException e) {
+                last = e;
+                LOGGER.warn("Zaman damgası sunucusu yanıt vermedi, sıradaki deneniyor: {} - {}",
+                    endpoint.name, e.getMessage());
+            }
+        }
+        throw failure(last);
+    }
+
+    /**
+     * Hedge iş parçacıklarında çalışan istekleri sarar; çağıran iş parçacığındaki
+     * bağlamın (ör. kontör harcamasının imzalama yolu) taşınması için kullanılır.
+     */
+    public void setTaskDecorator(TaskDecorator taskDecorator) {
+        this.taskDecorator = taskDecorator;
+    }
+
+    /**
+     * Hedge iş parçacıklarını durdurur.
+     */
+    public void shutdown() {
+        if (hedgeExecutor != null) {
+            hedgeExecutor.shutdownNow();
+        }
+    }
+
+    public int getEndpointCount() {
+        return endpoints.size();
+    }
+
+    public String getEndpointName(int index) {
+        return endpoints.get(index).name;
+    }
+
+    /**
+     * Sunucunun üstel ağırlıklı ortalama gecikmesi (ms).
+     */
+    public double getLatencyMillis(int index) {
+        return endpoints.get(index).ewmaMillis;
+    }
+
+    public long getSuccessCount(int index) {
+        return endpoints.get(index).successes.get();
+    }
+
+    public long getFailureCount(int index) {
+        return endpoints.get(index).failures.get();
+    }
+
+    /**
+     * Sunucu şu an devre dışıysa {@code true}.
+     */
+    public boolean isEjected(int index) {
+        return endpoints.get(index).ejectedUntil > nanoClock.getAsLong();
+    }
+
+    public long getHedgedCount() {
+        return hedgedRequests.get();
+    }
+
+    private TimestampBinary hedged(List<Endpoint> candidates, DigestAlgorithm digestAlgorithm, byte[] digest) {
+        TaskDecorator decorator = taskDecorator;
+        Executor executor = decorator == null
+            ? hedgeExecutor
+            : task -> hedgeExecutor.execute(decorator.decorate(task));
+        CompletionService<TimestampBinary> completion = new ExecutorCompletionService<>(executor);
+        List<Future<TimestampBinary>> futures = new ArrayList<>();
+        long hedgeDelay = Math.max(hedgeMinDelayMillis, candidates.get(0).percentile(hedgePercentile));
+
+        int next = 0;
+        int outstanding = 0;
+        boolean hedgeSent = false;
+        RuntimeException last = null;
+        try {
+            futures.add(submit(completion, candidates.get(next++), digestAlgorithm, digest));
+            outstanding++;
+
+            while (outstanding > 0) {
+                Future<TimestampBinary> done = hedgeSent || next >= candidates.size()
+                    ? completion.take()
+                    : completion.poll(hedgeDelay, TimeUnit.MILLISECONDS);
+
+                if (done == null) {
+                    // İlk sunucu gecikme yüzdeliğini aştı; aynı isteği ikinci sunucuya da gönder
+                    hedgeSent = true;
+                    hedgedRequests.incrementAndGet();
+                    LOGGER.debug("Zaman damgası isteği {} ms sonra {} sunucusuna da gönderiliyor",
+                        hedgeDelay, candidates.get(next).name);
+                    futures.add(submit(completion, candidates.get(next++), digestAlgorithm, digest));
+                    outstanding++;
+                    continue;
+                }
+
+                outstanding--;
+                try {
+                    return done.get();
+                } catch (ExecutionException e) {
+                    last = e.getCause() instanceof RuntimeException
+                        ? (RuntimeException) e.getCause()
+                        : new TimestampException(e.getCause().getMessage(), e.getCause());
+                    LOGGER.warn("Zaman damgası sunucusu yanıt vermedi: {}", last.getMessage());
+                    if (outstanding == 0 && next < candidates.size()) {
+                        futures.add(submit(completion, candidates.get(next++), digestAlgorithm, digest));
+                        outstanding++;
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TimestampException("Zaman damgası isteği kesildi", e);
+        } finally {
+            for (Future<TimestampBinary> future : futures) {
+                future.cancel(true);
+            }
+        }
+        throw failure(last);
+    }
+
+    private Future<TimestampBinary> submit(CompletionService<TimestampBinary> completion, Endpoint endpoint,
+                                           DigestAlgorithm digestAlgorithm, byte[] digest) {
+        return completion.submit(() -> call(endpoint, digestAlgorithm, digest));
+    }
+
+    private TimestampBinary call(Endpoint endpoint, DigestAlgorithm digestAlgorithm, byte[] digest) {
+        long start = nanoClock.getAsLong();
+        try {
+            TimestampBinary response = endpoint.source.getTimeStampResponse(digestAlgorithm, digest);
+            endpoint.recordSuccess(TimeUnit.NANOSECONDS.toMillis(nanoClock.getAsLong() - start));
+            return response;
+        } catch (RuntimeException e) {
+            // Hedge yarışını kaybedip iptal edilen istek sunucu hatası sayılmaz
+            if (!Thread.currentThread().isInterrupted()) {
+                endpoint.recordFailure();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Bu istek için deneme sırasını belirler: ağırlıklı round-robin ile seçilen
+     * sunucu, ardından ağırlığa göre diğer sağlıklı sunucular, en son devre dışı olanlar.
+     */
+    private List<Endpoint> order() {
+        long now = nanoClock.getAsLong();
+        List<Endpoint> healthy = new ArrayList<>();
+        List<Endpoint> ejected = new ArrayList<>();
+        for (Endpoint endpoint : endpoints) {
+            (endpoint.ejectedUntil > now ? ejected : healthy).add(endpoint);
+        }
+
+        List<Endpoint> ordered = new ArrayList<>(endpoints.size());
+        if (!healthy.isEmpty()) {
+            Endpoint selected;
+            synchronized (this) {
+                selected = null;
+                double total = 0;
+                for (Endpoint endpoint : healthy) {
+                    double weight = endpoint.weight();
+                    endpoint.currentWeight += weight;
+                    total += weight;
+                    if (selected == null || endpoint.currentWeight > selected.currentWeight) {
+                        selected = endpoint;
+                    }
+                }
+                selected.currentWeight -= total;
+            }
+            ordered.add(selected);
+            healthy.remove(selected);
+            healthy.sort(Comparator.comparingDouble(Endpoint::weight).reversed());
+            ordered.addAll(healthy);
+        }
+        ejected.sort(Comparator.comparingLong(endpoint -> endpoint.ejectedUntil));
+        ordered.addAll(ejected);
+        return ordered;
+    }
+
+    private TimestampException failure(RuntimeException last) {
+        return new TimestampException("Hiçbir zaman damgası sunucusundan yanıt alınamadı"
+            + (last != null ? ": " + last.getMessage() : ""), last);
+    }
+
+    /**
+     * Pool'a eklenecek isimlendirilmiş TSP kaynağı.
+     */
+    public static final class NamedSource {
+        private final String name;
+        private final TSPSource source;
+
+        public NamedSource(String name, TSPSource source) {
+            this.name = name;
+            this.source = source;
+        }
+    }
+
+    private final class Endpoint {
+        private final String name;
+        private final TSPSource source;
+        private final long[] samples = new long[LATENCY_WINDOW];
+        private final AtomicLong successes = new AtomicLong();
+        private final AtomicLong failures = new AtomicLong();
+
+        private int sampleIndex;
+        private int sampleCount;
+        private int consecutiveFailures;
+        private double currentWeight;
+        private volatile double ewmaMillis = INITIAL_LATENCY_MILLIS;
+        private volatile long ejectedUntil = NOT_EJECTED;
+
+        private Endpoint(String name, TSPSource source) {
+            this.name = name;
+            this.source = source;
+        }
+
+        private double weight() {
+            return 1000.0 / Math.max(1.0, ewmaMillis);
+        }
+
+        private synchronized void recordSuccess(long millis) {
+            successes.incrementAndGet();
+            consecutiveFailures = 0;
+            ejectedUntil = NOT_EJECTED;
+            ewmaMillis = sampleCount == 0 ? millis : EWMA_ALPHA * millis + (1 - EWMA_ALPHA) * ewmaMillis;
+            samples[sampleIndex] = millis;
+            sampleIndex = (sampleIndex + 1) % LATENCY_WINDOW;
+            sampleCount = Math.min(sampleCount + 1, LATENCY_WINDOW);
+        }
+
+        private synchronized void recordFailure() {
+            failures.incrementAndGet();
+            // Hata veren sunucunun payı düşürülür; başarılı yanıtla tekrar toparlanır
+            ewmaMillis = Math.min(MAX_LATENCY_MILLIS, Math.max(INITIAL_LATENCY_MILLIS, ewmaMillis * 2));
+            if (++consecutiveFailures >= failureThreshold) {
+                ejectedUntil = nanoClock.getAsLong() + TimeUnit.MILLISECONDS.toNanos(ejectMillis);
+                consecutiveFailures = 0;
+                LOGGER.warn("Zaman damgası sunucusu {} ms süreyle devre dışı bırakıldı: {}", ejectMillis, name);
+            }
+        }
+
+        private synchronized int sampleCount() {
+            return sampleCount;
+        }
+
+        private synchronized long percentile(double percentile) {
+            if (sampleCount == 0) {
+                return INITIAL_LATENCY_MILLIS;
+            }
+            long[] sorted = Arrays.copyOf(samples, sampleCount);
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(percentile * sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+        }
+    }
+}
@@ -0,0 +1,337 @@
+package io.mersel.dss.signer.api.services.timestamp.tubitak;
+
+import eu.europa.esig.dss.model.TimestampBinary;
+import eu.europa.esig.dss.spi.x509.tsp.TSPSource;
+import io.mersel.dss.signer.api.dtos.TubitakCreditResponseDto;
+import io.mersel.dss.signer.api.enums.TimestampType;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * TÜBİTAK zaman damgası kontörünü arka planda izleyen servis.
+ * <p>
+ * Bakiye periyodik olarak sorgulanıp cache'lenir; iki sorgu arasında imzalama
+ * yollarının harcadığı kontör düşülerek tahmini bakiye tutulur. Harcama,
+ * zaman damgası havuzundaki her TÜBİTAK sunucusunda ayrı ayrı sayılır (hedge
+ * edilen istek her iki sunucuda da harcama yapar); imzalama yolu ve belge
+ * tipi {@link #track} ile isteğe eklenir. Son bir saatteki bakiye değişiminden
+ * kontörün ne zaman biteceği tahmin edilir. Bakiye {@code lowThreshold}
+ * altına düştüğünde zorunlu olmayan zaman damgaları (ESC, CONTENT) atlanır;
+ * böylece kontör e-Arşiv Raporu (XAdES-A) ve imza zaman damgaları için korunur.
+ */
+@Service
+public class TubitakCreditMonitor implements MeterBinder {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TubitakCreditMonitor.class);
+
+    private static final long RATE_WINDOW_MILLIS = 60 * 60 * 1000L;
+    private static final String UNKNOWN = "unknown";
+
+    /**
+     * İsteği başlatan imzalama yolu ve belge tipi; hedge iş parçacıklarına
+     * {@link #propagateUsage} ile taşınır.
+     */
+    private static final ThreadLocal<String[]> USAGE = new ThreadLocal<>();
+
+    private final TubitakCreditService creditService;
+    private final long lowThreshold;
+    private final long cacheMaxAgeMillis;
+
+    private final AtomicLong consumed = new AtomicLong();
+    private final Map<String, AtomicLong> consumedByKey = new ConcurrentHashMap<>();
+    private final Map<TimestampType, AtomicLong> throttled = new ConcurrentHashMap<>();
+    private final Deque<CreditSnapshot> history = new ArrayDeque<>();
+
+    private volatile CreditSnapshot snapshot;
+    private volatile MeterRegistry registry;
+
+    public TubitakCreditMonitor(TubitakCreditService creditService,
+                                @Value("${TUBITAK_CREDIT_LOW_THRESHOLD:500}") long lowThreshold,
+                                @Value("${TUBITAK_CREDIT_CACHE_MAX_AGE_MS:60000}") long cacheMaxAgeMillis) {
+        this.creditService = creditService;
+        this.lowThreshold = lowThreshold;
+        this.cacheMaxAgeMillis = cacheMaxAgeMillis;
+    }
+
+    /**
+     * Kontör bakiyesini TÜBİTAK'tan sorgular ve cache'i günceller.
+     */
+    @Scheduled(fixedDelayString = "${TUBITAK_CREDIT_POLL_INTERVAL_MS:300000}", initialDelay = 0)
+    public void poll() {
+        if (!creditService.isAvailable()) {
+            return;
+        }
+        try {
+            refresh();
+        } catch (Exception e) {
+            LOGGER.warn("TÜBİTAK kontör bakiyesi sorgulanamadı: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Kontör bilgisini döndürür. Cache {@code cacheMaxAgeMillis} süresinden
+     * eskiyse TÜBİTAK'a sorulur; aksi halde tahmini bakiye döner.
+     */
+    public TubitakCreditResponseDto getCredit() {
+        CreditSnapshot current = snapshot;
+        if (current == null || System.currentTimeMillis() - current.polledAt > cacheMaxAgeMillis) {
+            current = refresh();
+        }
+        return new TubitakCreditResponseDto(estimatedBalance(current), current.response.getCustomerId(),
+            current.response.getMessage());
+    }
+
+    public boolean isAvailable() {
+        return creditService.isAvailable();
+    }
+
+    /**
+     * Verilen TSP kaynağı üzerinden yapılan isteklere imzalama yolu ve belge
+     * tipini ekler. Harcama burada değil, havuzdaki TÜBİTAK sunucusunu saran
+     * {@link #meter} kaynağında sayılır; böylece TÜBİTAK olmayan sunuculardan
+     * alınan damgalar sayılmaz, hedge edilen istekler her sunucuda ayrı sayılır.
+     *
+     * @param endpoint     Harcamayı yapan imzalama yolu (ör. cades, xades, timestamp)
+     * @param documentType Belge veya zaman damgası tipi
+     */
+    public TSPSource track(TSPSource source, String endpoint, String documentType) {
+        return (digestAlgorithm, digest) -> {
+            String[] previous = USAGE.get();
+            USAGE.set(new String[] {endpoint, documentType});
+            try {
+                return source.getTimeStampResponse(digestAlgorithm, digest);
+            } finally {
+                restoreUsage(previous);
+            }
+        };
+    }
+
+    /**
+     * Tek bir TÜBİTAK zaman damgası sunucusunu, her başarılı yanıtı kontör
+     * harcaması olarak sayan bir kaynakla sarar.
+     *
+     * @param tsa           Sunucu URL'i (metrik etiketi)
+     * @param polledAccount Sunucu, bakiyesi sorgulanan hesapla kullanılıyorsa {@code true};
+     *                      yalnızca bu sunucunun harcaması tahmini bakiyeden düşülür
+     */
+    public TSPSource meter(TSPSource source, String tsa, boolean polledAccount) {
+        return (digestAlgorithm, digest) -> {
+            TimestampBinary response = source.getTimeStampResponse(digestAlgorithm, digest);
+            String[] usage = USAGE.get();
+            recordUsage(tsa, usage != null ? usage[0] : UNKNOWN, usage != null ? usage[1] : UNKNOWN,
+                polledAccount);
+            return response;
+        };
+    }
+
+    /**
+     * Çağıran iş parçacığındaki imzalama yolu ve belge tipini verilen göreve
+     * taşır; zaman damgası havuzunun hedge iş parçacıkları için kullanılır.
+     */
+    public TaskDecorator propagateUsage() {
+        return task -> {
+            String[] usage = USAGE.get();
+            return () -> {
+                String[] previous = USAGE.get();
+                USAGE.set(usage);
+                try {
+                    task.run();
+                } finally {
+                    restoreUsage(previous);
+                }
+            };
+        };
+    }
+
+    /**
+     * Bakiye düşükken zorunlu olmayan zaman damgası tiplerinin atlanıp
+     * atlanmayacağını döndürür. Atlanan her istek sayılır.
+     */
+    public boolean shouldThrottle(TimestampType type) {
+        if (type != TimestampType.ESC && type != TimestampType.CONTENT) {
+            return false;
+        }
+        CreditSnapshot current = snapshot;
+        if (current == null || estimatedBalance(current) >= lowThreshold) {
+            return false;
+        }
+        throttled.computeIfAbsent(type, key -> {
+            AtomicLong counter = new AtomicLong();
+            MeterRegistry meterRegistry = registry;
+            if (meterRegistry != null) {
+                registerThrottledCounter(meterRegistry, key, counter);
+            }
+            return counter;
+        }).incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Tahmini kalan kontör; henüz sorgulanmadıysa -1.
+     */
+    public long getEstimatedBalance() {
+        CreditSnapshot current = snapshot;
+        return current == null ? -1 : estimatedBalance(current);
+    }
+
+    /**
+     * Mevcut harcama hızıyla kontörün bitmesine kalan tahmini süre (saniye).
+     * Harcama ölçülemiyorsa {@link Double#NaN}.
+     */
+    public double getSecondsToExhaustion() {
+        CreditSnapshot current = snapshot;
+        if (current == null) {
+            return Double.NaN;
+        }
+        double perMillis = consumptionPerMillis(current);
+        return perMillis > 0 ? estimatedBalance(current) / perMillis / 1000.0 : Double.NaN;
+    }
+
+    public long getConsumedCount() {
+        return consumed.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.registry = registry;
+        Gauge.builder("tubitak.credit.balance", this, monitor -> {
+                long balance = monitor.getEstimatedBalance();
+                return balance < 0 ? Double.NaN : balance;
+            })
+            .description("Tahmini kalan TÜBİTAK kontörü")
+            .register(registry);
+        Gauge.builder("tubitak.credit.exhaustion.seconds", this, TubitakCreditMonitor::getSecondsToExhaustion)
+            .description("Mevcut harcama hızıyla kontörün bitmesine kalan tahmini süre")
+            .register(registry);
+        Gauge.builder("tubitak.credit.low", this, monitor -> {
+                long balance = monitor.getEstimatedBalance();
+                return balance >= 0 && balance < lowThreshold ? 1 : 0;
+            })
+            .description("Bakiye eşik altındaysa 1; ESC ve CONTENT zaman damgaları atlanır")
+            .register(registry);
+        for (Map.Entry<String, AtomicLong> entry : consumedByKey.entrySet()) {
+            registerConsumedCounter(registry, entry.getKey(), entry.getValue());
+        }
+        for (Map.Entry<TimestampType, AtomicLong> entry : throttled.entrySet()) {
+            registerThrottledCounter(registry, entry.getKey(), entry.getValue());
+        }
+    }
+
+    private CreditSnapshot refresh() {
+        TubitakCreditResponseDto response = creditService.checkCredit();
+        CreditSnapshot current = new CreditSnapshot(response, System.currentTimeMillis(), consumed.get());
+        synchronized (history) {
+            history.addLast(current);
+            while (history.size() > 2 && current.polledAt - history.peekFirst().polledAt > RATE_WINDOW_MILLIS) {
+                history.removeFirst();
+            }
+        }
+        snapshot = current;
+
+        if (current.balance() < lowThreshold) {
+            LOGGER.warn("TÜBİTAK kontörü eşik altında: {} (eşik: {}). ESC ve CONTENT zaman damgaları atlanacak.",
+                current.balance(), lowThreshold);
+        } else {
+            LOGGER.debug("TÜBİTAK kontör bakiyesi: {}", current.balance());
+        }
+        return current;
+    }
+
+    private void recordUsage(String tsa, String endpoint, String documentType, boolean polledAccount) {
+        if (polledAccount) {
+            consumed.incrementAndGet();
+        }
+        String key = endpoint + "|" + documentType + "|" + tsa;
+        consumedByKey.computeIfAbsent(key, k -> {
+            AtomicLong counter = new AtomicLong();
+            MeterRegistry meterRegistry = registry;
+            if (meterRegistry != null) {
+                registerConsumedCounter(meterRegistry, k, counter);
+            }
+            return counter;
+        }).incrementAndGet();
+    }
+
+    private static void restoreUsage(String[] previous) {
+        if (previous != null) {
+            USAGE.set(previous);
+        } else {
+            USAGE.remove();
+        }
+    }
+
+    private long estimatedBalance(CreditSnapshot current) {
+        return Math.max(0, current.balance() - (consumed.get() - current.consumedAtPoll));
+    }
+
+    /**
+     * Pencere içindeki bakiye düşüşünden (birden fazla sunucu aynı hesabı
+     * kullanıyorsa tümünün harcaması), düşüş yoksa yerel sayaçtan hesaplanır.
+     */
+    private double consumptionPerMillis(CreditSnapshot current) {
+        CreditSnapshot oldest;
+        synchronized (history) {
+            oldest = history.peekFirst();
+        }
+        if (oldest == null || oldest == current) {
+            return 0;
+        }
+        long elapsed = current.polledAt - oldest.polledAt;
+        if (elapsed <= 0) {
+            return 0;
+        }
+        long polledDrop = oldest.balance() - current.balance();
+        if (polledDrop > 0) {
+            return (double) polledDrop / elapsed;
+        }
+        long localConsumed = consumed.get() - oldest.consumedAtPoll;
+        return (double) localConsumed / Math.max(1, System.currentTimeMillis() - oldest.polledAt);
+    }
+
+    private void registerConsumedCounter(MeterRegistry meterRegistry, String key, AtomicLong counter) {
+        String[] parts = key.split("\\|", 3);
+        FunctionCounter.builder("tubitak.credit.consumed", counter, AtomicLong::get)
+            .tag("endpoint", parts[0])
+            .tag("document_type", parts[1])
+            .tag("tsa", parts[2])
+            .description("İmzalama yollarının harcadığı TÜBİTAK kontörü")
+            .register(meterRegistry);
+    }
+
+    private void registerThrottledCounter(MeterRegistry meterRegistry, TimestampType type, AtomicLong counter) {
+        FunctionCounter.builder("tubitak.credit.throttled", counter, AtomicLong::get)
+            .tag("timestamp_type", type.getValue())
+            .description("Düşük kontör nedeniyle atlanan zaman damgaları")
+            .register(meterRegistry);
+    }
+
+    private static final class CreditSnapshot {
+        private final TubitakCreditResponseDto response;
+        private final long polledAt;
+        private final long consumedAtPoll;
+
+        private CreditSnapshot(TubitakCreditResponseDto response, long polledAt, long consumedAtPoll) {
+            this.response = response;
+            this.polledAt = polledAt;
+            this.consumedAtPoll = consumedAtPoll;
+        }
+
+        private long balance() {
+            return response.getRemainingCredit() != null ? response.getRemainingCredit() : 0L;
+        }
+    }
+}
@@ -2,6 +2,10 @@ package io.mersel.dss.signer.api.services.timestamp.tubitak;
 
 import io.mersel.dss.signer.api.dtos.TubitakCreditResponseDto;
 import io.mersel.dss.signer.api.exceptions.TimestampException;
+import org.apache.hc.client5.http.classic.methods.HttpPost;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.core5.http.io.entity.ByteArrayEntity;
+import org.apache.hc.core5.http.io.entity.EntityUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -26,16 +30,19 @@ public class TubitakCreditService {
     private final String tspUserId;
     private final String tspUserPassword;
     private final boolean isTubitakTsp;
+    private final CloseableHttpClient httpClient;
 
     public TubitakCreditService(
             @Value("${TS_SERVER_HOST:}") String tspServerUrl,
             @Value("${TS_USER_ID:}") String tspUserId,
             @Value("${TS_USER_PASSWORD:}") String tspUserPassword,
-            @Value("${IS_TUBITAK_TSP:false}") boolean isTubitakTsp) {
+            @Value("${IS_TUBITAK_TSP:false}") boolean isTubitakTsp,
+            CloseableHttpClient httpClient) {
         this.tspServerUrl = tspServerUrl;
         this.tspUserId = tspUserId;
         this.tspUserPassword = tspUserPassword;
         this.isTubitakTsp = isTubitakTsp;
+        this.httpClient = httpClient;
     }
 
     /**
@@ -116,8 +123,7 @@ public class TubitakCreditService {
      * Kontör sorgulama HTTP request'i gönderir.
      */
     private String sendCreditRequest(String authToken, int customerId, long timestamp) throws Exception {
-        org.apache.http.client.methods.HttpPost httpPost =
-                new org.apache.http.client.methods.HttpPost(tspServerUrl);
+        HttpPost httpPost = new HttpPost(tspServerUrl);
 
         httpPost.setHeader("Content-Type", "application/timestamp-query");
         httpPost.setHeader(USER_AGENT_HEADER, TUBITAK_USER_AGENT);
@@ -125,17 +131,13 @@ public class TubitakCreditService {
         httpPost.setHeader(CREDIT_REQ_HEADER, String.valueOf(customerId));
         httpPost.setHeader(CREDIT_REQ_TIME_HEADER, String.valueOf(timestamp));
 
-        httpPost.setEntity(new org.apache.http.entity.ByteArrayEntity(new byte[0]));
+        httpPost.setEntity(new ByteArrayEntity(new byte[0], null));
 
         LOGGER.debug("TÜBİTAK kontör sorgulama request gönderiliyor: {}", tspServerUrl);
 
-        org.apache.http.impl.client.CloseableHttpClient httpClient =
-                org.apache.http.impl.client.HttpClients.createDefault();
-
-        try (org.apache.http.client.methods.CloseableHttpResponse response =
-                     httpClient.execute(httpPost)) {
-
-            int statusCode = response.getStatusLine().getStatusCode();
+        // Paylaşılan havuzlu istemci kullanılır; yanıt işlendikten sonra bağlantı havuza döner
+        return httpClient.execute(httpPost, response -> {
+            int statusCode = response.getCode();
             LOGGER.debug("HTTP response status: {}", statusCode);
 
             if (statusCode != 200) {
@@ -143,16 +145,12 @@ public class TubitakCreditService {
             }
 
             // Response body'yi parse et
-            byte[] responseBytes = org.apache.http.util.EntityUtils.toByteArray(
-                    response.getEntity());
+            byte[] responseBytes = EntityUtils.toByteArray(response.getEntity());
 
             // TÜBİTAK kontör bilgisini response'dan çıkar
             // Response ASN.1 formatında olabilir veya özel format olabilir
             return parseResponseForCredit(responseBytes);
-
-        } finally {
-            httpClient.close();
-        }
+        });
     }
 
     /**
@@ -1,6 +1,11 @@
 package io.mersel.dss.signer.api.services.timestamp.tubitak;
 
-import eu.europa.esig.dss.service.http.commons.TimestampDataLoader;
+import io.mersel.dss.signer.api.services.http.PooledDataLoader;
+import org.apache.hc.client5.http.classic.methods.HttpPost;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.io.HttpClientConnectionManager;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.io.entity.ByteArrayEntity;
 import org.bouncycastle.asn1.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -16,7 +21,9 @@ import java.util.Map;
  * Timestamp request'lerine TÜBİTAK'ın gerektirdiği kimlik doğrulama
  * bilgilerini otomatik olarak ekler.
  */
-public class TubitakTimestampDataLoader extends TimestampDataLoader {
+public class TubitakTimestampDataLoader extends PooledDataLoader {
+
+    private static final long serialVersionUID = 1L;
 
     private static final Logger LOGGER = LoggerFactory.getLogger(TubitakTimestampDataLoader.class);
 
@@ -30,11 +37,14 @@ public class TubitakTimestampDataLoader extends TimestampDataLoader {
     /**
      * TÜBİTAK timestamp data loader oluşturur.
      *
-     * @param customerId       Müşteri numarası
-     * @param customerPassword Müşteri parolası
+     * @param connectionManager Paylaşılan bağlantı havuzu
+     * @param readTimeoutMs     Yanıt zaman aşımı
+     * @param customerId        Müşteri numarası
+     * @param customerPassword  Müşteri parolası
      */
-    public TubitakTimestampDataLoader(int customerId, String customerPassword) {
-        super();
+    public TubitakTimestampDataLoader(HttpClientConnectionManager connectionManager, int readTimeoutMs,
+                                      int customerId, String customerPassword) {
+        super(connectionManager, TIMESTAMP_QUERY_CONTENT_TYPE, readTimeoutMs);
         this.customerId = customerId;
         this.customerPassword = customerPassword;
         
@@ -76,40 +86,26 @@ public class TubitakTimestampDataLoader extends TimestampDataLoader {
      * Özel header'lar ile HTTP POST isteği gönderir.
      */
     private byte[] postWithHeaders(String url, byte[] content, Map<String, String> customHeaders) {
+        HttpPost httpPost = null;
+        CloseableHttpClient httpClient = null;
         try {
-            org.apache.http.client.methods.HttpPost httpPost = 
-                    new org.apache.http.client.methods.HttpPost(url);
-            
-            httpPost.setHeader("Content-Type", "application/timestamp-query");
+            httpPost = new HttpPost(url);
             httpPost.setHeader("Accept", "application/timestamp-reply");
             for (Map.Entry<String, String> entry : customHeaders.entrySet()) {
                 httpPost.setHeader(entry.getKey(), entry.getValue());
             }
-            
-            httpPost.setEntity(new org.apache.http.entity.ByteArrayEntity(content));
-            
-            org.apache.http.impl.client.CloseableHttpClient httpClient = 
-                    org.apache.http.impl.client.HttpClients.createDefault();
-            
-            try (org.apache.http.client.methods.CloseableHttpResponse response = 
-                    httpClient.execute(httpPost)) {
-                
-                int statusCode = response.getStatusLine().getStatusCode();
-                LOGGER.debug("HTTP response status: {}", statusCode);
-                
-                if (statusCode != 200) {
-                    throw new RuntimeException("HTTP error: " + statusCode);
-                }
-                
-                return org.apache.http.util.EntityUtils.toByteArray(
-                        response.getEntity());
-            } finally {
-                httpClient.close();
-            }
-            
+            httpPost.setEntity(new ByteArrayEntity(content,
+                    ContentType.create(TIMESTAMP_QUERY_CONTENT_TYPE)));
+
+            // Paylaşılan havuzdan bağlantı alınır; yanıt 200 değilse DSS istisna fırlatır
+            httpClient = getHttpClient(url);
+            return execute(httpClient, httpPost);
+
         } catch (Exception e) {
             LOGGER.error("HTTP request hatası: {}", e.getMessage());
             throw new RuntimeException("Timestamp HTTP request başarısız", e);
+        } finally {
+            closeQuietly(httpPost, httpClient);
         }
     }
 
@@ -1,22 +1,38 @@
 package io.mersel.dss.signer.api.services.util;
 
 import io.mersel.dss.signer.api.exceptions.SignatureException;
-import org.apache.commons.io.IOUtils;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 import java.util.zip.ZipOutputStream;
 
 /**
  * Sıkıştırma işlemleri (ZIP) için servis.
+ * Toplu açmada girdiler toplam byte sınırıyla okunur (ZIP bombası koruması).
+ * Girdi başına sınır opsiyoneldir; varsayılan olarak kapalıdır ({@code 0}),
+ * böylece /v1/xadessign ZIP girdisi önceki gibi boyut sınırı olmadan açılır.
  */
 @Service
 public class CompressionService {
 
+    private static final int BUFFER_SIZE = 8192;
+
+    private final long maxEntryBytes;
+    private final long maxTotalBytes;
+
+    public CompressionService(@Value("${ZIP_MAX_ENTRY_BYTES:0}") long maxEntryBytes,
+                              @Value("${ZIP_MAX_TOTAL_BYTES:209715200}") long maxTotalBytes) {
+        this.maxEntryBytes = maxEntryBytes > 0 ? maxEntryBytes : Long.MAX_VALUE;
+        this.maxTotalBytes = maxTotalBytes;
+    }
+
     /**
      * Byte dizisini belirtilen girdi adıyla ZIP formatında sıkıştırır.
      * 
@@ -50,12 +66,88 @@ public class CompressionService {
         try (ZipInputStream zipInputStream = new ZipInputStream(inputStream)) {
             ZipEntry entry = zipInputStream.getNextEntry();
             if (entry != null) {
-                return IOUtils.toByteArray(zipInputStream);
+                return readEntry(zipInputStream, maxEntryBytes);
             }
             throw new SignatureException("ZIP arşivi girdi içermiyor");
         } catch (IOException e) {
             throw new SignatureException("ZIP içeriği çıkarılamadı", e);
         }
     }
-}
 
+    /**
+     * ZIP input stream'deki tüm dosya girdilerini sırasıyla çıkarır.
+     * Dizin girdileri atlanır, girdi adlarından yol bilgisi temizlenir.
+     * Aynı adlı girdiler sıra numarasıyla, mevcut adlarla çakışmayacak şekilde yeniden adlandırılır.
+     * 
+     * @param inputStream ZIP input stream
+     * @param maxEntries Kabul edilen en fazla girdi sayısı
+     * @return Girdi adı - içerik eşlemesi (arşivdeki sırayla)
+     */
+    public Map<String, byte[]> unzipAllEntries(InputStream inputStream, int maxEntries) {
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        long totalBytes = 0;
+        try (ZipInputStream zipInputStream = new ZipInputStream(inputStream)) {
+            ZipEntry entry;
+            while ((entry = zipInputStream.getNextEntry()) != null) {
+                if (entry.isDirectory()) {
+                    continue;
+                }
+                if (entries.size() >= maxEntries) {
+                    throw new SignatureException("ZIP arşivi en fazla " + maxEntries + " girdi içerebilir");
+                }
+                String name = entry.getName();
+                name = name.substring(Math.max(name.lastIndexOf('/'), name.lastIndexOf('\\')) + 1);
+                name = uniqueName(entries, name);
+
+                byte[] content = readEntry(zipInputStream,
+                    Math.min(maxEntryBytes, maxTotalBytes - totalBytes));
+                totalBytes += content.length;
+                entries.put(name, content);
+            }
+            return entries;
+        } catch (IOException e) {
+            throw new SignatureException("ZIP içeriği çıkarılamadı", e);
+        }
+    }
+
+    /**
+     * Girdiyi en fazla {@code limit} byte okuyarak açar; sınır aşılırsa reddeder.
+     * Girdi başlığındaki boyut bilgisine güvenilmez, açılan byte'lar sayılır.
+     */
+    private byte[] readEntry(InputStream zipInputStream, long limit) throws IOException {
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        long read = 0;
+        int count;
+        while ((count = zipInputStream.read(buffer)) != -1) {
+            read += count;
+            if (read > limit) {
+                throw new SignatureException("ZIP girdisi izin verilen boyutu aşıyor (girdi başına en fazla "
+                    + (maxEntryBytes == Long.MAX_VALUE ? "sınırsız" : String.valueOf(maxEntryBytes))
+                    + ", toplam en fazla " + maxTotalBytes + " byte)");
+            }
+            content.write(buffer, 0, count);
+        }
+        return content.toByteArray();
+    }
+
+    /**
+     * Ad eşlemede yoksa olduğu gibi, varsa eşlemede bulunmayan ilk
+     * {@code <sıra>-<ad>} biçimiyle döndürür.
+     *
+     * @param entries Mevcut girdiler
+     * @param name    İstenen girdi adı
+     * @return Eşlemede bulunmayan girdi adı
+     */
+    public static String uniqueName(Map<String, ?> entries, String name) {
+        if (!entries.containsKey(name)) {
+            return name;
+        }
+        int index = entries.size();
+        String candidate;
+        do {
+            candidate = index++ + "-" + name;
+        } while (entries.containsKey(candidate));
+        return candidate;
+    }
+}
@@ -1,8 +1,20 @@
 package io.mersel.dss.signer.api.util;
 
+import org.bouncycastle.asn1.ASN1Encoding;
+import org.bouncycastle.asn1.ASN1ObjectIdentifier;
+import org.bouncycastle.asn1.DERNull;
+import org.bouncycastle.asn1.nist.NISTObjectIdentifiers;
+import org.bouncycastle.asn1.oiw.OIWObjectIdentifiers;
+import org.bouncycastle.asn1.x509.AlgorithmIdentifier;
+import org.bouncycastle.asn1.x509.DigestInfo;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.bouncycastle.operator.DigestCalculatorProvider;
+import org.bouncycastle.operator.OperatorCreationException;
+import org.bouncycastle.operator.jcajce.JcaDigestCalculatorProviderBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.security.PrivateKey;
 import java.security.interfaces.ECPrivateKey;
 import java.security.interfaces.RSAPrivateKey;
@@ -14,6 +26,8 @@ public final class CryptoUtils {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(CryptoUtils.class);
 
+    private static final DigestCalculatorProvider DIGEST_CALCULATOR_PROVIDER = createDigestCalculatorProvider();
+
     private CryptoUtils() {
         // Utility class - instantiation engellendi
     }
@@ -93,5 +107,123 @@ public final class CryptoUtils {
             return "SHA256withRSA";
         }
     }
-}
 
+    /**
+     * Private key tipine ve verilen hash algoritmasına göre signature algoritmasını
+     * döndürür (örn: SHA-384 ve RSA key için "SHA384withRSA").
+     *
+     * @param privateKey    İmzalama için kullanılacak private key
+     * @param hashAlgorithm Hash algoritması (SHA-1, SHA-256, SHA-384, SHA-512)
+     */
+    public static String getSignatureAlgorithm(PrivateKey privateKey, String hashAlgorithm) {
+        String defaultAlgorithm = getSignatureAlgorithm(privateKey);
+        return normalizeHashAlgorithm(hashAlgorithm) + defaultAlgorithm.substring(defaultAlgorithm.indexOf("with"));
+    }
+
+    /**
+     * CMS imzaları için paylaşılan digest hesaplayıcı sağlayıcısı.
+     * Provider (BouncyCastle) sabitlenmiştir; digest'ler global provider
+     * listesinde aranmaz. Döndürülen nesne thread-safe'dir.
+     */
+    public static DigestCalculatorProvider digestCalculatorProvider() {
+        return DIGEST_CALCULATOR_PROVIDER;
+    }
+
+    private static DigestCalculatorProvider createDigestCalculatorProvider() {
+        try {
+            return new JcaDigestCalculatorProviderBuilder()
+                .setProvider(new BouncyCastleProvider())
+                .build();
+        } catch (OperatorCreationException e) {
+            throw new IllegalStateException("Digest hesaplayıcı sağlayıcısı oluşturulamadı", e);
+        }
+    }
+
+    /**
+     * Hash algoritması adını (SHA-256, sha256, SHA256) "SHA256" biçimine getirir.
+     */
+    public static String normalizeHashAlgorithm(String hashAlgorithm) {
+        return hashAlgorithm == null ? "SHA256" : hashAlgorithm.toUpperCase().replace("-", "").trim();
+    }
+
+    /**
+     * Özeti PKCS#1 v1.5 imzası için DER kodlu DigestInfo yapısına sarar.
+     * Sonuç {@code NONEwithRSA} ile imzalandığında {@code SHA*withRSA} ile
+     * aynı imza elde edilir.
+     *
+     * @param hashAlgorithm Özetin algoritması (SHA-1, SHA-256, SHA-384, SHA-512)
+     * @param digest        Özet değeri
+     * @throws IllegalArgumentException Algoritma desteklenmiyorsa veya özet uzunluğu uymuyorsa
+     */
+    public static byte[] encodeDigestInfo(String hashAlgorithm, byte[] digest) {
+        checkDigestLength(hashAlgorithm, digest);
+        ASN1ObjectIdentifier oid;
+        switch (normalizeHashAlgorithm(hashAlgorithm)) {
+            case "SHA1":
+                oid = OIWObjectIdentifiers.idSHA1;
+                break;
+            case "SHA384":
+                oid = NISTObjectIdentifiers.id_sha384;
+                break;
+            case "SHA512":
+                oid = NISTObjectIdentifiers.id_sha512;
+                break;
+            default:
+                oid = NISTObjectIdentifiers.id_sha256;
+                break;
+        }
+        try {
+            return new DigestInfo(new AlgorithmIdentifier(oid, DERNull.INSTANCE), digest)
+                .getEncoded(ASN1Encoding.DER);
+        } catch (IOException e) {
+            throw new IllegalStateException("DigestInfo kodlanamadı", e);
+        }
+    }
+
+    /**
+     * Özetin uzunluğunun hash algoritmasına uyduğunu doğrular.
+     *
+     * @throws IllegalArgumentException Algoritma desteklenmiyorsa veya uzunluk uymuyorsa
+     */
+    public static void checkDigestLength(String hashAlgorithm, byte[] digest) {
+        int length;
+        switch (normalizeHashAlgorithm(hashAlgorithm)) {
+            case "SHA1":
+                length = 20;
+                break;
+            case "SHA256":
+                length = 32;
+                break;
+            case "SHA384":
+                length = 48;
+                break;
+            case "SHA512":
+                length = 64;
+                break;
+            default:
+                throw new IllegalArgumentException("Desteklenmeyen hash algoritması: " + hashAlgorithm);
+        }
+        if (digest.length != length) {
+            throw new IllegalArgumentException(hashAlgorithm + " özeti " + length
+                + " byte olmalıdır, gelen: " + digest.length);
+        }
+    }
+
+    /**
+     * İstemci tarafında hesaplanmış özet için ham imza algoritması:
+     * RSA anahtarlarında {@code NONEwithRSA} (DigestInfo ile), EC anahtarlarında
+     * {@code NONEwithECDSA}.
+     *
+     * @throws IllegalArgumentException Anahtar tipi desteklenmiyorsa
+     */
+    public static String getRawSignatureAlgorithm(PrivateKey privateKey) {
+        String algorithm = privateKey.getAlgorithm();
+        if (privateKey instanceof RSAPrivateKey || "RSA".equalsIgnoreCase(algorithm)) {
+            return "NONEwithRSA";
+        }
+        if (privateKey instanceof ECPrivateKey || "EC".equalsIgnoreCase(algorithm) || "ECDSA".equalsIgnoreCase(algorithm)) {
+            return "NONEwithECDSA";
+        }
+        throw new IllegalArgumentException("Ham imza için desteklenmeyen anahtar tipi: " + algorithm);
+    }
+}
@@ -12,8 +12,6 @@ import org.slf4j.LoggerFactory;
 import org.w3c.dom.Document;
 import org.xml.sax.SAXException;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
@@ -31,13 +29,7 @@ public class Utilities {
     private static final Logger LOGGER = LoggerFactory.getLogger(Utilities.class);
 
     public static Document LoadXMLFromInputStream(InputStream inputStream) throws ParserConfigurationException, SAXException, IOException {
-
-        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-
-        factory.setNamespaceAware(true);
-        DocumentBuilder builder = factory.newDocumentBuilder();
-
-        return builder.parse(inputStream);
+        return XmlPools.parse(inputStream, true);
     }
 
     public static byte[] ZipBytes(String filename, byte[] input) throws IOException {
@@ -0,0 +1,265 @@
+package io.mersel.dss.signer.api.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.w3c.dom.Document;
+import org.w3c.dom.DocumentType;
+import org.w3c.dom.Node;
+import org.xml.sax.SAXException;
+
+import javax.xml.XMLConstants;
+import javax.xml.crypto.dsig.XMLSignatureFactory;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerConfigurationException;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Uygulama genelinde paylaşılan XML altyapısı.
+ * <p>
+ * Factory'ler güvenli işleme ayarlarıyla bir kez yapılandırılır: harici
+ * entity/DTD erişimi kapalıdır, iç DTD (internal subset) kabul edilir ancak
+ * entity referansları genişletilmez. {@link #parse} entity bildirimi içeren
+ * belgeleri reddeder.
+ * {@link DocumentBuilder}, {@link Transformer} ve {@link XMLSignatureFactory}
+ * örnekleri thread-safe olmadığından thread başına tutulur ve tekrar
+ * kullanılır. Her erişim
+ * hit (mevcut örnek) veya miss (yeni örnek) olarak sayılır; sayaçlar
+ * {@code XmlMetricsConfiguration} ile Micrometer'a aktarılır.
+ */
+public final class XmlPools {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(XmlPools.class);
+
+    public static final String DOCUMENT_BUILDER = "document-builder";
+    public static final String TRANSFORMER = "transformer";
+    public static final String SIGNATURE_FACTORY = "signature-factory";
+
+    private static final AtomicLong DOCUMENT_BUILDER_HITS = new AtomicLong();
+    private static final AtomicLong DOCUMENT_BUILDER_MISSES = new AtomicLong();
+    private static final AtomicLong TRANSFORMER_HITS = new AtomicLong();
+    private static final AtomicLong TRANSFORMER_MISSES = new AtomicLong();
+    private static final AtomicLong SIGNATURE_FACTORY_HITS = new AtomicLong();
+    private static final AtomicLong SIGNATURE_FACTORY_MISSES = new AtomicLong();
+
+    private static final DocumentBuilderFactory NAMESPACE_AWARE_FACTORY = newDocumentBuilderFactory(true);
+    private static final DocumentBuilderFactory PLAIN_FACTORY = newDocumentBuilderFactory(false);
+    private static final TransformerFactory TRANSFORMER_FACTORY = newTransformerFactory();
+
+    private static final PerThread<DocumentBuilder> NAMESPACE_AWARE_BUILDERS =
+            new PerThread<>(DOCUMENT_BUILDER, () -> newDocumentBuilder(NAMESPACE_AWARE_FACTORY));
+    private static final PerThread<DocumentBuilder> PLAIN_BUILDERS =
+            new PerThread<>(DOCUMENT_BUILDER, () -> newDocumentBuilder(PLAIN_FACTORY));
+    private static final PerThread<Transformer> TRANSFORMERS =
+            new PerThread<>(TRANSFORMER, XmlPools::newTransformer);
+    private static final PerThread<XMLSignatureFactory> SIGNATURE_FACTORIES =
+            new PerThread<>(SIGNATURE_FACTORY, () -> XMLSignatureFactory.getInstance("DOM"));
+
+    private XmlPools() {
+    }
+
+    /**
+     * Thread'e ait, namespace-aware {@link DocumentBuilder} döndürür.
+     * Örnek sıfırlanmış olarak verilir; çağıran thread dışına aktarılmamalıdır.
+     */
+    public static DocumentBuilder documentBuilder() {
+        return documentBuilder(true);
+    }
+
+    /**
+     * Thread'e ait {@link DocumentBuilder} döndürür.
+     *
+     * @param namespaceAware Namespace desteğinin açık olup olmayacağı
+     */
+    public static DocumentBuilder documentBuilder(boolean namespaceAware) {
+        DocumentBuilder builder = (namespaceAware ? NAMESPACE_AWARE_BUILDERS : PLAIN_BUILDERS).get();
+        builder.reset();
+        return builder;
+    }
+
+    /**
+     * Akışı thread'e ait parser ile ayrıştırır.
+     * <p>
+     * İç DTD'deki eleman ve öznitelik bildirimleri kabul edilir. Entity
+     * referansları genişletilmediğinden, tanımı serileştirmede kaybolacak
+     * entity bildirimi içeren belgeler açık bir hata ile reddedilir.
+     *
+     * @param inputStream    Ayrıştırılacak XML
+     * @param namespaceAware Namespace desteğinin açık olup olmayacağı
+     * @throws SAXException Belge geçersizse veya entity bildirimi içeriyorsa
+     */
+    public static Document parse(InputStream inputStream, boolean namespaceAware) throws SAXException, IOException {
+        Document document = documentBuilder(namespaceAware).parse(inputStream);
+        DocumentType doctype = document.getDoctype();
+        if (doctype != null && doctype.getEntities().getLength() > 0) {
+            throw new SAXException("DOCTYPE içinde ENTITY bildirimi desteklenmiyor");
+        }
+        return document;
+    }
+
+    /**
+     * Thread'e ait kimlik (identity) {@link Transformer} döndürür. Çıktı kodlaması UTF-8'dir.
+     */
+    public static Transformer transformer() {
+        return TRANSFORMERS.get();
+    }
+
+    /**
+     * Thread'e ait DOM {@link XMLSignatureFactory} döndürür.
+     */
+    public static XMLSignatureFactory signatureFactory() {
+        return SIGNATURE_FACTORIES.get();
+    }
+
+    /**
+     * Node'u thread'e ait transformer ile UTF-8 byte dizisine dönüştürür.
+     *
+     * @param node                  Serialize edilecek node
+     * @param omitXmlDeclaration    XML bildiriminin yazılıp yazılmayacağı
+     */
+    public static byte[] toBytes(Node node, boolean omitXmlDeclaration) throws TransformerException {
+        Transformer transformer = transformer();
+        transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, omitXmlDeclaration ? "yes" : "no");
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        transformer.transform(new DOMSource(node), new StreamResult(outputStream));
+        return outputStream.toByteArray();
+    }
+
+    /**
+     * Bileşen için mevcut thread örneğinin tekrar kullanıldığı erişim sayısı.
+     */
+    public static long hits(String component) {
+        return hitCounter(component).get();
+    }
+
+    /**
+     * Bileşen için yeni örnek oluşturulan erişim sayısı.
+     */
+    public static long misses(String component) {
+        return missCounter(component).get();
+    }
+
+    private static AtomicLong hitCounter(String component) {
+        switch (component) {
+            case DOCUMENT_BUILDER:
+                return DOCUMENT_BUILDER_HITS;
+            case TRANSFORMER:
+                return TRANSFORMER_HITS;
+            case SIGNATURE_FACTORY:
+                return SIGNATURE_FACTORY_HITS;
+            default:
+                throw new IllegalArgumentException("Bilinmeyen XML bileşeni: " + component);
+        }
+    }
+
+    private static AtomicLong missCounter(String component) {
+        switch (component) {
+            case DOCUMENT_BUILDER:
+                return DOCUMENT_BUILDER_MISSES;
+            case TRANSFORMER:
+                return TRANSFORMER_MISSES;
+            case SIGNATURE_FACTORY:
+                return SIGNATURE_FACTORY_MISSES;
+            default:
+                throw new IllegalArgumentException("Bilinmeyen XML bileşeni: " + component);
+        }
+    }
+
+    private static DocumentBuilderFactory newDocumentBuilderFactory(boolean namespaceAware) {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(namespaceAware);
+        factory.setXIncludeAware(false);
+        // İç DTD kabul edilir; entity referansları içerikleri okunmadan düğüm olarak kalır
+        factory.setExpandEntityReferences(false);
+        try {
+            factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+            factory.setFeature("http://xml.org/sax/features/external-general-entities", false);
+            factory.setFeature("http://xml.org/sax/features/external-parameter-entities", false);
+            factory.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
+            factory.setAttribute(XMLConstants.ACCESS_EXTERNAL_DTD, "");
+            factory.setAttribute(XMLConstants.ACCESS_EXTERNAL_SCHEMA, "");
+        } catch (ParserConfigurationException e) {
+            throw new IllegalStateException("DocumentBuilderFactory güvenli işleme için yapılandırılamadı", e);
+        }
+        return factory;
+    }
+
+    private static TransformerFactory newTransformerFactory() {
+        TransformerFactory factory = TransformerFactory.newInstance();
+        try {
+            factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+        } catch (TransformerConfigurationException e) {
+            throw new IllegalStateException("TransformerFactory güvenli işleme için yapılandırılamadı", e);
+        }
+        try {
+            factory.setAttribute(XMLConstants.ACCESS_EXTERNAL_DTD, "");
+            factory.setAttribute(XMLConstants.ACCESS_EXTERNAL_STYLESHEET, "");
+        } catch (IllegalArgumentException e) {
+            LOGGER.debug("TransformerFactory harici erişim kısıtlarını desteklemiyor: {}", e.getMessage());
+        }
+        return factory;
+    }
+
+    private static DocumentBuilder newDocumentBuilder(DocumentBuilderFactory factory) {
+        try {
+            // DocumentBuilderFactory thread-safe değildir; oluşturma anında kilitlenir
+            synchronized (factory) {
+                return factory.newDocumentBuilder();
+            }
+        } catch (ParserConfigurationException e) {
+            throw new IllegalStateException("DocumentBuilder oluşturulamadı", e);
+        }
+    }
+
+    private static Transformer newTransformer() {
+        try {
+            Transformer transformer;
+            synchronized (TRANSFORMER_FACTORY) {
+                transformer = TRANSFORMER_FACTORY.newTransformer();
+            }
+            transformer.setOutputProperty(OutputKeys.ENCODING, "UTF-8");
+            return transformer;
+        } catch (TransformerConfigurationException e) {
+            throw new IllegalStateException("Transformer oluşturulamadı", e);
+        }
+    }
+
+    /**
+     * Thread başına tek örnek tutan ve hit/miss sayan havuz.
+     */
+    private static final class PerThread<T> {
+
+        private final String component;
+        private final Supplier<T> factory;
+        private final ThreadLocal<T> instances = new ThreadLocal<>();
+
+        PerThread(String component, Supplier<T> factory) {
+            this.component = component;
+            this.factory = factory;
+        }
+
+        T get() {
+            T instance = instances.get();
+            if (instance != null) {
+                hitCounter(component).incrementAndGet();
+                return instance;
+            }
+            missCounter(component).incrementAndGet();
+            instance = factory.get();
+            instances.set(instance);
+            return instance;
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package io.mersel.dss.signer.api;
+
+import eu.europa.esig.dss.model.x509.CertificateToken;
+import eu.europa.esig.dss.spi.x509.revocation.ocsp.OCSPToken;
+import io.mersel.dss.signer.api.models.SigningKey;
+import io.mersel.dss.signer.api.models.SigningMaterial;
+import io.mersel.dss.signer.api.services.keystore.KeyStoreProvider;
+import io.mersel.dss.signer.api.services.keystore.SigningKeyRegistry;
+import io.mersel.dss.signer.api.services.keystore.SigningSessionPool;
+import io.mersel.dss.signer.api.services.revocation.CachingOCSPSource;
+import io.mersel.dss.signer.api.services.revocation.SigningCertificateRevocationMonitor;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.BasicConstraints;
+import org.bouncycastle.asn1.x509.CRLDistPoint;
+import org.bouncycastle.asn1.x509.CRLReason;
+import org.bouncycastle.asn1.x509.DistributionPoint;
+import org.bouncycastle.asn1.x509.DistributionPointName;
+import org.bouncycastle.asn1.x509.ExtendedKeyUsage;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.asn1.x509.GeneralName;
+import org.bouncycastle.asn1.x509.GeneralNames;
+import org.bouncycastle.asn1.x509.KeyPurposeId;
+import org.bouncycastle.asn1.x509.KeyUsage;
+import org.bouncycastle.cert.X509CertificateHolder;
+import org.bouncycastle.cert.X509v2CRLBuilder;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
+import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
+import org.bouncycastle.cert.ocsp.BasicOCSPResp;
+import org.bouncycastle.cert.ocsp.BasicOCSPRespBuilder;
+import org.bouncycastle.cert.ocsp.CertificateID;
+import org.bouncycastle.cert.ocsp.CertificateStatus;
+import org.bouncycastle.cert.ocsp.RespID;
+import org.bouncycastle.operator.DigestCalculator;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.bouncycastle.operator.jcajce.JcaDigestCalculatorProviderBuilder;
+
+import java.math.BigInteger;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.KeyStore;
+import java.security.PrivateKey;
+import java.security.cert.X509Certificate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+
+/**
+ * Test'ler için ortak PKI: kendinden imzalı imzalama materyalleri, HSM yerine
+ * yazılım anahtarıyla çalışan oturum havuzu ve anahtar kaydı, iptal kaynağı
+ * test'leri için de kök sertifika, onun imzaladığı son kullanıcı sertifikası ve
+ * bu sertifikalara ait OCSP yanıtları ile CRL'ler üretir.
+ * Son kullanıcı sertifikasının CRL dağıtım noktası {@link #CRL_URL}'dir.
+ */
+public final class TestPki {
+
+    public static final String CRL_URL = "http://crl.test/ca.crl";
+
+    private static final X500Name CA_NAME = new X500Name("CN=Test CA");
+    private static final X500Name LEAF_NAME = new X500Name("CN=Test Signer");
+
+    public final KeyPair caKeys;
+    public final KeyPair leafKeys;
+    public final CertificateToken ca;
+    public final CertificateToken leaf;
+
+    private TestPki(KeyPair caKeys, KeyPair leafKeys, CertificateToken ca, CertificateToken leaf) {
+        this.caKeys = caKeys;
+        this.leafKeys = leafKeys;
+        this.ca = ca;
+        this.leaf = leaf;
+    }
+
+    public static TestPki create() throws Exception {
+        KeyPair caKeys = generateKeyPair("RSA", 2048);
+        KeyPair leafKeys = generateKeyPair("RSA", 2048);
+        JcaX509v3CertificateBuilder caBuilder = new JcaX509v3CertificateBuilder(CA_NAME, BigInteger.ONE,
+            minutesFromNow(-60), minutesFromNow(60), CA_NAME, caKeys.getPublic());
+        caBuilder.addExtension(Extension.basicConstraints, true, new BasicConstraints(true));
+        caBuilder.addExtension(Extension.keyUsage, true, new KeyUsage(KeyUsage.keyCertSign | KeyUsage.cRLSign));
+        CertificateToken ca = new CertificateToken(certificate(caBuilder, caKeys.getPrivate(), "SHA256withRSA"));
+
+        DistributionPointName crlLocation = new DistributionPointName(new GeneralNames(
+            new GeneralName(GeneralName.uniformResourceIdentifier, CRL_URL)));
+        JcaX509v3CertificateBuilder leafBuilder = new JcaX509v3CertificateBuilder(CA_NAME, BigInteger.valueOf(2),
+            minutesFromNow(-60), minutesFromNow(60), LEAF_NAME, leafKeys.getPublic());
+        leafBuilder.addExtension(Extension.cRLDistributionPoints, false,
+            new CRLDistPoint(new DistributionPoint[]{new DistributionPoint(crlLocation, null, null)}));
+        CertificateToken leaf = new CertificateToken(
+            certificate(leafBuilder, caKeys.getPrivate(), "SHA256withRSA"));
+
+        return new TestPki(caKeys, leafKeys, ca, leaf);
+    }
+
+    /**
+     * RSA-2048 anahtarlı, kendinden imzalı "CN=Test" imzalama materyali.
+     */
+    public static SigningMaterial signingMaterial() throws Exception {
+        return signingMaterial("CN=Test", BigInteger.ONE);
+    }
+
+    /**
+     * Verilen konu ve seri numaralı, RSA-2048 anahtarlı kendinden imzalı imzalama materyali.
+     */
+    public static SigningMaterial signingMaterial(String subject, BigInteger serialNumber) throws Exception {
+        return signingMaterial(subject, serialNumber, "RSA", 2048, "SHA256withRSA", false);
+    }
+
+    /**
+     * Verilen anahtar algoritması ve boyutuyla kendinden imzalı "CN=Test" imzalama materyali.
+     *
+     * @param signatureAlgorithm Sertifikanın imzalandığı algoritma (ör. {@code SHA256withECDSA})
+     */
+    public static SigningMaterial signingMaterial(String keyAlgorithm, int keySize, String signatureAlgorithm)
+            throws Exception {
+        return signingMaterial("CN=Test", BigInteger.ONE, keyAlgorithm, keySize, signatureAlgorithm, false);
+    }
+
+    /**
+     * Kritik timeStamping genişletilmiş anahtar kullanımı taşıyan, yerel TSA için imzalama materyali.
+     */
+    public static SigningMaterial timestampingMaterial(String subject) throws Exception {
+        return signingMaterial(subject, BigInteger.ONE, "RSA", 2048, "SHA256withRSA", true);
+    }
+
+    /**
+     * Keystore yüklemeyen sağlayıcı; imzalama oturumları verilen materyalle açılır.
+     */
+    public static KeyStoreProvider unsupportedProvider() {
+        return new KeyStoreProvider() {
+            @Override
+            public KeyStore loadKeyStore(char[] pin) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public String getType() {
+                return "PKCS12";
+            }
+        };
+    }
+
+    /**
+     * Materyalin anahtarıyla imzalayan, HSM yerine yazılım anahtarlı oturum havuzu.
+     */
+    public static SigningSessionPool sessionPool(SigningMaterial material, int sessionCount) {
+        return new SigningSessionPool(unsupportedProvider(), new char[0], "test", material, sessionCount, 1000);
+    }
+
+    /**
+     * İptal durumunu hiç yenilemeyen, dolayısıyla imzalamayı reddetmeyen izleyici.
+     */
+    public static SigningCertificateRevocationMonitor disabledRevocationMonitor(SigningMaterial material) {
+        return new SigningCertificateRevocationMonitor(material, null, null, false, 0);
+    }
+
+    /**
+     * Yalnızca varsayılan anahtarı tanımlı, verilen havuzla imzalayan anahtar kaydı.
+     */
+    public static SigningKeyRegistry registry(SigningMaterial material, SigningSessionPool pool) {
+        return registry(material, pool, disabledRevocationMonitor(material));
+    }
+
+    /**
+     * Yalnızca varsayılan anahtarı tanımlı, imzalamadan önce verilen iptal izleyicisini sorgulayan anahtar kaydı.
+     */
+    public static SigningKeyRegistry registry(SigningMaterial material, SigningSessionPool pool,
+                                              SigningCertificateRevocationMonitor revocationMonitor) {
+        return new SigningKeyRegistry(null, event -> { }, revocationMonitor,
+            new SigningKeyRegistry.Definition(SigningSessionPool.DEFAULT_KEY_NAME, unsupportedProvider(),
+                new char[0], null, null, pool.getSessionCount()),
+            new SigningKey(SigningSessionPool.DEFAULT_KEY_NAME, "test", new char[0], material),
+            pool, Collections.<SigningKeyRegistry.Definition>emptyList(), 60000, 1, 1000);
+    }
+
+    /**
+     * JCA sağlayıcılarının imza için kabul etmediği anahtar.
+     */
+    public static PrivateKey unusableKey() {
+        return new PrivateKey() {
+            @Override
+            public String getAlgorithm() {
+                return "RSA";
+            }
+
+            @Override
+            public String getFormat() {
+                return null;
+            }
+
+            @Override
+            public byte[] getEncoded() {
+                return null;
+            }
+        };
+    }
+
+    /**
+     * Son kullanıcı sertifikası, özel anahtarı ve kök sertifikadan oluşan imzalama materyali.
+     */
+    public SigningMaterial leafMaterial() {
+        return new SigningMaterial(leafKeys.getPrivate(), leaf.getCertificate(),
+            Arrays.asList(leaf.getCertificate(), ca.getCertificate()));
+    }
+
+    /**
+     * Materyalin zincirini OCSP'nin verilen durumla yanıtladığı ve bu durumu
+     * bir kez yenilemiş iptal izleyicisi.
+     *
+     * @param status {@link CertificateStatus#GOOD} veya {@code RevokedStatus}
+     */
+    public SigningCertificateRevocationMonitor revocationMonitor(SigningMaterial material, CertificateStatus status)
+            throws Exception {
+        OCSPToken token = ocspToken(status, minutesFromNow(0), minutesFromNow(60));
+        SigningCertificateRevocationMonitor monitor = new SigningCertificateRevocationMonitor(material,
+            new CachingOCSPSource((certificate, issuer) -> token, 10, 5 * 60000L), null, true, 10 * 60000L);
+        monitor.refresh();
+        return monitor;
+    }
+
+    /**
+     * Son kullanıcı sertifikası için kök sertifikanın imzaladığı OCSP yanıtı üretir.
+     *
+     * @param status {@link CertificateStatus#GOOD} veya {@code RevokedStatus}
+     */
+    public OCSPToken ocspToken(CertificateStatus status, Date thisUpdate, Date nextUpdate) throws Exception {
+        DigestCalculator sha1 = new JcaDigestCalculatorProviderBuilder().build().get(CertificateID.HASH_SHA1);
+        CertificateID certificateId = new CertificateID(sha1,
+            new X509CertificateHolder(ca.getEncoded()), leaf.getSerialNumber());
+
+        BasicOCSPRespBuilder builder = new BasicOCSPRespBuilder(new RespID(CA_NAME));
+        builder.addResponse(certificateId, status, thisUpdate, nextUpdate);
+        BasicOCSPResp response = builder.build(
+            new JcaContentSignerBuilder("SHA256withRSA").build(caKeys.getPrivate()), null, thisUpdate);
+        return new OCSPToken(response, response.getResponses()[0], leaf, ca);
+    }
+
+    /**
+     * Kök sertifikanın imzaladığı, verilen seri numaralarını iptal edilmiş
+     * listeleyen DER kodlu CRL üretir.
+     */
+    public byte[] crl(Date thisUpdate, Date nextUpdate, BigInteger... revokedSerials) throws Exception {
+        X509v2CRLBuilder builder = new X509v2CRLBuilder(CA_NAME, thisUpdate);
+        builder.setNextUpdate(nextUpdate);
+        for (BigInteger serial : revokedSerials) {
+            builder.addCRLEntry(serial, thisUpdate, CRLReason.keyCompromise);
+        }
+        return builder.build(new JcaContentSignerBuilder("SHA256withRSA").build(caKeys.getPrivate())).getEncoded();
+    }
+
+    public static Date minutesFromNow(long minutes) {
+        return new Date(System.currentTimeMillis() + minutes * 60000L);
+    }
+
+    private static SigningMaterial signingMaterial(String subject, BigInteger serialNumber, String keyAlgorithm,
+                                                   int keySize, String signatureAlgorithm, boolean timestamping)
+            throws Exception {
+        KeyPair keyPair = generateKeyPair(keyAlgorithm, keySize);
+        X500Name name = new X500Name(subject);
+        JcaX509v3CertificateBuilder builder = new JcaX509v3CertificateBuilder(name, serialNumber,
+            new Date(System.currentTimeMillis() - 60000), new Date(System.currentTimeMillis() + 60000),
+            name, keyPair.getPublic());
+        if (timestamping) {
+            builder.addExtension(Extension.extendedKeyUsage, true,
+                new ExtendedKeyUsage(KeyPurposeId.id_kp_timeStamping));
+        }
+        X509Certificate certificate = certificate(builder, keyPair.getPrivate(), signatureAlgorithm);
+        return new SigningMaterial(keyPair.getPrivate(), certificate, Collections.singletonList(certificate));
+    }
+
+    private static KeyPair generateKeyPair(String algorithm, int keySize) throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance(algorithm);
+        generator.initialize(keySize);
+        return generator.generateKeyPair();
+    }
+
+    private static X509Certificate certificate(JcaX509v3CertificateBuilder builder, PrivateKey issuerKey,
+                                               String signatureAlgorithm) throws Exception {
+        return new JcaX509CertificateConverter().getCertificate(
+            builder.build(new JcaContentSignerBuilder(signatureAlgorithm).build(issuerKey)));
+    }
+}
@@ -7,6 +7,7 @@ import io.mersel.dss.signer.api.dtos.TimestampValidationResponseDto;
 import io.mersel.dss.signer.api.exceptions.TimestampException;
 import io.mersel.dss.signer.api.services.timestamp.TimestampConfigurationService;
 import io.mersel.dss.signer.api.services.timestamp.TimestampService;
+import io.mersel.dss.signer.api.services.timestamp.tubitak.TubitakCreditMonitor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -27,11 +28,14 @@ public class TimestampServiceTest {
     @Mock
     private TimestampConfigurationService timestampConfigurationService;
 
+    @Mock
+    private TubitakCreditMonitor creditMonitor;
+
     private TimestampService timestampService;
 
     @BeforeEach
     void setUp() {
-        timestampService = new TimestampService(timestampConfigurationService);
+        timestampService = new TimestampService(timestampConfigurationService, creditMonitor);
     }
 
     @Test
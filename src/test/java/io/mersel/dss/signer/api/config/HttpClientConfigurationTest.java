@@ -0,0 +1,120 @@
+package io.mersel.dss.signer.api.config;
+
+import com.sun.net.httpserver.HttpServer;
+import eu.europa.esig.dss.spi.exception.DSSExternalResourceException;
+import io.mersel.dss.signer.api.models.configurations.SignatureServiceConfiguration;
+import io.mersel.dss.signer.api.services.http.PooledDataLoader;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Paylaşılan HTTP bağlantı havuzu ve PooledDataLoader test'leri.
+ * İstekler yerel bir HTTP sunucusuna yapılır.
+ */
+class HttpClientConfigurationTest {
+
+    private static final int READ_TIMEOUT_MS = 500;
+
+    private HttpServer server;
+    private final List<Integer> clientPorts = new CopyOnWriteArrayList<>();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private PoolingHttpClientConnectionManager connectionManager;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/ok", exchange -> {
+            clientPorts.add(exchange.getRemoteAddress().getPort());
+            byte[] body = "ok".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.createContext("/slow", exchange -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        server.start();
+
+        SignatureServiceConfiguration config = new SignatureServiceConfiguration();
+        ReflectionTestUtils.setField(config, "httpConnectTimeoutMs", 1000);
+        ReflectionTestUtils.setField(config, "httpReadTimeoutMs", READ_TIMEOUT_MS);
+        ReflectionTestUtils.setField(config, "httpMaxConnections", 4);
+        ReflectionTestUtils.setField(config, "httpMaxConnectionsPerRoute", 2);
+        ReflectionTestUtils.setField(config, "httpKeepAliveMs", 60000L);
+        connectionManager = new HttpClientConfiguration(config).httpConnectionManager();
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        connectionManager.close();
+        server.stop(0);
+    }
+
+    @Test
+    void testDataLoader_shouldReuseConnectionAcrossRequests() {
+        // Given
+        PooledDataLoader loader = new PooledDataLoader(connectionManager, null, READ_TIMEOUT_MS);
+
+        // When
+        byte[] first = loader.get(url("/ok"));
+        byte[] second = loader.get(url("/ok"));
+
+        // Then: DSS istemciyi kapatsa da havuz açık kalır ve aynı bağlantı kullanılır
+        assertEquals("ok", new String(first, StandardCharsets.UTF_8));
+        assertEquals("ok", new String(second, StandardCharsets.UTF_8));
+        assertEquals(2, clientPorts.size());
+        assertEquals(clientPorts.get(0), clientPorts.get(1));
+        assertEquals(1, connectionManager.getTotalStats().getAvailable());
+        assertEquals(0, connectionManager.getTotalStats().getLeased());
+    }
+
+    @Test
+    void testDataLoader_whenResponseSlowerThanReadTimeout_shouldFail() {
+        // Given
+        PooledDataLoader loader = new PooledDataLoader(connectionManager, null, READ_TIMEOUT_MS);
+
+        // When/Then
+        assertThrows(DSSExternalResourceException.class, () -> loader.get(url("/slow")));
+        assertEquals(0, connectionManager.getTotalStats().getLeased());
+    }
+
+    @Test
+    void testPoolMetrics_shouldPublishConnectionStates() {
+        // Given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        new HttpClientConfiguration(new SignatureServiceConfiguration())
+            .httpConnectionPoolMetrics(connectionManager).bindTo(registry);
+        new PooledDataLoader(connectionManager, null, READ_TIMEOUT_MS).get(url("/ok"));
+
+        // When/Then
+        assertEquals(1.0, registry.get("http.client.pool.connections").tag("state", "available").gauge().value());
+        assertEquals(0.0, registry.get("http.client.pool.connections").tag("state", "leased").gauge().value());
+        assertEquals(4.0, registry.get("http.client.pool.max").gauge().value());
+    }
+
+    private String url(String path) {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + path;
+    }
+}
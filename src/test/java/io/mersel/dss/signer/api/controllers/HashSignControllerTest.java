@@ -0,0 +1,211 @@
+package io.mersel.dss.signer.api.controllers;
+
+import io.mersel.dss.signer.api.TestPki;
+import io.mersel.dss.signer.api.dtos.SignHashBatchRequestDto;
+import io.mersel.dss.signer.api.dtos.SignHashBatchResponseDto;
+import io.mersel.dss.signer.api.dtos.SignHashRequestDto;
+import io.mersel.dss.signer.api.dtos.SignHashResponseDto;
+import io.mersel.dss.signer.api.models.ErrorModel;
+import io.mersel.dss.signer.api.models.SigningMaterial;
+import io.mersel.dss.signer.api.services.keystore.SigningSession;
+import io.mersel.dss.signer.api.services.keystore.SigningSessionPool;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.security.MessageDigest;
+import java.security.Signature;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * HashSignController test'leri. HSM yerine yazılım anahtarlı oturum havuzu kullanılır.
+ */
+class HashSignControllerTest {
+
+    private static final String[] HASH_ALGORITHMS = {"SHA-256", "SHA-384", "SHA-512"};
+
+    private SigningMaterial material;
+    private SigningSessionPool pool;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        material = TestPki.signingMaterial();
+        pool = TestPki.sessionPool(material, 2);
+    }
+
+    @Test
+    void testSignHashBatch_shouldSignAllHashesInOneSession() throws Exception {
+        // Given
+        List<byte[]> hashes = Arrays.asList(sha256("bir"), sha256("iki"), sha256("üç"));
+        SignHashBatchRequestDto request = batch(hashes.get(0), hashes.get(1), hashes.get(2));
+
+        // When
+        ResponseEntity<?> response = controller(10).signHashBatch(request, null);
+
+        // Then: imzalar istek sırasıyla döner ve tek oturum ödünç alınır
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        SignHashBatchResponseDto body = (SignHashBatchResponseDto) response.getBody();
+        assertEquals(3, body.getSignatures().size());
+        for (int i = 0; i < hashes.size(); i++) {
+            SignHashBatchResponseDto.Signature signature = body.getSignatures().get(i);
+            assertEquals("SHA256withRSA", signature.getSignatureAlgorithm());
+            assertTrue(verify("SHA256withRSA", hashes.get(i), signature.getSignatureValue()));
+        }
+        assertEquals(1, sessionOperations());
+        assertEquals(material.getArtifacts().getCertificateBase64(), body.getCertificate());
+    }
+
+    @Test
+    void testSignHashBatch_whenTooManyHashes_shouldRejectWithoutSigning() throws Exception {
+        // Given
+        SignHashBatchRequestDto request = batch(sha256("bir"), sha256("iki"), sha256("üç"));
+
+        // When
+        ResponseEntity<?> response = controller(2).signHashBatch(request, null);
+
+        // Then
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals("BATCH_TOO_LARGE", ((ErrorModel) response.getBody()).getCode());
+        assertEquals(0, sessionOperations());
+    }
+
+    @Test
+    void testSignHashBatch_whenLaterItemInvalid_shouldRejectBeforeSigningAny() throws Exception {
+        // Given: ilk öğe geçerli, ikincisi Base64 değil
+        SignHashBatchRequestDto request = batch(sha256("bir"));
+        SignHashRequestDto invalid = new SignHashRequestDto();
+        invalid.setHash("geçersiz!!");
+        request.getHashes().add(invalid);
+
+        // When
+        ResponseEntity<?> response = controller(10).signHashBatch(request, null);
+
+        // Then
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        ErrorModel error = (ErrorModel) response.getBody();
+        assertEquals("INVALID_BASE64", error.getCode());
+        assertTrue(error.getMessage().contains("sıra: 1"));
+        assertEquals(0, sessionOperations());
+    }
+
+    @Test
+    void testSignHashBatch_whenPreHashedLengthWrong_shouldRejectBeforeSigningAny() throws Exception {
+        // Given: ham modda SHA-256 için 20 baytlık özet
+        SignHashBatchRequestDto request = batch(sha256("bir"));
+        SignHashRequestDto wrongLength = new SignHashRequestDto();
+        wrongLength.setHash(Base64.getEncoder().encodeToString(new byte[20]));
+        wrongLength.setHashAlgorithm("SHA256");
+        wrongLength.setPreHashed(true);
+        request.getHashes().add(wrongLength);
+
+        // When
+        ResponseEntity<?> response = controller(10).signHashBatch(request, null);
+
+        // Then
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals("INVALID_HASH", ((ErrorModel) response.getBody()).getCode());
+        assertEquals(0, sessionOperations());
+    }
+
+    @Test
+    void testSignHashBatch_whenEmpty_shouldReturnBadRequest() {
+        ResponseEntity<?> response = controller(10).signHashBatch(new SignHashBatchRequestDto(), null);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals("INVALID_INPUT", ((ErrorModel) response.getBody()).getCode());
+    }
+
+    @Test
+    void testSignHash_whenRsaPreHashed_shouldMatchSignatureOverData() throws Exception {
+        byte[] data = "imzalanacak belge".getBytes("UTF-8");
+        HashSignController controller = controller(10);
+
+        for (String hashAlgorithm : HASH_ALGORITHMS) {
+            // Given: istemci özeti kendisi hesaplar
+            String signatureAlgorithm = hashAlgorithm.replace("-", "") + "withRSA";
+
+            // When
+            ResponseEntity<?> response = controller.signHash(preHashed(hashAlgorithm, data), null);
+
+            // Then: NONEwithRSA + DigestInfo, PKCS#1 v1.5 deterministik olduğundan bayt bayt aynıdır
+            assertEquals(HttpStatus.OK, response.getStatusCode());
+            SignHashResponseDto body = (SignHashResponseDto) response.getBody();
+            assertEquals(signatureAlgorithm, body.getSignatureAlgorithm());
+            Signature expected = Signature.getInstance(signatureAlgorithm);
+            expected.initSign(material.getPrivateKey());
+            expected.update(data);
+            assertArrayEquals(expected.sign(), Base64.getDecoder().decode(body.getSignatureValue()));
+        }
+    }
+
+    @Test
+    void testSignHash_whenEcPreHashed_shouldVerifyOverData() throws Exception {
+        material = TestPki.signingMaterial("EC", 256, "SHA256withECDSA");
+        pool = TestPki.sessionPool(material, 2);
+        byte[] data = "imzalanacak belge".getBytes("UTF-8");
+        HashSignController controller = controller(10);
+
+        for (String hashAlgorithm : HASH_ALGORITHMS) {
+            // Given
+            String signatureAlgorithm = hashAlgorithm.replace("-", "") + "withECDSA";
+
+            // When
+            ResponseEntity<?> response = controller.signHash(preHashed(hashAlgorithm, data), null);
+
+            // Then: NONEwithECDSA imzası SHA*withECDSA ile belge üzerinden doğrulanır
+            assertEquals(HttpStatus.OK, response.getStatusCode());
+            SignHashResponseDto body = (SignHashResponseDto) response.getBody();
+            assertEquals(signatureAlgorithm, body.getSignatureAlgorithm());
+            assertTrue(verify(signatureAlgorithm, data, body.getSignatureValue()));
+        }
+    }
+
+    private HashSignController controller(int batchMaxHashes) {
+        return new HashSignController(TestPki.registry(material, pool), batchMaxHashes);
+    }
+
+    private long sessionOperations() {
+        long operations = 0;
+        for (SigningSession session : pool.getSessions()) {
+            operations += session.getSuccessCount() + session.getFailureCount();
+        }
+        return operations;
+    }
+
+    private static SignHashBatchRequestDto batch(byte[]... hashes) {
+        List<SignHashRequestDto> items = new ArrayList<>();
+        for (byte[] hash : hashes) {
+            SignHashRequestDto item = new SignHashRequestDto();
+            item.setHash(Base64.getEncoder().encodeToString(hash));
+            items.add(item);
+        }
+        SignHashBatchRequestDto request = new SignHashBatchRequestDto();
+        request.setHashes(items);
+        return request;
+    }
+
+    private static SignHashRequestDto preHashed(String hashAlgorithm, byte[] data) throws Exception {
+        SignHashRequestDto request = new SignHashRequestDto();
+        request.setHash(Base64.getEncoder().encodeToString(MessageDigest.getInstance(hashAlgorithm).digest(data)));
+        request.setHashAlgorithm(hashAlgorithm);
+        request.setPreHashed(true);
+        return request;
+    }
+
+    private boolean verify(String algorithm, byte[] data, String signatureValue) throws Exception {
+        Signature verifier = Signature.getInstance(algorithm);
+        verifier.initVerify(material.getSigningCertificate());
+        verifier.update(data);
+        return verifier.verify(Base64.getDecoder().decode(signatureValue));
+    }
+
+    private static byte[] sha256(String value) throws Exception {
+        return MessageDigest.getInstance("SHA-256").digest(value.getBytes("UTF-8"));
+    }
+}
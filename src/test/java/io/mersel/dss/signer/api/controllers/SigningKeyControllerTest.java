@@ -0,0 +1,87 @@
+package io.mersel.dss.signer.api.controllers;
+
+import io.mersel.dss.signer.api.TestPki;
+import io.mersel.dss.signer.api.exceptions.KeyStoreException;
+import io.mersel.dss.signer.api.exceptions.SigningKeyNotFoundException;
+import io.mersel.dss.signer.api.models.ErrorModel;
+import io.mersel.dss.signer.api.models.SigningKey;
+import io.mersel.dss.signer.api.services.keystore.SigningKeyRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.math.BigInteger;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * SigningKeyController test'leri.
+ */
+class SigningKeyControllerTest {
+
+    @Mock
+    private SigningKeyRegistry keyRegistry;
+
+    private SigningKeyController controller;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        controller = new SigningKeyController(keyRegistry);
+    }
+
+    @Test
+    void testReload_shouldReturnActivatedCertificate() throws Exception {
+        // Given
+        SigningKey key = signingKey("key-2", "yeni", BigInteger.valueOf(0xabc));
+        when(keyRegistry.reload("key-2", "yeni", null)).thenReturn(key);
+
+        // When
+        ResponseEntity<?> response = controller.reload("key-2", "yeni", null);
+
+        // Then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        Map<?, ?> body = (Map<?, ?>) response.getBody();
+        assertEquals(true, body.get("success"));
+        assertEquals("key-2", body.get("key"));
+        assertEquals("yeni", body.get("alias"));
+        assertEquals("abc", body.get("serialNumberHex"));
+        assertEquals(key.getMaterial().getSigningCertificate().getNotAfter(), body.get("validTo"));
+    }
+
+    @Test
+    void testReload_whenKeyNotDefined_shouldPropagateNotFound() {
+        // Given: GlobalExceptionHandler 400 SIGNING_KEY_NOT_FOUND döndürür
+        when(keyRegistry.reload(eq("key-9"), isNull(), isNull()))
+            .thenThrow(new SigningKeyNotFoundException("İmzalama anahtarı tanımlı değil: key-9"));
+
+        // When / Then
+        assertThrows(SigningKeyNotFoundException.class, () -> controller.reload("key-9", null, null));
+    }
+
+    @Test
+    void testReload_whenLoadFails_shouldReturnInternalServerError() {
+        // Given
+        when(keyRegistry.reload(isNull(), isNull(), isNull()))
+            .thenThrow(new KeyStoreException("Özel anahtar imzalama sertifikasıyla eşleşmiyor: default"));
+
+        // When
+        ResponseEntity<?> response = controller.reload(null, null, null);
+
+        // Then
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
+        ErrorModel error = (ErrorModel) response.getBody();
+        assertEquals("RELOAD_FAILED", error.getCode());
+        assertTrue(error.getMessage().contains("eşleşmiyor"));
+    }
+
+    private static SigningKey signingKey(String name, String alias, BigInteger serialNumber) throws Exception {
+        return new SigningKey(name, alias, new char[0], TestPki.signingMaterial("CN=" + alias, serialNumber));
+    }
+}
@@ -0,0 +1,154 @@
+package io.mersel.dss.signer.api.controllers;
+
+import eu.europa.esig.dss.model.DSSDocument;
+import eu.europa.esig.dss.model.DSSException;
+import eu.europa.esig.dss.model.InMemoryDocument;
+import eu.europa.esig.dss.spi.DSSUtils;
+import io.mersel.dss.signer.api.dtos.UpgradeJobStatusDto;
+import io.mersel.dss.signer.api.models.ErrorModel;
+import io.mersel.dss.signer.api.models.enums.UpgradeJobStatus;
+import io.mersel.dss.signer.api.services.signature.xades.XAdESLevelUpgradeService;
+import io.mersel.dss.signer.api.services.signature.xades.XAdESUpgradeJobService;
+import io.mersel.dss.signer.api.services.util.CompressionService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * XAdESUpgradeJobController test'leri. Yükseltme, "tsa-yok" içeren belgelerde
+ * başarısız olan ve TSA yanıtı serbest bırakılana kadar bekleyen bir stub ile yapılır.
+ */
+class XAdESUpgradeJobControllerTest {
+
+    private static final byte[] UPGRADED_XML = "<arsiv/>".getBytes(StandardCharsets.UTF_8);
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private Path directory;
+    private XAdESUpgradeJobService upgradeJobService;
+    private XAdESUpgradeJobController controller;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        directory = Files.createTempDirectory("xades-upgrade-jobs-");
+        XAdESLevelUpgradeService levelUpgradeService = new XAdESLevelUpgradeService(null, null, null) {
+            @Override
+            public DSSDocument upgradeToArchiveLevel(DSSDocument signedDocument) {
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new DSSException("Kesintiye uğradı", e);
+                }
+                if (new String(DSSUtils.toByteArray(signedDocument), StandardCharsets.UTF_8).contains("tsa-yok")) {
+                    throw new DSSException("TSA yanıt vermedi");
+                }
+                return new InMemoryDocument(UPGRADED_XML);
+            }
+        };
+        upgradeJobService = new XAdESUpgradeJobService(levelUpgradeService, new CompressionService(0, 1024),
+            new Semaphore(1), 1, 1, 1, 1, directory.toString());
+        upgradeJobService.init();
+        controller = new XAdESUpgradeJobController(upgradeJobService);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        release.countDown();
+        upgradeJobService.shutdown();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+        }
+        Files.deleteIfExists(directory);
+    }
+
+    @Test
+    void testGetJobStatus_whenJobUnknown_shouldReturnNotFound() {
+        // When
+        ResponseEntity<?> response = controller.getJobStatus("00000000-0000-0000-0000-000000000000");
+
+        // Then
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        assertEquals("JOB_NOT_FOUND", ((ErrorModel) response.getBody()).getCode());
+    }
+
+    @Test
+    void testGetUpgradedDocument_whenJobUnknown_shouldReturnNotFound() {
+        // When: geçerli biçimde olmayan ID de bulunamadı olarak döner
+        ResponseEntity<?> unknown = controller.getUpgradedDocument("00000000-0000-0000-0000-000000000000");
+        ResponseEntity<?> invalid = controller.getUpgradedDocument("..%2F..%2Fetc%2Fpasswd");
+
+        // Then
+        assertEquals(HttpStatus.NOT_FOUND, unknown.getStatusCode());
+        assertEquals(HttpStatus.NOT_FOUND, invalid.getStatusCode());
+    }
+
+    @Test
+    void testGetUpgradedDocument_whenJobNotFinished_shouldReturnConflict() {
+        // Given: yükseltme TSA yanıtını bekliyor
+        String jobId = upgradeJobService.submit("<imzali/>".getBytes(StandardCharsets.UTF_8), false);
+
+        // When
+        ResponseEntity<?> status = controller.getJobStatus(jobId);
+        ResponseEntity<?> document = controller.getUpgradedDocument(jobId);
+
+        // Then
+        assertEquals(HttpStatus.OK, status.getStatusCode());
+        assertNotEquals(UpgradeJobStatus.COMPLETED, ((UpgradeJobStatusDto) status.getBody()).getStatus());
+        assertEquals(HttpStatus.CONFLICT, document.getStatusCode());
+        assertEquals("JOB_NOT_COMPLETED", ((ErrorModel) document.getBody()).getCode());
+    }
+
+    @Test
+    void testGetUpgradedDocument_whenJobFailed_shouldReturnConflict() throws Exception {
+        // Given: tek deneme hakkı TSA hatasıyla tükenir
+        String jobId = upgradeJobService.submit("<tsa-yok/>".getBytes(StandardCharsets.UTF_8), false);
+        release.countDown();
+        awaitStatus(jobId, UpgradeJobStatus.FAILED);
+
+        // When
+        ResponseEntity<?> response = controller.getUpgradedDocument(jobId);
+
+        // Then
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        assertTrue(((ErrorModel) response.getBody()).getMessage().contains("FAILED"));
+    }
+
+    @Test
+    void testGetUpgradedDocument_whenJobCompleted_shouldReturnDocument() throws Exception {
+        // Given
+        String jobId = upgradeJobService.submit("<imzali/>".getBytes(StandardCharsets.UTF_8), false);
+        release.countDown();
+        awaitStatus(jobId, UpgradeJobStatus.COMPLETED);
+
+        // When
+        ResponseEntity<?> response = controller.getUpgradedDocument(jobId);
+
+        // Then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertArrayEquals(UPGRADED_XML, (byte[]) response.getBody());
+    }
+
+    private void awaitStatus(String jobId, UpgradeJobStatus expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (upgradeJobService.getStatus(jobId).getStatus() != expected
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(expected, upgradeJobService.getStatus(jobId).getStatus());
+    }
+}
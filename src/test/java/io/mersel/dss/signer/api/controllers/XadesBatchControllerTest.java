@@ -0,0 +1,191 @@
+package io.mersel.dss.signer.api.controllers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.mersel.dss.signer.api.TestPki;
+import io.mersel.dss.signer.api.dtos.BatchSignItemResultDto;
+import io.mersel.dss.signer.api.dtos.SignXadesBatchDto;
+import io.mersel.dss.signer.api.exceptions.SignatureException;
+import io.mersel.dss.signer.api.models.ErrorModel;
+import io.mersel.dss.signer.api.models.SignResponse;
+import io.mersel.dss.signer.api.models.SigningMaterial;
+import io.mersel.dss.signer.api.models.enums.DocumentType;
+import io.mersel.dss.signer.api.services.signature.xades.StubXAdESSignatureService;
+import io.mersel.dss.signer.api.services.signature.xades.XAdESBatchSignatureService;
+import io.mersel.dss.signer.api.services.util.CompressionService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * XadesBatchController test'leri. Belge imzalama, içeriği işaretleyen bir stub ile yapılır;
+ * "bozuk" içeren belgeler imzalanamaz.
+ */
+class XadesBatchControllerTest {
+
+    private static final int MAX_DOCUMENTS = 4;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private XAdESBatchSignatureService batchSignatureService;
+    private XadesBatchController controller;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        SigningMaterial material = TestPki.signingMaterial();
+        StubXAdESSignatureService xadesSignatureService = new StubXAdESSignatureService(xml -> {
+            String content = new String(xml, StandardCharsets.UTF_8);
+            if (content.contains("bozuk")) {
+                throw new SignatureException("XAdES imzası oluşturulamadı");
+            }
+            return new SignResponse(("<imzali>" + content + "</imzali>").getBytes(StandardCharsets.UTF_8),
+                "imza-" + content.length());
+        });
+        batchSignatureService = new XAdESBatchSignatureService(xadesSignatureService, objectMapper, 2, MAX_DOCUMENTS);
+        controller = new XadesBatchController(batchSignatureService, new CompressionService(0, 1024 * 1024),
+            TestPki.registry(material, TestPki.sessionPool(material, 1)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        batchSignatureService.shutdown();
+    }
+
+    @Test
+    void testSignXadesBatch_whenSomeDocumentsFail_shouldSignOthersAndReportFailures() throws Exception {
+        // Given
+        SignXadesBatchDto dto = dto(
+            file("a.xml", "<a/>"),
+            file("b.xml", "<bozuk"),
+            file("c.xml", "<c/>"));
+
+        // When
+        ResponseEntity<?> response = controller.signXadesBatch(dto, null);
+
+        // Then: hatalı belge diğerlerini etkilemez, durumu manifest'te döner
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        Map<String, byte[]> entries = entries(response);
+        assertEquals(Arrays.asList("a.xml", "c.xml", XAdESBatchSignatureService.MANIFEST_ENTRY_NAME),
+            Arrays.asList(entries.keySet().toArray()));
+        assertEquals("<imzali><a/></imzali>", new String(entries.get("a.xml"), StandardCharsets.UTF_8));
+
+        JsonNode manifest = objectMapper.readTree(entries.get(XAdESBatchSignatureService.MANIFEST_ENTRY_NAME));
+        assertEquals(3, manifest.size());
+        assertEquals(BatchSignItemResultDto.STATUS_SIGNED, manifest.get(0).get("status").asText());
+        assertEquals("b.xml", manifest.get(1).get("name").asText());
+        assertEquals(BatchSignItemResultDto.STATUS_FAILED, manifest.get(1).get("status").asText());
+        assertTrue(manifest.get(1).get("error").asText().contains("XAdES imzası oluşturulamadı"));
+        assertEquals(BatchSignItemResultDto.STATUS_SIGNED, manifest.get(2).get("status").asText());
+    }
+
+    @Test
+    void testSignXadesBatch_whenNamesDuplicate_shouldKeepEveryDocument() throws Exception {
+        // Given: yeniden adlandırılan "a.xml", istekteki gerçek "1-a.xml" ile çakışır
+        SignXadesBatchDto dto = dto(
+            file("a.xml", "<birinci/>"),
+            file("dizin/a.xml", "<ikinci/>"),
+            file("1-a.xml", "<ucuncu/>"),
+            file(null, "<adsiz/>"));
+
+        // When
+        ResponseEntity<?> response = controller.signXadesBatch(dto, null);
+
+        // Then: hiçbir belge başka bir belgenin üzerine yazılmaz
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        Map<String, byte[]> entries = entries(response);
+        assertEquals(5, entries.size());
+        assertEquals("<imzali><birinci/></imzali>", new String(entries.get("a.xml"), StandardCharsets.UTF_8));
+        assertEquals("<imzali><ikinci/></imzali>", new String(entries.get("1-a.xml"), StandardCharsets.UTF_8));
+        assertEquals("<imzali><ucuncu/></imzali>", new String(entries.get("2-1-a.xml"), StandardCharsets.UTF_8));
+        assertEquals("<imzali><adsiz/></imzali>", new String(entries.get("document.xml"), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testSignXadesBatch_whenTooManyDocuments_shouldReturnBadRequest() throws Exception {
+        // Given: sınırın bir fazlası kadar belge
+        MultipartFile[] files = new MultipartFile[MAX_DOCUMENTS + 1];
+        for (int i = 0; i < files.length; i++) {
+            files[i] = file(i + ".xml", "<belge/>");
+        }
+
+        // When
+        ResponseEntity<?> response = controller.signXadesBatch(dto(files), null);
+
+        // Then
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals("BATCH_TOO_LARGE", ((ErrorModel) response.getBody()).getCode());
+    }
+
+    @Test
+    void testSignXadesBatch_whenArchiveHasTooManyEntries_shouldReturnBadRequest() throws Exception {
+        // Given
+        ByteArrayOutputStream archive = new ByteArrayOutputStream();
+        try (ZipOutputStream zos = new ZipOutputStream(archive)) {
+            for (int i = 0; i <= MAX_DOCUMENTS; i++) {
+                zos.putNextEntry(new ZipEntry(i + ".xml"));
+                zos.write("<belge/>".getBytes(StandardCharsets.UTF_8));
+                zos.closeEntry();
+            }
+        }
+        SignXadesBatchDto dto = dto();
+        dto.setArchive(new MockMultipartFile("Archive", "belgeler.zip", "application/zip", archive.toByteArray()));
+
+        // When
+        ResponseEntity<?> response = controller.signXadesBatch(dto, null);
+
+        // Then
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals("INVALID_INPUT", ((ErrorModel) response.getBody()).getCode());
+    }
+
+    private static SignXadesBatchDto dto(MultipartFile... files) {
+        SignXadesBatchDto dto = new SignXadesBatchDto();
+        dto.setDocumentType(DocumentType.OtherXmlDocument);
+        dto.setDocuments(Arrays.asList(files));
+        return dto;
+    }
+
+    private static MultipartFile file(String name, String content) {
+        return new MockMultipartFile("Documents", name, "application/xml", content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Stream edilen ZIP yanıtını yazıp girdilerini sırasıyla okur.
+     */
+    private static Map<String, byte[]> entries(ResponseEntity<?> response) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ((StreamingResponseBody) response.getBody()).writeTo(output);
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        try (ZipInputStream zis = new ZipInputStream(new ByteArrayInputStream(output.toByteArray()))) {
+            ZipEntry entry;
+            while ((entry = zis.getNextEntry()) != null) {
+                ByteArrayOutputStream content = new ByteArrayOutputStream();
+                byte[] buffer = new byte[1024];
+                int count;
+                while ((count = zis.read(buffer)) != -1) {
+                    content.write(buffer, 0, count);
+                }
+                entries.put(entry.getName(), content.toByteArray());
+            }
+        }
+        return entries;
+    }
+}
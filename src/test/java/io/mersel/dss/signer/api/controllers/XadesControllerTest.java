@@ -1,8 +1,10 @@
 package io.mersel.dss.signer.api.controllers;
 
 import io.mersel.dss.signer.api.models.SignResponse;
+import io.mersel.dss.signer.api.models.SigningKey;
 import io.mersel.dss.signer.api.models.SigningMaterial;
 import io.mersel.dss.signer.api.models.enums.DocumentType;
+import io.mersel.dss.signer.api.services.keystore.SigningKeyRegistry;
 import io.mersel.dss.signer.api.services.signature.wssecurity.WsSecuritySignatureService;
 import io.mersel.dss.signer.api.services.signature.xades.XAdESSignatureService;
 import org.junit.jupiter.api.BeforeEach;
@@ -30,6 +32,9 @@ class XadesControllerTest {
     @Mock
     private WsSecuritySignatureService wsSecuritySignatureService;
 
+    @Mock
+    private SigningKeyRegistry keyRegistry;
+
     private SigningMaterial signingMaterial = null; // SigningMaterial final class - mock edilemiyor
 
     private XadesController controller;
@@ -37,12 +42,12 @@ class XadesControllerTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        when(keyRegistry.resolve(isNull())).thenReturn(
+            new SigningKey("default", "testAlias", "testPin".toCharArray(), signingMaterial));
         controller = new XadesController(
             xadesSignatureService,
             wsSecuritySignatureService,
-            signingMaterial,
-            "testAlias",
-            "testPin".toCharArray()
+            keyRegistry
         );
     }
 
@@ -67,6 +72,7 @@ class XadesControllerTest {
             eq(DocumentType.UblDocument),
             isNull(),
             eq(false),
+            eq(false),
             eq(signingMaterial)
         )).thenReturn(mockResponse);
 
@@ -77,7 +83,7 @@ class XadesControllerTest {
         dto.setDocumentType(DocumentType.UblDocument);
         dto.setZipFile(false);
 
-        ResponseEntity<?> response = controller.signXades(dto);
+        ResponseEntity<?> response = controller.signXades(dto, null);
 
         // Then
         assertNotNull(response);
@@ -85,6 +91,46 @@ class XadesControllerTest {
         assertNotNull(response.getHeaders().get("x-signature-value"));
     }
 
+    @Test
+    void testSignXadesDeferredUpgradeReturnsJobId() throws Exception {
+        // Given
+        String xmlContent = "<?xml version=\"1.0\"?><test>data</test>";
+        MockMultipartFile file = new MockMultipartFile(
+            "document",
+            "test.xml",
+            "text/xml",
+            xmlContent.getBytes()
+        );
+
+        SignResponse mockResponse = new SignResponse(
+            xmlContent.getBytes(),
+            "test-signature-value",
+            "job-1"
+        );
+
+        when(xadesSignatureService.signXml(
+            any(InputStream.class),
+            eq(DocumentType.EArchiveReport),
+            isNull(),
+            eq(false),
+            eq(true),
+            eq(signingMaterial)
+        )).thenReturn(mockResponse);
+
+        // When
+        io.mersel.dss.signer.api.dtos.SignXadesDto dto = 
+            new io.mersel.dss.signer.api.dtos.SignXadesDto();
+        dto.setDocument(file);
+        dto.setDocumentType(DocumentType.EArchiveReport);
+        dto.setDeferUpgrade(true);
+
+        ResponseEntity<?> response = controller.signXades(dto, null);
+
+        // Then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("job-1", response.getHeaders().getFirst("x-upgrade-job-id"));
+    }
+
     @Test
     void testSignXadesWithNullDocument() {
         // Given
@@ -94,7 +140,7 @@ class XadesControllerTest {
         dto.setDocumentType(DocumentType.UblDocument);
 
         // When
-        ResponseEntity<?> response = controller.signXades(dto);
+        ResponseEntity<?> response = controller.signXades(dto, null);
 
         // Then
         assertNotNull(response);
@@ -118,7 +164,7 @@ class XadesControllerTest {
         dto.setDocumentType(DocumentType.None);
 
         // When
-        ResponseEntity<?> response = controller.signXades(dto);
+        ResponseEntity<?> response = controller.signXades(dto, null);
 
         // Then
         assertNotNull(response);
@@ -0,0 +1,100 @@
+package io.mersel.dss.signer.api.services;
+
+import io.mersel.dss.signer.api.TestPki;
+import io.mersel.dss.signer.api.dtos.CertificateInfoDto;
+import io.mersel.dss.signer.api.models.SigningKey;
+import io.mersel.dss.signer.api.models.SigningMaterial;
+import io.mersel.dss.signer.api.services.keystore.KeyStoreProvider;
+import io.mersel.dss.signer.api.services.keystore.SigningKeyReloadedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.security.KeyStore;
+import java.security.cert.X509Certificate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * CertificateInfoService liste cache'i test'leri.
+ */
+class CertificateInfoServiceTest {
+
+    private static final char[] PIN = "1234".toCharArray();
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private SigningMaterial material;
+    private KeyStoreProvider provider;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        material = TestPki.signingMaterial("CN=Test", BigInteger.valueOf(0x2a));
+
+        KeyStore keyStore = KeyStore.getInstance("PKCS12");
+        keyStore.load(null, null);
+        keyStore.setKeyEntry("test", material.getPrivateKey(), PIN,
+            new X509Certificate[] {material.getSigningCertificate()});
+        provider = new KeyStoreProvider() {
+            @Override
+            public KeyStore loadKeyStore(char[] pin) {
+                loads.incrementAndGet();
+                return keyStore;
+            }
+
+            @Override
+            public String getType() {
+                return "PKCS12";
+            }
+        };
+    }
+
+    @Test
+    void testGetCertificates_shouldReadKeystoreOnceWithinTtl() {
+        // Given
+        CertificateInfoService service = new CertificateInfoService(60000);
+
+        // When
+        List<CertificateInfoDto> first = service.getCertificates(provider, PIN);
+        List<CertificateInfoDto> second = service.getCertificates(provider, PIN);
+
+        // Then
+        assertEquals(1, loads.get());
+        assertSame(first, second);
+        assertEquals(1, first.size());
+        assertEquals("test", first.get(0).getAlias());
+        assertEquals("2A", first.get(0).getSerialNumberHex());
+        assertTrue(first.get(0).isHasPrivateKey());
+        assertThrows(UnsupportedOperationException.class, () -> second.add(new CertificateInfoDto()));
+    }
+
+    @Test
+    void testOnSigningKeyReloaded_shouldClearCachedListings() {
+        // Given
+        CertificateInfoService service = new CertificateInfoService(60000);
+        service.getCertificates(provider, PIN);
+
+        // When
+        service.onSigningKeyReloaded(new SigningKeyReloadedEvent(this,
+            new SigningKey("default", "test", PIN, material), material));
+        service.getCertificates(provider, PIN);
+
+        // Then
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testGetCertificates_whenCacheDisabled_shouldReadKeystoreEachTime() {
+        // Given: komut satırı kullanımı
+        CertificateInfoService service = new CertificateInfoService();
+
+        // When
+        service.getCertificates(provider, PIN);
+        service.getCertificates(provider, PIN);
+
+        // Then
+        assertEquals(2, loads.get());
+    }
+}
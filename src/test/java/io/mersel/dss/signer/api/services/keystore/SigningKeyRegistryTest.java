@@ -0,0 +1,218 @@
+package io.mersel.dss.signer.api.services.keystore;
+
+import io.mersel.dss.signer.api.TestPki;
+import io.mersel.dss.signer.api.exceptions.CertificateValidationException;
+import io.mersel.dss.signer.api.exceptions.KeyStoreException;
+import io.mersel.dss.signer.api.exceptions.SigningKeyNotFoundException;
+import io.mersel.dss.signer.api.models.SigningContext;
+import io.mersel.dss.signer.api.models.SigningKey;
+import io.mersel.dss.signer.api.models.SigningMaterial;
+import io.mersel.dss.signer.api.services.SigningMaterialFactory;
+import io.mersel.dss.signer.api.services.revocation.SigningCertificateRevocationMonitor;
+import org.bouncycastle.asn1.x509.CRLReason;
+import org.bouncycastle.cert.ocsp.RevokedStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * SigningKeyRegistry anahtar seçimi, yeniden yükleme ve boşaltma test'leri.
+ * Keystore yerine sağlayıcı başına sabit materyal döndüren bir fabrika kullanılır.
+ */
+class SigningKeyRegistryTest {
+
+    private static final char[] PIN = new char[0];
+
+    private final Map<KeyStoreProvider, SigningContext> contexts = new HashMap<>();
+    private final AtomicInteger contextsCreated = new AtomicInteger();
+    private final List<Object> events = new ArrayList<>();
+
+    private KeyStoreProvider defaultProvider;
+    private SigningCertificateRevocationMonitor revocationMonitor;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        defaultProvider = provider("default", BigInteger.ONE);
+        revocationMonitor = TestPki.disabledRevocationMonitor(contexts.get(defaultProvider).getMaterial());
+    }
+
+    @Test
+    void testResolve_whenSelectorUnknown_shouldRejectWithoutLoading() throws Exception {
+        // Given: seçicisi yapılandırılmamış iki ek anahtar
+        SigningKeyRegistry registry = registry(3, definition("key-2", provider("ikinci", BigInteger.valueOf(2))),
+            definition("key-3", provider("üçüncü", BigInteger.valueOf(3))));
+        int indexed = contextsCreated.get();
+
+        // When / Then
+        assertThrows(SigningKeyNotFoundException.class, () -> registry.resolve("bilinmeyen"));
+        assertThrows(SigningKeyNotFoundException.class, () -> registry.resolve("ff"));
+        assertEquals(2, indexed);
+        assertEquals(indexed, contextsCreated.get());
+        assertEquals(0, registry.getLoadedCount());
+    }
+
+    @Test
+    void testResolve_whenSelectorMatchesIndexedCertificate_shouldLoadOnlyThatKey() throws Exception {
+        // Given
+        SigningKeyRegistry registry = registry(3, definition("key-2", provider("ikinci", BigInteger.valueOf(2))),
+            definition("key-3", provider("üçüncü", BigInteger.valueOf(0x1f))));
+
+        // When
+        SigningKey bySerial = registry.resolve("1F");
+        SigningKey byAlias = registry.resolve("üçüncü");
+
+        // Then
+        assertEquals("key-3", bySerial.getName());
+        assertSame(bySerial, byAlias);
+        assertEquals(1, registry.getLoadedCount());
+    }
+
+    @Test
+    void testEvict_shouldKeepPoolOpenForResolvedRequests() throws Exception {
+        // Given: tek ek anahtar yüklü tutulabiliyor
+        SigningKeyRegistry registry = registry(1, definition("key-2", provider("ikinci", BigInteger.valueOf(2))),
+            definition("key-3", provider("üçüncü", BigInteger.valueOf(3))));
+        SigningKey evicted = registry.resolve("ikinci");
+        SigningSessionPool evictedPool = registry.sessionPool(evicted.getMaterial());
+
+        // When: ikinci anahtarın yüklenmesi ilkini boşaltır
+        registry.resolve("üçüncü");
+
+        // Then: eski materyali çözümlemiş istek aynı havuzla imzalayabilir
+        assertEquals(1, registry.getEvictionCount());
+        assertEquals(1, registry.getLoadedCount());
+        assertSame(evictedPool, registry.sessionPool(evicted.getMaterial()));
+        assertNotNull(evictedPool.execute(session -> session.sign("SHA256withRSA", new byte[32])));
+    }
+
+    @Test
+    void testResolve_shouldPublishLoadAndEvictionEvents() throws Exception {
+        // Given: tek ek anahtar yüklü tutulabiliyor
+        SigningKeyRegistry registry = registry(1, definition("key-2", provider("ikinci", BigInteger.valueOf(2))),
+            definition("key-3", provider("üçüncü", BigInteger.valueOf(3))));
+
+        // When
+        SigningKey first = registry.resolve("ikinci");
+        registry.resolve("ikinci");
+        SigningKey second = registry.resolve("üçüncü");
+
+        // Then: yüklenen her anahtar ve boşaltılan anahtar bir kez yayınlanır
+        assertEquals(3, events.size());
+        assertSame(first, ((SigningKeyLoadedEvent) events.get(0)).getKey());
+        assertSame(second, ((SigningKeyLoadedEvent) events.get(1)).getKey());
+        assertSame(first, ((SigningKeyEvictedEvent) events.get(2)).getKey());
+    }
+
+    @Test
+    void testResolve_whenCertificateRevoked_shouldRefuseKeyAndSessionPool() throws Exception {
+        // Given: ek anahtarın zinciri iptal edilmiş
+        TestPki pki = TestPki.create();
+        SigningMaterial revoked = pki.leafMaterial();
+        KeyStoreProvider revokedProvider = TestPki.unsupportedProvider();
+        contexts.put(revokedProvider, new SigningContext("iptal", revoked));
+        revocationMonitor = pki.revocationMonitor(revoked,
+            new RevokedStatus(TestPki.minutesFromNow(-5), CRLReason.keyCompromise));
+        SigningKeyRegistry registry = registry(1, definition("key-2", revokedProvider));
+
+        // When / Then: anahtar çözümlenmez, materyal elde olsa da oturum verilmez
+        assertThrows(CertificateValidationException.class, () -> registry.resolve("iptal"));
+        assertThrows(CertificateValidationException.class, () -> registry.sessionPool(revoked));
+        assertNotNull(registry.resolve(null));
+    }
+
+    @Test
+    void testReload_shouldSwapPoolAndRetireOldOne() throws Exception {
+        // Given: varsayılan anahtarın sertifikası yenilendi
+        SigningKeyRegistry registry = registry(1);
+        SigningKey previous = registry.getDefaultKey();
+        SigningSessionPool previousPool = registry.sessionPool(previous.getMaterial());
+        contexts.put(defaultProvider,
+            new SigningContext("default", TestPki.signingMaterial("CN=default", BigInteger.TEN)));
+
+        // When
+        SigningKey reloaded = registry.reload(null, null, null);
+
+        // Then: yeni istekler yeni havuzu, eski materyali tutan istekler eski havuzu kullanır
+        assertSame(reloaded, registry.resolve(null));
+        assertEquals(BigInteger.TEN, reloaded.getMaterial().getSigningCertificate().getSerialNumber());
+        SigningSessionPool reloadedPool = registry.sessionPool(reloaded.getMaterial());
+        assertNotSame(previousPool, reloadedPool);
+        assertSame(previousPool, registry.sessionPool(previous.getMaterial()));
+        assertNotNull(previousPool.execute(session -> session.sign("SHA256withRSA", new byte[32])));
+        assertEquals(1, registry.getReloadCount());
+
+        SigningKeyReloadedEvent event = (SigningKeyReloadedEvent) events.get(0);
+        assertSame(reloaded, event.getKey());
+        assertSame(previous.getMaterial(), event.getPreviousMaterial());
+        assertTrue(event.isDefaultKey());
+    }
+
+    @Test
+    void testReload_whenKeyDoesNotMatchCertificate_shouldKeepCurrentKey() throws Exception {
+        // Given: yeni sertifika başka bir anahtar çiftine ait
+        SigningKeyRegistry registry = registry(1);
+        SigningKey current = registry.getDefaultKey();
+        SigningMaterial renewed = TestPki.signingMaterial("CN=default", BigInteger.TEN);
+        SigningMaterial other = TestPki.signingMaterial("CN=başka", BigInteger.TEN);
+        SigningMaterial mismatched = new SigningMaterial(other.getPrivateKey(),
+            renewed.getSigningCertificate(), renewed.getCertificateChain());
+        contexts.put(defaultProvider, new SigningContext("default", mismatched));
+
+        // When / Then
+        assertThrows(KeyStoreException.class, () -> registry.reload(null, null, null));
+        assertSame(current, registry.resolve(null));
+        assertEquals(0, registry.getReloadCount());
+        assertTrue(events.isEmpty());
+    }
+
+    @Test
+    void testReload_whenKeyNameUnknown_shouldThrowNotFound() {
+        SigningKeyRegistry registry = registry(1);
+
+        assertThrows(SigningKeyNotFoundException.class, () -> registry.reload("key-9", null, null));
+    }
+
+    private SigningKeyRegistry registry(int maxLoaded, SigningKeyRegistry.Definition... definitions) {
+        SigningContext defaultContext = contexts.get(defaultProvider);
+        SigningSessionPool defaultPool = new SigningSessionPool(defaultProvider, PIN,
+            defaultContext.getAlias(), defaultContext.getMaterial(), 1, 1000);
+        return new SigningKeyRegistry(factory(), events::add, revocationMonitor,
+            definition(SigningSessionPool.DEFAULT_KEY_NAME, defaultProvider),
+            new SigningKey(SigningSessionPool.DEFAULT_KEY_NAME, defaultContext.getAlias(), PIN,
+                defaultContext.getMaterial()),
+            defaultPool, Arrays.asList(definitions), 60000, maxLoaded, 1000);
+    }
+
+    private static SigningKeyRegistry.Definition definition(String name, KeyStoreProvider provider) {
+        return new SigningKeyRegistry.Definition(name, provider, PIN, null, null, 1);
+    }
+
+    private SigningMaterialFactory factory() {
+        return new SigningMaterialFactory(null, null, null) {
+            @Override
+            public SigningContext createSigningContext(KeyStoreProvider provider, char[] pin,
+                                                       String certificateAlias, String certificateSerialNumber) {
+                contextsCreated.incrementAndGet();
+                return contexts.get(provider);
+            }
+        };
+    }
+
+    /**
+     * Verilen alias ve seri numaralı sertifikayı sunan yazılım anahtarı sağlayıcısı.
+     */
+    private KeyStoreProvider provider(String alias, BigInteger serialNumber) throws Exception {
+        KeyStoreProvider provider = TestPki.unsupportedProvider();
+        contexts.put(provider, new SigningContext(alias, TestPki.signingMaterial("CN=" + alias, serialNumber)));
+        return provider;
+    }
+}
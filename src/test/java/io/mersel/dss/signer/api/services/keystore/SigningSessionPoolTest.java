@@ -0,0 +1,221 @@
+package io.mersel.dss.signer.api.services.keystore;
+
+import io.mersel.dss.signer.api.TestPki;
+import io.mersel.dss.signer.api.exceptions.KeyStoreException;
+import io.mersel.dss.signer.api.exceptions.SignatureException;
+import io.mersel.dss.signer.api.models.SigningMaterial;
+import org.bouncycastle.cms.CMSProcessableByteArray;
+import org.bouncycastle.cms.CMSSignedData;
+import org.bouncycastle.cms.CMSSignedDataGenerator;
+import org.bouncycastle.cms.SignerInformation;
+import org.bouncycastle.cms.jcajce.JcaSignerInfoGeneratorBuilder;
+import org.bouncycastle.cms.jcajce.JcaSimpleSignerInfoVerifierBuilder;
+import org.bouncycastle.operator.jcajce.JcaDigestCalculatorProviderBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.security.KeyStore;
+import java.security.Signature;
+import java.security.cert.X509Certificate;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * SigningSessionPool oturum dağıtımı, token yönlendirmesi ve bekleme süresi test'leri.
+ * HSM yerine yazılım anahtarı (PFX davranışı) kullanılır.
+ */
+class SigningSessionPoolTest {
+
+    private static final char[] PIN = "1234".toCharArray();
+
+    private SigningMaterial material;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        material = TestPki.signingMaterial();
+    }
+
+    @Test
+    void testContentSigner_shouldProduceVerifiableCmsSignature() throws Exception {
+        // Given
+        SigningSessionPool pool = pool(2, 1000);
+        CMSSignedDataGenerator generator = new CMSSignedDataGenerator();
+        generator.addSignerInfoGenerator(
+            new JcaSignerInfoGeneratorBuilder(new JcaDigestCalculatorProviderBuilder().build())
+                .build(pool.contentSigner("SHA256withRSA"), material.getSigningCertificate()));
+
+        // When
+        CMSSignedData signedData = generator.generate(new CMSProcessableByteArray("içerik".getBytes()), true);
+
+        // Then
+        SignerInformation signer = signedData.getSignerInfos().getSigners().iterator().next();
+        assertTrue(signer.verify(new JcaSimpleSignerInfoVerifierBuilder().build(material.getSigningCertificate())));
+        assertEquals(1, pool.getSessions().get(0).getSuccessCount() + pool.getSessions().get(1).getSuccessCount());
+        assertEquals(2, pool.getIdleCount());
+    }
+
+    @Test
+    void testSign_whenSignatureReused_shouldProduceIndependentVerifiableSignatures() throws Exception {
+        // Given: tek oturum, aynı algoritma ile ardışık imzalar
+        SigningSessionPool pool = pool(1, 1000);
+        byte[] first = "birinci".getBytes();
+        byte[] second = "ikinci".getBytes();
+
+        // When
+        byte[] firstSignature = pool.execute(session -> session.sign("SHA256withRSA", first));
+        byte[] secondSignature = pool.execute(session -> session.sign("SHA256withRSA", second));
+
+        // Then: önceki imzanın verisi sonrakine karışmaz
+        Signature verifier = Signature.getInstance("SHA256withRSA");
+        verifier.initVerify(material.getSigningCertificate());
+        verifier.update(first);
+        assertTrue(verifier.verify(firstSignature));
+        verifier.update(second);
+        assertTrue(verifier.verify(secondSignature));
+    }
+
+    @Test
+    void testExecute_whenAllSessionsBusy_shouldTimeout() throws Exception {
+        // Given: tek oturum başka bir thread tarafından tutuluyor
+        SigningSessionPool pool = pool(1, 50);
+        CountDownLatch acquired = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread holder = new Thread(() -> {
+            try {
+                pool.execute(session -> {
+                    acquired.countDown();
+                    release.await();
+                    return null;
+                });
+            } catch (Exception ignored) {
+                // test thread'i sonucu kontrol eder
+            }
+        });
+        holder.start();
+        acquired.await();
+
+        try {
+            // When / Then
+            SignatureException exception = assertThrows(SignatureException.class,
+                () -> pool.execute(session -> session.sign("SHA256withRSA", new byte[32])));
+            assertEquals("SIGNING_SESSION_UNAVAILABLE", exception.getErrorCode());
+        } finally {
+            release.countDown();
+            holder.join();
+        }
+        assertEquals(1, pool.getIdleCount());
+    }
+
+    @Test
+    void testRouting_shouldPreferTokenWithFewerOutstandingRequests() throws Exception {
+        // Given: iki token, ilkinde bir imza işleniyor
+        SigningSessionPool pool = new SigningSessionPool(SigningSessionPool.DEFAULT_KEY_NAME,
+            Arrays.asList(TestPki.unsupportedProvider(), TestPki.unsupportedProvider()), new char[0], "test",
+            material, 2, 1000);
+        CountDownLatch acquired = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicReference<String> busyToken = new AtomicReference<>();
+        Thread holder = new Thread(() -> {
+            try {
+                pool.execute(session -> {
+                    busyToken.set(session.getTokenName());
+                    acquired.countDown();
+                    release.await();
+                    return null;
+                });
+            } catch (Exception ignored) {
+                // test thread'i sonucu kontrol eder
+            }
+        });
+        holder.start();
+        acquired.await();
+
+        try {
+            // When
+            String selectedToken = pool.execute(SigningSession::getTokenName);
+
+            // Then
+            assertNotEquals(busyToken.get(), selectedToken);
+            assertEquals(2, pool.getHealthyTokenCount());
+        } finally {
+            release.countDown();
+            holder.join();
+        }
+    }
+
+    @Test
+    void testClose_shouldRejectNewSignaturesWithoutWaiting() {
+        // Given: kayıttan boşaltılan bir anahtarın havuzu
+        SigningSessionPool pool = pool(2, 60000);
+        pool.close();
+
+        // When / Then: bekleme süresi dolmadan hata döner
+        long start = System.currentTimeMillis();
+        SignatureException exception = assertThrows(SignatureException.class,
+            () -> pool.execute(session -> session.sign("SHA256withRSA", new byte[32])));
+        assertEquals("SIGNING_SESSION_UNAVAILABLE", exception.getErrorCode());
+        assertTrue(System.currentTimeMillis() - start < 1000);
+    }
+
+    @Test
+    void testKeepAlive_whenTokenPresentsDifferentCertificate_shouldKeepTokenOutOfRotation() throws Exception {
+        // Given: ikinci token başlangıçta yok, sonra başka bir sertifikayla takılıyor
+        SigningMaterial other = TestPki.signingMaterial("CN=Başka", BigInteger.ONE);
+        AtomicInteger secondTokenOpens = new AtomicInteger();
+        PKCS11KeyStoreProvider first = pkcs11Provider(() -> keyStore(material));
+        PKCS11KeyStoreProvider second = pkcs11Provider(() -> {
+            if (secondTokenOpens.incrementAndGet() == 1) {
+                throw new KeyStoreException("CKR_TOKEN_NOT_PRESENT");
+            }
+            return keyStore(other);
+        });
+        SigningSessionPool pool = new SigningSessionPool(SigningSessionPool.DEFAULT_KEY_NAME,
+            Arrays.asList(first, second), PIN, "test", material, 1, 1000);
+        assertFalse(pool.isHealthy(1));
+
+        // When: zamanlanmış kontrol hata fırlatmaz
+        pool.keepAlive();
+        pool.keepAlive();
+
+        // Then: token rotasyon dışında kalır ve tekrar açılmaya çalışılmaz
+        assertFalse(pool.isHealthy(1));
+        assertTrue(pool.isHealthy(0));
+        assertEquals(2, secondTokenOpens.get());
+        assertEquals(1, pool.getIdleCount());
+    }
+
+    private SigningSessionPool pool(int sessionCount, long acquireTimeoutMillis) {
+        return new SigningSessionPool(TestPki.unsupportedProvider(), new char[0], "test", material, sessionCount,
+            acquireTimeoutMillis);
+    }
+
+    private static KeyStore keyStore(SigningMaterial material) {
+        try {
+            KeyStore keyStore = KeyStore.getInstance("PKCS12");
+            keyStore.load(null, null);
+            keyStore.setKeyEntry("test", material.getPrivateKey(), PIN,
+                new X509Certificate[] {material.getSigningCertificate()});
+            return keyStore;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Oturum keystore'unu HSM yerine verilen kaynaktan açan PKCS#11 sağlayıcısı.
+     */
+    private static PKCS11KeyStoreProvider pkcs11Provider(Supplier<KeyStore> sessions) {
+        return new PKCS11KeyStoreProvider("/test/libpkcs11.so", 0L) {
+            @Override
+            public KeyStore openSessionKeyStore(char[] pin, int sessionIndex) {
+                return sessions.get();
+            }
+        };
+    }
+}
@@ -0,0 +1,228 @@
+package io.mersel.dss.signer.api.services.revocation;
+
+import eu.europa.esig.dss.enumerations.RevocationReason;
+import eu.europa.esig.dss.spi.client.http.DataLoader;
+import eu.europa.esig.dss.spi.x509.revocation.crl.CRLToken;
+import io.mersel.dss.signer.api.TestPki;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.cert.X509CRLEntry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * CachingCRLSource disk cache'i, seri numarası indeksi ve DSS CRL yardımcısı seçimi test'leri.
+ */
+class CachingCRLSourceTest {
+
+    private static final long MAX_AGE_MILLIS = 60 * 60000L;
+
+    private TestPki pki;
+    private Path cacheDirectory;
+    private StubDataLoader dataLoader;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        pki = TestPki.create();
+        cacheDirectory = Files.createTempDirectory("crl-cache-test");
+        dataLoader = new StubDataLoader();
+    }
+
+    @Test
+    void testConstructor_shouldUseIndexedCrlUtilsFromServiceLoader() {
+        // When
+        new CachingCRLSource(dataLoader, cacheDirectory, MAX_AGE_MILLIS);
+
+        // Then: DSS, META-INF/services kaydındaki indeksli uygulamayı seçmiştir
+        assertTrue(IndexedCRLUtils.isSelected());
+    }
+
+    @Test
+    void testGetRevocationToken_whenSerialRevoked_shouldAnswerFromIndex() throws Exception {
+        // Given: çok sayıda kayıt arasında son kullanıcı sertifikası da iptal edilmiş
+        dataLoader.crl = pki.crl(TestPki.minutesFromNow(-1), TestPki.minutesFromNow(60),
+            serials(pki.leaf.getSerialNumber(), 500));
+        CachingCRLSource source = new CachingCRLSource(dataLoader, cacheDirectory, MAX_AGE_MILLIS);
+
+        // When
+        CRLToken token = source.getRevocationToken(pki.leaf, pki.ca);
+
+        // Then
+        assertTrue(token.getStatus().isRevoked());
+        assertEquals(RevocationReason.KEY_COMPROMISE, token.getReason());
+    }
+
+    @Test
+    void testCrlSerialIndex_shouldFindEveryRevokedSerial() throws Exception {
+        // Given
+        BigInteger[] revoked = serials(null, 200);
+        byte[] crl = pki.crl(TestPki.minutesFromNow(-1), TestPki.minutesFromNow(60), revoked);
+
+        // When
+        CrlSerialIndex index = CrlSerialIndex.build(crl, sha256(crl), cacheDirectory.resolve("test.idx"));
+
+        // Then
+        assertEquals(revoked.length, index.size());
+        for (BigInteger serial : revoked) {
+            X509CRLEntry entry = index.find(ByteBuffer.wrap(crl), serial);
+            assertNotNull(entry);
+            assertEquals(serial, entry.getSerialNumber());
+        }
+        assertNull(index.find(ByteBuffer.wrap(crl), BigInteger.valueOf(3)));
+    }
+
+    @Test
+    void testCrlSerialIndex_whenIndexBelongsToAnotherCrlOfSameLength_shouldNotOpen() throws Exception {
+        // Given: aynı uzunlukta, farklı seri numaraları içeren iki CRL
+        byte[] first = pki.crl(TestPki.minutesFromNow(-1), TestPki.minutesFromNow(60), serials(null, 20));
+        BigInteger[] otherSerials = serials(null, 20);
+        otherSerials[0] = otherSerials[0].add(BigInteger.ONE);
+        byte[] second = pki.crl(TestPki.minutesFromNow(-1), TestPki.minutesFromNow(60), otherSerials);
+        assertEquals(first.length, second.length);
+        Path indexFile = cacheDirectory.resolve("test.idx");
+        CrlSerialIndex.build(first, sha256(first), indexFile);
+
+        // When / Then: indeks yalnızca özeti eşleşen CRL için açılır
+        assertNotNull(CrlSerialIndex.open(indexFile, sha256(first)));
+        assertNull(CrlSerialIndex.open(indexFile, sha256(second)));
+    }
+
+    @Test
+    void testGetRevocationToken_whenSerialNotListed_shouldBeGood() throws Exception {
+        // Given
+        dataLoader.crl = pki.crl(TestPki.minutesFromNow(-1), TestPki.minutesFromNow(60), serials(null, 500));
+        CachingCRLSource source = new CachingCRLSource(dataLoader, cacheDirectory, MAX_AGE_MILLIS);
+
+        // When
+        CRLToken token = source.getRevocationToken(pki.leaf, pki.ca);
+
+        // Then
+        assertTrue(token.getStatus().isGood());
+    }
+
+    @Test
+    void testGetRevocationToken_whenCached_shouldNotDownloadAgain() throws Exception {
+        // Given
+        dataLoader.crl = pki.crl(TestPki.minutesFromNow(-1), TestPki.minutesFromNow(60),
+            serials(pki.leaf.getSerialNumber(), 10));
+        CachingCRLSource source = new CachingCRLSource(dataLoader, cacheDirectory, MAX_AGE_MILLIS);
+
+        // When
+        CRLToken first = source.getRevocationToken(pki.leaf, pki.ca);
+        CRLToken second = source.getRevocationToken(pki.leaf, pki.ca);
+
+        // Then: cache'ten gelen token aynı, indekslenmiş doğrulama sonucunu taşır
+        assertEquals(1, dataLoader.downloads);
+        assertEquals(1, source.getHitCount());
+        assertEquals(1, source.getMissCount());
+        assertSame(first.getCrlValidity(), second.getCrlValidity());
+        assertTrue(IndexedCRLUtils.isIndexed(second.getCrlValidity()));
+        assertTrue(second.getStatus().isRevoked());
+    }
+
+    @Test
+    void testGetRevocationToken_afterRestart_shouldLoadFromDisk() throws Exception {
+        // Given: ilk örnek CRL'i diske yazar
+        dataLoader.crl = pki.crl(TestPki.minutesFromNow(-1), TestPki.minutesFromNow(60),
+            serials(pki.leaf.getSerialNumber(), 10));
+        new CachingCRLSource(dataLoader, cacheDirectory, MAX_AGE_MILLIS).getRevocationToken(pki.leaf, pki.ca);
+
+        // When: yeni örnek indirme yapamaz
+        dataLoader.crl = null;
+        CachingCRLSource restarted = new CachingCRLSource(dataLoader, cacheDirectory, MAX_AGE_MILLIS);
+        CRLToken token = restarted.getRevocationToken(pki.leaf, pki.ca);
+
+        // Then
+        assertEquals(1, dataLoader.downloads);
+        assertEquals(1, restarted.getHitCount());
+        assertTrue(IndexedCRLUtils.isIndexed(token.getCrlValidity()));
+        assertTrue(token.getStatus().isRevoked());
+    }
+
+    @Test
+    void testGetRevocationToken_afterRestartWithForeignIndex_shouldRebuildIndex() throws Exception {
+        // Given: CRL diskte, yanındaki indeks başka bir CRL'e ait
+        dataLoader.crl = pki.crl(TestPki.minutesFromNow(-1), TestPki.minutesFromNow(60),
+            serials(pki.leaf.getSerialNumber(), 10));
+        new CachingCRLSource(dataLoader, cacheDirectory, MAX_AGE_MILLIS).getRevocationToken(pki.leaf, pki.ca);
+        byte[] foreign = pki.crl(TestPki.minutesFromNow(-1), TestPki.minutesFromNow(60), serials(null, 10));
+        try (Stream<Path> files = Files.list(cacheDirectory)) {
+            Path indexFile = files.filter(file -> file.toString().endsWith(".idx")).findFirst().get();
+            CrlSerialIndex.build(foreign, sha256(foreign), indexFile);
+        }
+
+        // When
+        dataLoader.crl = null;
+        CRLToken token = new CachingCRLSource(dataLoader, cacheDirectory, MAX_AGE_MILLIS)
+            .getRevocationToken(pki.leaf, pki.ca);
+
+        // Then: yabancı indeks kullanılmaz, iptal doğru bulunur
+        assertTrue(token.getStatus().isRevoked());
+    }
+
+    @Test
+    void testGetRevocationToken_whenExpired_shouldDownloadAgain() throws Exception {
+        // Given: nextUpdate geçmişte olan CRL
+        dataLoader.crl = pki.crl(TestPki.minutesFromNow(-10), TestPki.minutesFromNow(-1), serials(null, 10));
+        CachingCRLSource source = new CachingCRLSource(dataLoader, cacheDirectory, MAX_AGE_MILLIS);
+
+        // When
+        source.getRevocationToken(pki.leaf, pki.ca);
+        source.getRevocationToken(pki.leaf, pki.ca);
+
+        // Then
+        assertEquals(2, dataLoader.downloads);
+    }
+
+    private static byte[] sha256(byte[] content) throws Exception {
+        return MessageDigest.getInstance("SHA-256").digest(content);
+    }
+
+    private static BigInteger[] serials(BigInteger revoked, int count) {
+        List<BigInteger> serials = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            serials.add(BigInteger.valueOf(1000L + i * 7919L));
+        }
+        if (revoked != null) {
+            serials.add(count / 2, revoked);
+        }
+        return serials.toArray(new BigInteger[0]);
+    }
+
+    private static final class StubDataLoader implements DataLoader {
+        private byte[] crl;
+        private int downloads;
+
+        @Override
+        public byte[] get(String url) {
+            if (crl == null) {
+                throw new IllegalStateException("İndirme beklenmiyordu: " + url);
+            }
+            downloads++;
+            return crl;
+        }
+
+        @Override
+        public DataAndUrl get(List<String> urlStrings) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public byte[] post(String url, byte[] content) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void setContentType(String contentType) {
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package io.mersel.dss.signer.api.services.revocation;
+
+import eu.europa.esig.dss.model.x509.CertificateToken;
+import eu.europa.esig.dss.spi.x509.revocation.ocsp.OCSPSource;
+import eu.europa.esig.dss.spi.x509.revocation.ocsp.OCSPToken;
+import io.mersel.dss.signer.api.TestPki;
+import org.bouncycastle.cert.ocsp.CertificateStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * CachingOCSPSource cache isabeti, tazelik süresi ve yenileme test'leri.
+ */
+class CachingOCSPSourceTest {
+
+    private static final long MAX_AGE_MILLIS = 5 * 60000L;
+
+    private TestPki pki;
+    private StubOCSPSource delegate;
+    private CachingOCSPSource source;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        pki = TestPki.create();
+        delegate = new StubOCSPSource();
+        source = new CachingOCSPSource(delegate, 10, MAX_AGE_MILLIS);
+    }
+
+    @Test
+    void testGetRevocationToken_whenFresh_shouldServeFromCache() throws Exception {
+        // Given
+        OCSPToken token = pki.ocspToken(CertificateStatus.GOOD, TestPki.minutesFromNow(0), TestPki.minutesFromNow(60));
+        delegate.responses.add(token);
+
+        // When
+        OCSPToken first = source.getRevocationToken(pki.leaf, pki.ca);
+        OCSPToken second = source.getRevocationToken(pki.leaf, pki.ca);
+
+        // Then
+        assertSame(token, first);
+        assertSame(token, second);
+        assertEquals(1, delegate.calls);
+        assertEquals(1, source.getMissCount());
+        assertEquals(1, source.getHitCount());
+        assertEquals(1, source.size());
+    }
+
+    @Test
+    void testGetRevocationToken_whenOlderThanMaxAge_shouldFetchAgain() throws Exception {
+        // Given: thisUpdate + maxAge geçmişte kalmış yanıt
+        delegate.responses.add(pki.ocspToken(CertificateStatus.GOOD, TestPki.minutesFromNow(-10), TestPki.minutesFromNow(60)));
+        delegate.responses.add(pki.ocspToken(CertificateStatus.GOOD, TestPki.minutesFromNow(0), TestPki.minutesFromNow(60)));
+
+        // When
+        source.getRevocationToken(pki.leaf, pki.ca);
+        source.getRevocationToken(pki.leaf, pki.ca);
+
+        // Then
+        assertEquals(2, delegate.calls);
+        assertEquals(0, source.getHitCount());
+    }
+
+    @Test
+    void testGetRevocationToken_whenNextUpdateBeforeMaxAge_shouldExpireAtNextUpdate() throws Exception {
+        // Given: maxAge içinde ama nextUpdate'i geçmiş yanıt
+        delegate.responses.add(pki.ocspToken(CertificateStatus.GOOD, TestPki.minutesFromNow(-1), TestPki.minutesFromNow(0)));
+        delegate.responses.add(pki.ocspToken(CertificateStatus.GOOD, TestPki.minutesFromNow(0), TestPki.minutesFromNow(60)));
+
+        // When
+        source.getRevocationToken(pki.leaf, pki.ca);
+        source.getRevocationToken(pki.leaf, pki.ca);
+
+        // Then
+        assertEquals(2, delegate.calls);
+    }
+
+    @Test
+    void testRefresh_shouldBypassCacheAndReplaceEntry() throws Exception {
+        // Given
+        OCSPToken initial = pki.ocspToken(CertificateStatus.GOOD, TestPki.minutesFromNow(0), TestPki.minutesFromNow(60));
+        OCSPToken refreshed = pki.ocspToken(CertificateStatus.GOOD, TestPki.minutesFromNow(0), TestPki.minutesFromNow(60));
+        delegate.responses.add(initial);
+        delegate.responses.add(refreshed);
+        source.getRevocationToken(pki.leaf, pki.ca);
+
+        // When
+        OCSPToken result = source.refresh(pki.leaf, pki.ca);
+
+        // Then: yenilenen yanıt cache'e yazılır ve sonraki istekte döner
+        assertSame(refreshed, result);
+        assertSame(refreshed, source.getRevocationToken(pki.leaf, pki.ca));
+        assertEquals(2, delegate.calls);
+        assertEquals(1, source.size());
+    }
+
+    @Test
+    void testRefresh_whenServerReturnsNothing_shouldKeepCachedToken() throws Exception {
+        // Given
+        OCSPToken initial = pki.ocspToken(CertificateStatus.GOOD, TestPki.minutesFromNow(0), TestPki.minutesFromNow(60));
+        delegate.responses.add(initial);
+        source.getRevocationToken(pki.leaf, pki.ca);
+
+        // When
+        OCSPToken result = source.refresh(pki.leaf, pki.ca);
+
+        // Then
+        assertNull(result);
+        assertSame(initial, source.getRevocationToken(pki.leaf, pki.ca));
+    }
+
+    private static final class StubOCSPSource implements OCSPSource {
+        private final Deque<OCSPToken> responses = new ArrayDeque<>();
+        private int calls;
+
+        @Override
+        public OCSPToken getRevocationToken(CertificateToken certificateToken, CertificateToken issuerCertificateToken) {
+            calls++;
+            return responses.poll();
+        }
+    }
+}
@@ -0,0 +1,299 @@
+package io.mersel.dss.signer.api.services.revocation;
+
+import eu.europa.esig.dss.model.x509.CertificateToken;
+import eu.europa.esig.dss.spi.client.http.DataLoader;
+import eu.europa.esig.dss.spi.x509.revocation.ocsp.OCSPSource;
+import eu.europa.esig.dss.spi.x509.revocation.ocsp.OCSPToken;
+import eu.europa.esig.dss.xades.XAdESSignatureParameters;
+import io.mersel.dss.signer.api.TestPki;
+import io.mersel.dss.signer.api.exceptions.CertificateValidationException;
+import io.mersel.dss.signer.api.models.SigningKey;
+import io.mersel.dss.signer.api.models.SigningMaterial;
+import io.mersel.dss.signer.api.models.enums.DocumentType;
+import io.mersel.dss.signer.api.services.crypto.DigestAlgorithmResolverService;
+import io.mersel.dss.signer.api.services.keystore.SigningKeyEvictedEvent;
+import io.mersel.dss.signer.api.services.keystore.SigningKeyLoadedEvent;
+import io.mersel.dss.signer.api.services.keystore.SigningKeyReloadedEvent;
+import io.mersel.dss.signer.api.services.signature.xades.XAdESParametersBuilderService;
+import org.bouncycastle.asn1.x509.CRLReason;
+import org.bouncycastle.cert.ocsp.CertificateStatus;
+import org.bouncycastle.cert.ocsp.RevokedStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Document;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * SigningCertificateRevocationMonitor durum yenileme, CRL'e düşme, durum süresi
+ * ve imzalama öncesi iptal kontrolü test'leri.
+ */
+class SigningCertificateRevocationMonitorTest {
+
+    private static final long MAX_STATUS_AGE_MILLIS = 10 * 60000L;
+
+    private TestPki pki;
+    private SigningMaterial material;
+    private StubOCSPSource ocspDelegate;
+    private StubDataLoader crlLoader;
+    private CachingOCSPSource ocspSource;
+    private CachingCRLSource crlSource;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        pki = TestPki.create();
+        // İptal izleme özel anahtarı kullanmaz
+        material = new SigningMaterial(null, pki.leaf.getCertificate(),
+            Arrays.asList(pki.leaf.getCertificate(), pki.ca.getCertificate()));
+        ocspDelegate = new StubOCSPSource();
+        crlLoader = new StubDataLoader();
+        ocspSource = new CachingOCSPSource(ocspDelegate, 10, 5 * 60000L);
+        crlSource = new CachingCRLSource(crlLoader, Files.createTempDirectory("crl-cache-test"), 60 * 60000L);
+    }
+
+    @Test
+    void testRefresh_whenOcspGood_shouldReportCurrentGoodStatus() throws Exception {
+        // Given
+        ocspDelegate.response = pki.ocspToken(CertificateStatus.GOOD, TestPki.minutesFromNow(0), TestPki.minutesFromNow(60));
+        SigningCertificateRevocationMonitor monitor = monitor(MAX_STATUS_AGE_MILLIS);
+
+        // When
+        monitor.refresh();
+
+        // Then: yanıt paylaşılan OCSP cache'ine de yazılır
+        assertTrue(monitor.hasCurrentGoodStatus(material));
+        monitor.assertNotRevoked(material);
+        assertEquals(1, ocspSource.size());
+        assertEquals(0, crlLoader.downloads);
+    }
+
+    @Test
+    void testRefresh_whenOcspFails_shouldFallBackToCrl() throws Exception {
+        // Given
+        ocspDelegate.failure = new IllegalStateException("OCSP sunucusuna ulaşılamadı");
+        crlLoader.crl = pki.crl(TestPki.minutesFromNow(-1), TestPki.minutesFromNow(60), BigInteger.valueOf(99));
+        SigningCertificateRevocationMonitor monitor = monitor(MAX_STATUS_AGE_MILLIS);
+
+        // When
+        monitor.refresh();
+
+        // Then
+        assertEquals(1, crlLoader.downloads);
+        assertTrue(monitor.hasCurrentGoodStatus(material));
+    }
+
+    @Test
+    void testRefresh_whenOcspReturnsNothingAndCrlRevokes_shouldRejectSigning() throws Exception {
+        // Given
+        crlLoader.crl = pki.crl(TestPki.minutesFromNow(-1), TestPki.minutesFromNow(60), pki.leaf.getSerialNumber());
+        SigningCertificateRevocationMonitor monitor = monitor(MAX_STATUS_AGE_MILLIS);
+
+        // When
+        monitor.refresh();
+
+        // Then
+        assertFalse(monitor.hasCurrentGoodStatus(material));
+        assertThrows(CertificateValidationException.class, () -> monitor.assertNotRevoked(material));
+    }
+
+    @Test
+    void testRefresh_whenNoSourceAnswers_shouldNotReportGoodStatus() {
+        // Given: ne OCSP ne CRL yanıt veriyor
+        ocspDelegate.failure = new IllegalStateException("OCSP sunucusuna ulaşılamadı");
+        SigningCertificateRevocationMonitor monitor = monitor(MAX_STATUS_AGE_MILLIS);
+
+        // When
+        monitor.refresh();
+
+        // Then: durum bilinmiyor; imzalama reddedilmez, çevrimiçi kontrol istenir
+        assertFalse(monitor.hasCurrentGoodStatus(material));
+        monitor.assertNotRevoked(material);
+    }
+
+    @Test
+    void testStatusExpiry_whenNextUpdateBeforeMaxStatusAge_shouldExpireAtNextUpdate() throws Exception {
+        // Given: nextUpdate geçmişte, maxStatusAge henüz dolmamış
+        ocspDelegate.response = pki.ocspToken(CertificateStatus.GOOD, TestPki.minutesFromNow(-2), TestPki.minutesFromNow(-1));
+        SigningCertificateRevocationMonitor monitor = monitor(MAX_STATUS_AGE_MILLIS);
+
+        // When
+        monitor.refresh();
+
+        // Then
+        assertFalse(monitor.hasCurrentGoodStatus(material));
+    }
+
+    @Test
+    void testStatusExpiry_whenMaxStatusAgeBeforeNextUpdate_shouldExpireAtMaxStatusAge() throws Exception {
+        // Given: nextUpdate ileride, maxStatusAge sıfır
+        ocspDelegate.response = pki.ocspToken(CertificateStatus.GOOD, TestPki.minutesFromNow(0), TestPki.minutesFromNow(60));
+        SigningCertificateRevocationMonitor monitor = monitor(0);
+
+        // When
+        monitor.refresh();
+
+        // Then
+        assertFalse(monitor.hasCurrentGoodStatus(material));
+    }
+
+    @Test
+    void testHasCurrentGoodStatus_whenOtherMaterial_shouldBeFalse() throws Exception {
+        // Given
+        ocspDelegate.response = pki.ocspToken(CertificateStatus.GOOD, TestPki.minutesFromNow(0), TestPki.minutesFromNow(60));
+        SigningCertificateRevocationMonitor monitor = monitor(MAX_STATUS_AGE_MILLIS);
+        monitor.refresh();
+        SigningMaterial other = new SigningMaterial(null, pki.ca.getCertificate(),
+            Arrays.asList(pki.ca.getCertificate()));
+
+        // When/Then
+        assertFalse(monitor.hasCurrentGoodStatus(other));
+    }
+
+    @Test
+    void testBuildParameters_whenChainRevoked_shouldFailClosed() throws Exception {
+        // Given
+        ocspDelegate.response = pki.ocspToken(new RevokedStatus(TestPki.minutesFromNow(-5), CRLReason.keyCompromise),
+            TestPki.minutesFromNow(0), TestPki.minutesFromNow(60));
+        SigningCertificateRevocationMonitor monitor = monitor(MAX_STATUS_AGE_MILLIS);
+        monitor.refresh();
+        XAdESParametersBuilderService builder = new XAdESParametersBuilderService(
+            new DigestAlgorithmResolverService(), monitor);
+
+        // When/Then
+        assertThrows(CertificateValidationException.class,
+            () -> builder.buildParameters(document(), DocumentType.OtherXmlDocument, null, material));
+    }
+
+    @Test
+    void testBuildParameters_shouldSkipOnlineRevocationCheckOnlyWhenStatusIsCurrent() throws Exception {
+        // Given
+        SigningCertificateRevocationMonitor monitor = monitor(MAX_STATUS_AGE_MILLIS);
+        XAdESParametersBuilderService builder = new XAdESParametersBuilderService(
+            new DigestAlgorithmResolverService(), monitor);
+
+        // When: henüz durum yok
+        XAdESSignatureParameters unknown = builder.buildParameters(document(), DocumentType.OtherXmlDocument, null, material);
+
+        ocspDelegate.response = pki.ocspToken(CertificateStatus.GOOD, TestPki.minutesFromNow(0), TestPki.minutesFromNow(60));
+        monitor.refresh();
+        XAdESSignatureParameters good = builder.buildParameters(document(), DocumentType.OtherXmlDocument, null, material);
+
+        // Then
+        assertTrue(unknown.isCheckCertificateRevocation());
+        assertFalse(good.isCheckCertificateRevocation());
+    }
+
+    @Test
+    void testOnSigningKeyLoaded_shouldMonitorAdditionalKeyUntilEvicted() throws Exception {
+        // Given: varsayılan zincir iyi, X-Signing-Key ile yüklenen ek anahtarın zinciri iptal edilmiş
+        ocspDelegate.response = pki.ocspToken(CertificateStatus.GOOD, TestPki.minutesFromNow(0), TestPki.minutesFromNow(60));
+        SigningCertificateRevocationMonitor monitor = monitor(MAX_STATUS_AGE_MILLIS);
+        monitor.refresh();
+        TestPki other = TestPki.create();
+        SigningKey additional = new SigningKey("key-2", "ikinci", new char[0], new SigningMaterial(null,
+            other.leaf.getCertificate(), Arrays.asList(other.leaf.getCertificate(), other.ca.getCertificate())));
+        ocspDelegate.response = other.ocspToken(new RevokedStatus(TestPki.minutesFromNow(-5), CRLReason.keyCompromise),
+            TestPki.minutesFromNow(0), TestPki.minutesFromNow(60));
+
+        // When
+        monitor.onSigningKeyLoaded(new SigningKeyLoadedEvent(this, additional));
+
+        // Then: yalnızca ek anahtarla imzalama reddedilir
+        assertThrows(CertificateValidationException.class, () -> monitor.assertNotRevoked(additional.getMaterial()));
+        monitor.assertNotRevoked(material);
+        assertTrue(monitor.hasCurrentGoodStatus(material));
+
+        // When: anahtar boşaltılır
+        monitor.onSigningKeyEvicted(new SigningKeyEvictedEvent(this, additional));
+
+        // Then: materyal artık izlenmez ve sonraki yenilemede sorgulanmaz
+        monitor.assertNotRevoked(additional.getMaterial());
+        assertFalse(monitor.hasCurrentGoodStatus(additional.getMaterial()));
+        ocspDelegate.response = pki.ocspToken(CertificateStatus.GOOD, TestPki.minutesFromNow(0), TestPki.minutesFromNow(60));
+        monitor.refresh();
+        assertTrue(monitor.hasCurrentGoodStatus(material));
+    }
+
+    @Test
+    void testOnSigningKeyReloaded_whenAdditionalKey_shouldReplaceMonitoredChain() throws Exception {
+        // Given: ek anahtar iptal edilmiş sertifikayla yüklü
+        SigningCertificateRevocationMonitor monitor = monitor(MAX_STATUS_AGE_MILLIS);
+        SigningMaterial revoked = new SigningMaterial(null, pki.leaf.getCertificate(),
+            Arrays.asList(pki.leaf.getCertificate(), pki.ca.getCertificate()));
+        TestPki renewedPki = TestPki.create();
+        SigningMaterial renewed = new SigningMaterial(null, renewedPki.leaf.getCertificate(),
+            Arrays.asList(renewedPki.leaf.getCertificate(), renewedPki.ca.getCertificate()));
+        ocspDelegate.response = pki.ocspToken(new RevokedStatus(TestPki.minutesFromNow(-5), CRLReason.keyCompromise),
+            TestPki.minutesFromNow(0), TestPki.minutesFromNow(60));
+        monitor.onSigningKeyLoaded(new SigningKeyLoadedEvent(this,
+            new SigningKey("key-2", "ikinci", new char[0], revoked)));
+        ocspDelegate.response = renewedPki.ocspToken(CertificateStatus.GOOD,
+            TestPki.minutesFromNow(0), TestPki.minutesFromNow(60));
+
+        // When: ek anahtar yenilenmiş sertifikayla yeniden yüklenir
+        monitor.onSigningKeyReloaded(new SigningKeyReloadedEvent(this,
+            new SigningKey("key-2", "ikinci", new char[0], renewed), revoked));
+
+        // Then
+        assertTrue(monitor.hasCurrentGoodStatus(renewed));
+        monitor.assertNotRevoked(renewed);
+    }
+
+    private SigningCertificateRevocationMonitor monitor(long maxStatusAgeMillis) {
+        return new SigningCertificateRevocationMonitor(material, ocspSource, crlSource, true, maxStatusAgeMillis);
+    }
+
+    private static Document document() throws Exception {
+        Document document = DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument();
+        document.appendChild(document.createElement("Invoice"));
+        return document;
+    }
+
+    private static final class StubOCSPSource implements OCSPSource {
+        private OCSPToken response;
+        private RuntimeException failure;
+
+        @Override
+        public OCSPToken getRevocationToken(CertificateToken certificateToken, CertificateToken issuerCertificateToken) {
+            if (failure != null) {
+                throw failure;
+            }
+            return response;
+        }
+    }
+
+    private static final class StubDataLoader implements DataLoader {
+        private byte[] crl;
+        private int downloads;
+
+        @Override
+        public byte[] get(String url) {
+            if (crl == null) {
+                throw new IllegalStateException("CRL sunucusuna ulaşılamadı: " + url);
+            }
+            downloads++;
+            return crl;
+        }
+
+        @Override
+        public DataAndUrl get(List<String> urlStrings) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public byte[] post(String url, byte[] content) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void setContentType(String contentType) {
+        }
+    }
+}
@@ -0,0 +1,415 @@
+package io.mersel.dss.signer.api.services.signature.cades;
+
+import eu.europa.esig.dss.alert.SilentOnStatusAlert;
+import eu.europa.esig.dss.model.DSSException;
+import eu.europa.esig.dss.model.TimestampBinary;
+import eu.europa.esig.dss.model.x509.CertificateToken;
+import eu.europa.esig.dss.spi.validation.CommonCertificateVerifier;
+import eu.europa.esig.dss.spi.x509.CommonTrustedCertificateSource;
+import eu.europa.esig.dss.spi.x509.tsp.TSPSource;
+import io.mersel.dss.signer.api.TestPki;
+import io.mersel.dss.signer.api.controllers.CadesController;
+import io.mersel.dss.signer.api.dtos.SignCadesDigestDto;
+import io.mersel.dss.signer.api.enums.TimestampType;
+import io.mersel.dss.signer.api.exceptions.CertificateValidationException;
+import io.mersel.dss.signer.api.exceptions.SignatureException;
+import io.mersel.dss.signer.api.models.SigningMaterial;
+import io.mersel.dss.signer.api.models.configurations.SignatureServiceConfiguration;
+import io.mersel.dss.signer.api.services.keystore.SigningKeyRegistry;
+import io.mersel.dss.signer.api.services.keystore.SigningSession;
+import io.mersel.dss.signer.api.services.keystore.SigningSessionPool;
+import io.mersel.dss.signer.api.services.revocation.SigningCertificateRevocationMonitor;
+import io.mersel.dss.signer.api.services.timestamp.TimestampConfigurationService;
+import io.mersel.dss.signer.api.services.timestamp.tubitak.TubitakCreditMonitor;
+import org.bouncycastle.asn1.ASN1ObjectIdentifier;
+import org.bouncycastle.asn1.cms.Attribute;
+import org.bouncycastle.asn1.oiw.OIWObjectIdentifiers;
+import org.bouncycastle.asn1.pkcs.PKCSObjectIdentifiers;
+import org.bouncycastle.asn1.x509.AlgorithmIdentifier;
+import org.bouncycastle.asn1.x509.CRLReason;
+import org.bouncycastle.cert.ocsp.RevokedStatus;
+import org.bouncycastle.cms.CMSProcessableByteArray;
+import org.bouncycastle.cms.CMSSignedData;
+import org.bouncycastle.cms.CMSSignedDataParser;
+import org.bouncycastle.cms.CMSSignerDigestMismatchException;
+import org.bouncycastle.cms.SignerInformation;
+import org.bouncycastle.cms.SignerInformationVerifier;
+import org.bouncycastle.cms.jcajce.JcaSimpleSignerInfoGeneratorBuilder;
+import org.bouncycastle.cms.jcajce.JcaSimpleSignerInfoVerifierBuilder;
+import org.bouncycastle.operator.DefaultDigestAlgorithmIdentifierFinder;
+import org.bouncycastle.operator.jcajce.JcaDigestCalculatorProviderBuilder;
+import org.bouncycastle.tsp.TimeStampRequestGenerator;
+import org.bouncycastle.tsp.TimeStampToken;
+import org.bouncycastle.tsp.TimeStampTokenGenerator;
+import org.bouncycastle.util.io.Streams;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.cert.X509Certificate;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Random;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * CAdESSignatureService test'leri. HSM yerine yazılım anahtarlı oturum havuzu,
+ * TSA yerine BouncyCastle ile yerel zaman damgası üreticisi kullanılır.
+ */
+class CAdESSignatureServiceTest {
+
+    private static final ASN1ObjectIdentifier ARCHIVE_TIMESTAMP_V3 = new ASN1ObjectIdentifier("0.4.0.1733.2.4");
+
+    private final AtomicInteger timestampRequests = new AtomicInteger();
+
+    private SigningMaterial material;
+    private X509Certificate tsaCertificate;
+    private TimeStampTokenGenerator tokenGenerator;
+    private volatile TSPSource tspSource;
+    private SigningSessionPool pool;
+    private SigningCertificateRevocationMonitor revocationMonitor;
+    private SigningKeyRegistry registry;
+    private CAdESSignatureService service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        material = TestPki.signingMaterial();
+        SigningMaterial tsa = TestPki.timestampingMaterial("CN=Test TSA");
+        tsaCertificate = tsa.getSigningCertificate();
+        tokenGenerator = new TimeStampTokenGenerator(
+            new JcaSimpleSignerInfoGeneratorBuilder().build("SHA256withRSA", tsa.getPrivateKey(), tsaCertificate),
+            new JcaDigestCalculatorProviderBuilder().build().get(
+                new AlgorithmIdentifier(OIWObjectIdentifiers.idSHA1)),
+            new ASN1ObjectIdentifier("1.2.3.4"));
+        tspSource = localTsa();
+        service = service(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void testSignStream_withSignatureTimestamp_shouldProduceVerifiableCms() throws Exception {
+        // Given
+        byte[] content = content(256 * 1024);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // When
+        long size = service.signStream(new ByteArrayInputStream(content), TimestampType.SIGNATURE, material, output);
+
+        // Then: içerik, imza ve imza değeri üzerindeki zaman damgası doğrulanır
+        assertEquals(content.length, size);
+        SignerInformation signer = parseAndVerify(output.toByteArray(), content);
+        Attribute attribute = signer.getUnsignedAttributes()
+            .get(PKCSObjectIdentifiers.id_aa_signatureTimeStampToken);
+        assertNotNull(attribute);
+        TimeStampToken token = new TimeStampToken(new CMSSignedData(
+            attribute.getAttrValues().getObjectAt(0).toASN1Primitive().getEncoded()));
+        token.validate(new JcaSimpleSignerInfoVerifierBuilder().build(tsaCertificate));
+        assertArrayEquals(MessageDigest.getInstance("SHA-256").digest(signer.getSignature()),
+            token.getTimeStampInfo().getMessageImprintDigest());
+        assertEquals(1, timestampRequests.get());
+    }
+
+    @Test
+    void testSignStream_whenTsaFailsAtClose_shouldCompleteAsBaseline() throws Exception {
+        // Given: içerik yazıldıktan sonra TSA yanıt vermiyor
+        tspSource = (digestAlgorithm, digest) -> {
+            throw new DSSException("bağlantı zaman aşımı");
+        };
+        byte[] content = content(64 * 1024);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // When
+        service.signStream(new ByteArrayInputStream(content), TimestampType.SIGNATURE, material, output);
+
+        // Then: çıktı yarıda kesilmez, geçerli bir CAdES-B imzasıdır
+        SignerInformation signer = parseAndVerify(output.toByteArray(), content);
+        assertNull(signer.getUnsignedAttributes());
+    }
+
+    @Test
+    void testSignDigest_shouldProduceDetachedSignatureOverContent() throws Exception {
+        byte[] content = content(32 * 1024);
+
+        for (String digestAlgorithm : new String[] {"SHA-256", "SHA-384", "SHA-512"}) {
+            // Given: içerik sunucuya gönderilmez, yalnızca özeti
+            byte[] digest = MessageDigest.getInstance(digestAlgorithm).digest(content);
+
+            // When
+            byte[] p7s = service.signDigest(digest, digestAlgorithm, TimestampType.NONE, material)
+                .getSignedDocument();
+
+            // Then: ayrık imza içerikle birlikte doğrulanır
+            CMSSignedData signedData = new CMSSignedData(new CMSProcessableByteArray(content), p7s);
+            assertTrue(signedData.isDetachedSignature());
+            SignerInformation signer = signedData.getSignerInfos().getSigners().iterator().next();
+            assertEquals(new DefaultDigestAlgorithmIdentifierFinder().find(digestAlgorithm).getAlgorithm(),
+                signer.getDigestAlgorithmID().getAlgorithm());
+            assertTrue(signer.verify(new JcaSimpleSignerInfoVerifierBuilder()
+                .build(material.getSigningCertificate())));
+            assertArrayEquals(digest, signer.getContentDigest());
+        }
+    }
+
+    @Test
+    void testSignDigest_whenContentDiffers_shouldNotVerify() throws Exception {
+        // Given
+        byte[] content = content(1024);
+        byte[] p7s = service.signDigest(MessageDigest.getInstance("SHA-256").digest(content), "SHA-256",
+            TimestampType.SIGNATURE, material).getSignedDocument();
+        byte[] tampered = content.clone();
+        tampered[0] ^= 1;
+
+        // When
+        SignerInformation signer = new CMSSignedData(new CMSProcessableByteArray(tampered), p7s)
+            .getSignerInfos().getSigners().iterator().next();
+
+        // Then: değiştirilmiş içerik için messageDigest uyuşmaz
+        assertThrows(CMSSignerDigestMismatchException.class, () -> signer.verify(
+            new JcaSimpleSignerInfoVerifierBuilder().build(material.getSigningCertificate())));
+        assertNotNull(signer.getUnsignedAttributes().get(PKCSObjectIdentifiers.id_aa_signatureTimeStampToken));
+    }
+
+    @Test
+    void testSignContent_withContentTimestamp_shouldOverlapSigning() throws Exception {
+        // Given: içerik zaman damgası, imza değeri üretilene kadar yanıt vermiyor
+        TSPSource tsa = localTsa();
+        tspSource = (digestAlgorithm, digest) -> {
+            long deadline = System.currentTimeMillis() + 5000;
+            while (sessionOperations() == 0 && System.currentTimeMillis() < deadline) {
+                sleep(10);
+            }
+            if (sessionOperations() == 0) {
+                throw new DSSException("İmzalama zaman damgası beklenirken başlamadı");
+            }
+            return tsa.getTimeStampResponse(digestAlgorithm, digest);
+        };
+
+        // When
+        byte[] signed = service.signContent("imzalanacak içerik", TimestampType.CONTENT, null, material)
+            .getSignedDocument();
+
+        // Then: istek HSM imzası sürerken alınan zaman damgasıyla tamamlanır
+        SignerInformation signer = parseAndVerify(signed, "imzalanacak içerik".getBytes(StandardCharsets.UTF_8));
+        assertNotNull(signer.getUnsignedAttributes().get(PKCSObjectIdentifiers.id_aa_ets_contentTimestamp));
+        assertEquals(1, timestampRequests.get());
+    }
+
+    @Test
+    void testSignContent_whenSigningFails_shouldCancelContentTimestamp() throws Exception {
+        // Given: anahtar imzalayamıyor, içerik zaman damgası yavaş
+        AtomicInteger started = new AtomicInteger();
+        AtomicInteger interrupted = new AtomicInteger();
+        AtomicInteger completed = new AtomicInteger();
+        tspSource = (digestAlgorithm, digest) -> {
+            started.incrementAndGet();
+            try {
+                Thread.sleep(1000);
+            } catch (InterruptedException e) {
+                interrupted.incrementAndGet();
+                throw new DSSException("İptal edildi", e);
+            }
+            completed.incrementAndGet();
+            throw new DSSException("Zaman damgası alınmamalıydı");
+        };
+        service.shutdown();
+        service = service(true, new SigningMaterial(TestPki.unusableKey(), material.getSigningCertificate(),
+            material.getCertificateChain()));
+
+        // When
+        assertThrows(SignatureException.class,
+            () -> service.signContent("içerik", TimestampType.CONTENT, null, material));
+        sleep(1500);
+
+        // Then: bekleyen zaman damgası ya hiç başlamadı ya da kesildi
+        assertEquals(0, completed.get());
+        assertEquals(started.get(), interrupted.get());
+    }
+
+    @Test
+    void testSignContent_withAllTimestamps_shouldUpgradeThroughSharedArchiveService() throws Exception {
+        for (int i = 1; i <= 2; i++) {
+            // When
+            byte[] signed = service.signContent("arşivlenecek içerik " + i, TimestampType.ALL, null, material)
+                .getSignedDocument();
+
+            // Then: imza zaman damgasının yanında arşiv zaman damgası (ATSv3) bulunur
+            SignerInformation signer = parseAndVerify(signed,
+                ("arşivlenecek içerik " + i).getBytes(StandardCharsets.UTF_8));
+            assertNotNull(signer.getUnsignedAttributes().get(PKCSObjectIdentifiers.id_aa_signatureTimeStampToken));
+            assertNotNull(signer.getUnsignedAttributes().get(ARCHIVE_TIMESTAMP_V3));
+            assertEquals(2 * i, timestampRequests.get());
+        }
+    }
+
+    @Test
+    void testSign_whenCertificateRevoked_shouldRefuseEverySigningMode() throws Exception {
+        // Given: izlenen imzalama sertifikası iptal edilmiş
+        TestPki pki = TestPki.create();
+        SigningMaterial revoked = pki.leafMaterial();
+        revocationMonitor = pki.revocationMonitor(revoked,
+            new RevokedStatus(TestPki.minutesFromNow(-5), CRLReason.keyCompromise));
+        service.shutdown();
+        service = service(true, revoked);
+        byte[] content = content(1024);
+
+        // When / Then: içerik, akış ve özet imzalama reddedilir
+        assertThrows(CertificateValidationException.class,
+            () -> service.signContent("içerik", TimestampType.SIGNATURE, null, revoked));
+        assertThrows(CertificateValidationException.class,
+            () -> service.signStream(new ByteArrayInputStream(content), TimestampType.SIGNATURE, revoked,
+                new ByteArrayOutputStream()));
+        assertThrows(CertificateValidationException.class,
+            () -> service.signDigest(MessageDigest.getInstance("SHA-256").digest(content), "SHA-256",
+                TimestampType.SIGNATURE, revoked));
+
+        // Then: anahtar hiç kullanılmadı, TSA'ya gidilmedi
+        assertEquals(0, sessionOperations());
+        assertEquals(0, timestampRequests.get());
+    }
+
+    @Test
+    void testEffectiveTimestampType_whenTsaNotConfigured_shouldFallBackToNone() {
+        CAdESSignatureService unconfigured = service(false);
+        try {
+            assertEquals(TimestampType.NONE, unconfigured.effectiveTimestampType(TimestampType.CONTENT));
+            assertEquals(TimestampType.SIGNATURE, service.effectiveTimestampType(TimestampType.SIGNATURE));
+        } finally {
+            unconfigured.shutdown();
+        }
+    }
+
+    @Test
+    void testSignCadesFromDigest_whenTsaNotConfigured_shouldReportAppliedTimestampType() throws Exception {
+        // Given: imza zaman damgası isteniyor, TSP servisi yok
+        CAdESSignatureService unconfigured = service(false);
+        byte[] content = content(1024);
+        SignCadesDigestDto dto = new SignCadesDigestDto();
+        dto.setDigest(Base64.getEncoder().encodeToString(MessageDigest.getInstance("SHA-256").digest(content)));
+        dto.setDigestAlgorithm("SHA-256");
+        dto.setTimestampType("signature");
+
+        try {
+            // When
+            ResponseEntity<?> response = new CadesController(unconfigured, registry).signCadesFromDigest(dto, null);
+
+            // Then: başlık istenen türü değil, uygulanan türü bildirir
+            assertEquals(HttpStatus.OK, response.getStatusCode());
+            assertEquals("none", response.getHeaders().getFirst("x-timestamp-type"));
+            SignerInformation signer = new CMSSignedData(new CMSProcessableByteArray(content),
+                (byte[]) response.getBody()).getSignerInfos().getSigners().iterator().next();
+            assertNull(signer.getUnsignedAttributes());
+            assertEquals(0, timestampRequests.get());
+        } finally {
+            unconfigured.shutdown();
+        }
+    }
+
+    /**
+     * CMS'i akış modunda ayrıştırır, gömülü içeriği ve imzayı doğrular.
+     */
+    private SignerInformation parseAndVerify(byte[] cms, byte[] expectedContent) throws Exception {
+        CMSSignedDataParser parser = new CMSSignedDataParser(new JcaDigestCalculatorProviderBuilder().build(), cms);
+        assertArrayEquals(expectedContent, Streams.readAll(parser.getSignedContent().getContentStream()));
+        SignerInformation signer = parser.getSignerInfos().getSigners().iterator().next();
+        SignerInformationVerifier verifier = new JcaSimpleSignerInfoVerifierBuilder()
+            .build(material.getSigningCertificate());
+        assertTrue(signer.verify(verifier));
+        return signer;
+    }
+
+    private CAdESSignatureService service(boolean tsaAvailable) {
+        return service(tsaAvailable, material);
+    }
+
+    private CAdESSignatureService service(boolean tsaAvailable, SigningMaterial signingMaterial) {
+        TimestampConfigurationService timestampService = new TimestampConfigurationService(
+            "", "", "", false, 3, 30000, false, 0.95, 250,
+            null, new SignatureServiceConfiguration(), null, null) {
+            @Override
+            public boolean isAvailable() {
+                return tsaAvailable;
+            }
+
+            @Override
+            public TSPSource getTspSource() {
+                return (digestAlgorithm, digest) -> tspSource.getTimeStampResponse(digestAlgorithm, digest);
+            }
+        };
+        pool = TestPki.sessionPool(signingMaterial, 2);
+        registry = revocationMonitor != null
+            ? TestPki.registry(signingMaterial, pool, revocationMonitor)
+            : TestPki.registry(signingMaterial, pool);
+        SignatureServiceConfiguration config = new SignatureServiceConfiguration();
+        ReflectionTestUtils.setField(config, "maxNetworkConcurrency", 4);
+        return new CAdESSignatureService(timestampService, new TubitakCreditMonitor(null, 500, 60000),
+            certificateVerifier(), registry, new Semaphore(4), config);
+    }
+
+    /**
+     * Test sertifikalarını güvenilir kabul eden, iptal verisi aramayan doğrulayıcı (CAdES-A yükseltmesi için).
+     */
+    private CommonCertificateVerifier certificateVerifier() {
+        CommonTrustedCertificateSource trusted = new CommonTrustedCertificateSource();
+        trusted.addCertificate(new CertificateToken(material.getSigningCertificate()));
+        trusted.addCertificate(new CertificateToken(tsaCertificate));
+        CommonCertificateVerifier verifier = new CommonCertificateVerifier();
+        verifier.setTrustedCertSources(trusted);
+        verifier.setAlertOnMissingRevocationData(new SilentOnStatusAlert());
+        verifier.setAlertOnUncoveredPOE(new SilentOnStatusAlert());
+        verifier.setAugmentationAlertOnSelfSignedCertificateChains(new SilentOnStatusAlert());
+        return verifier;
+    }
+
+    private long sessionOperations() {
+        long operations = 0;
+        for (SigningSession session : pool.getSessions()) {
+            operations += session.getSuccessCount() + session.getFailureCount();
+        }
+        return operations;
+    }
+
+    private TSPSource localTsa() {
+        return (digestAlgorithm, digest) -> {
+            timestampRequests.incrementAndGet();
+            try {
+                TimeStampRequestGenerator requestGenerator = new TimeStampRequestGenerator();
+                requestGenerator.setCertReq(true);
+                return new TimestampBinary(tokenGenerator.generate(
+                    requestGenerator.generate(new ASN1ObjectIdentifier(digestAlgorithm.getOid()), digest),
+                    BigInteger.valueOf(timestampRequests.get()), new Date()).getEncoded());
+            } catch (Exception e) {
+                throw new DSSException("Zaman damgası üretilemedi", e);
+            }
+        };
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DSSException("Kesildi", e);
+        }
+    }
+
+    private static byte[] content(int size) {
+        byte[] content = new byte[size];
+        new Random(size).nextBytes(content);
+        return content;
+    }
+}
@@ -0,0 +1,191 @@
+package io.mersel.dss.signer.api.services.signature.pades;
+
+import com.itextpdf.text.Document;
+import com.itextpdf.text.Paragraph;
+import com.itextpdf.text.pdf.AcroFields;
+import com.itextpdf.text.pdf.PdfArray;
+import com.itextpdf.text.pdf.PdfDictionary;
+import com.itextpdf.text.pdf.PdfName;
+import com.itextpdf.text.pdf.PdfReader;
+import com.itextpdf.text.pdf.PdfWriter;
+import com.itextpdf.text.pdf.PRStream;
+import io.mersel.dss.signer.api.TestPki;
+import io.mersel.dss.signer.api.exceptions.CertificateValidationException;
+import io.mersel.dss.signer.api.exceptions.SignatureException;
+import io.mersel.dss.signer.api.models.SigningMaterial;
+import io.mersel.dss.signer.api.services.keystore.SigningSession;
+import io.mersel.dss.signer.api.services.keystore.SigningSessionPool;
+import org.bouncycastle.asn1.x509.CRLReason;
+import org.bouncycastle.cert.ocsp.RevokedStatus;
+import org.bouncycastle.cms.CMSProcessableByteArray;
+import org.bouncycastle.cms.CMSSignedData;
+import org.bouncycastle.cms.SignerInformation;
+import org.bouncycastle.cms.jcajce.JcaSimpleSignerInfoVerifierBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.io.InputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * PAdESSignatureService dosya tabanlı imzalama test'leri.
+ */
+class PAdESSignatureServiceTest {
+
+    private Path directory;
+    private SigningMaterial material;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        directory = Files.createTempDirectory("pades-test-");
+        material = TestPki.signingMaterial();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+        }
+        Files.deleteIfExists(directory);
+    }
+
+    @Test
+    void testSignPdfFile_shouldProduceValidSignatureWithEmbeddedAttachment() throws Exception {
+        // Given
+        PAdESSignatureService service = service(material);
+        Path input = pdf();
+        Path output = service.createTempFile("pades-out-", ".pdf");
+        byte[] attachmentContent = new byte[512 * 1024];
+        new Random(7).nextBytes(attachmentContent);
+        Path attachment = service.createTempFile("pades-attachment-", ".tmp");
+        Files.write(attachment, attachmentContent);
+
+        // When
+        service.signPdfFile(input, output, attachment, "ek.bin", false, material);
+
+        // Then: imza tüm belgeyi kapsar ve ByteRange üzerinden doğrulanır
+        byte[] signed = Files.readAllBytes(output);
+        PdfReader reader = new PdfReader(signed);
+        try {
+            AcroFields fields = reader.getAcroFields();
+            List<String> names = fields.getSignatureNames();
+            assertEquals(1, names.size());
+            assertTrue(fields.signatureCoversWholeDocument(names.get(0)));
+
+            PdfDictionary signature = fields.getSignatureDictionary(names.get(0));
+            assertEquals(PdfName.ETSI_CADES_DETACHED, signature.getAsName(PdfName.SUBFILTER));
+            CMSSignedData cms = new CMSSignedData(new CMSProcessableByteArray(signedRanges(signed,
+                signature.getAsArray(PdfName.BYTERANGE))), signature.getAsString(PdfName.CONTENTS).getOriginalBytes());
+            SignerInformation signer = cms.getSignerInfos().getSigners().iterator().next();
+            assertTrue(signer.verify(new JcaSimpleSignerInfoVerifierBuilder()
+                .build(material.getSigningCertificate())));
+
+            // Ek, dosyadan okunarak gömülmüştür
+            PdfArray embeddedFiles = reader.getCatalog().getAsDict(PdfName.NAMES)
+                .getAsDict(PdfName.EMBEDDEDFILES).getAsArray(PdfName.NAMES);
+            PdfDictionary fileSpecification = embeddedFiles.getAsDict(1);
+            assertEquals("ek.bin", fileSpecification.getAsString(PdfName.F).toUnicodeString());
+            PRStream embedded = (PRStream) PdfReader.getPdfObject(
+                fileSpecification.getAsDict(PdfName.EF).get(PdfName.F));
+            assertArrayEquals(attachmentContent, PdfReader.getStreamBytes(embedded));
+        } finally {
+            reader.close();
+        }
+    }
+
+    @Test
+    void testSignPdfFile_whenSigningFails_shouldReleaseOutputFile() throws Exception {
+        // Given: anahtar imzalayamıyor
+        SigningMaterial unusable = new SigningMaterial(TestPki.unusableKey(), material.getSigningCertificate(),
+            material.getCertificateChain());
+        PAdESSignatureService service = service(unusable);
+        Path input = pdf();
+        Path output = service.createTempFile("pades-out-", ".pdf");
+
+        // When
+        assertThrows(SignatureException.class,
+            () -> service.signPdfFile(input, output, null, null, false, unusable));
+
+        // Then: iText'in preClose ile açtığı çıktı dosyası kapatılmıştır
+        Path descriptors = Paths.get("/proc/self/fd");
+        if (Files.isDirectory(descriptors)) {
+            try (DirectoryStream<Path> open = Files.newDirectoryStream(descriptors)) {
+                for (Path descriptor : open) {
+                    try {
+                        assertNotEquals(output.toRealPath(), Files.readSymbolicLink(descriptor));
+                    } catch (NoSuchFileException e) {
+                        // Listeleme sırasında kapanan tanımlayıcı
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void testSignPdf_whenCertificateRevoked_shouldRefuseSigning() throws Exception {
+        // Given: izlenen imzalama sertifikası iptal edilmiş
+        TestPki pki = TestPki.create();
+        SigningMaterial revoked = pki.leafMaterial();
+        SigningSessionPool pool = TestPki.sessionPool(revoked, 1);
+        PAdESSignatureService service = new PAdESSignatureService(TestPki.registry(revoked, pool,
+            pki.revocationMonitor(revoked, new RevokedStatus(TestPki.minutesFromNow(-5), CRLReason.keyCompromise))),
+            directory.toString());
+        Path input = pdf();
+        Path output = service.createTempFile("pades-out-", ".pdf");
+
+        // When / Then: bellekte ve dosya üzerinden imzalama reddedilir
+        try (InputStream in = Files.newInputStream(input)) {
+            assertThrows(CertificateValidationException.class,
+                () -> service.signPdf(in, null, null, false, revoked));
+        }
+        assertThrows(CertificateValidationException.class,
+            () -> service.signPdfFile(input, output, null, null, false, revoked));
+
+        // Then: anahtar hiç kullanılmadı
+        for (SigningSession session : pool.getSessions()) {
+            assertEquals(0, session.getSuccessCount() + session.getFailureCount());
+        }
+    }
+
+    private PAdESSignatureService service(SigningMaterial signingMaterial) {
+        return new PAdESSignatureService(TestPki.registry(signingMaterial, TestPki.sessionPool(signingMaterial, 1)),
+            directory.toString());
+    }
+
+    private Path pdf() throws Exception {
+        Path file = directory.resolve("girdi.pdf");
+        try (OutputStream out = Files.newOutputStream(file)) {
+            Document document = new Document();
+            PdfWriter.getInstance(document, out);
+            document.open();
+            for (int i = 0; i < 50; i++) {
+                document.add(new Paragraph("Sayfa içeriği " + i));
+            }
+            document.close();
+        }
+        return file;
+    }
+
+    private static byte[] signedRanges(byte[] pdf, PdfArray byteRange) {
+        ByteArrayOutputStream ranges = new ByteArrayOutputStream();
+        for (int i = 0; i < byteRange.size(); i += 2) {
+            int offset = byteRange.getAsNumber(i).intValue();
+            int length = byteRange.getAsNumber(i + 1).intValue();
+            ranges.write(pdf, offset, length);
+        }
+        return ranges.toByteArray();
+    }
+}
@@ -0,0 +1,32 @@
+package io.mersel.dss.signer.api.services.signature.xades;
+
+import eu.europa.esig.dss.spi.validation.CommonCertificateVerifier;
+import io.mersel.dss.signer.api.models.SignResponse;
+import io.mersel.dss.signer.api.models.SigningMaterial;
+import io.mersel.dss.signer.api.models.enums.DocumentType;
+
+import java.util.function.Function;
+
+/**
+ * Belge imzalamayı verilen fonksiyona bırakan XAdESSignatureService.
+ * DSS imzalama akışı kurulmadan toplu imzalama ve controller davranışını test etmek için kullanılır.
+ */
+public class StubXAdESSignatureService extends XAdESSignatureService {
+
+    private final Function<byte[], SignResponse> signer;
+
+    public StubXAdESSignatureService(Function<byte[], SignResponse> signer) {
+        super(null, null, null, null, null, null, null, new CommonCertificateVerifier(), null, null, null);
+        this.signer = signer;
+    }
+
+    @Override
+    SignResponse signXmlBytes(byte[] xmlBytes,
+                              DocumentType documentType,
+                              String signatureId,
+                              boolean zipped,
+                              boolean deferUpgrade,
+                              SigningMaterial material) {
+        return signer.apply(xmlBytes);
+    }
+}
@@ -0,0 +1,141 @@
+package io.mersel.dss.signer.api.services.signature.xades;
+
+import eu.europa.esig.dss.enumerations.DigestAlgorithm;
+import eu.europa.esig.dss.enumerations.SignatureAlgorithm;
+import eu.europa.esig.dss.enumerations.SignatureLevel;
+import eu.europa.esig.dss.enumerations.SignaturePackaging;
+import eu.europa.esig.dss.model.DSSDocument;
+import eu.europa.esig.dss.model.InMemoryDocument;
+import eu.europa.esig.dss.model.SignatureValue;
+import eu.europa.esig.dss.model.ToBeSigned;
+import eu.europa.esig.dss.model.signature.SignatureCryptographicVerification;
+import eu.europa.esig.dss.model.x509.CertificateToken;
+import eu.europa.esig.dss.spi.signature.AdvancedSignature;
+import eu.europa.esig.dss.spi.validation.CommonCertificateVerifier;
+import eu.europa.esig.dss.xades.XAdESSignatureParameters;
+import eu.europa.esig.dss.xades.reference.DSSReference;
+import eu.europa.esig.dss.xades.reference.DSSTransform;
+import eu.europa.esig.dss.xades.reference.EnvelopedSignatureTransform;
+import eu.europa.esig.dss.xades.signature.XAdESService;
+import eu.europa.esig.dss.xades.signature.XAdESSignatureBuilder;
+import eu.europa.esig.dss.xades.validation.XMLDocumentValidator;
+import eu.europa.esig.dss.xml.utils.DOMDocument;
+import io.mersel.dss.signer.api.TestPki;
+import io.mersel.dss.signer.api.models.SigningMaterial;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Document;
+
+import java.nio.charset.StandardCharsets;
+import java.security.Signature;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Özelleştirilmiş XAdES builder'larının (tek DOM üzerinde imzalama ve önceden
+ * hesaplanan referans digest'i) DSS tarafından doğrulanabilen imza ürettiği test'leri.
+ */
+class XAdESSignatureOutputTest {
+
+    private static final String C14N_INCLUSIVE_WITH_COMMENTS = "http://www.w3.org/TR/2001/REC-xml-c14n-20010315#WithComments";
+    private static final String XML = "<Invoice xmlns=\"urn:test\"><ID>1</ID><Note>imza testi</Note></Invoice>";
+
+    private final XmlProcessingService xmlProcessor = new XmlProcessingService();
+    private final CommonCertificateVerifier certificateVerifier = new CommonCertificateVerifier();
+    private final XAdESService xadesService = new XAdESService(certificateVerifier);
+
+    private SigningMaterial material;
+    private CertificateToken certificate;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        material = TestPki.signingMaterial();
+        certificate = new CertificateToken(material.getSigningCertificate());
+    }
+
+    @Test
+    void testEnvelopedSignature_withPrecomputedReferenceDigest_shouldValidate() throws Exception {
+        // Given: XAdESSignatureService ile aynı akış; imza ayrıştırılan DOM'a eklenir
+        Document document = xmlProcessor.parseDocument(XML.getBytes(StandardCharsets.UTF_8));
+        DSSDocument dssDocument = new DOMDocument(document, "document.xml");
+        XAdESSignatureParameters parameters = parameters(SignaturePackaging.ENVELOPED);
+        parameters.setRootDocument(document);
+
+        DSSReference reference = new DSSReference();
+        reference.setId("Reference-Id-1");
+        reference.setUri("");
+        reference.setDigestMethodAlgorithm(DigestAlgorithm.SHA256);
+        List<DSSTransform> transforms = new ArrayList<>();
+        transforms.add(new EnvelopedSignatureTransform());
+        reference.setTransforms(transforms);
+        reference.setContents(xmlProcessor.computeReferenceDigest(document, reference, "document.xml"));
+        parameters.setReferences(Collections.singletonList(reference));
+
+        // When
+        XAdESSignatureBuilder builder = XAdESSignatureBuilder.getSignatureBuilder(
+            parameters, dssDocument, certificateVerifier);
+        parameters.getContext().setBuilder(builder);
+        SignatureValue signatureValue = sign(new ToBeSigned(builder.build()));
+        DSSDocument signed = xadesService.signDocument(dssDocument, parameters, signatureValue);
+
+        // Then: hem DSS çıktısı hem de servisin serialize ettiği DOM doğrulanır
+        assertValid(xmlProcessor.dssDocumentToBytes(signed));
+        assertValid(xmlProcessor.documentToBytes(document));
+    }
+
+    @Test
+    void testEnvelopingSignature_shouldValidate() throws Exception {
+        // Given
+        DSSDocument document = new InMemoryDocument(XML.getBytes(StandardCharsets.UTF_8), "document.xml");
+        XAdESSignatureParameters parameters = parameters(SignaturePackaging.ENVELOPING);
+
+        // When
+        ToBeSigned dataToSign = xadesService.getDataToSign(document, parameters);
+        DSSDocument signed = xadesService.signDocument(document, parameters, sign(dataToSign));
+
+        // Then
+        assertValid(xmlProcessor.dssDocumentToBytes(signed));
+    }
+
+    private XAdESSignatureParameters parameters(SignaturePackaging packaging) {
+        XAdESSignatureParameters parameters = new XAdESSignatureParameters();
+        parameters.setSignaturePackaging(packaging);
+        parameters.setSignatureLevel(SignatureLevel.XAdES_BASELINE_B);
+        parameters.setDigestAlgorithm(DigestAlgorithm.SHA256);
+        parameters.setSignedInfoCanonicalizationMethod(C14N_INCLUSIVE_WITH_COMMENTS);
+        parameters.setSignedPropertiesCanonicalizationMethod(C14N_INCLUSIVE_WITH_COMMENTS);
+        parameters.setSigningCertificate(certificate);
+        parameters.setCertificateChain(Collections.singletonList(certificate));
+        parameters.setAddX509SubjectName(true);
+        parameters.setEn319132(false);
+        parameters.bLevel().setSigningDate(new Date());
+        return parameters;
+    }
+
+    private SignatureValue sign(ToBeSigned dataToSign) throws Exception {
+        Signature signature = Signature.getInstance("SHA256withRSA");
+        signature.initSign(material.getPrivateKey());
+        signature.update(dataToSign.getBytes());
+        return new SignatureValue(SignatureAlgorithm.RSA_SHA256, signature.sign());
+    }
+
+    private void assertValid(byte[] signedXml) {
+        XMLDocumentValidator validator = new XMLDocumentValidator(new InMemoryDocument(signedXml));
+        validator.setCertificateVerifier(new CommonCertificateVerifier());
+
+        List<AdvancedSignature> signatures = validator.getSignatures();
+        assertEquals(1, signatures.size());
+
+        AdvancedSignature signature = signatures.get(0);
+        signature.checkSignatureIntegrity();
+        SignatureCryptographicVerification verification = signature.getSignatureCryptographicVerification();
+        assertTrue(verification.isReferenceDataFound());
+        assertTrue(verification.isReferenceDataIntact());
+        assertTrue(verification.isSignatureIntact());
+        assertEquals(certificate, signature.getSigningCertificateToken());
+    }
+}
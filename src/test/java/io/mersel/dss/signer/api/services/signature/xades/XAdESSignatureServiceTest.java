@@ -0,0 +1,79 @@
+package io.mersel.dss.signer.api.services.signature.xades;
+
+import eu.europa.esig.dss.spi.validation.CommonCertificateVerifier;
+import io.mersel.dss.signer.api.TestPki;
+import io.mersel.dss.signer.api.models.SigningKey;
+import io.mersel.dss.signer.api.models.SigningMaterial;
+import io.mersel.dss.signer.api.services.keystore.SigningKeyReloadedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * XAdESSignatureService imzalama zincirinin doğrulayıcıya eklenmesi test'leri.
+ */
+class XAdESSignatureServiceTest {
+
+    private CommonCertificateVerifier certificateVerifier;
+    private XAdESSignatureService service;
+
+    @BeforeEach
+    void setUp() {
+        certificateVerifier = new CommonCertificateVerifier();
+        service = new XAdESSignatureService(null, null, null, null, null, null, null,
+            certificateVerifier, null, null, null);
+    }
+
+    @Test
+    void testAddChain_whenSameCertificateLoadedAgain_shouldRegisterOnce() throws Exception {
+        // Given: boşaltılıp aynı sertifikayla tekrar yüklenen anahtar yeni materyal üretir
+        SigningMaterial first = TestPki.signingMaterial();
+        SigningMaterial reloaded = new SigningMaterial(first.getPrivateKey(), first.getSigningCertificate(),
+            first.getCertificateChain());
+
+        // When
+        service.addSigningCertificateChainToVerifier(first);
+        service.addSigningCertificateChainToVerifier(reloaded);
+        service.addSigningCertificateChainToVerifier(first);
+
+        // Then
+        assertEquals(1, certificateVerifier.getAdjunctCertSources().getSources().size());
+    }
+
+    @Test
+    void testOnSigningKeyReloaded_shouldReplacePreviousChain() throws Exception {
+        // Given
+        SigningMaterial previous = TestPki.signingMaterial();
+        SigningMaterial renewed = TestPki.signingMaterial("CN=Test", BigInteger.TEN);
+        service.addSigningCertificateChainToVerifier(previous);
+
+        // When
+        service.onSigningKeyReloaded(new SigningKeyReloadedEvent(this,
+            new SigningKey("default", "test", new char[0], renewed), previous));
+        service.addSigningCertificateChainToVerifier(renewed);
+
+        // Then: yalnızca yeni sertifikanın zinciri kalır
+        assertEquals(1, certificateVerifier.getAdjunctCertSources().getSources().size());
+        assertSame(renewed.getArtifacts().getChainSource(),
+            certificateVerifier.getAdjunctCertSources().getSources().get(0));
+    }
+
+    @Test
+    void testOnSigningKeyReloaded_whenCertificateUnchanged_shouldKeepChain() throws Exception {
+        // Given
+        SigningMaterial previous = TestPki.signingMaterial();
+        SigningMaterial reloaded = new SigningMaterial(previous.getPrivateKey(), previous.getSigningCertificate(),
+            previous.getCertificateChain());
+        service.addSigningCertificateChainToVerifier(previous);
+
+        // When
+        service.onSigningKeyReloaded(new SigningKeyReloadedEvent(this,
+            new SigningKey("default", "test", new char[0], reloaded), previous));
+
+        // Then
+        assertEquals(1, certificateVerifier.getAdjunctCertSources().getSources().size());
+    }
+}
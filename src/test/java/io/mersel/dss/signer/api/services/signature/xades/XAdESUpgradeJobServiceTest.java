@@ -0,0 +1,257 @@
+package io.mersel.dss.signer.api.services.signature.xades;
+
+import eu.europa.esig.dss.model.DSSDocument;
+import eu.europa.esig.dss.model.DSSException;
+import eu.europa.esig.dss.model.InMemoryDocument;
+import eu.europa.esig.dss.spi.DSSUtils;
+import io.mersel.dss.signer.api.dtos.UpgradeJobStatusDto;
+import io.mersel.dss.signer.api.models.enums.UpgradeJobStatus;
+import io.mersel.dss.signer.api.services.util.CompressionService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * XAdESUpgradeJobService test'leri. İşler geçici dizinde saklanır, XAdES-A
+ * yükseltmesi TSA/OCSP yerine belgeyi işaretleyen bir stub ile yapılır.
+ */
+class XAdESUpgradeJobServiceTest {
+
+    private static final byte[] SIGNED_XML = "<imzali/>".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] UPGRADED_XML = "<arsiv/>".getBytes(StandardCharsets.UTF_8);
+
+    private final List<XAdESUpgradeJobService> services = new ArrayList<>();
+    private final List<Long> upgradeCalls = Collections.synchronizedList(new ArrayList<>());
+
+    private Path directory;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        directory = Files.createTempDirectory("xades-upgrade-jobs-");
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        for (XAdESUpgradeJobService service : services) {
+            service.shutdown();
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+        }
+        Files.deleteIfExists(directory);
+    }
+
+    @Test
+    void testSubmit_shouldUpgradeAndPersistResult() throws Exception {
+        // Given
+        XAdESUpgradeJobService service = service(document -> upgraded(), 3, 1);
+
+        // When
+        String jobId = service.submit(SIGNED_XML, false);
+
+        // Then: durum ve sonuç diske yazılır
+        UpgradeJobStatusDto status = awaitStatus(service, jobId, UpgradeJobStatus.COMPLETED);
+        assertEquals(1, status.getAttempts());
+        assertNull(status.getLastError());
+        assertArrayEquals(UPGRADED_XML, service.getUpgradedDocument(jobId));
+        assertEquals("COMPLETED", metadata(jobId).getProperty("status"));
+        assertTrue(Files.exists(directory.resolve(jobId + "-upgraded.xml")));
+    }
+
+    @Test
+    void testSubmit_whenZipped_shouldReturnZippedDocument() throws Exception {
+        // Given
+        XAdESUpgradeJobService service = service(document -> upgraded(), 3, 1);
+
+        // When
+        String jobId = service.submit(SIGNED_XML, true);
+        awaitStatus(service, jobId, UpgradeJobStatus.COMPLETED);
+
+        // Then
+        byte[] zipped = service.getUpgradedDocument(jobId);
+        assertArrayEquals(UPGRADED_XML,
+            new CompressionService(0, 1024).unzipFirstEntry(new ByteArrayInputStream(zipped)));
+    }
+
+    @Test
+    void testInit_afterRestart_shouldResumePendingJobsAndKeepCompletedOnes() throws Exception {
+        // Given: ilk örnekte bir iş tamamlanır, diğeri TSA hatasıyla beklemeye düşer
+        XAdESUpgradeJobService first = service(document -> {
+            if (new String(DSSUtils.toByteArray(document), StandardCharsets.UTF_8).contains("tsa-yok")) {
+                throw new DSSException("TSA yanıt vermedi");
+            }
+            return upgraded();
+        }, 5, 60);
+        String completedId = first.submit(SIGNED_XML, false);
+        String pendingId = first.submit("<tsa-yok/>".getBytes(StandardCharsets.UTF_8), false);
+        awaitStatus(first, completedId, UpgradeJobStatus.COMPLETED);
+        awaitAttempts(first, pendingId, 1);
+        first.shutdown();
+        assertEquals("PENDING", metadata(pendingId).getProperty("status"));
+
+        // When: servis yeniden başlatılır
+        XAdESUpgradeJobService restarted = service(document -> upgraded(), 5, 60);
+
+        // Then: bekleyen iş kaldığı yerden devam eder, tamamlanan iş okunabilir kalır
+        UpgradeJobStatusDto resumed = awaitStatus(restarted, pendingId, UpgradeJobStatus.COMPLETED);
+        assertEquals(2, resumed.getAttempts());
+        assertArrayEquals(UPGRADED_XML, restarted.getUpgradedDocument(pendingId));
+        assertEquals(UpgradeJobStatus.COMPLETED, restarted.getStatus(completedId).getStatus());
+        assertArrayEquals(UPGRADED_XML, restarted.getUpgradedDocument(completedId));
+    }
+
+    @Test
+    void testRun_whenTsaFailsOnce_shouldRetryAfterBackoff() throws Exception {
+        // Given: ilk denemede TSA hatası
+        XAdESUpgradeJobService service = service(document -> {
+            if (upgradeCalls.size() == 1) {
+                throw new DSSException("TSA yanıt vermedi");
+            }
+            return upgraded();
+        }, 3, 1);
+
+        // When
+        String jobId = service.submit(SIGNED_XML, false);
+
+        // Then: ikinci deneme bekleme süresinden sonra yapılır ve başarılı olur
+        UpgradeJobStatusDto status = awaitStatus(service, jobId, UpgradeJobStatus.COMPLETED);
+        assertEquals(2, status.getAttempts());
+        assertNull(status.getLastError());
+        assertEquals(2, upgradeCalls.size());
+        assertTrue(upgradeCalls.get(1) - upgradeCalls.get(0) >= TimeUnit.MILLISECONDS.toNanos(900));
+    }
+
+    @Test
+    void testRun_whenAttemptsExhausted_shouldFailWithLastError() throws Exception {
+        // Given
+        XAdESUpgradeJobService service = service(document -> {
+            throw new DSSException("TSA yanıt vermedi");
+        }, 1, 1);
+
+        // When
+        String jobId = service.submit(SIGNED_XML, false);
+
+        // Then
+        UpgradeJobStatusDto status = awaitStatus(service, jobId, UpgradeJobStatus.FAILED);
+        assertEquals(1, status.getAttempts());
+        assertEquals("TSA yanıt vermedi", status.getLastError());
+        assertNull(service.getUpgradedDocument(jobId));
+        assertEquals(1, upgradeCalls.size());
+    }
+
+    @Test
+    void testRetryDelay_shouldDoubleUpToLimit() throws Exception {
+        XAdESUpgradeJobService service = service(document -> upgraded(), 5, 30);
+
+        assertEquals(TimeUnit.SECONDS.toMillis(30), service.retryDelayMs(1));
+        assertEquals(TimeUnit.SECONDS.toMillis(60), service.retryDelayMs(2));
+        assertEquals(TimeUnit.SECONDS.toMillis(120), service.retryDelayMs(3));
+        assertEquals(TimeUnit.MINUTES.toMillis(30), service.retryDelayMs(10));
+        assertEquals(TimeUnit.MINUTES.toMillis(30), service.retryDelayMs(100));
+    }
+
+    @Test
+    void testPurgeExpiredJobs_shouldRemoveOnlyExpiredFinishedJobs() throws Exception {
+        // Given: saklama süresi (1 saat) dolmuş ve yeni tamamlanmış iki iş
+        XAdESUpgradeJobService first = service(document -> upgraded(), 3, 1);
+        String expiredId = first.submit(SIGNED_XML, false);
+        String recentId = first.submit(SIGNED_XML, false);
+        awaitStatus(first, expiredId, UpgradeJobStatus.COMPLETED);
+        awaitStatus(first, recentId, UpgradeJobStatus.COMPLETED);
+        first.shutdown();
+        Properties expired = metadata(expiredId);
+        expired.setProperty("updatedAt", String.valueOf(System.currentTimeMillis() - TimeUnit.HOURS.toMillis(2)));
+        try (OutputStream out = Files.newOutputStream(directory.resolve(expiredId + ".properties"))) {
+            expired.store(out, null);
+        }
+        XAdESUpgradeJobService service = service(document -> upgraded(), 3, 1);
+
+        // When
+        service.purgeExpiredJobs();
+
+        // Then: yalnızca süresi dolan iş ve dosyaları silinir
+        assertNull(service.getStatus(expiredId));
+        assertFalse(Files.exists(directory.resolve(expiredId + ".properties")));
+        assertFalse(Files.exists(directory.resolve(expiredId + "-upgraded.xml")));
+        assertEquals(UpgradeJobStatus.COMPLETED, service.getStatus(recentId).getStatus());
+        assertTrue(Files.exists(directory.resolve(recentId + "-upgraded.xml")));
+    }
+
+    @Test
+    void testGetStatus_whenJobIdInvalid_shouldReturnNull() throws Exception {
+        XAdESUpgradeJobService service = service(document -> upgraded(), 3, 1);
+
+        assertNull(service.getStatus("../../etc/passwd"));
+        assertNull(service.getStatus("00000000-0000-0000-0000-000000000000"));
+    }
+
+    private XAdESUpgradeJobService service(Function<DSSDocument, DSSDocument> upgrade,
+                                           int maxAttempts, long retryDelaySeconds) throws IOException {
+        XAdESLevelUpgradeService levelUpgradeService = new XAdESLevelUpgradeService(null, null, null) {
+            @Override
+            public DSSDocument upgradeToArchiveLevel(DSSDocument signedDocument) {
+                upgradeCalls.add(System.nanoTime());
+                return upgrade.apply(signedDocument);
+            }
+        };
+        XAdESUpgradeJobService service = new XAdESUpgradeJobService(levelUpgradeService,
+            new CompressionService(0, 1024), new Semaphore(1), 2, maxAttempts, retryDelaySeconds, 1,
+            directory.toString());
+        services.add(service);
+        service.init();
+        return service;
+    }
+
+    private Properties metadata(String jobId) throws IOException {
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(directory.resolve(jobId + ".properties"))) {
+            properties.load(in);
+        }
+        return properties;
+    }
+
+    private static DSSDocument upgraded() {
+        return new InMemoryDocument(UPGRADED_XML);
+    }
+
+    private static UpgradeJobStatusDto awaitStatus(XAdESUpgradeJobService service, String jobId,
+                                                   UpgradeJobStatus expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        UpgradeJobStatusDto status = service.getStatus(jobId);
+        while (status.getStatus() != expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            status = service.getStatus(jobId);
+        }
+        assertEquals(expected, status.getStatus());
+        return status;
+    }
+
+    private static void awaitAttempts(XAdESUpgradeJobService service, String jobId, int attempts)
+            throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (service.getStatus(jobId).getAttempts() < attempts && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(attempts, service.getStatus(jobId).getAttempts());
+    }
+}
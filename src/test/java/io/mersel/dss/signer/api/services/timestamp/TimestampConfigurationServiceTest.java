@@ -0,0 +1,37 @@
+package io.mersel.dss.signer.api.services.timestamp;
+
+import io.mersel.dss.signer.api.models.configurations.SignatureServiceConfiguration;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * TimestampConfigurationService metrik etiketleri test'leri.
+ */
+class TimestampConfigurationServiceTest {
+
+    @Test
+    void testBindTo_whenServersShareHost_shouldRegisterSeparateMeters() {
+        // Given: aynı host üzerinde iki farklı TSA yolu
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new MapPropertySource("test",
+            Collections.<String, Object>singletonMap("TS_SERVER_HOST_2", "http://tsa.test/b")));
+        TimestampConfigurationService service = new TimestampConfigurationService(
+            "http://tsa.test/a", "", "", false, 3, 30000, false, 0.95, 250,
+            null, new SignatureServiceConfiguration(), null, environment);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+        // When
+        service.bindTo(registry);
+
+        // Then
+        assertEquals(2, registry.find("timestamp.tsa.requests").tag("result", "success").functionCounters().size());
+        assertNotNull(registry.find("timestamp.tsa.latency.ms").tags("tsa", "http://tsa.test/a", "index", "1").gauge());
+        assertNotNull(registry.find("timestamp.tsa.latency.ms").tags("tsa", "http://tsa.test/b", "index", "2").gauge());
+    }
+}
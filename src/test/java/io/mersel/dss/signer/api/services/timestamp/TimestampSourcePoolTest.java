@@ -0,0 +1,170 @@
+package io.mersel.dss.signer.api.services.timestamp;
+
+import eu.europa.esig.dss.enumerations.DigestAlgorithm;
+import eu.europa.esig.dss.model.DSSException;
+import eu.europa.esig.dss.model.TimestampBinary;
+import eu.europa.esig.dss.spi.x509.tsp.TSPSource;
+import io.mersel.dss.signer.api.exceptions.TimestampException;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * TimestampSourcePool yönlendirme, hata geçişi ve hedging test'leri.
+ * Gerçek TSA yerine hata üretebilen yerel kaynaklar kullanılır; gecikme uyumak
+ * yerine test saatini ilerletilerek, takılan sunucu ise latch ile taklit edilir.
+ */
+class TimestampSourcePoolTest {
+
+    private static final byte[] DIGEST = new byte[32];
+    private static final long HEDGE_MIN_DELAY_MILLIS = 200;
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    void testFailover_whenFirstServerFails_shouldUseNext() {
+        // Given
+        TimestampSourcePool pool = pool(false, failing(), responding("b", 0));
+
+        // When
+        for (int i = 0; i < 4; i++) {
+            TimestampBinary response = pool.getTimeStampResponse(DigestAlgorithm.SHA256, DIGEST);
+
+            // Then
+            assertArrayEquals("b".getBytes(), response.getBytes());
+        }
+        assertTrue(pool.getFailureCount(0) > 0);
+        assertEquals(4, pool.getSuccessCount(1));
+    }
+
+    @Test
+    void testEjection_afterConsecutiveFailures_shouldMarkServerEjected() {
+        // Given
+        TimestampSourcePool pool = pool(false, failing());
+
+        // When
+        for (int i = 0; i < 2; i++) {
+            assertThrows(TimestampException.class,
+                () -> pool.getTimeStampResponse(DigestAlgorithm.SHA256, DIGEST));
+        }
+
+        // Then
+        assertTrue(pool.isEjected(0));
+        assertEquals(2, pool.getFailureCount(0));
+    }
+
+    @Test
+    void testEjection_shouldEndAfterEjectPeriod() {
+        // Given
+        TimestampSourcePool pool = pool(false, failing());
+        for (int i = 0; i < 2; i++) {
+            assertThrows(TimestampException.class,
+                () -> pool.getTimeStampResponse(DigestAlgorithm.SHA256, DIGEST));
+        }
+
+        // When
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(61));
+
+        // Then
+        assertFalse(pool.isEjected(0));
+    }
+
+    @Test
+    void testAllServersFail_shouldThrowTimestampException() {
+        TimestampSourcePool pool = pool(false, failing(), failing());
+
+        assertThrows(TimestampException.class,
+            () -> pool.getTimeStampResponse(DigestAlgorithm.SHA256, DIGEST));
+    }
+
+    @Test
+    void testWeightedRouting_shouldPreferFasterServer() {
+        // Given
+        TimestampSourcePool pool = pool(false, responding("slow", 40), responding("fast", 2));
+
+        // When
+        for (int i = 0; i < 60; i++) {
+            pool.getTimeStampResponse(DigestAlgorithm.SHA256, DIGEST);
+        }
+
+        // Then
+        assertTrue(pool.getSuccessCount(1) > pool.getSuccessCount(0) * 3,
+            "Hızlı sunucu daha fazla istek almalı");
+    }
+
+    @Test
+    void testHedging_whenPrimaryExceedsPercentile_shouldReturnSecondResponse() {
+        // Given: "a" sunucusu ısınmadan sonra latch açılana kadar takılıyor
+        AtomicBoolean stalled = new AtomicBoolean();
+        CountDownLatch release = new CountDownLatch(1);
+        TSPSource degrading = (algorithm, digest) -> {
+            if (stalled.get()) {
+                await(release);
+            } else {
+                clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(2));
+            }
+            return new TimestampBinary("a".getBytes());
+        };
+        TimestampSourcePool pool = pool(true, degrading, responding("b", 2));
+        try {
+            for (int i = 0; i < 40; i++) {
+                pool.getTimeStampResponse(DigestAlgorithm.SHA256, DIGEST);
+            }
+            stalled.set(true);
+            long hedgedBefore = pool.getHedgedCount();
+
+            // When: eşit ağırlıklı iki sunucu sırayla birincil seçilir
+            for (int i = 0; i < 4; i++) {
+                TimestampBinary response = pool.getTimeStampResponse(DigestAlgorithm.SHA256, DIGEST);
+
+                // Then
+                assertArrayEquals("b".getBytes(), response.getBytes());
+            }
+            assertEquals(2, pool.getHedgedCount() - hedgedBefore);
+            assertEquals(0, pool.getFailureCount(0));
+        } finally {
+            release.countDown();
+            pool.shutdown();
+        }
+    }
+
+    private TimestampSourcePool pool(boolean hedge, TSPSource... sources) {
+        TimestampSourcePool.NamedSource[] named = new TimestampSourcePool.NamedSource[sources.length];
+        for (int i = 0; i < sources.length; i++) {
+            named[i] = new TimestampSourcePool.NamedSource("tsa-" + i, sources[i]);
+        }
+        return new TimestampSourcePool(Arrays.asList(named), 2, 60000, hedge, 0.95,
+            HEDGE_MIN_DELAY_MILLIS, clock::get);
+    }
+
+    /**
+     * Yanıt süresi kadar test saatini ilerleten kaynak.
+     */
+    private TSPSource responding(String body, long delayMillis) {
+        return (algorithm, digest) -> {
+            clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(delayMillis));
+            return new TimestampBinary(body.getBytes());
+        };
+    }
+
+    private static TSPSource failing() {
+        return (algorithm, digest) -> {
+            throw new DSSException("bağlantı reddedildi");
+        };
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DSSException("iptal edildi");
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package io.mersel.dss.signer.api.services.timestamp.tubitak;
+
+import eu.europa.esig.dss.enumerations.DigestAlgorithm;
+import eu.europa.esig.dss.model.DSSException;
+import eu.europa.esig.dss.model.TimestampBinary;
+import eu.europa.esig.dss.spi.x509.tsp.TSPSource;
+import io.mersel.dss.signer.api.dtos.TubitakCreditResponseDto;
+import io.mersel.dss.signer.api.enums.TimestampType;
+import io.mersel.dss.signer.api.services.timestamp.TimestampSourcePool;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * TubitakCreditMonitor harcama sayımı ve düşük bakiye eşiği test'leri.
+ * Kontör sorgusu sabit bakiye döndüren bir servisle taklit edilir.
+ */
+class TubitakCreditMonitorTest {
+
+    private static final byte[] DIGEST = new byte[32];
+    private static final String TUBITAK_URL = "http://tubitak.test/tsa";
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void testMeter_whenStandardServerAnswers_shouldNotCount() {
+        // Given: TÜBİTAK sunucusu hata veriyor, yanıtı standart sunucu veriyor
+        TubitakCreditMonitor monitor = monitor(1000);
+        TimestampSourcePool pool = new TimestampSourcePool(Arrays.asList(
+            new TimestampSourcePool.NamedSource(TUBITAK_URL, monitor.meter(failing(), TUBITAK_URL, true)),
+            new TimestampSourcePool.NamedSource("http://other.test/tsa", responding())),
+            3, 30000, false, 0.95, 250);
+        TSPSource source = monitor.track(pool, "cades", "signature");
+
+        // When
+        for (int i = 0; i < 20; i++) {
+            source.getTimeStampResponse(DigestAlgorithm.SHA256, DIGEST);
+        }
+
+        // Then
+        assertEquals(20, pool.getSuccessCount(1));
+        assertEquals(0, monitor.getConsumedCount());
+        assertEquals(1000, monitor.getEstimatedBalance());
+    }
+
+    @Test
+    void testMeter_whenTubitakServerAnswers_shouldCountPerRequestPath() {
+        // Given: standart sunucu hata veriyor, yanıtı TÜBİTAK sunucusu veriyor
+        TubitakCreditMonitor monitor = monitor(1000);
+        TimestampSourcePool pool = new TimestampSourcePool(Arrays.asList(
+            new TimestampSourcePool.NamedSource("http://other.test/tsa", failing()),
+            new TimestampSourcePool.NamedSource(TUBITAK_URL, monitor.meter(responding(), TUBITAK_URL, true))),
+            3, 30000, false, 0.95, 250);
+
+        // When
+        for (int i = 0; i < 5; i++) {
+            monitor.track(pool, "cades", "signature").getTimeStampResponse(DigestAlgorithm.SHA256, DIGEST);
+        }
+        monitor.track(pool, "timestamp", "binary").getTimeStampResponse(DigestAlgorithm.SHA256, DIGEST);
+
+        // Then
+        assertEquals(6, monitor.getConsumedCount());
+        assertEquals(994, monitor.getEstimatedBalance());
+        assertEquals(5.0, registry.get("tubitak.credit.consumed")
+            .tags("endpoint", "cades", "document_type", "signature", "tsa", TUBITAK_URL)
+            .functionCounter().count());
+        assertEquals(1.0, registry.get("tubitak.credit.consumed")
+            .tags("endpoint", "timestamp", "document_type", "binary")
+            .functionCounter().count());
+    }
+
+    @Test
+    void testMeter_whenAnotherAccount_shouldNotReduceEstimatedBalance() {
+        // Given
+        TubitakCreditMonitor monitor = monitor(1000);
+        TSPSource source = monitor.track(monitor.meter(responding(), TUBITAK_URL, false), "xades", "EArchiveReport");
+
+        // When
+        source.getTimeStampResponse(DigestAlgorithm.SHA256, DIGEST);
+
+        // Then
+        assertEquals(1000, monitor.getEstimatedBalance());
+        assertEquals(1.0, registry.get("tubitak.credit.consumed").tag("tsa", TUBITAK_URL).functionCounter().count());
+    }
+
+    @Test
+    void testMeter_whenRequestHedged_shouldCountEachServer() throws Exception {
+        // Given: ısınmadan sonra birincil sunucu ikinci sunucu çağrılana kadar yanıt vermiyor
+        TubitakCreditMonitor monitor = monitor(1000);
+        AtomicBoolean hedgePhase = new AtomicBoolean();
+        CountDownLatch called = new CountDownLatch(2);
+        CountDownLatch recorded = new CountDownLatch(2);
+        TimestampSourcePool pool = new TimestampSourcePool(Arrays.asList(
+            new TimestampSourcePool.NamedSource("a", recording(
+                monitor.meter(waitingForEachOther(hedgePhase, called), "http://a.test", true), hedgePhase, recorded)),
+            new TimestampSourcePool.NamedSource("b", recording(
+                monitor.meter(waitingForEachOther(hedgePhase, called), "http://b.test", true), hedgePhase, recorded))),
+            3, 30000, true, 0.95, 50);
+        pool.setTaskDecorator(monitor.propagateUsage());
+        TSPSource source = monitor.track(pool, "cades", "esc");
+        try {
+            for (int i = 0; i < 40; i++) {
+                source.getTimeStampResponse(DigestAlgorithm.SHA256, DIGEST);
+            }
+            long consumedBefore = monitor.getConsumedCount();
+            long hedgedBefore = pool.getHedgedCount();
+            hedgePhase.set(true);
+
+            // When
+            source.getTimeStampResponse(DigestAlgorithm.SHA256, DIGEST);
+
+            // Then: iki sunucu da yanıt verdi, ikisi de hedge iş parçacığında isteğin yoluyla sayıldı
+            assertTrue(recorded.await(5, TimeUnit.SECONDS));
+            assertEquals(1, pool.getHedgedCount() - hedgedBefore);
+            assertEquals(2, monitor.getConsumedCount() - consumedBefore);
+            assertEquals(0, registry.find("tubitak.credit.consumed").tag("endpoint", "unknown").functionCounters().size());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testShouldThrottle_beforeFirstPoll_shouldNotThrottle() {
+        TubitakCreditMonitor monitor = new TubitakCreditMonitor(creditService(10), 500, 60000);
+
+        assertFalse(monitor.shouldThrottle(TimestampType.ESC));
+    }
+
+    @Test
+    void testShouldThrottle_whenBalanceDropsBelowThreshold_shouldSkipOptionalTimestamps() {
+        // Given: bakiye eşiğin bir üstünde
+        TubitakCreditMonitor monitor = monitor(501);
+        TSPSource source = monitor.track(monitor.meter(responding(), TUBITAK_URL, true), "cades", "content");
+        assertFalse(monitor.shouldThrottle(TimestampType.ESC));
+
+        // When: tek damga bakiyeyi eşiğe indirir
+        source.getTimeStampResponse(DigestAlgorithm.SHA256, DIGEST);
+        assertFalse(monitor.shouldThrottle(TimestampType.CONTENT));
+        source.getTimeStampResponse(DigestAlgorithm.SHA256, DIGEST);
+
+        // Then
+        assertEquals(499, monitor.getEstimatedBalance());
+        assertTrue(monitor.shouldThrottle(TimestampType.ESC));
+        assertTrue(monitor.shouldThrottle(TimestampType.CONTENT));
+        assertFalse(monitor.shouldThrottle(TimestampType.SIGNATURE));
+        assertFalse(monitor.shouldThrottle(TimestampType.ARCHIVE));
+        assertEquals(1.0, registry.get("tubitak.credit.throttled").tag("timestamp_type", "esc")
+            .functionCounter().count());
+    }
+
+    /**
+     * Eşiği 500 olan, verilen bakiyeyle bir kez sorgulanmış izleyici.
+     */
+    private TubitakCreditMonitor monitor(long balance) {
+        TubitakCreditMonitor monitor = new TubitakCreditMonitor(creditService(balance), 500, 60000);
+        monitor.bindTo(registry);
+        monitor.poll();
+        return monitor;
+    }
+
+    private static TubitakCreditService creditService(long balance) {
+        return new TubitakCreditService(TUBITAK_URL, "1", "parola", true, null) {
+            @Override
+            public TubitakCreditResponseDto checkCredit() {
+                return new TubitakCreditResponseDto(balance, 1);
+            }
+        };
+    }
+
+    private static TSPSource failing() {
+        return (algorithm, digest) -> {
+            throw new DSSException("bağlantı reddedildi");
+        };
+    }
+
+    private static TSPSource responding() {
+        return (algorithm, digest) -> new TimestampBinary(new byte[] {1});
+    }
+
+    /**
+     * Hedge aşamasında iki sunucu da çağrılana kadar bekleyen kaynak. Hedge
+     * yarışını kaybeden isteğin iptali beklemeyi kesmesin diye kesmeye duyarsız bekler.
+     */
+    private static TSPSource waitingForEachOther(AtomicBoolean hedgePhase, CountDownLatch called) {
+        return (algorithm, digest) -> {
+            if (hedgePhase.get()) {
+                called.countDown();
+                long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+                while (called.getCount() > 0 && System.nanoTime() < deadline) {
+                    Thread.yield();
+                }
+            }
+            return new TimestampBinary(new byte[] {1});
+        };
+    }
+
+    private static TSPSource recording(TSPSource source, AtomicBoolean hedgePhase, CountDownLatch recorded) {
+        return (algorithm, digest) -> {
+            try {
+                return source.getTimeStampResponse(algorithm, digest);
+            } finally {
+                if (hedgePhase.get()) {
+                    recorded.countDown();
+                }
+            }
+        };
+    }
+}
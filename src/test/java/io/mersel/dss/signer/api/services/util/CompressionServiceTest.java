@@ -0,0 +1,99 @@
+package io.mersel.dss.signer.api.services.util;
+
+import io.mersel.dss.signer.api.exceptions.SignatureException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * CompressionService ZIP açma sınırları ve girdi adlandırma test'leri.
+ */
+class CompressionServiceTest {
+
+    private final CompressionService service = new CompressionService(1024, 2048);
+
+    @Test
+    void testUnzipAllEntries_whenEntryExceedsLimit_shouldReject() throws Exception {
+        // Given: yüksek oranda sıkışan, sınırdan büyük tek girdi
+        byte[] zip = zip("bomb.xml", new byte[64 * 1024]);
+
+        // When/Then
+        assertThrows(SignatureException.class,
+            () -> service.unzipAllEntries(new ByteArrayInputStream(zip), 10));
+    }
+
+    @Test
+    void testUnzipAllEntries_whenTotalExceedsLimit_shouldReject() throws Exception {
+        // Given: her girdi sınır altında, toplam sınırın üstünde
+        byte[] zip = zip("a.xml", new byte[1000], "b.xml", new byte[1000], "c.xml", new byte[1000]);
+
+        // When/Then
+        assertThrows(SignatureException.class,
+            () -> service.unzipAllEntries(new ByteArrayInputStream(zip), 10));
+    }
+
+    @Test
+    void testUnzipFirstEntry_whenEntryExceedsLimit_shouldReject() throws Exception {
+        // Given
+        byte[] zip = zip("bomb.xml", new byte[64 * 1024]);
+
+        // When/Then
+        assertThrows(SignatureException.class,
+            () -> service.unzipFirstEntry(new ByteArrayInputStream(zip)));
+    }
+
+    @Test
+    void testUnzipFirstEntry_whenEntryLimitDisabled_shouldAcceptLargeEntry() throws Exception {
+        // Given: girdi başına sınır kapalı (varsayılan)
+        CompressionService unbounded = new CompressionService(0, 2048);
+        byte[] zip = zip("large.xml", new byte[64 * 1024]);
+
+        // When
+        byte[] content = unbounded.unzipFirstEntry(new ByteArrayInputStream(zip));
+
+        // Then
+        assertEquals(64 * 1024, content.length);
+    }
+
+    @Test
+    void testUnzipAllEntries_whenDuplicateNameClashes_shouldKeepAllEntries() throws Exception {
+        // Given: yeniden adlandırılan "a.xml", arşivdeki gerçek "1-a.xml" ile çakışır
+        byte[] zip = zip(
+            "a.xml", bytes("first"),
+            "dir/a.xml", bytes("second"),
+            "1-a.xml", bytes("third"));
+
+        // When
+        Map<String, byte[]> entries = service.unzipAllEntries(new ByteArrayInputStream(zip), 10);
+
+        // Then
+        assertEquals(3, entries.size());
+        assertArrayEquals(bytes("first"), entries.get("a.xml"));
+        assertArrayEquals(bytes("second"), entries.get("1-a.xml"));
+        assertArrayEquals(bytes("third"), entries.get("2-1-a.xml"));
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] zip(Object... nameContentPairs) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (ZipOutputStream zos = new ZipOutputStream(output)) {
+            for (int i = 0; i < nameContentPairs.length; i += 2) {
+                zos.putNextEntry(new ZipEntry((String) nameContentPairs[i]));
+                zos.write((byte[]) nameContentPairs[i + 1]);
+                zos.closeEntry();
+            }
+        }
+        return output.toByteArray();
+    }
+}
@@ -2,6 +2,9 @@ package io.mersel.dss.signer.api.util;
 
 import org.junit.jupiter.api.Test;
 
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -72,5 +75,26 @@ class CryptoUtilsTest {
         assertEquals("000FFFAB", hex.toUpperCase());
         assertArrayEquals(data, decoded);
     }
-}
 
+    @Test
+    void testSignatureAlgorithmForHashAlgorithm() throws Exception {
+        // Given
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(256);
+        PrivateKey ecKey = generator.generateKeyPair().getPrivate();
+
+        // When
+        String algorithm = CryptoUtils.getSignatureAlgorithm(ecKey, "SHA-384");
+
+        // Then
+        assertEquals("SHA384withECDSA", algorithm);
+    }
+
+    @Test
+    void testDigestLengthMismatch() {
+        // When/Then
+        assertThrows(IllegalArgumentException.class, () -> {
+            CryptoUtils.checkDigestLength("SHA-512", new byte[32]);  // SHA-512 özeti 64 byte olmalı
+        });
+    }
+}
@@ -0,0 +1,86 @@
+package io.mersel.dss.signer.api.util;
+
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Document;
+import org.xml.sax.SAXException;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * XmlPools parser güvenlik yapılandırması test'leri.
+ */
+class XmlPoolsTest {
+
+    private static final String INTERNAL_DTD_XML =
+        "<?xml version=\"1.0\"?><!DOCTYPE root [<!ELEMENT root ANY><!ATTLIST root type CDATA \"fatura\">]>" +
+        "<root>value</root>";
+
+    private static final String ENTITY_XML =
+        "<?xml version=\"1.0\"?><!DOCTYPE root [<!ENTITY x \"expanded\">]><root>&x;</root>";
+
+    private static final String EXTERNAL_ENTITY_XML =
+        "<?xml version=\"1.0\"?><!DOCTYPE root [<!ENTITY x SYSTEM \"file:///etc/hostname\">]><root>&x;</root>";
+
+    private static final String EXTERNAL_DTD_XML =
+        "<?xml version=\"1.0\"?><!DOCTYPE root SYSTEM \"http://example.invalid/root.dtd\"><root>value</root>";
+
+    @Test
+    void testParse_whenInternalDtdPresent_shouldParse() throws Exception {
+        for (boolean namespaceAware : new boolean[] {true, false}) {
+            // When
+            Document document = XmlPools.parse(input(INTERNAL_DTD_XML), namespaceAware);
+
+            // Then: iç DTD'deki varsayılan öznitelik uygulanır
+            assertEquals("value", document.getDocumentElement().getTextContent());
+            assertEquals("fatura", document.getDocumentElement().getAttribute("type"));
+        }
+    }
+
+    @Test
+    void testParse_whenEntityDeclared_shouldReject() {
+        for (boolean namespaceAware : new boolean[] {true, false}) {
+            SAXException error = assertThrows(SAXException.class,
+                () -> XmlPools.parse(input(ENTITY_XML), namespaceAware));
+            assertTrue(error.getMessage().contains("ENTITY"));
+        }
+    }
+
+    @Test
+    void testParse_whenExternalEntityDeclared_shouldRejectWithoutReading() {
+        assertThrows(SAXException.class, () -> XmlPools.parse(input(EXTERNAL_ENTITY_XML), true));
+    }
+
+    @Test
+    void testDocumentBuilder_shouldNotExpandEntities() throws Exception {
+        // When
+        Document document = XmlPools.documentBuilder(true).parse(input(ENTITY_XML));
+
+        // Then: entity içeriği belgeye girmez
+        assertEquals("", document.getDocumentElement().getTextContent());
+    }
+
+    @Test
+    void testParse_whenExternalDtdReferenced_shouldNotLoadIt() throws Exception {
+        // When: harici DTD indirilmez
+        Document document = XmlPools.parse(input(EXTERNAL_DTD_XML), true);
+
+        // Then
+        assertEquals("value", document.getDocumentElement().getTextContent());
+    }
+
+    @Test
+    void testParser_whenNoDoctype_shouldParse() throws Exception {
+        // When
+        Document document = XmlPools.parse(input("<root>value</root>"), true);
+
+        // Then
+        assertEquals("value", document.getDocumentElement().getTextContent());
+    }
+
+    private static ByteArrayInputStream input(String xml) {
+        return new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8));
+    }
+}